@@ -17,6 +17,7 @@ import org.metawidget.gwt.client.ui.layout.FlexTableLayout;
 import org.metawidget.gwt.client.ui.layout.LabelLayoutDecorator;
 import org.metawidget.gwt.client.ui.layout.LabelLayoutDecoratorConfig;
 import org.metawidget.gwt.client.ui.layout.TabPanelLayoutDecorator;
+import org.metawidget.gwt.client.ui.layout.TabPanelLayoutDecoratorConfig;
 import org.metawidget.gwt.client.widgetprocessor.binding.simple.SimpleBindingProcessor;
 import org.metawidget.gwt.client.widgetprocessor.binding.simple.SimpleBindingProcessorAdapter;
 import org.metawidget.gwt.client.widgetprocessor.binding.simple.SimpleBindingProcessorConfig;
@@ -91,5 +92,15 @@ public class QuirksModule
 		// Add to the given Panel (for unit tests)
 
 		mPanel.add( tabbedMetawidget );
+
+		// Lazy tabbed Metawidget
+
+		GwtMetawidget lazyTabbedMetawidget = new GwtMetawidget();
+		lazyTabbedMetawidget.setLayout( new TabPanelLayoutDecorator( new TabPanelLayoutDecoratorConfig().setLazy( true ).setLayout( new TabPanelLayoutDecorator( new TabPanelLayoutDecoratorConfig().setLazy( true ).setLayout( new FlexTableLayout() ) ) ) ) );
+		lazyTabbedMetawidget.setToInspect( new GwtTabQuirks() );
+
+		// Add to the given Panel (for unit tests)
+
+		mPanel.add( lazyTabbedMetawidget );
 	}
 }
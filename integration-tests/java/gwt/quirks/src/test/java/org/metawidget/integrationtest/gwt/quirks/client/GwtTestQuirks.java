@@ -11,7 +11,11 @@
 
 package org.metawidget.integrationtest.gwt.quirks.client;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.metawidget.gwt.client.ui.GwtMetawidget;
 import org.metawidget.gwt.client.ui.GwtUtils;
@@ -20,6 +24,7 @@ import org.metawidget.gwt.client.widgetprocessor.binding.simple.SimpleBindingPro
 import org.metawidget.gwt.client.widgetprocessor.binding.simple.SimpleConverter;
 import org.metawidget.inspector.gwt.remote.client.GwtRemoteInspectorProxy;
 import org.metawidget.integrationtest.gwt.quirks.client.model.GwtQuirks;
+import org.metawidget.integrationtest.gwt.quirks.client.model.GwtTabQuirks;
 import org.metawidget.integrationtest.gwt.quirks.client.ui.QuirksModule;
 
 import com.google.gwt.dom.client.Document;
@@ -245,6 +250,158 @@ public class GwtTestQuirks
 		delayTestFinish( TEST_FINISH_DELAY );
 	}
 
+	public void testLazyTabQuirks()
+		throws Exception {
+
+		// Start app
+
+		final FlowPanel panel = new FlowPanel();
+		final QuirksModule quirksModule = new QuirksModule( panel );
+		quirksModule.onModuleLoad();
+
+		final GwtMetawidget metawidget = (GwtMetawidget) panel.getWidget( 2 );
+
+		executeAfterBuildWidgets( metawidget, new Timer() {
+
+			@Override
+			public void run() {
+
+				// Only tab is never lazy
+
+				final FlexTable flexTable = (FlexTable) metawidget.getWidget( 0 );
+				assertEquals( "Abc:", flexTable.getText( 0, 0 ) );
+				TabPanel outerTabPanel = ( (TabPanel) flexTable.getWidget( 1, 0 ) );
+				assertEquals( "Foo", outerTabPanel.getTabBar().getTabHTML( 0 ) );
+				assertEquals( 0, outerTabPanel.getTabBar().getSelectedTab() );
+
+				// First inner tab laid out immediately, second deferred until selected
+
+				FlexTable outerTable = (FlexTable) ( (FlowPanel) outerTabPanel.getWidget( 0 ) ).getWidget( 0 );
+				TabPanel innerTabPanel = ( (TabPanel) outerTable.getWidget( 0, 0 ) );
+				assertEquals( 2, innerTabPanel.getTabBar().getTabCount() );
+				assertEquals( 0, innerTabPanel.getTabBar().getSelectedTab() );
+
+				FlexTable innerTable = (FlexTable) ( (FlowPanel) innerTabPanel.getWidget( 0 ) ).getWidget( 0 );
+				assertEquals( "Def:", innerTable.getText( 0, 0 ) );
+
+				FlowPanel bazPanel = (FlowPanel) innerTabPanel.getWidget( 1 );
+				assertEquals( "Baz", innerTabPanel.getTabBar().getTabHTML( 1 ) );
+				assertEquals( 0, bazPanel.getWidgetCount() );
+
+				// TabPanel fires a SelectionEvent, which lays out the tab
+
+				innerTabPanel.selectTab( 1 );
+				assertEquals( 1, bazPanel.getWidgetCount() );
+				innerTable = (FlexTable) bazPanel.getWidget( 0 );
+				assertEquals( "Jkl:", innerTable.getText( 0, 0 ) );
+				assertTrue( innerTable.getWidget( 0, 1 ) instanceof TextBox );
+				assertEquals( 1, innerTable.getRowCount() );
+
+				// Reselecting does not lay out again
+
+				innerTabPanel.selectTab( 0 );
+				innerTabPanel.selectTab( 1 );
+				assertEquals( 1, bazPanel.getWidgetCount() );
+				assertEquals( 1, ( (FlexTable) bazPanel.getWidget( 0 ) ).getRowCount() );
+
+				// All done
+
+				finish();
+			}
+		} );
+
+		// Test runs asynchronously
+
+		delayTestFinish( TEST_FINISH_DELAY );
+	}
+
+	public void testGetValuesSetValues()
+		throws Exception {
+
+		// Start app
+
+		final FlowPanel panel = new FlowPanel();
+		final QuirksModule quirksModule = new QuirksModule( panel );
+		quirksModule.onModuleLoad();
+
+		final GwtMetawidget metawidget = (GwtMetawidget) panel.getWidget( 2 );
+
+		executeAfterBuildWidgets( metawidget, new Timer() {
+
+			@Override
+			public void run() {
+
+				// 'jkl' is in a lazy tab that has yet to be laid out
+
+				FlexTable outerTable = (FlexTable) ( (FlowPanel) ( (TabPanel) ( (FlexTable) metawidget.getWidget( 0 ) ).getWidget( 1, 0 ) ).getWidget( 0 ) ).getWidget( 0 );
+				FlowPanel bazPanel = (FlowPanel) ( (TabPanel) outerTable.getWidget( 0, 0 ) ).getWidget( 1 );
+				assertEquals( 0, bazPanel.getWidgetCount() );
+
+				Map<String, Object> values = new LinkedHashMap<String, Object>();
+				values.put( "abc", "Abc" );
+				values.put( "def", Boolean.TRUE );
+				values.put( "jkl", "Jkl" );
+				metawidget.setValues( values );
+
+				assertEquals( 1, bazPanel.getWidgetCount() );
+				assertEquals( "Jkl", ( (TextBox) metawidget.getWidget( "jkl" ) ).getText() );
+				assertEquals( "{jkl=Jkl, abc=Abc, def=true}", metawidget.getValues( Arrays.asList( "jkl", "abc", "def" ) ).toString() );
+
+				// Unknown names, both at the top level and beneath a non-Metawidget
+
+				try {
+					metawidget.getValues( Arrays.asList( "bar" ) );
+					fail();
+				} catch ( RuntimeException e ) {
+					assertEquals( "No such widget bar", e.getMessage() );
+				}
+
+				try {
+					metawidget.setValues( Collections.singletonMap( "abc/bar", "Bar" ) );
+					fail();
+				} catch ( RuntimeException e ) {
+					assertEquals( "No such widget abc/bar", e.getMessage() );
+				}
+
+				// No stale Widgets while rebuilding...
+
+				final TextBox staleAbc = metawidget.getWidget( "abc" );
+				metawidget.setToInspect( new GwtTabQuirks() );
+
+				try {
+					metawidget.getValues( Arrays.asList( "abc" ) );
+					fail();
+				} catch ( RuntimeException e ) {
+					assertEquals( "Widgets still building asynchronously: need to complete before calling getWidget( \"abc\" )", e.getMessage() );
+				}
+
+				// ...or after
+
+				executeAfterBuildWidgets( metawidget, new Timer() {
+
+					@Override
+					public void run() {
+
+						assertEquals( "{abc=, jkl=}", metawidget.getValues( Arrays.asList( "abc", "jkl" ) ).toString() );
+						assertTrue( staleAbc != metawidget.getWidget( "abc" ) );
+
+						metawidget.setValues( Collections.singletonMap( "abc", "Rebuilt" ) );
+						assertEquals( "Rebuilt", ( (TextBox) metawidget.getWidget( "abc" ) ).getText() );
+						assertEquals( "Abc", staleAbc.getText() );
+
+						// All done
+
+						finish();
+					}
+				} );
+			}
+		} );
+
+		// Test runs asynchronously
+
+		delayTestFinish( TEST_FINISH_DELAY );
+	}
+
 	public void testGwtUtils()
 		throws Exception {
 
@@ -69,6 +69,18 @@ import android.widget.LinearLayout;
 public class AndroidMetawidget
 	extends LinearLayout {
 
+	//
+	// Public statics
+	//
+
+	/**
+	 * Client property under which lazy LayoutDecorators store a <code>Map&lt;View, Runnable&gt;</code>
+	 * of their deferred layouts, keyed by tab. <code>findViewWithTags</code> runs them if it cannot
+	 * otherwise find a View.
+	 */
+
+	public static final String										DEFERRED_LAYOUTS	= "metawidget-deferred-layouts";
+
 	//
 	// Private statics
 	//
@@ -602,6 +614,12 @@ public class AndroidMetawidget
 
 			View match = findNestedViewWithTag( viewgroup, tag );
 
+			// Not found? Maybe it is in a lazy section that has yet to be laid out
+
+			if ( match == null && viewgroup instanceof AndroidMetawidget && ( (AndroidMetawidget) viewgroup ).runDeferredLayouts() ) {
+				match = findNestedViewWithTag( viewgroup, tag );
+			}
+
 			// Not found
 
 			if ( match == null ) {
@@ -815,6 +833,10 @@ public class AndroidMetawidget
 		removeAllViews();
 
 		mExistingUnusedViews = CollectionUtils.newHashSet( mExistingViews );
+
+		if ( mClientProperties != null ) {
+			mClientProperties.remove( DEFERRED_LAYOUTS );
+		}
 	}
 
 	/**
@@ -926,6 +948,29 @@ public class AndroidMetawidget
 		return null;
 	}
 
+	/**
+	 * Lays out any lazy sections that have yet to be laid out.
+	 *
+	 * @return true if any were laid out
+	 */
+
+	private boolean runDeferredLayouts() {
+
+		Map<View, Runnable> deferredLayouts = getClientProperty( DEFERRED_LAYOUTS );
+
+		if ( deferredLayouts == null || deferredLayouts.isEmpty() ) {
+			return false;
+		}
+
+		// (copy, as running a deferred layout removes it)
+
+		for ( Runnable deferredLayout : CollectionUtils.newArrayList( deferredLayouts.values() ) ) {
+			deferredLayout.run();
+		}
+
+		return true;
+	}
+
 	private Object getValue( View widget, WidgetBuilder<View, AndroidMetawidget> widgetBuilder ) {
 
 		// Recurse into CompositeWidgetBuilders
@@ -37,6 +37,12 @@ import android.widget.TabWidget;
 public class TabHostLayoutDecorator
 	extends AndroidNestedSectionLayoutDecorator {
 
+	//
+	// Private members
+	//
+
+	private final boolean	mLazy;
+
 	//
 	// Constructor
 	//
@@ -44,6 +50,15 @@ public class TabHostLayoutDecorator
 	public TabHostLayoutDecorator( LayoutDecoratorConfig<View, ViewGroup, AndroidMetawidget> config ) {
 
 		super( config );
+
+		mLazy = false;
+	}
+
+	public TabHostLayoutDecorator( TabHostLayoutDecoratorConfig config ) {
+
+		super( config );
+
+		mLazy = config.isLazy();
 	}
 
 	//
@@ -51,7 +66,7 @@ public class TabHostLayoutDecorator
 	//
 
 	@Override
-	protected ViewGroup createSectionWidget( ViewGroup previousSectionView, String section, Map<String, String> attributes, ViewGroup container, AndroidMetawidget metawidget ) {
+	protected ViewGroup createSectionWidget( ViewGroup previousSectionView, String section, Map<String, String> attributes, ViewGroup container, final AndroidMetawidget metawidget ) {
 
 		// Whole new tab host?
 
@@ -112,6 +127,18 @@ public class TabHostLayoutDecorator
 
 			public View createTabContent( String tag ) {
 
+				// Lay out lazy tabs as they are first selected
+
+				Map<View, Runnable> deferredLayouts = metawidget.getClientProperty( AndroidMetawidget.DEFERRED_LAYOUTS );
+
+				if ( deferredLayouts != null ) {
+					Runnable deferredLayout = deferredLayouts.get( newLayout );
+
+					if ( deferredLayout != null ) {
+						deferredLayout.run();
+					}
+				}
+
 				return newLayout;
 			}
 		};
@@ -128,4 +155,92 @@ public class TabHostLayoutDecorator
 
 		return newLayout;
 	}
+
+	@Override
+	protected boolean isLazy( ViewGroup previousSectionView ) {
+
+		// The first tab is visible immediately, so is never lazy
+
+		return ( mLazy && previousSectionView != null );
+	}
+
+	/**
+	 * Overridden to never defer overridden Views, as <code>OverriddenWidgetBuilder</code> can only
+	 * find them during the initial build.
+	 */
+
+	@Override
+	protected boolean isDeferrable( String elementName, Map<String, String> attributes, AndroidMetawidget metawidget ) {
+
+		String name = attributes.get( NAME );
+
+		for ( View existingUnusedView : metawidget.fetchExistingUnusedViews() ) {
+			if ( name.equals( existingUnusedView.getTag() ) ) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Overridden to lay out the tab when it is first selected, or when
+	 * <code>AndroidMetawidget.findViewWithTags</code> cannot otherwise find a View.
+	 */
+
+	@Override
+	protected void deferSection( ViewGroup sectionView, LazySection lazySection, AndroidMetawidget metawidget ) {
+
+		Map<View, Runnable> deferredLayouts = metawidget.getClientProperty( AndroidMetawidget.DEFERRED_LAYOUTS );
+
+		if ( deferredLayouts == null ) {
+			deferredLayouts = CollectionUtils.newHashMap();
+			metawidget.putClientProperty( AndroidMetawidget.DEFERRED_LAYOUTS, deferredLayouts );
+		}
+
+		deferredLayouts.put( sectionView, new LazyTabLayout( sectionView, lazySection, deferredLayouts ) );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Builds and lays out a lazy tab.
+	 */
+
+	private static class LazyTabLayout
+		implements Runnable {
+
+		//
+		// Private members
+		//
+
+		private final View					mTab;
+
+		private final LazySection			mLazySection;
+
+		private final Map<View, Runnable>	mDeferredLayouts;
+
+		//
+		// Constructor
+		//
+
+		public LazyTabLayout( View tab, LazySection lazySection, Map<View, Runnable> deferredLayouts ) {
+
+			mTab = tab;
+			mLazySection = lazySection;
+			mDeferredLayouts = deferredLayouts;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void run() {
+
+			mDeferredLayouts.remove( mTab );
+			mLazySection.layout();
+		}
+	}
 }
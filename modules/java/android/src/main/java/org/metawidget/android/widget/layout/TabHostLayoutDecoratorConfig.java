@@ -0,0 +1,110 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.android.widget.layout;
+
+import org.metawidget.android.widget.AndroidMetawidget;
+import org.metawidget.layout.decorator.LayoutDecoratorConfig;
+import org.metawidget.layout.iface.Layout;
+import org.metawidget.util.simple.ObjectUtils;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Configures a TabHostLayoutDecorator prior to use. Once instantiated, Layouts are immutable.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class TabHostLayoutDecoratorConfig
+	extends LayoutDecoratorConfig<View, ViewGroup, AndroidMetawidget> {
+
+	//
+	// Private members
+	//
+
+	private boolean	mLazy;
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Overridden to use covariant return type.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	@Override
+	public TabHostLayoutDecoratorConfig setLayout( Layout<View, ViewGroup, AndroidMetawidget> layout ) {
+
+		super.setLayout( layout );
+
+		return this;
+	}
+
+	/**
+	 * Sets whether tabs other than the first should only be built when they are first selected (or
+	 * when <code>AndroidMetawidget.findViewWithTags</code> or <code>getValue</code> needs one of
+	 * their Views). Until then, Views in unselected tabs are not built, processed (eg. bound) or
+	 * laid out.
+	 * <p>
+	 * Views are only deferred if this TabHostLayoutDecorator is the AndroidMetawidget's (outermost)
+	 * Layout. Otherwise they are still built and processed up front, and only their layout is
+	 * deferred.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public TabHostLayoutDecoratorConfig setLazy( boolean lazy ) {
+
+		mLazy = lazy;
+
+		return this;
+	}
+
+	@Override
+	public boolean equals( Object that ) {
+
+		if ( this == that ) {
+			return true;
+		}
+
+		if ( !ObjectUtils.nullSafeClassEquals( this, that )) {
+			return false;
+		}
+
+		if ( mLazy != ( (TabHostLayoutDecoratorConfig) that ).mLazy ) {
+			return false;
+		}
+
+		return super.equals( that );
+	}
+
+	@Override
+	public int hashCode() {
+
+		int hashCode = super.hashCode();
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mLazy );
+
+		return hashCode;
+	}
+
+	//
+	// Protected methods
+	//
+
+	protected boolean isLazy() {
+
+		return mLazy;
+	}
+}
@@ -11,6 +11,8 @@
 
 package org.metawidget.android.widget.layout;
 
+import java.util.Map;
+
 import junit.framework.TestCase;
 
 import org.metawidget.android.widget.AndroidMetawidget;
@@ -121,6 +123,51 @@ public class TabHostLayoutDecoratorTest
 		assertEquals( 2, androidMetawidget.getChildCount() );
 	}
 
+	public void testLazy() {
+
+		AndroidMetawidget androidMetawidget = new AndroidMetawidget( null );
+		androidMetawidget.setLayout( new TabHostLayoutDecorator( new TabHostLayoutDecoratorConfig().setLazy( true ).setLayout( new TableLayout() ) ) );
+		androidMetawidget.setToInspect( new Foo() );
+
+		android.widget.TableLayout tableLayout = (android.widget.TableLayout) androidMetawidget.getChildAt( 0 );
+		TabHost tabHost = (TabHost) ( (TableRow) tableLayout.getChildAt( 1 ) ).getChildAt( 0 );
+		FrameLayout tabContent = (FrameLayout) ( (android.widget.LinearLayout) tabHost.getChildAt( 0 ) ).getChildAt( 1 );
+
+		// First tab laid out immediately
+
+		android.widget.LinearLayout tab1 = (android.widget.LinearLayout) tabContent.getChildAt( 0 );
+		assertEquals( 1, tab1.getChildCount() );
+
+		// Second tab only added to the FrameLayout, and not laid out until TabHost asks its
+		// TabContentFactory for it
+
+		android.widget.LinearLayout tab2 = (android.widget.LinearLayout) tabContent.getChildAt( 1 );
+		assertEquals( 0, tab2.getChildCount() );
+		Map<View, Runnable> deferredLayouts = androidMetawidget.getClientProperty( AndroidMetawidget.DEFERRED_LAYOUTS );
+		assertTrue( deferredLayouts.containsKey( tab2 ) );
+
+		assertTrue( tab2 == tabHost.getTabSpec( 1 ).getContent().createTabContent( "tab2" ) );
+		assertFalse( deferredLayouts.containsKey( tab2 ) );
+		android.widget.TableLayout tabTableLayout = (android.widget.TableLayout) tab2.getChildAt( 0 );
+		TableRow tableRow = (TableRow) tabTableLayout.getChildAt( 0 );
+		assertEquals( "Def: ", ( (TextView) tableRow.getChildAt( 0 ) ).getText() );
+		assertTrue( tableRow.getChildAt( 1 ) instanceof EditText );
+		assertEquals( 1, tabTableLayout.getChildCount() );
+
+		// Asking again does not lay out again
+
+		assertTrue( tab2 == tabHost.getTabSpec( 1 ).getContent().createTabContent( "tab2" ) );
+		assertEquals( 1, tab2.getChildCount() );
+		assertEquals( 1, tabTableLayout.getChildCount() );
+
+		// Separate TabHost, whose only tab is never lazy
+
+		tabHost = (TabHost) ( (TableRow) tableLayout.getChildAt( 3 ) ).getChildAt( 0 );
+		android.widget.LinearLayout tabA = (android.widget.LinearLayout) tabHost.getTabSpec( 0 ).getContent().createTabContent( "tabA" );
+		assertEquals( 1, tabA.getChildCount() );
+		assertTrue( deferredLayouts.isEmpty() );
+	}
+
 	//
 	// Inner class
 	//
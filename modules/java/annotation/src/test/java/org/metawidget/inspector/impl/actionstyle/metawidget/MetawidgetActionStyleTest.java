@@ -14,7 +14,7 @@ package org.metawidget.inspector.impl.actionstyle.metawidget;
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.SortedMap;
 
 import junit.framework.TestCase;
 
@@ -56,7 +56,7 @@ public class MetawidgetActionStyleTest
 		MetawidgetActionStyle actionStyle = new MetawidgetActionStyle();
 		Map<String, Action> actions = actionStyle.getActions( Proxied_$$_javassist_.class.getName() );
 
-		assertTrue( actions instanceof TreeMap<?, ?> );
+		assertTrue( actions instanceof SortedMap<?, ?> );
 		assertTrue( actions.get( "bar1" ).isAnnotationPresent( UiAction.class ) );
 		assertTrue( actions.get( "baz" ).isAnnotationPresent( UiAction.class ) );
 		assertEquals( actions.size(), 2 );
@@ -70,7 +70,7 @@ public class MetawidgetActionStyleTest
 
 		}.getClass().getName() );
 
-		assertTrue( actions instanceof TreeMap<?, ?> );
+		assertTrue( actions instanceof SortedMap<?, ?> );
 		assertTrue( actions.get( "baz" ).isAnnotationPresent( UiAction.class ) );
 		assertEquals( actions.size(), 1 );
 	}
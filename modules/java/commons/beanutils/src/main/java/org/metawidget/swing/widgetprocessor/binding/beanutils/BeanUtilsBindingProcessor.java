@@ -28,6 +28,7 @@ import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
 import org.metawidget.inspector.impl.propertystyle.ValueAndDeclaredType;
 import org.metawidget.swing.SwingMetawidget;
 import org.metawidget.swing.widgetprocessor.binding.BindingConverter;
+import org.metawidget.swing.widgetprocessor.binding.BindingRebinder;
 import org.metawidget.util.ClassUtils;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.simple.PathUtils;
@@ -47,7 +48,7 @@ import org.metawidget.widgetprocessor.iface.WidgetProcessorException;
  */
 
 public class BeanUtilsBindingProcessor
-	implements AdvancedWidgetProcessor<JComponent, SwingMetawidget>, BindingConverter {
+	implements AdvancedWidgetProcessor<JComponent, SwingMetawidget>, BindingConverter, BindingRebinder {
 
 	//
 	// Private members
@@ -12,10 +12,15 @@
 package org.metawidget.inspectionresultprocessor.commons.jexl;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.jexl2.Expression;
 import org.apache.commons.jexl2.JexlContext;
 import org.apache.commons.jexl2.JexlEngine;
 import org.apache.commons.jexl2.MapContext;
@@ -30,6 +35,9 @@ import org.w3c.dom.Element;
 /**
  * Processes the inspection result and evaluates any expressions of the form <code>${...}</code>
  * using JEXL.
+ * <p>
+ * Attribute values are only parsed once: each is compiled into a template of literal text and
+ * compiled JEXL expressions, and (bounded numbers of) these templates are cached.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -47,6 +55,20 @@ public class JexlInspectionResultProcessor<M>
 
 	private static final Pattern					PATTERN_EXPRESSION	= Pattern.compile( "\\$\\{([^\\}]+)\\}" );
 
+	private static final String						EXPRESSION_START	= "${";
+
+	/**
+	 * Maximum number of distinct attribute values whose compiled templates are cached.
+	 */
+
+	private static final int						TEMPLATE_CACHE_SIZE	= 1024;
+
+	/**
+	 * Maximum number of distinct expressions whose parsed form is cached by the JexlEngine.
+	 */
+
+	private static final int						ENGINE_CACHE_SIZE	= 512;
+
 	//
 	// Private members
 	//
@@ -57,6 +79,19 @@ public class JexlInspectionResultProcessor<M>
 
 	private JexlEngine								mJexlEngine;
 
+	/**
+	 * Cache of compiled templates, keyed by attribute value. Each template is an array of literal
+	 * <code>String</code>s and compiled <code>Expression</code>s.
+	 */
+
+	private final Map<String, Object[]>				mTemplates;
+
+	/**
+	 * Guards <code>mTemplates</code>. Even reads must lock, as the cache is access-ordered.
+	 */
+
+	private final Lock								mTemplatesLock	= new ReentrantLock();
+
 	//
 	// Constructors
 	//
@@ -79,6 +114,7 @@ public class JexlInspectionResultProcessor<M>
 		mInjectThis = config.getInjectThis();
 		mInject = config.getInject();
 		mJexlEngine = createEngine();
+		mTemplates = new TemplateCache();
 	}
 
 	@Override
@@ -138,69 +174,67 @@ public class JexlInspectionResultProcessor<M>
 
 		for ( Map.Entry<String, String> entry : attributes.entrySet() ) {
 
-			String key = entry.getKey();
 			String value = entry.getValue();
 
-			// ...that contains an EL expression...
+			// ...that contains an EL expression (checked cheaply, before any regex)...
 
-			Matcher matcher = PATTERN_EXPRESSION.matcher( value );
-			int matchOffset = 0;
+			if ( value.indexOf( EXPRESSION_START ) == -1 ) {
+				continue;
+			}
 
-			while ( matcher.find() ) {
+			// ...evaluate it...
 
-				String expression = matcher.group( 1 );
+			try {
+				Object[] template = getTemplate( value );
+				JexlContext context = LOCAL_CONTEXT.get();
 
-				// ...evaluate it...
+				// Support the default case (when the String is just one EL)
 
-				try {
-					Object valueObject = mJexlEngine.createExpression( expression ).evaluate( LOCAL_CONTEXT.get() );
-					String valueObjectAsString;
+				if ( template.length == 1 && template[0] instanceof Expression ) {
+					Object valueObject = ( (Expression) template[0] ).evaluate( context );
 
 					if ( valueObject == null ) {
+						value = null;
+					} else if ( valueObject instanceof Collection<?> ) {
+						value = CollectionUtils.toString( (Collection<?>) valueObject );
+					} else if ( valueObject.getClass().isArray() ) {
+						value = ArrayUtils.toString( valueObject );
+					} else {
+						value = String.valueOf( valueObject );
+					}
+				} else {
 
-						// Support the default case (when the String is just one EL)
+					// Replace multiple ELs within the String
 
-						if ( matcher.start() == 0 && matcher.end() == value.length() ) {
-							value = null;
-							break;
-						}
+					StringBuilder builder = new StringBuilder();
 
-						valueObjectAsString = "";
-					} else {
+					for ( Object segment : template ) {
 
-						// Support the default case (when the String is just one EL)
+						if ( segment instanceof Expression ) {
+							Object valueObject = ( (Expression) segment ).evaluate( context );
 
-						if ( matcher.start() == 0 && matcher.end() == value.length() ) {
-							if ( valueObject instanceof Collection<?> ) {
-								value = CollectionUtils.toString( (Collection<?>) valueObject );
-							} else if ( valueObject.getClass().isArray() ) {
-								value = ArrayUtils.toString( valueObject );
-							} else {
-								value = String.valueOf( valueObject );
+							if ( valueObject != null ) {
+								builder.append( valueObject );
 							}
-							break;
+						} else {
+							builder.append( (String) segment );
 						}
-
-						valueObjectAsString = String.valueOf( valueObject );
 					}
 
-					// Replace multiple ELs within the String
-
-					value = new StringBuilder( value ).replace( matcher.start() + matchOffset, matcher.end() + matchOffset, valueObjectAsString ).toString();
-					matchOffset += valueObjectAsString.length() - ( matcher.end() - matcher.start() );
+					value = builder.toString();
+				}
 
-				} catch ( Exception e ) {
+			} catch ( Exception e ) {
 
-					// We have found it helpful to include the actual expression we were trying to
-					// evaluate
+				// We have found it helpful to include the actual expression we were trying to
+				// evaluate
 
-					throw InspectionResultProcessorException.newException( "Unable to evaluate " + value, e );
-				}
+				throw InspectionResultProcessorException.newException( "Unable to evaluate " + value, e );
 			}
 
 			// ...and replace it
 
-			attributes.put( key, value );
+			attributes.put( entry.getKey(), value );
 		}
 	}
 
@@ -217,6 +251,7 @@ public class JexlInspectionResultProcessor<M>
 		// a local context)
 
 		engine.setSilent( true );
+		engine.setCache( ENGINE_CACHE_SIZE );
 		return engine;
 	}
 
@@ -244,4 +279,104 @@ public class JexlInspectionResultProcessor<M>
 
 		return context;
 	}
+
+	//
+	// Private methods
+	//
+
+	private Object[] getTemplate( String value ) {
+
+		Object[] template;
+
+		mTemplatesLock.lock();
+
+		try {
+			template = mTemplates.get( value );
+		} finally {
+			mTemplatesLock.unlock();
+		}
+
+		if ( template == null ) {
+
+			// Compile outside of the lock. Two threads may occasionally compile the same template
+			// at the same time, but the result is the same either way
+
+			template = compileTemplate( value );
+
+			mTemplatesLock.lock();
+
+			try {
+				mTemplates.put( value, template );
+			} finally {
+				mTemplatesLock.unlock();
+			}
+		}
+
+		return template;
+	}
+
+	/**
+	 * Compiles the given attribute value into an array of literal <code>String</code>s and
+	 * compiled <code>Expression</code>s.
+	 */
+
+	private Object[] compileTemplate( String value ) {
+
+		List<Object> template = CollectionUtils.newArrayList();
+		Matcher matcher = PATTERN_EXPRESSION.matcher( value );
+		int literalStart = 0;
+
+		while ( matcher.find() ) {
+
+			if ( matcher.start() > literalStart ) {
+				template.add( value.substring( literalStart, matcher.start() ) );
+			}
+
+			template.add( mJexlEngine.createExpression( matcher.group( 1 ) ) );
+			literalStart = matcher.end();
+		}
+
+		if ( literalStart < value.length() ) {
+			template.add( value.substring( literalStart ) );
+		}
+
+		return template.toArray();
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Least-recently-used cache of compiled templates.
+	 */
+
+	private static class TemplateCache
+		extends LinkedHashMap<String, Object[]> {
+
+		//
+		// Private statics
+		//
+
+		private static final long	serialVersionUID	= 1l;
+
+		//
+		// Constructor
+		//
+
+		public TemplateCache() {
+
+			super( 16, 0.75f, true );
+		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected boolean removeEldestEntry( Map.Entry<String, Object[]> eldest ) {
+
+			return size() > TEMPLATE_CACHE_SIZE;
+		}
+	}
 }
@@ -243,6 +243,39 @@ public class JexlInspectionResultProcessorTest
 		assertEquals( entity.getChildNodes().getLength(), 1 );
 	}
 
+	public void testCachedTemplates() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<inspection-result xmlns=\"http://www.metawidget.org/inspection-result\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://www.metawidget.org/inspection-result ../../inspector/inspection-result-1.0.xsd\" version=\"1.0\">";
+		xml += "<entity type=\"" + ThisTest.class.getName() + "\">";
+		xml += "<property name=\"me\" who-am-i=\"I am ${this.identity}!\" />";
+		xml += "<property name=\"child\" who-am-i=\"I am ${this.child.identity}!\" />";
+		xml += "</entity></inspection-result>";
+
+		JexlInspectionResultProcessor<?> inspectionResultProcessor = new JexlInspectionResultProcessor<Object>( new JexlInspectionResultProcessorConfig().setInjectThis( new JavaBeanPropertyStyle( new JavaBeanPropertyStyleConfig().setSupportPublicFields( true ) ) ) );
+
+		// Same templates, evaluated against different objects
+
+		for ( int loop = 1; loop <= 3; loop++ ) {
+
+			ThisTest thisTest = new ThisTest();
+			thisTest.setIdentity( "ThisTest #" + loop );
+			ThisTest child = new ThisTest();
+			child.setIdentity( "Child #" + loop );
+			thisTest.setChild( child );
+
+			String result = inspectionResultProcessor.processInspectionResult( xml, null, thisTest, ThisTest.class.getName() );
+			Element entity = XmlUtils.getFirstChildElement( XmlUtils.documentFromString( result ).getDocumentElement() );
+			Element property = XmlUtils.getFirstChildElement( entity );
+			assertEquals( "me", property.getAttribute( NAME ) );
+			assertEquals( "I am ThisTest #" + loop + "!", property.getAttribute( "who-am-i" ) );
+
+			property = XmlUtils.getNextSiblingElement( property );
+			assertEquals( "child", property.getAttribute( NAME ) );
+			assertEquals( "I am Child #" + loop + "!", property.getAttribute( "who-am-i" ) );
+		}
+	}
+
 	//
 	// Inner class
 	//
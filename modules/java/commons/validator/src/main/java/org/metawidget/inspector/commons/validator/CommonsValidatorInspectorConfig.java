@@ -46,4 +46,14 @@ public class CommonsValidatorInspectorConfig
 
 		return (CommonsValidatorInspectorConfig) super.setInputStream( stream );
 	}
+
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public CommonsValidatorInspectorConfig setSharedModel( boolean sharedModel ) {
+
+		return (CommonsValidatorInspectorConfig) super.setSharedModel( sharedModel );
+	}
 }
\ No newline at end of file
@@ -25,6 +25,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Stack;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 
 import javax.xml.parsers.SAXParserFactory;
@@ -34,6 +38,8 @@ import org.metawidget.config.iface.NeedsResourceResolver;
 import org.metawidget.config.iface.ResourceResolver;
 import org.metawidget.iface.Immutable;
 import org.metawidget.iface.MetawidgetException;
+import org.metawidget.inspector.composite.CompositeInspectorConfig;
+import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.inspector.iface.InspectorException;
 import org.metawidget.util.ArrayUtils;
 import org.metawidget.util.ClassUtils;
@@ -124,6 +130,16 @@ public class BaseConfigReader
 
 	/* package private */final Map<String, Pattern>						mPatternCache				= CollectionUtils.newHashMap();
 
+	/**
+	 * Guards the caches while configuring.
+	 */
+
+	private final Lock													mConfigureLock				= new ReentrantLock();
+
+	private boolean														mLazyInspectors;
+
+	private Executor													mLazyInspectorExecutor;
+
 	//
 	// Constructor
 	//
@@ -181,8 +197,9 @@ public class BaseConfigReader
 
 		locationKey += ArrayUtils.toString( names, StringUtils.SEPARATOR_FORWARD_SLASH, true, false );
 
-		synchronized ( mImmutableByLocationCache ) {
+		mConfigureLock.lock();
 
+		try {
 			Map<Integer, Immutable> immutableByLocationCache = mImmutableByLocationCache.get( locationKey );
 
 			if ( immutableByLocationCache == null ) {
@@ -219,6 +236,8 @@ public class BaseConfigReader
 			} catch ( Exception e ) {
 				throw MetawidgetException.newException( e );
 			}
+		} finally {
+			mConfigureLock.unlock();
 		}
 	}
 
@@ -295,6 +314,37 @@ public class BaseConfigReader
 		}
 	}
 
+	/**
+	 * Whether to defer constructing immutable, configured Inspectors inside a
+	 * <code>CompositeInspector</code> until their first inspection. Defaults to false.
+	 * <p>
+	 * Some Inspectors (eg. <code>HibernateInspector</code>, <code>XmlSchemaInspector</code>)
+	 * parse large input files when they are constructed. Deferring them can considerably reduce
+	 * startup time, at the cost of reporting any errors in those files at first inspection rather
+	 * than at startup. Must be set before the first call to <code>configure</code>.
+	 */
+
+	public void setLazyInspectors( boolean lazyInspectors ) {
+
+		mLazyInspectors = lazyInspectors;
+	}
+
+	/**
+	 * Executor with which to construct lazy Inspectors inside the same
+	 * <code>CompositeInspector</code> in parallel, when the first of them is used. Defaults to null,
+	 * which constructs each lazy Inspector on the first Thread to use it.
+	 * <p>
+	 * Metawidget does not start Threads of its own. In managed environments, supply an Executor
+	 * managed by the container. Note the Executor's Threads may not have access to request-scoped
+	 * state (eg. <code>FacesContext</code>), so the <code>ResourceResolver</code> should not rely
+	 * on it. Must be set before the first call to <code>configure</code>.
+	 */
+
+	public void setLazyInspectorExecutor( Executor lazyInspectorExecutor ) {
+
+		mLazyInspectorExecutor = lazyInspectorExecutor;
+	}
+
 	public final ResourceResolver getResourceResolver() {
 
 		return mResourceResolver;
@@ -722,6 +772,12 @@ public class BaseConfigReader
 
 		private StringBuilder			mBuilderValue;
 
+		/**
+		 * LazyInspectors constructed so far, grouped by the CompositeInspectorConfig they belong to.
+		 */
+
+		private Map<Object, List<LazyInspector>>	mLazyInspectorSiblings;
+
 		private CachingContentHandler	mCachingContentHandler;
 
 		//
@@ -1058,7 +1114,16 @@ public class BaseConfigReader
 							if ( configuredObject == null ) {
 								try {
 									Constructor<?> constructor = classToConstruct.getConstructor( object.getClass() );
-									configuredObject = constructor.newInstance( object );
+
+									List<LazyInspector> lazySiblings = getLazyInspectorSiblings( classToConstruct, id );
+
+									if ( lazySiblings != null ) {
+										LazyInspector lazyInspector = new LazyInspector( constructor, object, lazySiblings, mLazyInspectorExecutor );
+										lazySiblings.add( lazyInspector );
+										configuredObject = lazyInspector;
+									} else {
+										configuredObject = constructor.newInstance( object );
+									}
 								} catch ( NoSuchMethodException e ) {
 									String likelyConfig = getLikelyConfig( classToConstruct );
 
@@ -1076,7 +1141,7 @@ public class BaseConfigReader
 								if ( isImmutable( classToConstruct ) ) {
 									LOG.debug( "\tInstantiated immutable {0} (config hashCode {1})", classToConstruct, object.hashCode() );
 									Immutable immutable = (Immutable) configuredObject;
-									putImmutableByClass( immutable, object );
+									putImmutableByClass( classToConstruct, immutable, object );
 
 									if ( id != null ) {
 										putImmutableById( id, immutable );
@@ -1308,7 +1373,7 @@ public class BaseConfigReader
 				if ( isImmutable( classToConstruct ) ) {
 					LOG.debug( "\tInstantiated immutable {0} (no config)", classToConstruct );
 					Immutable immutable = (Immutable) object;
-					putImmutableByClass( immutable, null );
+					putImmutableByClass( classToConstruct, immutable, null );
 
 					String id = attributes.getValue( "id" );
 
@@ -1398,6 +1463,48 @@ public class BaseConfigReader
 			mImmutableByIdCache.put( id, immutable );
 		}
 
+		/**
+		 * Whether to construct the given class as a <code>LazyInspector</code>. Only immutable
+		 * Inspectors (without an <code>id</code>, as <code>refId</code> checks the actual class)
+		 * inside a <code>CompositeInspector</code> are deferred.
+		 *
+		 * @return the (shared) List of the other LazyInspectors inside the same
+		 *         <code>CompositeInspector</code>, or null if the given class should not be lazy
+		 */
+
+		private List<LazyInspector> getLazyInspectorSiblings( Class<?> clazz, String id ) {
+
+			if ( !mLazyInspectors || id != null || !Inspector.class.isAssignableFrom( clazz ) || !isImmutable( clazz ) ) {
+				return null;
+			}
+
+			for ( int loop = mConstructing.size() - 1; loop >= 0; loop-- ) {
+				Object constructing = mConstructing.get( loop );
+
+				if ( !( constructing instanceof ConfigAndId ) || !( ( (ConfigAndId) constructing ).getConfig() instanceof CompositeInspectorConfig ) ) {
+					continue;
+				}
+
+				if ( mLazyInspectorSiblings == null ) {
+					mLazyInspectorSiblings = CollectionUtils.newHashMap();
+				}
+
+				List<LazyInspector> siblings = mLazyInspectorSiblings.get( constructing );
+
+				if ( siblings == null ) {
+
+					// (read by other Threads once the CompositeInspector is in use)
+
+					siblings = new CopyOnWriteArrayList<LazyInspector>();
+					mLazyInspectorSiblings.put( constructing, siblings );
+				}
+
+				return siblings;
+			}
+
+			return null;
+		}
+
 		private Object getImmutableByClass( Class<?> clazz, Object config ) {
 
 			Map<Object, Immutable> configs = mImmutableByClassCache.get( clazz );
@@ -1417,9 +1524,14 @@ public class BaseConfigReader
 			return configs.get( configToLookup );
 		}
 
-		private void putImmutableByClass( Immutable immutable, Object config ) {
+		/**
+		 * @param clazz
+		 *            the class the immutable was configured as. Usually the same as
+		 *            <code>immutable.getClass()</code>, but not for lazy Inspectors
+		 */
+
+		private void putImmutableByClass( Class<?> clazz, Immutable immutable, Object config ) {
 
-			Class<?> clazz = immutable.getClass();
 			Map<Object, Immutable> configs = mImmutableByClassCache.get( clazz );
 
 			if ( configs == null ) {
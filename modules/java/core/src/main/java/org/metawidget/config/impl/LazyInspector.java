@@ -0,0 +1,248 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.config.impl;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.metawidget.iface.Immutable;
+import org.metawidget.inspector.iface.DomInspector;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.util.XmlUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Stands in for an immutable, configured Inspector until its first inspection.
+ * <p>
+ * Used by <code>BaseConfigReader.setLazyInspectors</code> so that Inspectors which parse large
+ * input files at construction time (eg. <code>HibernateInspector</code>,
+ * <code>XmlSchemaInspector</code>) do not do so until they are first needed.
+ * <p>
+ * By default, each LazyInspector is constructed on the first Thread to use it. However, because
+ * <code>CompositeInspector</code> runs all its Inspectors on every inspection, the first inspection
+ * needs every LazyInspector in the same <code>CompositeInspector</code>. So if
+ * <code>BaseConfigReader.setLazyInspectorExecutor</code> has been set, the first LazyInspector to
+ * be used submits its siblings to that Executor, to be constructed in parallel. That way the first
+ * inspection waits for the slowest Inspector, not the sum of all of them. Metawidget never starts
+ * Threads of its own, so that managed environments can supply a suitable Executor.
+ * <p>
+ * If construction fails on the Thread that uses the Inspector, the failure is cached and rethrown
+ * on every subsequent inspection, rather than re-parsing the (same, broken) input files each time.
+ * Failures on an Executor's Thread are not cached, because they may be due to that Thread's
+ * environment (eg. no <code>FacesContext</code>). Instead, the Inspector is constructed again on
+ * the Thread that uses it.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+/* package private */class LazyInspector
+	implements DomInspector<Element>, Immutable {
+
+	//
+	// Private members
+	//
+
+	private final Constructor<?>	mConstructor;
+
+	private final Object				mConfig;
+
+	/**
+	 * LazyInspectors in the same <code>CompositeInspector</code>, including this one.
+	 */
+
+	private final List<LazyInspector>	mSiblings;
+
+	/**
+	 * Executor to construct siblings with, or null to construct them on first use.
+	 */
+
+	private final Executor				mExecutor;
+
+	private final Lock					mLock				= new ReentrantLock();
+
+	private final AtomicBoolean			mConstructionStarted	= new AtomicBoolean();
+
+	private volatile Inspector			mInspector;
+
+	private volatile InspectorException	mFailure;
+
+	//
+	// Constructor
+	//
+
+	public LazyInspector( Constructor<?> constructor, Object config, List<LazyInspector> siblings, Executor executor ) {
+
+		mConstructor = constructor;
+		mConfig = config;
+		mSiblings = siblings;
+		mExecutor = executor;
+	}
+
+	//
+	// Public methods
+	//
+
+	public String inspect( Object toInspect, String type, String... names ) {
+
+		return getInspector().inspect( toInspect, type, names );
+	}
+
+	public Element inspectAsDom( Object toInspect, String type, String... names ) {
+
+		Inspector inspector = getInspector();
+
+		if ( inspector instanceof DomInspector<?> ) {
+
+			@SuppressWarnings( "unchecked" )
+			DomInspector<Element> domInspector = (DomInspector<Element>) inspector;
+			return domInspector.inspectAsDom( toInspect, type, names );
+		}
+
+		Document document = XmlUtils.documentFromString( inspector.inspect( toInspect, type, names ) );
+
+		if ( document == null ) {
+			return null;
+		}
+
+		return document.getDocumentElement();
+	}
+
+	/**
+	 * Gets the actual Inspector, constructing it if necessary.
+	 */
+
+	public Inspector getInspector() {
+
+		Inspector inspector = mInspector;
+
+		if ( inspector != null ) {
+			return inspector;
+		}
+
+		InspectorException failure = mFailure;
+
+		if ( failure != null ) {
+			throw failure;
+		}
+
+		// CompositeInspector is about to need our siblings too, so construct them in parallel
+
+		if ( mExecutor != null ) {
+			for ( LazyInspector sibling : mSiblings ) {
+				if ( sibling != this ) {
+					sibling.constructInBackground();
+				}
+			}
+		}
+
+		return construct( false );
+	}
+
+	@Override
+	public boolean equals( Object that ) {
+
+		if ( !( that instanceof LazyInspector ) ) {
+			return false;
+		}
+
+		return mConstructor.equals( ( (LazyInspector) that ).mConstructor ) && mConfig.equals( ( (LazyInspector) that ).mConfig );
+	}
+
+	@Override
+	public int hashCode() {
+
+		return 31 * mConstructor.hashCode() + mConfig.hashCode();
+	}
+
+	@Override
+	public String toString() {
+
+		return "Lazy " + mConstructor.getDeclaringClass().getName();
+	}
+
+	//
+	// Private methods
+	//
+
+	private Inspector construct( boolean inBackground ) {
+
+		mConstructionStarted.set( true );
+		mLock.lock();
+
+		try {
+			if ( mInspector != null ) {
+				return mInspector;
+			}
+
+			if ( mFailure != null ) {
+				throw mFailure;
+			}
+
+			InspectorException failure;
+
+			try {
+				BaseConfigReader.LOG.debug( "\tInstantiating lazy {0}", mConstructor.getDeclaringClass() );
+				Inspector inspector = (Inspector) mConstructor.newInstance( mConfig );
+				mInspector = inspector;
+
+				return inspector;
+			} catch ( InvocationTargetException e ) {
+				failure = InspectorException.newException( e.getTargetException() );
+			} catch ( Exception e ) {
+				failure = InspectorException.newException( e );
+			}
+
+			if ( !inBackground ) {
+				mFailure = failure;
+			}
+
+			throw failure;
+		} finally {
+			mLock.unlock();
+		}
+	}
+
+	private void constructInBackground() {
+
+		if ( !mConstructionStarted.compareAndSet( false, true ) ) {
+			return;
+		}
+
+		try {
+			mExecutor.execute( new Runnable() {
+
+				public void run() {
+
+					try {
+						construct( true );
+					} catch ( InspectorException e ) {
+
+						// Not cached: retried when this Inspector is first used
+					}
+				}
+			} );
+		} catch ( RejectedExecutionException e ) {
+
+			// Constructed when this Inspector is first used
+
+			mConstructionStarted.set( false );
+		}
+	}
+}
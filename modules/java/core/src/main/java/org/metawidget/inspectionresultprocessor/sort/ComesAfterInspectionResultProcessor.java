@@ -14,10 +14,7 @@ package org.metawidget.inspectionresultprocessor.sort;
 import static org.metawidget.inspector.InspectionResultConstants.COMES_AFTER;
 import static org.metawidget.inspector.InspectionResultConstants.ENTITY;
 import static org.metawidget.inspector.InspectionResultConstants.NAME;
-import static org.metawidget.inspector.InspectionResultConstants.NAMESPACE;
-import static org.metawidget.inspector.InspectionResultConstants.ROOT;
 
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -27,7 +24,6 @@ import org.metawidget.inspectionresultprocessor.impl.BaseInspectionResultProcess
 import org.metawidget.util.ArrayUtils;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.XmlUtils;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 /**
@@ -35,6 +31,10 @@ import org.w3c.dom.Element;
  * <p>
  * <code>comes-after</code> attributes can be added using the <code>UiComesAfter</code> annotation,
  * among other ways.
+ * <p>
+ * Sorting runs in linear time (in the number of traits plus the number of <code>comes-after</code>
+ * names), so is suitable for entities with hundreds of properties. The traits are reordered in
+ * place, within the existing DOM.
  * 
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -66,89 +66,79 @@ public class ComesAfterInspectionResultProcessor<M>
 				throw InspectionResultProcessorException.newException( "Top-level element name should be " + ENTITY + ", not " + elementName );
 			}
 			
-			// Prepare all traits as a topological graph (use LinkedHashMap and List
-			// so we get a consistent ordering)
+			// Index all traits (in document order, so we get a consistent ordering)
 
-			Map<String, TopologicalElement> topologicalElements = CollectionUtils.newLinkedHashMap();
+			List<Element> traits = CollectionUtils.newArrayList();
+			Map<String, Integer> traitIndexes = CollectionUtils.newHashMap();
 			Element trait = XmlUtils.getFirstChildElement( entity );
 
 			while ( trait != null ) {
-				topologicalElements.put( trait.getAttribute( NAME ), new TopologicalElement( trait ) );
+				traitIndexes.put( trait.getAttribute( NAME ), traits.size() );
+				traits.add( trait );
 				trait = XmlUtils.getNextSiblingElement( trait );
 			}
 
-			Collection<TopologicalElement> unmarkedNodes = CollectionUtils.newArrayList();
+			// Prepare all traits as a topological graph
 
-			for ( TopologicalElement topologicalElement : topologicalElements.values() ) {
+			TopologicalSort topologicalSort = new TopologicalSort( traits.toArray( new Element[traits.size()] ) );
 
-				unmarkedNodes.add( topologicalElement );
-				trait = topologicalElement.getElement();
+			for ( int loop = 0, length = traits.size(); loop < length; loop++ ) {
 
-				if ( hasComesAfter( trait, metawidget ) ) {
-					
-					String comesAfters = getComesAfter( trait, metawidget );
+				trait = traits.get( loop );
 
-					// For comes-after all, gather all nodes
-					
-					if ( "".equals( comesAfters )) {
-						for ( TopologicalElement comesAfter : topologicalElements.values() ) {
+				if ( !hasComesAfter( trait, metawidget ) ) {
+					continue;
+				}
 
-							if ( !comesAfter.equals( topologicalElement ) ) {
-								topologicalElement.addComesAfter( comesAfter );
-							}
-						}
-						continue;
-					}
+				String comesAfters = getComesAfter( trait, metawidget );
 
-					// For others, lookup each dependent node
-					
-					String[] comesAftersArray = ArrayUtils.fromString( comesAfters );
-					String traitName = trait.getAttribute( NAME );
-
-					for ( String comesAfter : comesAftersArray ) {
-
-						if ( comesAfter.equals( traitName ) ) {
-							throw InspectionResultProcessorException.newException( '\'' + traitName + "' " + COMES_AFTER + " itself" );
-						}
-
-						TopologicalElement comesAfterElement = topologicalElements.get( comesAfter );
-					
-						// (node may not be in the graph)
-						
-						if ( comesAfterElement == null ) {
-							continue;
-						}
-						
-						topologicalElement.addComesAfter( comesAfterElement );
-					}
+				// For comes-after all, mark as such (rather than adding every node)
+
+				if ( "".equals( comesAfters ) ) {
+					topologicalSort.setComesAfterAll( loop );
+					continue;
 				}
-			}
 
-			// Sort the graph
+				// For others, lookup each dependent node
 
-			List<Element> sortedTraits = CollectionUtils.newArrayList();
-			topologicalSort( unmarkedNodes, sortedTraits );
+				String[] comesAftersArray = ArrayUtils.fromString( comesAfters );
+				String traitName = trait.getAttribute( NAME );
+				int[] comesAfterIndexes = new int[comesAftersArray.length];
+				int comesAfterLength = 0;
 
-			// Reconstruct the DOM. First, start a new document (Android 1.1 did
-			// not cope well with shuffling the nodes of an existing document)...
+				for ( String comesAfter : comesAftersArray ) {
 
-			Document newDocument = XmlUtils.newDocument();
-			Element newInspectionResult = newDocument.createElementNS( NAMESPACE, ROOT );
-			XmlUtils.setMapAsAttributes( newInspectionResult, XmlUtils.getAttributesAsMap( inspectionResult ) );
-			newDocument.appendChild( newInspectionResult );
+					if ( comesAfter.equals( traitName ) ) {
+						throw InspectionResultProcessorException.newException( '\'' + traitName + "' " + COMES_AFTER + " itself" );
+					}
 
-			Element newEntity = newDocument.createElementNS( NAMESPACE, ENTITY );
-			XmlUtils.setMapAsAttributes( newEntity, XmlUtils.getAttributesAsMap( entity ) );
-			newInspectionResult.appendChild( newEntity );
+					Integer comesAfterIndex = traitIndexes.get( comesAfter );
 
-			// ...then import our sorted traits into it
+					// (node may not be in the graph)
 
-			for ( Element sortedTrait : sortedTraits ) {
+					if ( comesAfterIndex == null ) {
+						continue;
+					}
 
-				newEntity.appendChild( XmlUtils.importElement( newDocument, sortedTrait ) );
+					comesAfterIndexes[comesAfterLength++] = comesAfterIndex;
+				}
+
+				topologicalSort.setComesAfter( loop, comesAfterIndexes, comesAfterLength );
 			}
 
-			return newInspectionResult;
+			// Sort the graph, then reorder the DOM in place (appending an existing node moves it)
+
+			List<Element> sortedTraits = topologicalSort.sort();
+
+			while ( entity.hasChildNodes() ) {
+				entity.removeChild( entity.getFirstChild() );
+			}
+
+			for ( Element sortedTrait : sortedTraits ) {
+				entity.appendChild( sortedTrait );
+			}
+
+			return inspectionResult;
 		} catch ( Exception e ) {
 			throw InspectionResultProcessorException.newException( e );
 		}
@@ -195,141 +185,161 @@ public class ComesAfterInspectionResultProcessor<M>
 	}
 
 	//
-	// Private methods
+	// Inner class
 	//
 
 	/**
-	 * Visit the next unmarked node.
+	 * Topological sort over indexed arrays of traits.
+	 * <p>
+	 * A depth-first search, visiting each node's <code>comes-after</code> nodes before the node
+	 * itself. A node that comes after all others is flagged, rather than given an edge to every
+	 * other node, so that the graph stays linear in size.
 	 */
 
-	private void topologicalSort( Collection<TopologicalElement> unmarkedNodes, List<Element> sorted ) {
+	private class TopologicalSort {
+
+		//
+		// Private members
+		//
 
-		while ( !unmarkedNodes.isEmpty() ) {
+		private final Element[]		mTraits;
 
-			TopologicalElement node = unmarkedNodes.iterator().next();
-			topologicalVisit( node, unmarkedNodes, sorted, unmarkedNodes.size() );
-		}
-	}
+		/**
+		 * Indexes of the nodes each node comes after. Use arrays in document order, not Sets, so
+		 * that sorting is stable.
+		 */
 
-	private void topologicalVisit( TopologicalElement node, Collection<TopologicalElement> unmarkedNodes, List<Element> sorted, int temporaryMark ) {
+		private final int[][]		mComesAfter;
 
-		// If node has a permanent mark then all done
+		private final boolean[]		mComesAfterAll;
 
-		if ( node.getMark() == PERMANENT_MARK ) {
-			return;
-		}
+		private final int[]			mMarks;
 
-		// If node has a temporary mark then error
+		private final List<Element>	mSorted;
 
-		if ( node.getMark() == temporaryMark ) {
-			List<String> infiniteLoopNames = CollectionUtils.newArrayList();
+		//
+		// Constructor
+		//
 
-			for ( TopologicalElement infiniteLoopNode : unmarkedNodes ) {
+		public TopologicalSort( Element[] traits ) {
 
-				String value;
-				Element trait = infiniteLoopNode.getElement();
-				String comesAfter = getComesAfter( trait, null );
+			mTraits = traits;
+			mComesAfter = new int[traits.length][];
+			mComesAfterAll = new boolean[traits.length];
+			mMarks = new int[traits.length];
+			mSorted = CollectionUtils.newArrayList( traits.length );
+		}
 
-				if ( comesAfter == null ) {
-					continue;
-				}
+		//
+		// Public methods
+		//
 
-				if ( comesAfter.length() == 0 ) {
-					value = "at the end";
-				} else {
-					value = "after " + comesAfter.replace( ",", " and " );
-				}
+		public void setComesAfter( int node, int[] comesAfter, int length ) {
 
-				infiniteLoopNames.add( trait.getAttribute( NAME ) + " comes " + value );
+			if ( length == comesAfter.length ) {
+				mComesAfter[node] = comesAfter;
+			} else {
+				mComesAfter[node] = new int[length];
+				System.arraycopy( comesAfter, 0, mComesAfter[node], 0, length );
 			}
+		}
 
-			// (sort for unit tests)
-
-			Collections.sort( infiniteLoopNames );
+		public void setComesAfterAll( int node ) {
 
-			throw InspectionResultProcessorException.newException( "Infinite loop detected when sorting " + COMES_AFTER + ": " + CollectionUtils.toString( infiniteLoopNames, ", but " ) );
+			mComesAfterAll[node] = true;
 		}
 
-		// Mark node temporarily
+		/**
+		 * Visit each unmarked node, in document order.
+		 */
 
-		node.setMark( temporaryMark );
+		public List<Element> sort() {
 
-		// Visit each dependent node
+			for ( int loop = 0, length = mTraits.length; loop < length; loop++ ) {
 
-		for ( TopologicalElement comesAfter : node.getComesAfter() ) {
-			topologicalVisit( comesAfter, unmarkedNodes, sorted, temporaryMark );
-		}
+				// (each top-level visit uses its own temporary mark, never 0)
 
-		// Mark node permanently
+				visit( loop, loop + 1 );
+			}
 
-		node.setMark( PERMANENT_MARK );
-		unmarkedNodes.remove( node );
+			return mSorted;
+		}
 
-		// Add node to sorted list
+		//
+		// Private methods
+		//
 
-		sorted.add( node.getElement() );
-	}
+		private void visit( int node, int temporaryMark ) {
 
-	//
-	// Inner class
-	//
+			// If node has a permanent mark then all done
 
-	/**
-	 * Holds elements during topological sort.
-	 */
+			if ( mMarks[node] == PERMANENT_MARK ) {
+				return;
+			}
 
-	private static class TopologicalElement {
+			// If node has a temporary mark then error
 
-		//
-		// Private members
-		//
+			if ( mMarks[node] == temporaryMark ) {
+				throw newInfiniteLoopException();
+			}
 
-		private Element							mElement;
+			// Mark node temporarily
 
-		private int								mMark;
+			mMarks[node] = temporaryMark;
 
-		/**
-		 * Use a List, not a Set, so that sorting is stable.
-		 */
+			// Visit each dependent node
 
-		private Collection<TopologicalElement>	mComesAfter	= CollectionUtils.newArrayList();
+			if ( mComesAfterAll[node] ) {
+				for ( int loop = 0, length = mTraits.length; loop < length; loop++ ) {
 
-		//
-		// Constructor
-		//
+					if ( loop != node ) {
+						visit( loop, temporaryMark );
+					}
+				}
+			} else if ( mComesAfter[node] != null ) {
+				for ( int comesAfter : mComesAfter[node] ) {
+					visit( comesAfter, temporaryMark );
+				}
+			}
 
-		public TopologicalElement( Element element ) {
+			// Mark node permanently, and add it to sorted list
 
-			mElement = element;
+			mMarks[node] = PERMANENT_MARK;
+			mSorted.add( mTraits[node] );
 		}
 
-		//
-		// Public methods
-		//
+		private InspectionResultProcessorException newInfiniteLoopException() {
 
-		public Element getElement() {
+			List<String> infiniteLoopNames = CollectionUtils.newArrayList();
 
-			return mElement;
-		}
+			for ( int loop = 0, length = mTraits.length; loop < length; loop++ ) {
 
-		public Collection<TopologicalElement> getComesAfter() {
+				if ( mMarks[loop] == PERMANENT_MARK ) {
+					continue;
+				}
 
-			return mComesAfter;
-		}
+				String value;
+				Element trait = mTraits[loop];
+				String comesAfter = getComesAfter( trait, null );
 
-		public void addComesAfter( TopologicalElement comesAfter ) {
+				if ( comesAfter == null ) {
+					continue;
+				}
 
-			mComesAfter.add( comesAfter );
-		}
+				if ( comesAfter.length() == 0 ) {
+					value = "at the end";
+				} else {
+					value = "after " + comesAfter.replace( ",", " and " );
+				}
 
-		public void setMark( int mark ) {
+				infiniteLoopNames.add( trait.getAttribute( NAME ) + " comes " + value );
+			}
 
-			mMark = mark;
-		}
+			// (sort for unit tests)
 
-		public int getMark() {
+			Collections.sort( infiniteLoopNames );
 
-			return mMark;
+			return InspectionResultProcessorException.newException( "Infinite loop detected when sorting " + COMES_AFTER + ": " + CollectionUtils.toString( infiniteLoopNames, ", but " ) );
 		}
 	}
 }
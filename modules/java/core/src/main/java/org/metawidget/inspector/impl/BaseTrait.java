@@ -12,11 +12,15 @@
 package org.metawidget.inspector.impl;
 
 import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Map;
+
+import org.metawidget.util.CollectionUtils;
 
 /**
  * Convenience implementation for Traits.
  * <p>
- * Handles construction, and returning names.
+ * Handles construction, returning names, and resolving annotations once.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -24,11 +28,26 @@ import java.lang.annotation.Annotation;
 public abstract class BaseTrait
 	implements Trait {
 
+	//
+	// Private statics
+	//
+
+	private static final Annotation[]								EMPTY_ANNOTATIONS	= new Annotation[0];
+
 	//
 	// Private methods
 	//
 
-	private String	mName;
+	private String													mName;
+
+	/**
+	 * Annotations of this Trait, keyed by type.
+	 * <p>
+	 * Lazily resolved by <code>resolveAnnotations</code>. Volatile, and never modified once
+	 * published, so it can be read without locking.
+	 */
+
+	private volatile Map<Class<? extends Annotation>, Annotation>	mAnnotations;
 
 	//
 	// Constructor
@@ -48,14 +67,102 @@ public abstract class BaseTrait
 		return mName;
 	}
 
+	/**
+	 * Returns the annotation of the given type from those resolved by
+	 * <code>resolveAnnotations</code>.
+	 */
+
+	public <T extends Annotation> T getAnnotation( Class<T> annotation ) {
+
+		return getResolvedAnnotation( annotation );
+	}
+
 	public boolean isAnnotationPresent( Class<? extends Annotation> annotation ) {
 
 		return getAnnotation( annotation ) != null;
 	}
 
+	/**
+	 * Returns all annotations resolved by <code>resolveAnnotations</code> (ie. at most one
+	 * annotation per type), in order of precedence.
+	 * <p>
+	 * Only annotations that <code>getAnnotation</code> also returns are included, so the two are
+	 * always consistent, even for subclasses that override <code>getAnnotation</code>.
+	 */
+
+	public Annotation[] getAnnotations() {
+
+		List<Annotation> annotations = CollectionUtils.newArrayList();
+
+		for ( Annotation annotation : getAnnotationsByType().values() ) {
+
+			if ( getAnnotation( annotation.annotationType() ) == annotation ) {
+				annotations.add( annotation );
+			}
+		}
+
+		return annotations.toArray( new Annotation[annotations.size()] );
+	}
+
 	@Override
 	public String toString() {
 
 		return mName;
 	}
+
+	//
+	// Protected methods
+	//
+
+	/**
+	 * Looks up the given annotation from those resolved by <code>resolveAnnotations</code>.
+	 * Subclasses can use this to implement <code>getAnnotation</code>.
+	 */
+
+	protected <T extends Annotation> T getResolvedAnnotation( Class<T> annotationClass ) {
+
+		return annotationClass.cast( getAnnotationsByType().get( annotationClass ) );
+	}
+
+	/**
+	 * Resolves all annotations of this Trait, in order of precedence. Where more than one
+	 * annotation has the same type, the first wins.
+	 * <p>
+	 * Generally called once per Trait, though threads racing to look up the first annotation may
+	 * each call it, so it must always return the same annotations. By default, returns no
+	 * annotations, consistent with the default <code>getAnnotation</code>. Subclasses should
+	 * override this rather than <code>getAnnotation</code>. Subclasses that instead override
+	 * <code>getAnnotation</code> still work with <code>isAnnotationPresent</code>, but their
+	 * <code>getAnnotations</code> is empty.
+	 */
+
+	protected Annotation[] resolveAnnotations() {
+
+		return EMPTY_ANNOTATIONS;
+	}
+
+	//
+	// Private methods
+	//
+
+	private Map<Class<? extends Annotation>, Annotation> getAnnotationsByType() {
+
+		Map<Class<? extends Annotation>, Annotation> annotationsByType = mAnnotations;
+
+		if ( annotationsByType == null ) {
+
+			annotationsByType = CollectionUtils.newLinkedHashMap();
+
+			for ( Annotation annotation : resolveAnnotations() ) {
+
+				if ( !annotationsByType.containsKey( annotation.annotationType() ) ) {
+					annotationsByType.put( annotation.annotationType(), annotation );
+				}
+			}
+
+			mAnnotations = annotationsByType;
+		}
+
+		return annotationsByType;
+	}
 }
@@ -13,10 +13,12 @@ package org.metawidget.inspector.impl;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import org.metawidget.util.ArrayUtils;
-import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.LogUtils;
 import org.metawidget.util.LogUtils.Log;
 
@@ -50,19 +52,19 @@ public abstract class BaseTraitStyle<T extends Trait> {
 	 * that they <code>.equal()</code> their originals.
 	 */
 
-	/* package private */final Map<String, Map<String, T>>	mCache;
+	/* package private */final ConcurrentMap<String, Map<String, T>>	mCache;
 
-	private Pattern											mExcludeBaseType;
+	private Pattern														mExcludeBaseType;
 
-	private Class<?>[]										mExcludeReturnType;
+	private Class<?>[]													mExcludeReturnType;
 
-	private String[]										mExcludeName;
+	private String[]													mExcludeName;
 
 	//
 	// Protected members
 	//
 
-	protected final Log										mLog	= LogUtils.getLog( getClass() );
+	protected final Log													mLog	= LogUtils.getLog( getClass() );
 
 	//
 	// Constructor
@@ -71,7 +73,7 @@ public abstract class BaseTraitStyle<T extends Trait> {
 	protected BaseTraitStyle( BaseTraitStyleConfig config ) {
 
 		if ( config.isCacheLookups() ) {
-			mCache = CollectionUtils.newHashMap();
+			mCache = new ConcurrentHashMap<String, Map<String, T>>();
 		} else {
 			mCache = null;
 		}
@@ -99,9 +101,7 @@ public abstract class BaseTraitStyle<T extends Trait> {
 			return;
 		}
 
-		synchronized ( mCache ) {
-			mCache.clear();
-		}
+		mCache.clear();
 	}
 
 	//
@@ -114,16 +114,23 @@ public abstract class BaseTraitStyle<T extends Trait> {
 			return getUncachedTraits( type );
 		}
 
-		synchronized ( mCache ) {
-			Map<String, T> traits = getCachedTraits( type );
-
-			if ( traits == null ) {
-				traits = getUncachedTraits( type );
-				cacheTraits( type, traits );
-			}
+		Map<String, T> traits = getCachedTraits( type );
 
+		if ( traits != null ) {
 			return traits;
 		}
+
+		// Introspect outside of any lock. Two Threads may occasionally introspect the same type at
+		// the same time, but the result is the same either way. Only the first is cached
+
+		traits = unmodifiableTraits( getUncachedTraits( type ) );
+		Map<String, T> existingTraits = mCache.putIfAbsent( type, traits );
+
+		if ( existingTraits != null ) {
+			return existingTraits;
+		}
+
+		return traits;
 	}
 
 	protected final Map<String, T> getCachedTraits( String type ) {
@@ -133,7 +140,7 @@ public abstract class BaseTraitStyle<T extends Trait> {
 
 	protected final void cacheTraits( String type, Map<String, T> traits ) {
 
-		mCache.put( type, Collections.unmodifiableMap( traits ) );
+		mCache.put( type, unmodifiableTraits( traits ) );
 	}
 
 	protected abstract Map<String, T> getUncachedTraits( String type );
@@ -240,4 +247,22 @@ public abstract class BaseTraitStyle<T extends Trait> {
 
 		return false;
 	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Wraps the given traits so that every caller (including the one that introspected them) sees
+	 * the same unmodifiable Map. Sorted traits stay sorted.
+	 */
+
+	private Map<String, T> unmodifiableTraits( Map<String, T> traits ) {
+
+		if ( traits instanceof SortedMap<?, ?> ) {
+			return Collections.unmodifiableSortedMap( (SortedMap<String, T>) traits );
+		}
+
+		return Collections.unmodifiableMap( traits );
+	}
 }
@@ -13,8 +13,12 @@ package org.metawidget.inspector.impl;
 
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.metawidget.config.iface.ResourceResolver;
 import org.metawidget.inspector.iface.DomInspector;
@@ -24,6 +28,7 @@ import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
 import org.metawidget.inspector.impl.propertystyle.ValueAndDeclaredType;
 import org.metawidget.util.ArrayUtils;
 import org.metawidget.util.ClassUtils;
+import org.metawidget.util.IOUtils;
 import org.metawidget.util.LogUtils;
 import org.metawidget.util.LogUtils.Log;
 import org.metawidget.util.XmlUtils;
@@ -121,10 +126,19 @@ public abstract class BaseXmlInspector
 	 * requirement that a DOM be thread safe, so applications need to make sure that threads are
 	 * properly synchronized for concurrent access to [a shared] DOM. This is true even if you're
 	 * just invoking read operations".
+	 * <p>
+	 * If <code>BaseXmlInspectorConfig.setSharedModel</code> is set, this DOM is shared with other
+	 * Inspectors through <code>XmlModelStore</code>.
 	 */
 
 	private Element				mRoot;
 
+	/**
+	 * Lock guarding all access to <code>mRoot</code>. If the DOM is shared, so is the Lock.
+	 */
+
+	private Lock				mRootLock;
+
 	private final PropertyStyle	mRestrictAgainstObject;
 
 	private final boolean		mInferInheritanceHierarchy;
@@ -141,13 +155,19 @@ public abstract class BaseXmlInspector
 
 	protected BaseXmlInspector( BaseXmlInspectorConfig config ) {
 
+		boolean lockedRoot = false;
+
 		try {
 			// Look up the XML file
 
 			InputStream[] inputStreams = config.getInputStreams();
 
 			if ( inputStreams != null && inputStreams.length > 0 ) {
-				mRoot = getDocumentElement( config.getResourceResolver(), config.getInputStreams() );
+				if ( config.isSharedModel() && isSharedModelSupported() ) {
+					mRoot = getSharedDocumentElement( config.getResourceResolver(), inputStreams );
+				} else {
+					mRoot = getDocumentElement( config.getResourceResolver(), inputStreams );
+				}
 			} else {
 
 				// REFACTOR: support both at once
@@ -163,6 +183,10 @@ public abstract class BaseXmlInspector
 				throw InspectorException.newException( "No XML input file specified" );
 			}
 
+			if ( mRootLock == null ) {
+				mRootLock = new ReentrantLock();
+			}
+
 			// Debug
 
 			if ( mLog.isTraceEnabled() ) {
@@ -187,6 +211,11 @@ public abstract class BaseXmlInspector
 
 			if ( validateAgainstClasses != null ) {
 
+				// (the DOM may be shared with other Inspectors)
+
+				mRootLock.lock();
+				lockedRoot = true;
+
 				String topLevelTypeAttribute = getTopLevelTypeAttribute();
 				String extendsAttribute = getExtendsAttribute();
 				String nameAttribute = getNameAttribute();
@@ -247,6 +276,10 @@ public abstract class BaseXmlInspector
 
 		} catch ( Exception e ) {
 			throw InspectorException.newException( e );
+		} finally {
+			if ( lockedRoot ) {
+				mRootLock.unlock();
+			}
 		}
 	}
 
@@ -293,7 +326,9 @@ public abstract class BaseXmlInspector
 			//
 			// https://issues.apache.org/jira/browse/XERCESJ-727
 
-			synchronized ( mRoot ) {
+			mRootLock.lock();
+
+			try {
 
 				// If the path has a parent...
 
@@ -334,6 +369,8 @@ public abstract class BaseXmlInspector
 						return null;
 					}
 				}
+			} finally {
+				mRootLock.unlock();
 			}
 
 			Element root = document.createElementNS( NAMESPACE, ROOT );
@@ -416,6 +453,39 @@ public abstract class BaseXmlInspector
 		return documentMaster.getDocumentElement();
 	}
 
+	/**
+	 * Whether the DOM returned by <code>getDocumentElement</code> can be shared with other
+	 * Inspectors (see <code>BaseXmlInspectorConfig.setSharedModel</code>).
+	 * <p>
+	 * Returns true by default. Subclasses whose <code>getDocumentElement</code> depends on more
+	 * than the given input files should, where possible, return that content from
+	 * <code>getSharedModelResources</code> instead of returning false here.
+	 */
+
+	protected boolean isSharedModelSupported() {
+
+		return true;
+	}
+
+	/**
+	 * Returns the content of any further resources <code>getDocumentElement</code> will merge in,
+	 * beyond the given input files (eg. <code>HibernateInspector</code> resolving
+	 * <code>&lt;mapping resource&gt;</code> through the <code>ResourceResolver</code>). This
+	 * content is included in the key a shared model is stored under, so that Inspectors only share
+	 * a model if all of its resources are identical.
+	 * <p>
+	 * Returns an empty array by default.
+	 *
+	 * @param contents
+	 *            the content of the input files
+	 */
+
+	protected byte[][] getSharedModelResources( ResourceResolver resolver, byte[]... contents )
+		throws Exception {
+
+		return new byte[0][];
+	}
+
 	/**
 	 * Hook for subclasses to preprocess the document after the Inspector is initialized.
 	 * <p>
@@ -851,4 +921,57 @@ public abstract class BaseXmlInspector
 
 		return topLevel;
 	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Like <code>getDocumentElement</code>, but shares the result with any other Inspector of the
+	 * same class that is given identical content.
+	 */
+
+	private Element getSharedDocumentElement( ResourceResolver resolver, InputStream... files )
+		throws Exception {
+
+		int length = files.length;
+		byte[][] contents = new byte[length][];
+
+		for ( int loop = 0; loop < length; loop++ ) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			IOUtils.streamBetween( files[loop], out );
+			contents[loop] = out.toByteArray();
+		}
+
+		byte[][] resources = getSharedModelResources( resolver, contents );
+		byte[][] keyContents = new byte[length + resources.length][];
+		System.arraycopy( contents, 0, keyContents, 0, length );
+		System.arraycopy( resources, 0, keyContents, length, resources.length );
+
+		String key = XmlModelStore.getKey( getClass(), keyContents );
+		Element root = XmlModelStore.getModel( key );
+
+		if ( root != null ) {
+			mLog.debug( "Sharing XML model {0}", key );
+			mRootLock = XmlModelStore.getLock( key );
+			return root;
+		}
+
+		InputStream[] inputStreams = new InputStream[length];
+
+		for ( int loop = 0; loop < length; loop++ ) {
+			inputStreams[loop] = new ByteArrayInputStream( contents[loop] );
+		}
+
+		root = getDocumentElement( resolver, inputStreams );
+
+		if ( root == null ) {
+			return null;
+		}
+
+		root = XmlModelStore.putModel( key, root );
+		mRootLock = XmlModelStore.getLock( key );
+
+		return root;
+	}
 }
@@ -56,6 +56,8 @@ public class BaseXmlInspectorConfig
 
 	private PropertyStyle		mValidateAgainstClasses;
 
+	private boolean				mSharedModel;
+
 	//
 	// Public methods
 	//
@@ -179,6 +181,29 @@ public class BaseXmlInspectorConfig
 		return this;
 	}
 
+	/**
+	 * Sets whether to share the parsed XML with other Inspectors of the same class that are
+	 * configured with identical input files (even if their configs differ in other respects). This
+	 * can save considerable memory when many Inspectors load the same large files.
+	 * <p>
+	 * Shared XML is compacted: comments and whitespace-only text are removed, and attribute values
+	 * are interned. See <code>XmlModelStore</code>.
+	 * <p>
+	 * Inspectors that resolve further resources while parsing only share a model if those resources
+	 * are also identical (see <code>BaseXmlInspector.getSharedModelResources</code>).
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public BaseXmlInspectorConfig setSharedModel( boolean sharedModel ) {
+
+		mSharedModel = sharedModel;
+
+		// Fluent interface
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -218,6 +243,10 @@ public class BaseXmlInspectorConfig
 			return false;
 		}
 
+		if ( !ObjectUtils.nullSafeEquals( mSharedModel, ( (BaseXmlInspectorConfig) that ).mSharedModel ) ) {
+			return false;
+		}
+
 		return true;
 	}
 
@@ -232,6 +261,7 @@ public class BaseXmlInspectorConfig
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mRestrictAgainstObject );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mInferInheritanceHierarchy );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mValidateAgainstClasses );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mSharedModel );
 
 		return hashCode;
 	}
@@ -287,4 +317,9 @@ public class BaseXmlInspectorConfig
 
 		return mValidateAgainstClasses;
 	}
+
+	protected boolean isSharedModel() {
+
+		return mSharedModel;
+	}
 }
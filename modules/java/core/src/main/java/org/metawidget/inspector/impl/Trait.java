@@ -51,4 +51,11 @@ public interface Trait {
 	 */
 
 	boolean isAnnotationPresent( Class<? extends Annotation> annotation );
+
+	/**
+	 * Returns all annotations present on this element, at most one per annotation type, in order of
+	 * precedence. Consistent with <code>getAnnotation</code>.
+	 */
+
+	Annotation[] getAnnotations();
 }
@@ -0,0 +1,413 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.impl;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.util.AttributeMap;
+import org.metawidget.util.CollectionUtils;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Process-wide store of the XML models parsed by <code>BaseXmlInspector</code>s configured with
+ * <code>BaseXmlInspectorConfig.setSharedModel</code>.
+ * <p>
+ * Models are keyed by a hash of the Inspector class and the content of its input files, so
+ * Inspectors whose configs differ only in other respects (eg. <code>restrictAgainstObject</code>)
+ * share a single DOM by reference. Before being stored, each model is compacted: comments,
+ * processing instructions and whitespace-only text are removed, and attribute values are interned
+ * (using <code>AttributeMap.intern</code>) so that repeated values (eg.
+ * <code>java.lang.String</code>, <code>true</code>) are stored only once across all models.
+ * <p>
+ * Models are only weakly referenced by the store, so are released once no Inspector uses them (their
+ * entries are purged on the next call to the store). The store itself takes no monitors: models are
+ * compacted before being published, and lookups go through a <code>ConcurrentMap</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public final class XmlModelStore {
+
+	//
+	// Private statics
+	//
+
+	private static final ConcurrentMap<String, XmlModel>	MODELS	= new ConcurrentHashMap<String, XmlModel>();
+
+	/**
+	 * Queue of collected model roots, used to purge their entries from <code>MODELS</code>.
+	 */
+
+	private static final ReferenceQueue<Element>			QUEUE	= new ReferenceQueue<Element>();
+
+	//
+	// Public statics
+	//
+
+	/**
+	 * Computes the key a model is stored under.
+	 */
+
+	public static String getKey( Class<?> inspectorClass, byte[]... contents ) {
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance( "SHA-1" );
+			digest.update( inspectorClass.getName().getBytes( "UTF-8" ) );
+
+			for ( byte[] content : contents ) {
+
+				// (include the length, so that file boundaries are significant)
+
+				digest.update( String.valueOf( content.length ).getBytes( "UTF-8" ) );
+				digest.update( content );
+			}
+
+			StringBuilder builder = new StringBuilder();
+
+			for ( byte b : digest.digest() ) {
+				builder.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) );
+				builder.append( Character.forDigit( b & 0xF, 16 ) );
+			}
+
+			return builder.toString();
+		} catch ( Exception e ) {
+			throw InspectorException.newException( e );
+		}
+	}
+
+	/**
+	 * @return the root of the model stored under the given key, or null if there is none
+	 */
+
+	public static Element getModel( String key ) {
+
+		purge();
+
+		XmlModel model = MODELS.get( key );
+
+		if ( model == null ) {
+			return null;
+		}
+
+		return model.getRoot();
+	}
+
+	/**
+	 * Compacts and stores the given model.
+	 * <p>
+	 * If another thread stored a model under the same key in the meantime, that model is returned
+	 * instead, and the given one is discarded.
+	 *
+	 * @return the root of the stored model. Callers must use this, rather than the root they passed
+	 *         in, and must hold <code>getLock</code> before reading it
+	 */
+
+	public static Element putModel( String key, Element root ) {
+
+		purge();
+
+		// Compact before publishing, so that other Threads never see a half-compacted model (and
+		// are never blocked while we compact)
+
+		XmlModel model = new XmlModel( key, root );
+		compact( root, model );
+
+		while ( true ) {
+			XmlModel existing = MODELS.putIfAbsent( key, model );
+
+			if ( existing == null ) {
+				return root;
+			}
+
+			Element existingRoot = existing.getRoot();
+
+			if ( existingRoot != null ) {
+				return existingRoot;
+			}
+
+			// Existing model has been collected: replace it
+
+			if ( MODELS.replace( key, existing, model ) ) {
+				return root;
+			}
+		}
+	}
+
+	/**
+	 * Gets the Lock that every Inspector sharing the model stored under the given key must hold
+	 * while reading it (a DOM is not Thread-safe, even for reads).
+	 *
+	 * @return the Lock, or null if there is no such model
+	 */
+
+	public static Lock getLock( String key ) {
+
+		XmlModel model = MODELS.get( key );
+
+		if ( model == null ) {
+			return null;
+		}
+
+		return model.getLock();
+	}
+
+	/**
+	 * Reports on the models currently in use, including an estimate of the heap each one retains.
+	 */
+
+	public static List<XmlModel> getModels() {
+
+		purge();
+
+		List<XmlModel> models = CollectionUtils.newArrayList();
+
+		for ( XmlModel model : MODELS.values() ) {
+
+			if ( model.getRoot() != null ) {
+				models.add( model );
+			}
+		}
+
+		return Collections.unmodifiableList( models );
+	}
+
+	//
+	// Private statics
+	//
+
+	/**
+	 * Removes the entries of models whose roots have been collected.
+	 */
+
+	private static void purge() {
+
+		for ( Reference<? extends Element> reference = QUEUE.poll(); reference != null; reference = QUEUE.poll() ) {
+			XmlModel model = ( (ModelReference) reference ).getModel();
+			MODELS.remove( model.getKey(), model );
+		}
+	}
+
+	/**
+	 * Compacts the given Node and its children, recording what remains in the given XmlModel.
+	 */
+
+	private static void compact( Node node, XmlModel model ) {
+
+		if ( node instanceof Element ) {
+			model.mElements++;
+
+			NamedNodeMap attributes = node.getAttributes();
+
+			for ( int loop = 0, length = attributes.getLength(); loop < length; loop++ ) {
+				Attr attribute = (Attr) attributes.item( loop );
+				String value = attribute.getValue();
+				attribute.setValue( AttributeMap.intern( value ) );
+
+				model.mAttributes++;
+				model.mCharacters += value.length();
+			}
+		}
+
+		Node child = node.getFirstChild();
+
+		while ( child != null ) {
+			Node nextChild = child.getNextSibling();
+
+			switch ( child.getNodeType() ) {
+				case Node.COMMENT_NODE:
+				case Node.PROCESSING_INSTRUCTION_NODE:
+					node.removeChild( child );
+					break;
+
+				case Node.TEXT_NODE:
+					String text = child.getNodeValue();
+
+					if ( text.trim().length() == 0 ) {
+						node.removeChild( child );
+					} else {
+						model.mTextNodes++;
+						model.mCharacters += text.length();
+					}
+					break;
+
+				default:
+					compact( child, model );
+			}
+
+			child = nextChild;
+		}
+	}
+
+	//
+	// Private constructor
+	//
+
+	private XmlModelStore() {
+
+		// Can never be called
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Heap usage report of a shared model.
+	 */
+
+	public static class XmlModel {
+
+		//
+		// Private statics
+		//
+
+		/**
+		 * Rough, per-node overheads (in bytes) of a typical DOM implementation on a 64-bit JVM.
+		 */
+
+		private static final int				ELEMENT_OVERHEAD	= 96;
+
+		private static final int				ATTRIBUTE_OVERHEAD	= 80;
+
+		private static final int				TEXT_OVERHEAD		= 64;
+
+		//
+		// Private members
+		//
+
+		private final String					mKey;
+
+		private final ModelReference			mRoot;
+
+		private final Lock						mLock;
+
+		/* package private */int				mElements;
+
+		/* package private */int				mAttributes;
+
+		/* package private */int				mTextNodes;
+
+		/* package private */long				mCharacters;
+
+		//
+		// Constructor
+		//
+
+		/* package private */XmlModel( String key, Element root ) {
+
+			mKey = key;
+			mRoot = new ModelReference( root, this );
+			mLock = new ReentrantLock();
+		}
+
+		//
+		// Public methods
+		//
+
+		public String getKey() {
+
+			return mKey;
+		}
+
+		public int getElements() {
+
+			return mElements;
+		}
+
+		public int getAttributes() {
+
+			return mAttributes;
+		}
+
+		public int getTextNodes() {
+
+			return mTextNodes;
+		}
+
+		/**
+		 * Estimates the heap retained by this model, in bytes. Does not account for attribute
+		 * values shared with other models.
+		 */
+
+		public long getEstimatedSize() {
+
+			return ( mElements * ELEMENT_OVERHEAD ) + ( mAttributes * ATTRIBUTE_OVERHEAD ) + ( mTextNodes * TEXT_OVERHEAD ) + ( mCharacters * 2 );
+		}
+
+		@Override
+		public String toString() {
+
+			return mKey + ": " + mElements + " elements, " + mAttributes + " attributes, " + mTextNodes + " text nodes, ~" + ( getEstimatedSize() / 1024 ) + "KB";
+		}
+
+		//
+		// Package private methods
+		//
+
+		/* package private */Element getRoot() {
+
+			return mRoot.get();
+		}
+
+		/* package private */Lock getLock() {
+
+			return mLock;
+		}
+	}
+
+	/**
+	 * Weak reference to a model's root that remembers its model, so that the model can be purged
+	 * once the root is collected.
+	 */
+
+	private static class ModelReference
+		extends WeakReference<Element> {
+
+		//
+		// Private members
+		//
+
+		private final XmlModel	mModel;
+
+		//
+		// Constructor
+		//
+
+		public ModelReference( Element root, XmlModel model ) {
+
+			super( root, QUEUE );
+			mModel = model;
+		}
+
+		//
+		// Public methods
+		//
+
+		public XmlModel getModel() {
+
+			return mModel;
+		}
+	}
+}
@@ -126,7 +126,17 @@ public abstract class MethodActionStyle
 
 		public <T extends Annotation> T getAnnotation( Class<T> annotation ) {
 
-			return ClassUtils.getOriginalAnnotation( mMethod, annotation );
+			return getResolvedAnnotation( annotation );
+		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected Annotation[] resolveAnnotations() {
+
+			return ClassUtils.getOriginalAnnotations( mMethod );
 		}
 	}
 }
@@ -0,0 +1,778 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.impl.propertystyle.indexed;
+
+import static org.metawidget.inspector.impl.propertystyle.indexed.PropertyIndexWriter.*;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.inspector.impl.propertystyle.BaseProperty;
+import org.metawidget.inspector.impl.propertystyle.BasePropertyStyle;
+import org.metawidget.inspector.impl.propertystyle.Property;
+import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
+import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle;
+import org.metawidget.util.ClassUtils;
+import org.metawidget.util.CollectionUtils;
+
+/**
+ * PropertyStyle that reads properties and their annotations from a build-time index, rather than
+ * reflecting over them at runtime.
+ * <p>
+ * The index is written by <code>PropertyIndexWriter</code>. It records, for each indexed type,
+ * its properties (name, type, generic type, getter/setter/field names) and the values of their
+ * runtime annotations. At runtime:
+ * <p>
+ * <ul>
+ * <li><code>getProperties</code> is a simple lookup, with no reflection or class loading</li>
+ * <li><code>isAnnotationPresent</code> compares names, so annotations that are never asked for
+ * are never loaded</li>
+ * <li><code>getAnnotation</code> materializes the annotation from its recorded values the first
+ * time it is asked for</li>
+ * <li><code>read</code> and <code>write</code> resolve their single getter, setter or field the
+ * first time they are called</li>
+ * </ul>
+ * <p>
+ * Types that are not in the index (such as runtime proxies, or types added since the index was
+ * built) are delegated to the fallback <code>PropertyStyle</code>. Indexed types still respect the
+ * excludes of <code>IndexedPropertyStyleConfig</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class IndexedPropertyStyle
+	extends BasePropertyStyle {
+
+	//
+	// Private members
+	//
+
+	private final Map<String, Map<String, Property>>	mIndex;
+
+	private final PropertyStyle							mFallbackPropertyStyle;
+
+	//
+	// Constructor
+	//
+
+	public IndexedPropertyStyle() {
+
+		this( new IndexedPropertyStyleConfig() );
+	}
+
+	public IndexedPropertyStyle( IndexedPropertyStyleConfig config ) {
+
+		super( config );
+
+		if ( config.getFallbackPropertyStyle() == null ) {
+			mFallbackPropertyStyle = new JavaBeanPropertyStyle();
+		} else {
+			mFallbackPropertyStyle = config.getFallbackPropertyStyle();
+		}
+
+		InputStream in = config.getInputStream();
+
+		try {
+			mIndex = readIndex( in );
+		} catch ( IOException e ) {
+			throw InspectorException.newException( e );
+		} finally {
+			try {
+				in.close();
+			} catch ( IOException e ) {
+				// Ignore
+			}
+		}
+	}
+
+	//
+	// Protected methods
+	//
+
+	@Override
+	protected Map<String, Property> inspectProperties( String type ) {
+
+		Map<String, Property> properties = mIndex.get( type );
+
+		if ( properties == null ) {
+			return mFallbackPropertyStyle.getProperties( type );
+		}
+
+		// The index only reflects the excludes of the PropertyStyle that wrote it, so apply our own
+
+		Map<String, Property> includedProperties = CollectionUtils.newLinkedHashMap();
+
+		for ( Property property : properties.values() ) {
+
+			if ( isExcluded( (IndexedProperty) property ) ) {
+				continue;
+			}
+
+			includedProperties.put( property.getName(), property );
+		}
+
+		return includedProperties;
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Whether to exclude the given property, as per <code>BaseTraitStyle.isExcluded</code>.
+	 * <p>
+	 * Classes are only loaded to test them against <code>isExcludedBaseType</code> and
+	 * <code>isExcludedReturnType</code>. Classes that cannot be loaded are not excluded.
+	 */
+
+	private boolean isExcluded( IndexedProperty property ) {
+
+		if ( isExcludedName( property.getName() ) ) {
+			return true;
+		}
+
+		Class<?> declaringClass = ClassUtils.niceForName( property.getOriginalDeclaringType() );
+
+		if ( declaringClass != null && isExcludedBaseType( declaringClass ) ) {
+			return true;
+		}
+
+		Class<?> returnType = ClassUtils.niceForName( property.getType() );
+
+		if ( returnType != null && isExcludedReturnType( returnType ) ) {
+			return true;
+		}
+
+		return false;
+	}
+
+	private Map<String, Map<String, Property>> readIndex( InputStream in )
+		throws IOException {
+
+		DataInputStream data = new DataInputStream( new BufferedInputStream( in ) );
+
+		if ( data.readInt() != MAGIC ) {
+			throw InspectorException.newException( "Not a property index" );
+		}
+
+		short version = data.readShort();
+
+		if ( version != VERSION ) {
+			throw InspectorException.newException( "Unsupported property index version " + version + " (expected " + VERSION + ")" );
+		}
+
+		int types = data.readInt();
+		Map<String, Map<String, Property>> index = CollectionUtils.newHashMap( types );
+
+		for ( int loop = 0; loop < types; loop++ ) {
+
+			String type = readString( data );
+			int size = data.readInt();
+			Map<String, Property> properties = CollectionUtils.newLinkedHashMap();
+
+			for ( int propertyLoop = 0; propertyLoop < size; propertyLoop++ ) {
+				IndexedProperty property = readProperty( data, type );
+				properties.put( property.getName(), property );
+			}
+
+			index.put( type, Collections.unmodifiableMap( properties ) );
+		}
+
+		return index;
+	}
+
+	private IndexedProperty readProperty( DataInputStream data, String declaringType )
+		throws IOException {
+
+		String name = readString( data );
+		String type = readString( data );
+		String genericType = readNullableString( data );
+
+		byte readAccessor = data.readByte();
+		String readName = null;
+
+		if ( readAccessor != ACCESSOR_NONE ) {
+			readName = readString( data );
+		}
+
+		byte writeAccessor = data.readByte();
+		String writeName = null;
+		String writeParameterType = null;
+
+		if ( writeAccessor != ACCESSOR_NONE ) {
+			writeName = readString( data );
+
+			if ( writeAccessor == ACCESSOR_METHOD ) {
+				writeParameterType = readString( data );
+			}
+		}
+
+		String originalDeclaringType = readString( data );
+
+		int size = data.readInt();
+		Map<String, Map<String, Object>> annotations = CollectionUtils.newHashMap( size );
+
+		for ( int loop = 0; loop < size; loop++ ) {
+			String annotationType = readString( data );
+			annotations.put( annotationType, readAnnotationMembers( data ) );
+		}
+
+		return new IndexedProperty( name, type, genericType, declaringType, originalDeclaringType, readAccessor, readName, writeAccessor, writeName, writeParameterType, annotations );
+	}
+
+	private Map<String, Object> readAnnotationMembers( DataInputStream data )
+		throws IOException {
+
+		int size = data.readInt();
+		Map<String, Object> members = CollectionUtils.newHashMap( size );
+
+		for ( int loop = 0; loop < size; loop++ ) {
+			String name = readString( data );
+			members.put( name, readValue( data ) );
+		}
+
+		return members;
+	}
+
+	private Object readValue( DataInputStream data )
+		throws IOException {
+
+		byte tag = data.readByte();
+
+		switch ( tag ) {
+			case VALUE_BOOLEAN:
+				return data.readBoolean();
+			case VALUE_BYTE:
+				return data.readByte();
+			case VALUE_CHAR:
+				return data.readChar();
+			case VALUE_SHORT:
+				return data.readShort();
+			case VALUE_INT:
+				return data.readInt();
+			case VALUE_LONG:
+				return data.readLong();
+			case VALUE_FLOAT:
+				return data.readFloat();
+			case VALUE_DOUBLE:
+				return data.readDouble();
+			case VALUE_STRING:
+				return readString( data );
+			case VALUE_ANNOTATION:
+				return readAnnotationMembers( data );
+			case VALUE_ARRAY:
+				Object[] values = new Object[data.readInt()];
+
+				for ( int loop = 0; loop < values.length; loop++ ) {
+					values[loop] = readValue( data );
+				}
+
+				return values;
+			default:
+				throw InspectorException.newException( "Unknown property index value type '" + (char) tag + "'" );
+		}
+	}
+
+	/**
+	 * Reads a String written by <code>PropertyIndexWriter.writeString</code>.
+	 */
+
+	private String readString( DataInputStream data )
+		throws IOException {
+
+		byte[] bytes = new byte[data.readInt()];
+		data.readFully( bytes );
+
+		return new String( bytes, CHARSET_UTF8 );
+	}
+
+	private String readNullableString( DataInputStream data )
+		throws IOException {
+
+		if ( data.readBoolean() ) {
+			return readString( data );
+		}
+
+		return null;
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Property read from a build-time index.
+	 */
+
+	public static class IndexedProperty
+		extends BaseProperty {
+
+		//
+		// Private members
+		//
+
+		private String								mGenericType;
+
+		private String								mDeclaringType;
+
+		private String								mOriginalDeclaringType;
+
+		private byte								mReadAccessor;
+
+		private String								mReadName;
+
+		private byte								mWriteAccessor;
+
+		private String								mWriteName;
+
+		private String								mWriteParameterType;
+
+		private Map<String, Map<String, Object>>	mAnnotations;
+
+		/**
+		 * Annotations materialized so far. Concurrent, so that each annotation is materialized
+		 * (and handed out) exactly once without locking.
+		 */
+
+		private ConcurrentMap<Class<?>, Annotation>	mMaterializedAnnotations	= new ConcurrentHashMap<Class<?>, Annotation>();
+
+		private volatile Object						mReadMember;
+
+		private volatile Object						mWriteMember;
+
+		//
+		// Constructor
+		//
+
+		/* package private */IndexedProperty( String name, String type, String genericType, String declaringType, String originalDeclaringType, byte readAccessor, String readName, byte writeAccessor, String writeName, String writeParameterType, Map<String, Map<String, Object>> annotations ) {
+
+			super( name, type );
+
+			mGenericType = genericType;
+			mDeclaringType = declaringType;
+			mOriginalDeclaringType = originalDeclaringType;
+			mReadAccessor = readAccessor;
+			mReadName = readName;
+			mWriteAccessor = writeAccessor;
+			mWriteName = writeName;
+			mWriteParameterType = writeParameterType;
+			mAnnotations = annotations;
+		}
+
+		//
+		// Public methods
+		//
+
+		public boolean isReadable() {
+
+			return ( mReadAccessor != ACCESSOR_NONE );
+		}
+
+		public Object read( Object obj ) {
+
+			try {
+				Object readMember = getReadMember();
+
+				if ( readMember instanceof Method ) {
+					return ( (Method) readMember ).invoke( obj );
+				}
+
+				return ( (Field) readMember ).get( obj );
+			} catch ( Exception e ) {
+				throw InspectorException.newException( e );
+			}
+		}
+
+		public boolean isWritable() {
+
+			return ( mWriteAccessor != ACCESSOR_NONE );
+		}
+
+		public void write( Object obj, Object value ) {
+
+			try {
+				Object writeMember = getWriteMember();
+
+				if ( writeMember instanceof Method ) {
+					( (Method) writeMember ).invoke( obj, value );
+				} else {
+					( (Field) writeMember ).set( obj, value );
+				}
+			} catch ( Exception e ) {
+				throw InspectorException.newException( e );
+			}
+		}
+
+		/**
+		 * Overridden to compare names, so that annotations are not materialized (or even loaded)
+		 * just to test for their presence.
+		 */
+
+		@Override
+		public boolean isAnnotationPresent( Class<? extends Annotation> annotation ) {
+
+			return mAnnotations.containsKey( annotation.getName() );
+		}
+
+		public <T extends Annotation> T getAnnotation( Class<T> annotationClass ) {
+
+			Map<String, Object> members = mAnnotations.get( annotationClass.getName() );
+
+			if ( members == null ) {
+				return null;
+			}
+
+			Annotation annotation = mMaterializedAnnotations.get( annotationClass );
+
+			if ( annotation == null ) {
+
+				// (if another thread won the race, use its annotation so that callers always see
+				// the same instance)
+
+				annotation = newAnnotation( annotationClass, members );
+				Annotation existingAnnotation = mMaterializedAnnotations.putIfAbsent( annotationClass, annotation );
+
+				if ( existingAnnotation != null ) {
+					annotation = existingAnnotation;
+				}
+			}
+
+			return annotationClass.cast( annotation );
+		}
+
+		public String getGenericType() {
+
+			return mGenericType;
+		}
+
+		/**
+		 * @return the name of the class that originally declared this property (as opposed to the
+		 *         indexed type, which may be a subclass)
+		 */
+
+		public String getOriginalDeclaringType() {
+
+			return mOriginalDeclaringType;
+		}
+
+		//
+		// Protected methods
+		//
+
+		/**
+		 * Materializes every indexed annotation whose type can be loaded.
+		 */
+
+		@SuppressWarnings( "unchecked" )
+		@Override
+		protected Annotation[] resolveAnnotations() {
+
+			List<Annotation> annotations = CollectionUtils.newArrayList();
+
+			for ( String annotationType : mAnnotations.keySet() ) {
+
+				Class<?> annotationClass = ClassUtils.niceForName( annotationType );
+
+				if ( annotationClass != null ) {
+					annotations.add( getAnnotation( (Class<? extends Annotation>) annotationClass ) );
+				}
+			}
+
+			return annotations.toArray( new Annotation[annotations.size()] );
+		}
+
+		//
+		// Private methods
+		//
+
+		/**
+		 * Looks up the read Method or Field on first use. Threads racing on the first use may each
+		 * look it up, but will find the same member.
+		 */
+
+		private Object getReadMember()
+			throws Exception {
+
+			Object readMember = mReadMember;
+
+			if ( readMember == null ) {
+
+				if ( mReadAccessor == ACCESSOR_METHOD ) {
+					readMember = getDeclaringClass().getMethod( mReadName );
+				} else {
+					readMember = getDeclaringClass().getField( mReadName );
+				}
+
+				mReadMember = readMember;
+			}
+
+			return readMember;
+		}
+
+		/**
+		 * Looks up the write Method or Field on first use. Threads racing on the first use may each
+		 * look it up, but will find the same member.
+		 */
+
+		private Object getWriteMember()
+			throws Exception {
+
+			Object writeMember = mWriteMember;
+
+			if ( writeMember == null ) {
+
+				Class<?> declaringClass = getDeclaringClass();
+
+				if ( mWriteAccessor == ACCESSOR_METHOD ) {
+					writeMember = declaringClass.getMethod( mWriteName, ClassUtils.niceForName( mWriteParameterType, declaringClass.getClassLoader() ) );
+				} else {
+					writeMember = declaringClass.getField( mWriteName );
+				}
+
+				mWriteMember = writeMember;
+			}
+
+			return writeMember;
+		}
+
+		private Class<?> getDeclaringClass() {
+
+			Class<?> declaringClass = ClassUtils.niceForName( mDeclaringType );
+
+			if ( declaringClass == null ) {
+				throw InspectorException.newException( "Unable to load " + mDeclaringType + " for property '" + getName() + "'" );
+			}
+
+			return declaringClass;
+		}
+
+		private static <T extends Annotation> T newAnnotation( Class<T> annotationClass, Map<String, Object> members ) {
+
+			Map<String, Object> values = CollectionUtils.newHashMap();
+
+			for ( Method method : annotationClass.getDeclaredMethods() ) {
+
+				Object value = members.get( method.getName() );
+
+				// Fall back to the default if the annotation has gained a member since the index was
+				// built
+
+				if ( value == null ) {
+					value = method.getDefaultValue();
+				} else {
+					value = newValue( value, method.getReturnType(), annotationClass.getClassLoader() );
+				}
+
+				values.put( method.getName(), value );
+			}
+
+			return annotationClass.cast( Proxy.newProxyInstance( annotationClass.getClassLoader(), new Class<?>[] { annotationClass }, new AnnotationInvocationHandler( annotationClass, values ) ) );
+		}
+
+		/**
+		 * Resolve an indexed value using the return type of the annotation member.
+		 */
+
+		@SuppressWarnings( { "rawtypes", "unchecked" } )
+		private static Object newValue( Object value, Class<?> type, ClassLoader classLoader ) {
+
+			if ( type.isArray() ) {
+
+				Object[] values = (Object[]) value;
+				Class<?> componentType = type.getComponentType();
+				Object array = Array.newInstance( componentType, values.length );
+
+				for ( int loop = 0; loop < values.length; loop++ ) {
+					Array.set( array, loop, newValue( values[loop], componentType, classLoader ) );
+				}
+
+				return array;
+			}
+
+			if ( type.isEnum() ) {
+				return Enum.valueOf( (Class<Enum>) type, (String) value );
+			}
+
+			if ( Class.class.equals( type ) ) {
+
+				Class<?> clazz = ClassUtils.niceForName( (String) value, classLoader );
+
+				if ( clazz == null ) {
+					throw InspectorException.newException( "Unable to load " + value );
+				}
+
+				return clazz;
+			}
+
+			if ( type.isAnnotation() ) {
+				return newAnnotation( (Class<? extends Annotation>) type, (Map<String, Object>) value );
+			}
+
+			return value;
+		}
+	}
+
+	/**
+	 * Implements an annotation from its member values, following the <code>equals</code>,
+	 * <code>hashCode</code> and <code>toString</code> contracts of <code>Annotation</code>.
+	 */
+
+	private static class AnnotationInvocationHandler
+		implements InvocationHandler {
+
+		//
+		// Private members
+		//
+
+		private Class<? extends Annotation>	mAnnotationType;
+
+		private Map<String, Object>			mValues;
+
+		//
+		// Constructor
+		//
+
+		public AnnotationInvocationHandler( Class<? extends Annotation> annotationType, Map<String, Object> values ) {
+
+			mAnnotationType = annotationType;
+			mValues = values;
+		}
+
+		//
+		// Public methods
+		//
+
+		public Object invoke( Object proxy, Method method, Object[] args )
+			throws Exception {
+
+			String name = method.getName();
+
+			if ( args != null && args.length == 1 && "equals".equals( name ) ) {
+				return annotationEquals( args[0] );
+			}
+
+			if ( args == null || args.length == 0 ) {
+
+				if ( "hashCode".equals( name ) ) {
+					return annotationHashCode();
+				}
+
+				if ( "toString".equals( name ) ) {
+					return annotationToString();
+				}
+
+				if ( "annotationType".equals( name ) ) {
+					return mAnnotationType;
+				}
+			}
+
+			Object value = mValues.get( name );
+
+			// Arrays are mutable, so (like the JDK) hand out a copy
+
+			if ( value != null && value.getClass().isArray() ) {
+				int length = Array.getLength( value );
+				Object copy = Array.newInstance( value.getClass().getComponentType(), length );
+				System.arraycopy( value, 0, copy, 0, length );
+				return copy;
+			}
+
+			return value;
+		}
+
+		//
+		// Private methods
+		//
+
+		private boolean annotationEquals( Object that )
+			throws Exception {
+
+			if ( !mAnnotationType.isInstance( that ) ) {
+				return false;
+			}
+
+			for ( Method method : mAnnotationType.getDeclaredMethods() ) {
+
+				method.setAccessible( true );
+
+				if ( !Arrays.deepEquals( new Object[] { mValues.get( method.getName() ) }, new Object[] { method.invoke( that ) } ) ) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		private int annotationHashCode() {
+
+			int hashCode = 0;
+
+			for ( Map.Entry<String, Object> entry : mValues.entrySet() ) {
+
+				// deepHashCode of a single-element array is 31 + the (array-aware) hashCode of the
+				// element
+
+				int valueHashCode = Arrays.deepHashCode( new Object[] { entry.getValue() } ) - 31;
+				hashCode += ( 127 * entry.getKey().hashCode() ) ^ valueHashCode;
+			}
+
+			return hashCode;
+		}
+
+		private String annotationToString() {
+
+			StringBuilder builder = new StringBuilder( "@" );
+			builder.append( mAnnotationType.getName() );
+			builder.append( '(' );
+
+			boolean first = true;
+
+			for ( Map.Entry<String, Object> entry : mValues.entrySet() ) {
+
+				if ( !first ) {
+					builder.append( ", " );
+				}
+
+				Object value = entry.getValue();
+				builder.append( entry.getKey() );
+				builder.append( '=' );
+
+				if ( value != null && value.getClass().isArray() ) {
+					String deepToString = Arrays.deepToString( new Object[] { value } );
+					builder.append( deepToString.substring( 1, deepToString.length() - 1 ) );
+				} else {
+					builder.append( value );
+				}
+
+				first = false;
+			}
+
+			builder.append( ')' );
+			return builder.toString();
+		}
+	}
+}
@@ -0,0 +1,155 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.impl.propertystyle.indexed;
+
+import java.io.InputStream;
+
+import org.metawidget.config.iface.NeedsResourceResolver;
+import org.metawidget.config.iface.ResourceResolver;
+import org.metawidget.config.impl.SimpleResourceResolver;
+import org.metawidget.inspector.impl.BaseTraitStyleConfig;
+import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
+import org.metawidget.util.simple.ObjectUtils;
+
+/**
+ * Configures an IndexedPropertyStyle prior to use. Once instantiated, PropertyStyles are immutable.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class IndexedPropertyStyleConfig
+	extends BaseTraitStyleConfig
+	implements NeedsResourceResolver {
+
+	//
+	// Private statics
+	//
+
+	private static final String	DEFAULT_FILE	= PropertyIndexWriter.DEFAULT_FILE;
+
+	//
+	// Private members
+	//
+
+	private String				mFile			= DEFAULT_FILE;
+
+	private ResourceResolver	mResourceResolver;
+
+	private PropertyStyle		mFallbackPropertyStyle;
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Sets the location of the index file, as written by <code>PropertyIndexWriter</code>. Defaults
+	 * to <code>META-INF/metawidget-property-index</code>. The file is opened using the
+	 * <code>ResourceResolver</code> (by default, from the CLASSPATH).
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public IndexedPropertyStyleConfig setFile( String file ) {
+
+		mFile = file;
+
+		// Fluent interface
+
+		return this;
+	}
+
+	public void setResourceResolver( ResourceResolver resourceResolver ) {
+
+		mResourceResolver = resourceResolver;
+	}
+
+	/**
+	 * Sets the PropertyStyle to use for types that are not in the index (such as runtime proxies).
+	 * Defaults to <code>JavaBeanPropertyStyle</code>.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public IndexedPropertyStyleConfig setFallbackPropertyStyle( PropertyStyle fallbackPropertyStyle ) {
+
+		mFallbackPropertyStyle = fallbackPropertyStyle;
+
+		// Fluent interface
+
+		return this;
+	}
+
+	@Override
+	public boolean equals( Object that ) {
+
+		if ( this == that ) {
+			return true;
+		}
+
+		if ( !ObjectUtils.nullSafeClassEquals( this, that ) ) {
+			return false;
+		}
+
+		if ( !ObjectUtils.nullSafeEquals( mFile, ( (IndexedPropertyStyleConfig) that ).mFile ) ) {
+			return false;
+		}
+
+		if ( !ObjectUtils.nullSafeEquals( mResourceResolver, ( (IndexedPropertyStyleConfig) that ).mResourceResolver ) ) {
+			return false;
+		}
+
+		if ( !ObjectUtils.nullSafeEquals( mFallbackPropertyStyle, ( (IndexedPropertyStyleConfig) that ).mFallbackPropertyStyle ) ) {
+			return false;
+		}
+
+		return super.equals( that );
+	}
+
+	@Override
+	public int hashCode() {
+
+		int hashCode = super.hashCode();
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mFile );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mResourceResolver );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mFallbackPropertyStyle );
+
+		return hashCode;
+	}
+
+	//
+	// Protected methods
+	//
+
+	protected InputStream getInputStream() {
+
+		return getResourceResolver().openResource( mFile );
+	}
+
+	protected ResourceResolver getResourceResolver() {
+
+		if ( mResourceResolver == null ) {
+
+			// Support programmatic configuration (ie. mResourceResolver is specified automatically
+			// by ConfigReader when using metawidget.xml, but is generally not set manually when
+			// people are creating PropertyStyles by hand)
+
+			return new SimpleResourceResolver();
+		}
+
+		return mResourceResolver;
+	}
+
+	protected PropertyStyle getFallbackPropertyStyle() {
+
+		return mFallbackPropertyStyle;
+	}
+}
@@ -0,0 +1,357 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.impl.propertystyle.indexed;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.inspector.impl.propertystyle.Property;
+import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
+import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle;
+import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle.FieldProperty;
+import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle.JavaBeanProperty;
+import org.metawidget.util.ClassUtils;
+
+/**
+ * Build-time tool that writes a compact, binary index of properties and their runtime annotations,
+ * for use by <code>IndexedPropertyStyle</code>.
+ * <p>
+ * The index is intended to be generated as part of the build and packaged alongside the classes it
+ * describes. At runtime, <code>IndexedPropertyStyle</code> can then answer property and annotation
+ * lookups without reflecting over every getter, setter and private field of every class. Usage:
+ * <p>
+ * <code>java org.metawidget.inspector.impl.propertystyle.indexed.PropertyIndexWriter
+ * target/classes/META-INF/metawidget-property-index com.myapp.Person com.myapp.Address</code>
+ * <p>
+ * For example, using the <code>exec</code> goal of <code>exec-maven-plugin</code> during the
+ * <code>process-classes</code> phase (<code>metawidget-core</code> itself indexes its test classes
+ * this way, during <code>process-test-classes</code>).
+ * <p>
+ * Properties are enumerated using the given <code>PropertyStyle</code> (by default,
+ * <code>JavaBeanPropertyStyle</code>), so any excludes should be configured on that
+ * <code>PropertyStyle</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class PropertyIndexWriter {
+
+	//
+	// Package-level statics
+	//
+
+	/* package private */static final String	DEFAULT_FILE	= "META-INF/metawidget-property-index";
+
+	/* package private */static final String	CHARSET_UTF8	= "UTF-8";
+
+	/* package private */static final int		MAGIC			= 0x4D574958;
+
+	/* package private */static final short	VERSION			= 3;
+
+	/* package private */static final byte		ACCESSOR_NONE	= 0;
+
+	/* package private */static final byte		ACCESSOR_METHOD	= 1;
+
+	/* package private */static final byte		ACCESSOR_FIELD	= 2;
+
+	/* package private */static final byte		VALUE_BOOLEAN	= 'Z';
+
+	/* package private */static final byte		VALUE_BYTE		= 'B';
+
+	/* package private */static final byte		VALUE_CHAR		= 'C';
+
+	/* package private */static final byte		VALUE_SHORT		= 'S';
+
+	/* package private */static final byte		VALUE_INT		= 'I';
+
+	/* package private */static final byte		VALUE_LONG		= 'J';
+
+	/* package private */static final byte		VALUE_FLOAT		= 'F';
+
+	/* package private */static final byte		VALUE_DOUBLE	= 'D';
+
+	/**
+	 * Strings, enum constant names and class names are all written as Strings. They are resolved
+	 * back into their proper types at runtime using the return type of the annotation member.
+	 */
+
+	/* package private */static final byte		VALUE_STRING	= 's';
+
+	/* package private */static final byte		VALUE_ANNOTATION	= '@';
+
+	/* package private */static final byte		VALUE_ARRAY		= '[';
+
+	//
+	// Private members
+	//
+
+	private PropertyStyle						mPropertyStyle;
+
+	//
+	// Constructor
+	//
+
+	public PropertyIndexWriter() {
+
+		this( new JavaBeanPropertyStyle() );
+	}
+
+	public PropertyIndexWriter( PropertyStyle propertyStyle ) {
+
+		mPropertyStyle = propertyStyle;
+	}
+
+	//
+	// Public statics
+	//
+
+	/**
+	 * @param args
+	 *            the file to write, followed by the names of the types to index
+	 */
+
+	public static void main( String... args )
+		throws IOException {
+
+		if ( args.length < 2 ) {
+			System.err.println( "Usage: PropertyIndexWriter <output file> <type> [<type>...]" );
+			System.exit( 1 );
+			return;
+		}
+
+		File file = new File( args[0] );
+		File parent = file.getParentFile();
+
+		if ( parent != null ) {
+			parent.mkdirs();
+		}
+
+		OutputStream out = new FileOutputStream( file );
+
+		try {
+			new PropertyIndexWriter().write( out, Arrays.asList( args ).subList( 1, args.length ) );
+		} finally {
+			out.close();
+		}
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Writes an index of the given types to the given OutputStream. Does not close the stream.
+	 */
+
+	public void write( OutputStream out, List<String> types )
+		throws IOException {
+
+		DataOutputStream data = new DataOutputStream( new BufferedOutputStream( out ) );
+
+		data.writeInt( MAGIC );
+		data.writeShort( VERSION );
+		data.writeInt( types.size() );
+
+		for ( String type : types ) {
+
+			Map<String, Property> properties = mPropertyStyle.getProperties( type );
+
+			writeString( data, type );
+			data.writeInt( properties.size() );
+
+			for ( Property property : properties.values() ) {
+				writeProperty( data, property );
+			}
+		}
+
+		data.flush();
+	}
+
+	//
+	// Private methods
+	//
+
+	private void writeProperty( DataOutputStream data, Property property )
+		throws IOException {
+
+		writeString( data, property.getName() );
+		writeString( data, property.getType() );
+		writeNullableString( data, property.getGenericType() );
+
+		// Accessors
+
+		Class<?> declaringClass;
+
+		if ( property instanceof JavaBeanProperty ) {
+
+			JavaBeanProperty javaBeanProperty = (JavaBeanProperty) property;
+			Method readMethod = javaBeanProperty.getReadMethod();
+			Method writeMethod = javaBeanProperty.getWriteMethod();
+
+			if ( readMethod == null ) {
+				data.writeByte( ACCESSOR_NONE );
+				declaringClass = ClassUtils.getOriginalDeclaringClass( writeMethod );
+			} else {
+				data.writeByte( ACCESSOR_METHOD );
+				writeString( data, readMethod.getName() );
+				declaringClass = ClassUtils.getOriginalDeclaringClass( readMethod );
+			}
+
+			if ( writeMethod == null ) {
+				data.writeByte( ACCESSOR_NONE );
+			} else {
+				data.writeByte( ACCESSOR_METHOD );
+				writeString( data, writeMethod.getName() );
+				writeString( data, writeMethod.getParameterTypes()[0].getName() );
+			}
+
+		} else if ( property instanceof FieldProperty ) {
+
+			Field field = ( (FieldProperty) property ).getField();
+
+			data.writeByte( ACCESSOR_FIELD );
+			writeString( data, field.getName() );
+			data.writeByte( ACCESSOR_FIELD );
+			writeString( data, field.getName() );
+			declaringClass = field.getDeclaringClass();
+
+		} else {
+			throw InspectorException.newException( "Unable to index " + property.getClass() + " '" + property.getName() + "'. Only JavaBeanProperty and FieldProperty are supported" );
+		}
+
+		// Class that originally declared the property, so that IndexedPropertyStyle can apply its
+		// own excludes
+
+		writeString( data, declaringClass.getName() );
+
+		// Annotations, as resolved by the Property itself (so the index respects the same
+		// precedence of getter, then setter, then private field)
+
+		Annotation[] annotations = property.getAnnotations();
+		data.writeInt( annotations.length );
+
+		for ( Annotation annotation : annotations ) {
+			writeString( data, annotation.annotationType().getName() );
+			writeAnnotationMembers( data, annotation );
+		}
+	}
+
+	private void writeAnnotationMembers( DataOutputStream data, Annotation annotation )
+		throws IOException {
+
+		Method[] members = annotation.annotationType().getDeclaredMethods();
+		data.writeInt( members.length );
+
+		for ( Method member : members ) {
+
+			Object value;
+
+			try {
+				member.setAccessible( true );
+				value = member.invoke( annotation );
+			} catch ( Exception e ) {
+				throw InspectorException.newException( e );
+			}
+
+			writeString( data, member.getName() );
+			writeValue( data, value );
+		}
+	}
+
+	private void writeValue( DataOutputStream data, Object value )
+		throws IOException {
+
+		if ( value instanceof Boolean ) {
+			data.writeByte( VALUE_BOOLEAN );
+			data.writeBoolean( (Boolean) value );
+		} else if ( value instanceof Byte ) {
+			data.writeByte( VALUE_BYTE );
+			data.writeByte( (Byte) value );
+		} else if ( value instanceof Character ) {
+			data.writeByte( VALUE_CHAR );
+			data.writeChar( (Character) value );
+		} else if ( value instanceof Short ) {
+			data.writeByte( VALUE_SHORT );
+			data.writeShort( (Short) value );
+		} else if ( value instanceof Integer ) {
+			data.writeByte( VALUE_INT );
+			data.writeInt( (Integer) value );
+		} else if ( value instanceof Long ) {
+			data.writeByte( VALUE_LONG );
+			data.writeLong( (Long) value );
+		} else if ( value instanceof Float ) {
+			data.writeByte( VALUE_FLOAT );
+			data.writeFloat( (Float) value );
+		} else if ( value instanceof Double ) {
+			data.writeByte( VALUE_DOUBLE );
+			data.writeDouble( (Double) value );
+		} else if ( value instanceof String ) {
+			data.writeByte( VALUE_STRING );
+			writeString( data, (String) value );
+		} else if ( value instanceof Enum<?> ) {
+			data.writeByte( VALUE_STRING );
+			writeString( data, ( (Enum<?>) value ).name() );
+		} else if ( value instanceof Class<?> ) {
+			data.writeByte( VALUE_STRING );
+			writeString( data, ( (Class<?>) value ).getName() );
+		} else if ( value instanceof Annotation ) {
+			data.writeByte( VALUE_ANNOTATION );
+			writeAnnotationMembers( data, (Annotation) value );
+		} else if ( value.getClass().isArray() ) {
+			int length = Array.getLength( value );
+			data.writeByte( VALUE_ARRAY );
+			data.writeInt( length );
+
+			for ( int loop = 0; loop < length; loop++ ) {
+				writeValue( data, Array.get( value, loop ) );
+			}
+		} else {
+			throw InspectorException.newException( "Unable to index annotation value " + value + " of " + value.getClass() );
+		}
+	}
+
+	/**
+	 * Writes the given String as a length-prefixed array of UTF-8 bytes. Unlike
+	 * <code>DataOutputStream.writeUTF</code>, this is not limited to 64KB (eg. for long annotation
+	 * values).
+	 */
+
+	private void writeString( DataOutputStream data, String value )
+		throws IOException {
+
+		byte[] bytes = value.getBytes( CHARSET_UTF8 );
+		data.writeInt( bytes.length );
+		data.write( bytes );
+	}
+
+	private void writeNullableString( DataOutputStream data, String value )
+		throws IOException {
+
+		data.writeBoolean( value != null );
+
+		if ( value != null ) {
+			writeString( data, value );
+		}
+	}
+}
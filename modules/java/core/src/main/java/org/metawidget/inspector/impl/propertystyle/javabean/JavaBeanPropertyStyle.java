@@ -17,8 +17,12 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.metawidget.inspector.iface.InspectorException;
 import org.metawidget.inspector.impl.propertystyle.BaseProperty;
@@ -64,6 +68,12 @@ public class JavaBeanPropertyStyle
 
 	private MessageFormat	mPrivateFieldConvention;
 
+	/**
+	 * Guards <code>mPrivateFieldConvention</code>, as MessageFormat is not Thread safe.
+	 */
+
+	private final Lock		mPrivateFieldConventionLock	= new ReentrantLock();
+
 	private ClassLoader		mAdditionalClassLoader;
 
 	//
@@ -407,8 +417,12 @@ public class JavaBeanPropertyStyle
 		String[] arguments = new String[] { propertyName, StringUtils.capitalize( propertyName ) };
 		String fieldName;
 
-		synchronized ( mPrivateFieldConvention ) {
+		mPrivateFieldConventionLock.lock();
+
+		try {
 			fieldName = mPrivateFieldConvention.format( arguments );
+		} finally {
+			mPrivateFieldConventionLock.unlock();
 		}
 
 		// Go looking for such a field, traversing the superclass heirarchy as necessary
@@ -495,7 +509,7 @@ public class JavaBeanPropertyStyle
 
 		public <T extends Annotation> T getAnnotation( Class<T> annotation ) {
 
-			return mField.getAnnotation( annotation );
+			return getResolvedAnnotation( annotation );
 		}
 
 		public String getGenericType() {
@@ -507,6 +521,16 @@ public class JavaBeanPropertyStyle
 
 			return mField;
 		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected Annotation[] resolveAnnotations() {
+
+			return mField.getAnnotations();
+		}
 	}
 
 	/**
@@ -590,33 +614,7 @@ public class JavaBeanPropertyStyle
 
 		public <T extends Annotation> T getAnnotation( Class<T> annotationClass ) {
 
-			if ( mReadMethod != null ) {
-				T annotation = ClassUtils.getOriginalAnnotation( mReadMethod, annotationClass );
-
-				if ( annotation != null ) {
-					return annotation;
-				}
-			}
-
-			if ( mWriteMethod != null ) {
-				T annotation = ClassUtils.getOriginalAnnotation( mWriteMethod, annotationClass );
-
-				if ( annotation != null ) {
-					return annotation;
-				}
-			}
-
-			if ( mPrivateField != null ) {
-				T annotation = mPrivateField.getAnnotation( annotationClass );
-
-				if ( annotation != null ) {
-					return annotation;
-				}
-
-				return null;
-			}
-
-			return null;
+			return getResolvedAnnotation( annotationClass );
 		}
 
 		public String getGenericType() {
@@ -653,5 +651,33 @@ public class JavaBeanPropertyStyle
 
 			return mPrivateField;
 		}
+
+		//
+		// Protected methods
+		//
+
+		/**
+		 * Resolves annotations from the getter, then the setter, then the private field (if any).
+		 */
+
+		@Override
+		protected Annotation[] resolveAnnotations() {
+
+			List<Annotation> annotations = CollectionUtils.newArrayList();
+
+			if ( mReadMethod != null ) {
+				annotations.addAll( Arrays.asList( ClassUtils.getOriginalAnnotations( mReadMethod ) ) );
+			}
+
+			if ( mWriteMethod != null ) {
+				annotations.addAll( Arrays.asList( ClassUtils.getOriginalAnnotations( mWriteMethod ) ) );
+			}
+
+			if ( mPrivateField != null ) {
+				annotations.addAll( Arrays.asList( mPrivateField.getAnnotations() ) );
+			}
+
+			return annotations.toArray( new Annotation[annotations.size()] );
+		}
 	}
 }
@@ -88,4 +88,14 @@ public class XmlInspectorConfig
 
 		return (XmlInspectorConfig) super.setValidateAgainstClasses( validateAgainstClasses );
 	}
+
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public XmlInspectorConfig setSharedModel( boolean sharedModel ) {
+
+		return (XmlInspectorConfig) super.setSharedModel( sharedModel );
+	}
 }
@@ -11,17 +11,32 @@
 
 package org.metawidget.layout.decorator;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.metawidget.layout.iface.LazyLayout;
+
 /**
  * Convenience base class for LayoutDecorators wishing to decorate widgets based on changing
  * sections, rendering multi-level sections (ie. section="foo,bar") as nested components.
+ * <p>
+ * Subclasses can choose to materialize sections <em>lazily</em> (see <code>isLazy</code>). For
+ * example, a tabbed LayoutDecorator might only materialize a tab once it is first shown. If this
+ * LayoutDecorator is the Metawidget's (outermost) Layout, the widgets of a lazy section are not
+ * even built until <code>LazySection.layout</code> is called: the pipeline skips their
+ * WidgetBuilders, WidgetProcessors and Layouts (see <code>LazyLayout</code>). Bindings for widgets
+ * that have never been built are never saved, so the values behind them are left untouched.
+ * Otherwise (eg. if this LayoutDecorator is itself decorated) the widgets are still built and
+ * processed up front, and only their layout is deferred.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
 
 public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
-	extends LayoutDecorator<W, C, M> {
+	extends LayoutDecorator<W, C, M>
+	implements LazyLayout<W, C, M> {
 
 	//
 	// Constructor
@@ -44,21 +59,77 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 		State<C> state = getState( container, metawidget );
 		state.setCurrentSection( null );
 		state.setCurrentSectionWidget( null );
+		state.setCurrentLazySection( null );
+	}
+
+	public boolean deferWidget( String elementName, Map<String, String> attributes, C container, M metawidget, DeferredWidget deferredWidget ) {
+
+		// Quick exit if nothing could be lazy
+
+		State<C> state = getState( container, metawidget );
+
+		if ( state.getCurrentLazySection() == null && !isLazy( state.getCurrentSectionWidget() ) ) {
+			return false;
+		}
+
+		// (strip a copy, as the attributes will be needed intact when the widget is built)
+
+		Map<String, String> strippedAttributes = new HashMap<String, String>( attributes );
+		String section = stripSection( strippedAttributes );
+
+		// Stay where we are?
+
+		if ( section == null || section.equals( state.getCurrentSection() ) ) {
+			if ( state.getCurrentLazySection() == null ) {
+				return false;
+			}
+
+			if ( !isDeferrable( elementName, attributes, metawidget ) ) {
+				return false;
+			}
+
+			getCurrentLazySection( state ).addDeferredWidget( deferredWidget );
+			return true;
+		}
+
+		// Start a new, lazy section?
+
+		if ( "".equals( section ) || !isLazy( state.getCurrentSectionWidget() ) ) {
+			return false;
+		}
+
+		if ( !isDeferrable( elementName, attributes, metawidget ) ) {
+			return false;
+		}
+
+		startLazySection( section, strippedAttributes, container, metawidget, state ).addDeferredWidget( deferredWidget );
+		return true;
 	}
 
 	@Override
 	public void layoutWidget( W widget, String elementName, Map<String, String> attributes, C container, M metawidget ) {
 
+		State<C> state = getState( container, metawidget );
+
+		// Building a deferred widget?
+
+		if ( state.getLazySectionBeingLaidOut() != null ) {
+			stripSection( attributes );
+			super.layoutWidget( widget, elementName, attributes, getLazySectionBeingLaidOut( state ).getSectionWidget(), metawidget );
+			return;
+		}
+
 		// Stay where we are?
 		//
 		// Note: Ignore empty stubs. Do not create a new section in case it ends up being empty
 
 		String section = stripSection( attributes );
-		State<C> state = getState( container, metawidget );
 
 		if ( isIgnored( widget ) || section == null || section.equals( state.getCurrentSection() ) ) {
 			if ( state.getCurrentSectionWidget()== null ) {
 				super.layoutWidget( widget, elementName, attributes, container, metawidget );
+			} else if ( state.getCurrentLazySection() != null ) {
+				getCurrentLazySection( state ).addWidget( widget, elementName, attributes );
 			} else {
 				super.layoutWidget( widget, elementName, attributes, state.getCurrentSectionWidget(), metawidget );
 			}
@@ -66,26 +137,25 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 			return;
 		}
 
-		// End current section
-
-		C previousSectionWidget = state.getCurrentSectionWidget();
-
-		if ( state.getCurrentSectionWidget()!= null ) {
-			super.endContainerLayout( state.getCurrentSectionWidget(), metawidget );
-		}
-
-		state.setCurrentSection( section );
-		state.setCurrentSectionWidget( null );
-
 		// No new section?
 
 		if ( "".equals( section ) ) {
+			endCurrentSection( metawidget, state );
 			super.layoutWidget( widget, elementName, attributes, container, metawidget );
 			return;
 		}
 
+		// Start new (lazy) section
+
+		if ( isLazy( state.getCurrentSectionWidget() ) ) {
+			startLazySection( section, attributes, container, metawidget, state ).addWidget( widget, elementName, attributes );
+			return;
+		}
+
 		// Start new section
 
+		C previousSectionWidget = endCurrentSection( metawidget, state );
+		state.setCurrentSection( section );
 		state.setCurrentSectionWidget( createSectionWidget( previousSectionWidget, section, attributes, container, metawidget ));
 		super.startContainerLayout( state.getCurrentSectionWidget(), metawidget );
 
@@ -100,14 +170,9 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 		// End hanging layouts
 
 		State<C> state = getState( container, metawidget );
-
-		if ( state.getCurrentSectionWidget()!= null ) {
-			super.endContainerLayout( state.getCurrentSectionWidget(), metawidget );
-		}
+		endCurrentSection( metawidget, state );
 
 		super.endContainerLayout( container, metawidget );
-		state.setCurrentSection( null );
-		state.setCurrentSectionWidget( null );
 	}
 
 	//
@@ -130,6 +195,100 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 
 	protected abstract C createSectionWidget( C previousSectionWidget, String section, Map<String, String> attributes, C container, M metawidget );
 
+	/**
+	 * Whether the section about to be created should be materialized lazily. If true, the section
+	 * widget is still created (using <code>createSectionWidget</code>) but its contents are not
+	 * built or laid out until <code>LazySection.layout</code> is called. Subclasses that return
+	 * true must also override <code>deferSection</code>.
+	 * <p>
+	 * Returns false by default.
+	 *
+	 * @param previousSectionWidget
+	 *            the previous section widget (if any). For example, a tabbed LayoutDecorator will
+	 *            generally want to lay out its first tab eagerly, as it is visible immediately
+	 */
+
+	protected boolean isLazy( C previousSectionWidget ) {
+
+		return false;
+	}
+
+	/**
+	 * Whether the given widget, which belongs to a lazy section, can have its building deferred. If
+	 * not, it is built up front and only its layout is deferred.
+	 * <p>
+	 * Only called for widgets in lazy sections. Returns true by default. Subclasses should return
+	 * false for widgets that can only be built during the initial build (eg. widgets overridden by
+	 * the client).
+	 */
+
+	protected boolean isDeferrable( String elementName, Map<String, String> attributes, M metawidget ) {
+
+		return true;
+	}
+
+	/**
+	 * Called when a lazy section has been created. Subclasses should arrange for
+	 * <code>lazySection.layout()</code> to be called when the section is first shown (or otherwise
+	 * needed).
+	 * <p>
+	 * By default, lays out the section immediately.
+	 */
+
+	protected void deferSection( C sectionWidget, LazySection lazySection, M metawidget ) {
+
+		lazySection.layout();
+	}
+
+	@SuppressWarnings( "unchecked" )
+	protected LazySection getCurrentLazySection( State<C> state ) {
+
+		return (LazySection) state.getCurrentLazySection();
+	}
+
+	@SuppressWarnings( "unchecked" )
+	protected LazySection getLazySectionBeingLaidOut( State<C> state ) {
+
+		return (LazySection) state.getLazySectionBeingLaidOut();
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Ends the current section (if any), and returns its widget.
+	 */
+
+	private C endCurrentSection( M metawidget, State<C> state ) {
+
+		C currentSectionWidget = state.getCurrentSectionWidget();
+
+		if ( currentSectionWidget != null && state.getCurrentLazySection() == null ) {
+			super.endContainerLayout( currentSectionWidget, metawidget );
+		}
+
+		state.setCurrentSection( null );
+		state.setCurrentSectionWidget( null );
+		state.setCurrentLazySection( null );
+
+		return currentSectionWidget;
+	}
+
+	private LazySection startLazySection( String section, Map<String, String> attributes, C container, M metawidget, State<C> state ) {
+
+		C previousSectionWidget = endCurrentSection( metawidget, state );
+		C sectionWidget = createSectionWidget( previousSectionWidget, section, attributes, container, metawidget );
+		LazySection lazySection = new LazySection( sectionWidget, container, metawidget );
+
+		state.setCurrentSection( section );
+		state.setCurrentSectionWidget( sectionWidget );
+		state.setCurrentLazySection( lazySection );
+		deferSection( sectionWidget, lazySection, metawidget );
+
+		return lazySection;
+	}
+
 	//
 	// Inner class
 	//
@@ -144,9 +303,13 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 		// Private members
 		//
 
-		private String	mCurrentSection;
+		private String											mCurrentSection;
+
+		private C												mCurrentSectionWidget;
 
-		private C		mCurrentSectionWidget;
+		private NestedSectionLayoutDecorator<?, ?, ?>.LazySection	mCurrentLazySection;
+
+		private NestedSectionLayoutDecorator<?, ?, ?>.LazySection	mLazySectionBeingLaidOut;
 
 		//
 		// Public methods
@@ -171,5 +334,197 @@ public abstract class NestedSectionLayoutDecorator<W, C extends W, M extends C>
 
 			mCurrentSectionWidget = currentSectionWidget;
 		}
+
+		/**
+		 * @return the LazySection recording the current section, or null if the current section is
+		 *         being laid out eagerly
+		 */
+
+		public NestedSectionLayoutDecorator<?, ?, ?>.LazySection getCurrentLazySection() {
+
+			return mCurrentLazySection;
+		}
+
+		public void setCurrentLazySection( NestedSectionLayoutDecorator<?, ?, ?>.LazySection currentLazySection ) {
+
+			mCurrentLazySection = currentLazySection;
+		}
+
+		/**
+		 * @return the LazySection whose deferred widgets are currently being built, or null
+		 */
+
+		public NestedSectionLayoutDecorator<?, ?, ?>.LazySection getLazySectionBeingLaidOut() {
+
+			return mLazySectionBeingLaidOut;
+		}
+
+		public void setLazySectionBeingLaidOut( NestedSectionLayoutDecorator<?, ?, ?>.LazySection lazySectionBeingLaidOut ) {
+
+			mLazySectionBeingLaidOut = lazySectionBeingLaidOut;
+		}
+	}
+
+	/**
+	 * Records the widgets of a section, so that they can be built and laid out later.
+	 */
+
+	public class LazySection {
+
+		//
+		// Private members
+		//
+
+		private C						mSectionWidget;
+
+		private C						mContainer;
+
+		private M						mMetawidget;
+
+		private List<LazyWidget<W>>		mWidgets	= new ArrayList<LazyWidget<W>>();
+
+		//
+		// Constructor
+		//
+
+		/* package private */LazySection( C sectionWidget, C container, M metawidget ) {
+
+			mSectionWidget = sectionWidget;
+			mContainer = container;
+			mMetawidget = metawidget;
+		}
+
+		//
+		// Public methods
+		//
+
+		/**
+		 * Builds and lays out the recorded widgets into the section widget. Does nothing if the
+		 * section has already been laid out.
+		 */
+
+		public void layout() {
+
+			if ( isLaidOut() ) {
+				return;
+			}
+
+			List<LazyWidget<W>> widgets = mWidgets;
+			mWidgets = null;
+
+			NestedSectionLayoutDecorator.super.startContainerLayout( mSectionWidget, mMetawidget );
+
+			for ( LazyWidget<W> widget : widgets ) {
+				DeferredWidget deferredWidget = widget.getDeferredWidget();
+
+				if ( deferredWidget == null ) {
+					NestedSectionLayoutDecorator.super.layoutWidget( widget.getWidget(), widget.getElementName(), widget.getAttributes(), mSectionWidget, mMetawidget );
+					continue;
+				}
+
+				// Building the widget runs the rest of the pipeline, which calls back into our
+				// layoutWidget
+
+				State<C> state = getState( mContainer, mMetawidget );
+				state.setLazySectionBeingLaidOut( this );
+
+				try {
+					deferredWidget.build();
+				} finally {
+					state.setLazySectionBeingLaidOut( null );
+				}
+			}
+
+			NestedSectionLayoutDecorator.super.endContainerLayout( mSectionWidget, mMetawidget );
+		}
+
+		public boolean isLaidOut() {
+
+			return ( mWidgets == null );
+		}
+
+		public C getSectionWidget() {
+
+			return mSectionWidget;
+		}
+
+		/**
+		 * Records a widget that has already been built, to be laid out with the rest of the
+		 * section.
+		 */
+
+		public void addWidget( W widget, String elementName, Map<String, String> attributes ) {
+
+			mWidgets.add( new LazyWidget<W>( widget, elementName, attributes ) );
+		}
+
+		//
+		// Private methods
+		//
+
+		/* package private */void addDeferredWidget( DeferredWidget deferredWidget ) {
+
+			mWidgets.add( new LazyWidget<W>( deferredWidget ) );
+		}
+	}
+
+	/**
+	 * Simple, lightweight structure for recording a widget. Either the widget has already been
+	 * built (and just needs laying out), or it has been deferred.
+	 */
+
+	private static class LazyWidget<W> {
+
+		//
+		// Private members
+		//
+
+		private W					mWidget;
+
+		private String				mElementName;
+
+		private Map<String, String>	mAttributes;
+
+		private DeferredWidget		mDeferredWidget;
+
+		//
+		// Constructor
+		//
+
+		public LazyWidget( W widget, String elementName, Map<String, String> attributes ) {
+
+			mWidget = widget;
+			mElementName = elementName;
+			mAttributes = attributes;
+		}
+
+		public LazyWidget( DeferredWidget deferredWidget ) {
+
+			mDeferredWidget = deferredWidget;
+		}
+
+		//
+		// Public methods
+		//
+
+		public W getWidget() {
+
+			return mWidget;
+		}
+
+		public String getElementName() {
+
+			return mElementName;
+		}
+
+		public Map<String, String> getAttributes() {
+
+			return mAttributes;
+		}
+
+		public DeferredWidget getDeferredWidget() {
+
+			return mDeferredWidget;
+		}
 	}
 }
@@ -0,0 +1,72 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.layout.iface;
+
+import java.util.Map;
+
+/**
+ * Interface for Layouts that can defer building, processing and laying out some widgets until
+ * they are needed (eg. a tab that has not been shown yet).
+ * <p>
+ * Before building each widget, the pipeline asks its (outermost) Layout whether to defer it. If
+ * the Layout agrees, the pipeline skips the widget entirely: no WidgetBuilders, WidgetProcessors
+ * or Layouts are run for it. Later, the Layout calls <code>DeferredWidget.build</code> to run the
+ * rest of the pipeline for that widget, at which point the Layout's <code>layoutWidget</code> is
+ * called as normal.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface LazyLayout<W, C extends W, M extends C>
+	extends AdvancedLayout<W, C, M> {
+
+	//
+	// Methods
+	//
+
+	/**
+	 * Called by the pipeline before it builds each widget.
+	 *
+	 * @param elementName
+	 *            XML node name of the business field. Typically 'property' or 'action'. Never null
+	 * @param attributes
+	 *            attributes of the widget to be built. Never null. Layouts should not modify this
+	 *            Map, as it will be passed to the WidgetBuilders if the widget is built now
+	 * @param container
+	 *            the container the widget would be added to
+	 * @param metawidget
+	 *            the parent Metawidget. Never null
+	 * @param deferredWidget
+	 *            callback to build the widget later, if the Layout decides to defer it
+	 * @return true if the Layout has deferred the widget (and will call
+	 *         <code>deferredWidget.build</code> when it needs it), false to build it now
+	 */
+
+	boolean deferWidget( String elementName, Map<String, String> attributes, C container, M metawidget, DeferredWidget deferredWidget );
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Callback to build, process and lay out a widget the Layout previously deferred.
+	 */
+
+	interface DeferredWidget {
+
+		//
+		// Methods
+		//
+
+		void build();
+	}
+}
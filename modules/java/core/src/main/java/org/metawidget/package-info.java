@@ -11,6 +11,11 @@
 
 /**
  * Root Metawidget package.
+ * <h3>Threading</h3>
+ * Code that may block while holding a lock (eg. parsing, reflecting or compiling a pipeline)
+ * guards it with <code>java.util.concurrent</code> locks rather than <code>synchronized</code>
+ * monitors, so that virtual Threads waiting on it do not pin their carrier Threads. Read-mostly
+ * caches use <code>ConcurrentMap</code>s and do their slow work outside of any lock.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -25,6 +25,9 @@ import org.metawidget.inspector.iface.DomInspector;
 import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.layout.iface.AdvancedLayout;
 import org.metawidget.layout.iface.Layout;
+import org.metawidget.layout.iface.LayoutException;
+import org.metawidget.layout.iface.LazyLayout;
+import org.metawidget.layout.iface.LazyLayout.DeferredWidget;
 import org.metawidget.widgetbuilder.iface.AdvancedWidgetBuilder;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 import org.metawidget.widgetprocessor.iface.AdvancedWidgetProcessor;
@@ -50,7 +53,8 @@ import org.metawidget.widgetprocessor.iface.WidgetProcessorException;
  * subclasses will choose <code>org.metawidget.pipeline.w3c.W3CPipeline</code>, which uses
  * <code>org.w3c.dom</code>.
  * <p>
- * <em>BasePipeline is not Thread-safe.</em>
+ * <em>BasePipeline is not Thread-safe.</em> To share a configured pipeline between Threads, see
+ * <code>org.metawidget.pipeline.w3c.W3CPipeline.compile</code>.
  * <p>
  * Note: this class is located in <code>org.metawidget.pipeline.base</code>, as opposed to just
  * <code>org.metawidget.pipeline</code>, to make it easier to integrate GWT (which is bad at
@@ -75,6 +79,8 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 
 	private int									mMaximumInspectionDepth				= DEFAULT_MAXIMUM_INSPECTION_DEPTH;
 
+	private boolean								mDeferNestedMetawidgets;
+
 	private boolean								mNeedsConfiguring					= true;
 
 	private Inspector							mInspector;
@@ -126,6 +132,30 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 		mMaximumInspectionDepth = maximumInspectionDepth;
 	}
 
+	public boolean isDeferNestedMetawidgets() {
+
+		return mDeferNestedMetawidgets;
+	}
+
+	/**
+	 * Sets whether nested Metawidgets should be built lazily.
+	 * <p>
+	 * By default, platforms build nested Metawidgets as soon as they are laid out, so building a
+	 * Metawidget inspects its entire object graph (down to <code>maximumInspectionDepth</code>).
+	 * If nested Metawidgets are deferred, <code>buildNestedMetawidget</code> still creates them
+	 * (carrying their parent's attributes), but they are only inspected and built on first access,
+	 * such as when first painted or when a child component is looked up by name. This can
+	 * considerably speed up building forms over deep object graphs, where most nested objects are
+	 * never displayed.
+	 * <p>
+	 * Honoured by platforms whose Metawidgets support building widgets just-in-time.
+	 */
+
+	public void setDeferNestedMetawidgets( boolean deferNestedMetawidgets ) {
+
+		mDeferNestedMetawidgets = deferNestedMetawidgets;
+	}
+
 	public void setNeedsConfiguring() {
 
 		mNeedsConfiguring = true;
@@ -437,6 +467,7 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 	 * <li>the given pipeline is initialised with a maximumInspectionDepth of 1 less than the
 	 * current maximumInspectionDepth. This is so that, as nesting continues, eventually the
 	 * maximumInspectionDepth reaches zero</li>
+	 * <li>the given pipeline defers its own nested Metawidgets if the current pipeline does</li>
 	 * <li>the given pipeline is initialised with the same Inspectors, InspectionResultProcessors,
 	 * WidgetBuilders, WidgetProcessors and Layouts as the current pipeline. This is safe because
 	 * they are all immutable</li>
@@ -450,6 +481,7 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 
 		nestedPipeline.setReadOnly( isReadOnly() || ( attributes != null && TRUE.equals( attributes.get( READ_ONLY ) ) ) );
 		nestedPipeline.setMaximumInspectionDepth( getMaximumInspectionDepth() - 1 );
+		nestedPipeline.setDeferNestedMetawidgets( isDeferNestedMetawidgets() );
 
 		// Inspectors, InspectionResultProcessors, WidgetBuilders,
 		// WidgetProcessors and Layouts can be shared because they are immutable. However note that
@@ -529,44 +561,44 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 			}
 
 			try {
-				W widget = buildWidget( elementName, attributes );
+				// Layout may want to defer this widget (eg. a tab that has not been shown yet)
 
-				if ( widget == null ) {
-					if ( mMaximumInspectionDepth <= 0 ) {
-						continue;
-					}
-
-					// If setReadOnly( true ), remove our forced attribute so the nestedMetawidget
-					// can differentiate whether it was forced or in the inspector XML
+				if ( mLayout instanceof LazyLayout<?, ?, ?> ) {
+					M pipelineOwner = getPipelineOwner();
+					DeferredWidget deferredWidget = new PipelineDeferredWidget( elementName, attributes, forcedReadOnly );
 
-					if ( forcedReadOnly ) {
-						attributes.remove( READ_ONLY );
+					if ( ( (LazyLayout<W, C, M>) mLayout ).deferWidget( elementName, attributes, pipelineOwner, pipelineOwner, deferredWidget ) ) {
+						continue;
 					}
-
-					widget = buildNestedMetawidget( attributes );
 				}
 
-				Map<String, String> additionalAttributes = getAdditionalAttributes( widget );
-
-				if ( additionalAttributes != null ) {
-					attributes.putAll( additionalAttributes );
-				}
-
-				widget = processWidget( widget, elementName, attributes );
-
-				// A WidgetProcessor could return null to cancel the widget
-
-				if ( widget == null ) {
-					continue;
-				}
-
-				layoutWidget( widget, elementName, attributes );
+				buildAndLayoutWidget( elementName, attributes, forcedReadOnly );
 			} finally {
 				child = getNextSiblingElement( child );
 			}
 		}
 	}
 
+	/**
+	 * Uses the given Lists of processors as they are, rather than copying them as
+	 * <code>setInspectionResultProcessors</code> and <code>setWidgetProcessors</code> do.
+	 * <p>
+	 * For short-lived pipelines whose processors are shared with other pipelines and can never
+	 * change (such as those that run a <code>CompiledPipeline</code>), so the Lists should be
+	 * unmodifiable.
+	 *
+	 * @param inspectionResultProcessors
+	 *            may be null
+	 * @param widgetProcessors
+	 *            may be null
+	 */
+
+	protected void shareProcessors( List<InspectionResultProcessor<M>> inspectionResultProcessors, List<WidgetProcessor<W, M>> widgetProcessors ) {
+
+		mInspectionResultProcessors = inspectionResultProcessors;
+		mWidgetProcessors = widgetProcessors;
+	}
+
 	//
 	// Protected abstract methods
 	//
@@ -751,4 +783,95 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 			( (AdvancedWidgetBuilder<W, M>) mWidgetBuilder ).onEndBuild( pipelineOwner );
 		}
 	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Builds, processes and lays out a single child of a compound widget.
+	 */
+
+	private void buildAndLayoutWidget( String elementName, Map<String, String> attributes, boolean forcedReadOnly )
+		throws Exception {
+
+		W widget = buildWidget( elementName, attributes );
+
+		if ( widget == null ) {
+			if ( mMaximumInspectionDepth <= 0 ) {
+				return;
+			}
+
+			// If setReadOnly( true ), remove our forced attribute so the nestedMetawidget
+			// can differentiate whether it was forced or in the inspector XML
+
+			if ( forcedReadOnly ) {
+				attributes.remove( READ_ONLY );
+			}
+
+			widget = buildNestedMetawidget( attributes );
+		}
+
+		Map<String, String> additionalAttributes = getAdditionalAttributes( widget );
+
+		if ( additionalAttributes != null ) {
+			attributes.putAll( additionalAttributes );
+		}
+
+		widget = processWidget( widget, elementName, attributes );
+
+		// A WidgetProcessor could return null to cancel the widget
+
+		if ( widget == null ) {
+			return;
+		}
+
+		layoutWidget( widget, elementName, attributes );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Builds a widget deferred by a <code>LazyLayout</code>.
+	 */
+
+	private class PipelineDeferredWidget
+		implements DeferredWidget {
+
+		//
+		// Private members
+		//
+
+		private final String				mElementName;
+
+		private final Map<String, String>	mAttributes;
+
+		private final boolean				mForcedReadOnly;
+
+		//
+		// Constructor
+		//
+
+		public PipelineDeferredWidget( String elementName, Map<String, String> attributes, boolean forcedReadOnly ) {
+
+			mElementName = elementName;
+			mAttributes = attributes;
+			mForcedReadOnly = forcedReadOnly;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void build() {
+
+			try {
+				buildAndLayoutWidget( mElementName, mAttributes, mForcedReadOnly );
+			} catch ( Exception e ) {
+				throw LayoutException.newException( e );
+			}
+		}
+	}
 }
@@ -0,0 +1,359 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.pipeline.w3c;
+
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.layout.iface.Layout;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.widgetbuilder.iface.WidgetBuilder;
+import org.metawidget.widgetprocessor.iface.WidgetProcessor;
+import org.w3c.dom.Element;
+
+/**
+ * Immutable, Thread-safe snapshot of a configured <code>W3CPipeline</code>.
+ * <p>
+ * <code>W3CPipeline</code>s are mutable and per-Metawidget, which makes them awkward to share
+ * between Threads: <code>configureOnce</code> is not Thread-safe, and each nested pipeline
+ * defensively copies its lists of processors. This is a problem for server-side code (such as a
+ * servlet answering remote inspections, or a generator rendering static Metawidgets in parallel)
+ * that wants to run many inspections through the same configuration.
+ * <p>
+ * A <code>CompiledPipeline</code> is obtained by calling <code>W3CPipeline.compile</code>, which
+ * configures the pipeline once and captures its Inspector, InspectionResultProcessors,
+ * WidgetBuilder, WidgetProcessors and Layout (all of which are themselves immutable) along with
+ * its settings. Thereafter any number of Threads can call <code>inspectAsDom</code> and
+ * <code>buildWidgets</code> concurrently, without locking and without further configuration.
+ * Anything specific to a single call (the pipeline owner, stubs, nested Metawidgets) is supplied
+ * by a per-call <code>Context</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public final class CompiledPipeline<W, C extends W, M extends C> {
+
+	//
+	// Private members
+	//
+
+	private final boolean								mReadOnly;
+
+	private final int									mMaximumInspectionDepth;
+
+	private final boolean								mDeferNestedMetawidgets;
+
+	private final Inspector								mInspector;
+
+	private final List<InspectionResultProcessor<M>>	mInspectionResultProcessors;
+
+	private final WidgetBuilder<W, M>					mWidgetBuilder;
+
+	private final List<WidgetProcessor<W, M>>			mWidgetProcessors;
+
+	private final Layout<W, C, M>						mLayout;
+
+	//
+	// Constructor
+	//
+
+	/* package private */CompiledPipeline( W3CPipeline<W, C, M> pipeline ) {
+
+		mReadOnly = pipeline.isReadOnly();
+		mMaximumInspectionDepth = pipeline.getMaximumInspectionDepth();
+		mDeferNestedMetawidgets = pipeline.isDeferNestedMetawidgets();
+		mInspector = pipeline.getInspector();
+		mWidgetBuilder = pipeline.getWidgetBuilder();
+		mLayout = pipeline.getLayout();
+
+		List<InspectionResultProcessor<M>> inspectionResultProcessors = pipeline.getInspectionResultProcessors();
+
+		if ( inspectionResultProcessors == null ) {
+			mInspectionResultProcessors = null;
+		} else {
+			mInspectionResultProcessors = Collections.unmodifiableList( CollectionUtils.newArrayList( inspectionResultProcessors ) );
+		}
+
+		List<WidgetProcessor<W, M>> widgetProcessors = pipeline.getWidgetProcessors();
+
+		if ( widgetProcessors == null ) {
+			mWidgetProcessors = null;
+		} else {
+			mWidgetProcessors = Collections.unmodifiableList( CollectionUtils.newArrayList( widgetProcessors ) );
+		}
+	}
+
+	private CompiledPipeline( CompiledPipeline<W, C, M> parent, boolean readOnly ) {
+
+		mReadOnly = readOnly;
+		mMaximumInspectionDepth = parent.mMaximumInspectionDepth - 1;
+		mDeferNestedMetawidgets = parent.mDeferNestedMetawidgets;
+		mInspector = parent.mInspector;
+		mInspectionResultProcessors = parent.mInspectionResultProcessors;
+		mWidgetBuilder = parent.mWidgetBuilder;
+		mWidgetProcessors = parent.mWidgetProcessors;
+		mLayout = parent.mLayout;
+	}
+
+	//
+	// Public methods
+	//
+
+	public boolean isReadOnly() {
+
+		return mReadOnly;
+	}
+
+	public int getMaximumInspectionDepth() {
+
+		return mMaximumInspectionDepth;
+	}
+
+	public boolean isDeferNestedMetawidgets() {
+
+		return mDeferNestedMetawidgets;
+	}
+
+	public Inspector getInspector() {
+
+		return mInspector;
+	}
+
+	/**
+	 * @return an unmodifiable List of InspectionResultProcessors. May be null
+	 */
+
+	public List<InspectionResultProcessor<M>> getInspectionResultProcessors() {
+
+		return mInspectionResultProcessors;
+	}
+
+	public WidgetBuilder<W, M> getWidgetBuilder() {
+
+		return mWidgetBuilder;
+	}
+
+	/**
+	 * @return an unmodifiable List of WidgetProcessors. May be null
+	 */
+
+	public List<WidgetProcessor<W, M>> getWidgetProcessors() {
+
+		return mWidgetProcessors;
+	}
+
+	public Layout<W, C, M> getLayout() {
+
+		return mLayout;
+	}
+
+	/**
+	 * Inspect the given Object according to the given path, and run the InspectionResultProcessors.
+	 * <p>
+	 * Convenience method for callers (such as servlets) that only inspect, and so need no
+	 * <code>Context</code> beyond the pipeline owner.
+	 *
+	 * @param pipelineOwner
+	 *            passed to the InspectionResultProcessors. May be null
+	 */
+
+	public Element inspectAsDom( M pipelineOwner, Object toInspect, String type, String... names ) {
+
+		return inspectAsDom( new OwnerContext<W, M>( pipelineOwner ), toInspect, type, names );
+	}
+
+	public Element inspectAsDom( Context<W, M> context, Object toInspect, String type, String... names ) {
+
+		return new CallPipeline<W, C, M>( this, context ).inspectAsDom( toInspect, type, names );
+	}
+
+	/**
+	 * Build widgets from the given inspection result, using the given per-call context.
+	 */
+
+	public void buildWidgets( Element inspectionResult, Context<W, M> context )
+		throws Exception {
+
+		new CallPipeline<W, C, M>( this, context ).buildWidgets( inspectionResult );
+	}
+
+	/**
+	 * Returns the <code>CompiledPipeline</code> for a nested Metawidget. This is the equivalent of
+	 * <code>BasePipeline.initNestedPipeline</code>: the nested pipeline is read-only if this
+	 * pipeline is read-only <em>or</em> if the attributes contain <code>READ_ONLY</code>, and its
+	 * maximum inspection depth is 1 less than this one. Unlike <code>initNestedPipeline</code>,
+	 * nothing is copied because nothing can change.
+	 *
+	 * @param attributes
+	 *            may be null
+	 */
+
+	public CompiledPipeline<W, C, M> compileNested( Map<String, String> attributes ) {
+
+		return new CompiledPipeline<W, C, M>( this, mReadOnly || ( attributes != null && TRUE.equals( attributes.get( READ_ONLY ) ) ) );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Everything specific to a single call of a <code>CompiledPipeline</code>.
+	 */
+
+	public interface Context<W, M> {
+
+		//
+		// Methods
+		//
+
+		/**
+		 * The Metawidget passed to each InspectionResultProcessor, WidgetBuilder, WidgetProcessor
+		 * and Layout. Also serves as the container passed to the Layout.
+		 */
+
+		M getPipelineOwner();
+
+		/**
+		 * @see org.metawidget.pipeline.base.BasePipeline#getAdditionalAttributes
+		 */
+
+		Map<String, String> getAdditionalAttributes( W widget );
+
+		/**
+		 * @see org.metawidget.pipeline.base.BasePipeline#buildNestedMetawidget
+		 */
+
+		M buildNestedMetawidget( Map<String, String> attributes )
+			throws Exception;
+	}
+
+	/**
+	 * Context for inspection-only calls.
+	 */
+
+	private static class OwnerContext<W, M>
+		implements Context<W, M> {
+
+		//
+		// Private members
+		//
+
+		private final M	mPipelineOwner;
+
+		//
+		// Constructor
+		//
+
+		public OwnerContext( M pipelineOwner ) {
+
+			mPipelineOwner = pipelineOwner;
+		}
+
+		//
+		// Public methods
+		//
+
+		public M getPipelineOwner() {
+
+			return mPipelineOwner;
+		}
+
+		public Map<String, String> getAdditionalAttributes( W widget ) {
+
+			throw new UnsupportedOperationException();
+		}
+
+		public M buildNestedMetawidget( Map<String, String> attributes ) {
+
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Short-lived, single-Thread pipeline that runs a single call. Reuses the
+	 * <code>W3CPipeline</code> algorithm, but is initialized from the (already configured)
+	 * <code>CompiledPipeline</code> and never configures itself. Shares the
+	 * <code>CompiledPipeline</code>'s Lists of processors, so a call copies none of them.
+	 */
+
+	private static class CallPipeline<W, C extends W, M extends C>
+		extends W3CPipeline<W, C, M> {
+
+		//
+		// Private members
+		//
+
+		private final Context<W, M>	mContext;
+
+		//
+		// Constructor
+		//
+
+		public CallPipeline( CompiledPipeline<W, C, M> compiledPipeline, Context<W, M> context ) {
+
+			mContext = context;
+
+			setReadOnly( compiledPipeline.mReadOnly );
+			setMaximumInspectionDepth( compiledPipeline.mMaximumInspectionDepth );
+			setDeferNestedMetawidgets( compiledPipeline.mDeferNestedMetawidgets );
+			setInspector( compiledPipeline.mInspector );
+			setWidgetBuilder( compiledPipeline.mWidgetBuilder );
+			setLayout( compiledPipeline.mLayout );
+			shareProcessors( compiledPipeline.mInspectionResultProcessors, compiledPipeline.mWidgetProcessors );
+		}
+
+		//
+		// Protected methods
+		//
+
+		/**
+		 * Does nothing. CompiledPipelines are already configured.
+		 */
+
+		@Override
+		protected void configure() {
+
+			// Do nothing
+		}
+
+		@Override
+		protected String getDefaultConfiguration() {
+
+			return null;
+		}
+
+		@Override
+		protected M getPipelineOwner() {
+
+			return mContext.getPipelineOwner();
+		}
+
+		@Override
+		protected Map<String, String> getAdditionalAttributes( W widget ) {
+
+			return mContext.getAdditionalAttributes( widget );
+		}
+
+		@Override
+		protected M buildNestedMetawidget( Map<String, String> attributes )
+			throws Exception {
+
+			return mContext.buildNestedMetawidget( attributes );
+		}
+	}
+}
@@ -161,6 +161,20 @@ public abstract class W3CPipeline<W, C extends W, M extends C>
 		return null;
 	}
 
+	/**
+	 * Configures this pipeline (if it has not been configured already) and returns an immutable,
+	 * Thread-safe snapshot of it, suitable for sharing between Threads.
+	 * <p>
+	 * Subsequent changes to this pipeline do not affect the returned <code>CompiledPipeline</code>.
+	 * Callers should <code>compile</code> again after reconfiguring.
+	 */
+
+	public CompiledPipeline<W, C, M> compile() {
+
+		configureOnce();
+		return new CompiledPipeline<W, C, M>( this );
+	}
+
 	/**
 	 * Overridden to support custom ConfigReaders.
 	 */
@@ -0,0 +1,533 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.util;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.metawidget.inspector.InspectionResultConstants;
+import org.metawidget.util.simple.ObjectUtils;
+
+/**
+ * Compact Map of attribute names to attribute values, as used throughout the pipeline to describe
+ * a single trait of an inspection result.
+ * <p>
+ * Attribute maps are small (typically fewer than a dozen entries) and their names are drawn from a
+ * fixed vocabulary (<code>InspectionResultConstants</code>). So rather than a
+ * <code>HashMap</code>, with its table and an Entry object per attribute, <code>AttributeMap</code>
+ * stores its names and values in two parallel arrays. Names and values are interned on the way in
+ * (see <code>intern</code>), so lookups using the <code>InspectionResultConstants</code> take an
+ * identity fast path before falling back to <code>equals</code>, and values repeated across many
+ * traits (eg. <code>true</code>, <code>java.lang.String</code>) are stored only once.
+ * <p>
+ * <code>AttributeMap</code>s are mutable by default, because the pipeline routinely adds
+ * attributes (eg. <code>READ_ONLY</code>) as it goes. Metadata retained for the lifetime of a
+ * widget can be stored as an <code>immutableCopy</code>, which is trimmed to size.
+ * <p>
+ * Iteration order is insertion order. This class is not thread-safe.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class AttributeMap
+	extends AbstractMap<String, String>
+	implements Serializable {
+
+	//
+	// Private statics
+	//
+
+	private static final long										serialVersionUID	= 1l;
+
+	private static final int										DEFAULT_CAPACITY	= 8;
+
+	private static final String[]									EMPTY				= new String[0];
+
+	/**
+	 * Constant pool of the <code>InspectionResultConstants</code> vocabulary. Built once, and never
+	 * modified thereafter, so can be read without locking.
+	 */
+
+	private static final Map<String, String>						CONSTANTS			= newConstants();
+
+	/**
+	 * Number of stripes in the <code>INTERNED</code> pool. Must be a power of two.
+	 */
+
+	private static final int										INTERNED_STRIPES	= 32;
+
+	/**
+	 * Weak pool of all other interned Strings, striped by hash code so that threads interning
+	 * different Strings rarely contend for the same lock.
+	 */
+
+	private static final List<Map<String, WeakReference<String>>>	INTERNED			= newInterned();
+
+	/**
+	 * One lock per <code>INTERNED</code> stripe, guarding that stripe.
+	 */
+
+	private static final List<Lock>									INTERNED_LOCKS		= newInternedLocks();
+
+	//
+	// Private members
+	//
+
+	private String[]												mNames;
+
+	private String[]												mValues;
+
+	private int														mSize;
+
+	private boolean													mImmutable;
+
+	private transient Set<Map.Entry<String, String>>				mEntrySet;
+
+	//
+	// Constructor
+	//
+
+	public AttributeMap() {
+
+		this( DEFAULT_CAPACITY );
+	}
+
+	public AttributeMap( int initialCapacity ) {
+
+		if ( initialCapacity == 0 ) {
+			mNames = EMPTY;
+			mValues = EMPTY;
+		} else {
+			mNames = new String[initialCapacity];
+			mValues = new String[initialCapacity];
+		}
+	}
+
+	public AttributeMap( Map<String, String> map ) {
+
+		this( map.size() );
+		putAll( map );
+	}
+
+	//
+	// Public statics
+	//
+
+	/**
+	 * Interns the given String.
+	 * <p>
+	 * Strings from the <code>InspectionResultConstants</code> vocabulary (and <code>true</code> and
+	 * <code>false</code>) resolve to the constant itself, without locking. All other Strings are
+	 * interned in a pool that, unlike <code>String.intern</code>, is weak: Strings are released once
+	 * nothing else uses them. The pool is striped, so each call only locks the stripe for its String.
+	 */
+
+	public static String intern( String value ) {
+
+		if ( value == null ) {
+			return null;
+		}
+
+		String constant = CONSTANTS.get( value );
+
+		if ( constant != null ) {
+			return constant;
+		}
+
+		int hashCode = value.hashCode();
+		int index = ( hashCode ^ ( hashCode >>> 16 ) ) & ( INTERNED_STRIPES - 1 );
+		Map<String, WeakReference<String>> stripe = INTERNED.get( index );
+		Lock lock = INTERNED_LOCKS.get( index );
+
+		lock.lock();
+
+		try {
+			WeakReference<String> reference = stripe.get( value );
+
+			if ( reference != null ) {
+				String interned = reference.get();
+
+				if ( interned != null ) {
+					return interned;
+				}
+			}
+
+			stripe.put( value, new WeakReference<String>( value ) );
+			return value;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	//
+	// Public methods
+	//
+
+	@Override
+	public int size() {
+
+		return mSize;
+	}
+
+	@Override
+	public boolean containsKey( Object name ) {
+
+		return indexOf( name ) != -1;
+	}
+
+	@Override
+	public String get( Object name ) {
+
+		int index = indexOf( name );
+
+		if ( index == -1 ) {
+			return null;
+		}
+
+		return mValues[index];
+	}
+
+	@Override
+	public String put( String name, String value ) {
+
+		checkMutable();
+
+		int index = indexOf( name );
+		String internedValue = intern( value );
+
+		if ( index != -1 ) {
+			String previous = mValues[index];
+			mValues[index] = internedValue;
+			return previous;
+		}
+
+		if ( mSize == mNames.length ) {
+			int capacity = Math.max( DEFAULT_CAPACITY, mSize * 2 );
+			String[] names = new String[capacity];
+			String[] values = new String[capacity];
+			System.arraycopy( mNames, 0, names, 0, mSize );
+			System.arraycopy( mValues, 0, values, 0, mSize );
+			mNames = names;
+			mValues = values;
+		}
+
+		mNames[mSize] = intern( name );
+		mValues[mSize] = internedValue;
+		mSize++;
+
+		return null;
+	}
+
+	@Override
+	public String remove( Object name ) {
+
+		checkMutable();
+
+		int index = indexOf( name );
+
+		if ( index == -1 ) {
+			return null;
+		}
+
+		String previous = mValues[index];
+		removeAt( index );
+
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+
+		checkMutable();
+
+		for ( int loop = 0; loop < mSize; loop++ ) {
+			mNames[loop] = null;
+			mValues[loop] = null;
+		}
+
+		mSize = 0;
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+
+		if ( mEntrySet == null ) {
+			mEntrySet = new EntrySet();
+		}
+
+		return mEntrySet;
+	}
+
+	/**
+	 * Returns an immutable copy of this map, trimmed to size. Suitable for metadata retained for
+	 * the lifetime of a widget.
+	 */
+
+	public AttributeMap immutableCopy() {
+
+		if ( mImmutable ) {
+			return this;
+		}
+
+		AttributeMap copy = new AttributeMap( mSize );
+		System.arraycopy( mNames, 0, copy.mNames, 0, mSize );
+		System.arraycopy( mValues, 0, copy.mValues, 0, mSize );
+		copy.mSize = mSize;
+		copy.mImmutable = true;
+
+		return copy;
+	}
+
+	public boolean isImmutable() {
+
+		return mImmutable;
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Finds the index of the given name, trying an identity match (the common case, as names are
+	 * interned) before <code>equals</code>.
+	 */
+
+	private int indexOf( Object name ) {
+
+		String[] names = mNames;
+		int size = mSize;
+
+		for ( int loop = 0; loop < size; loop++ ) {
+			if ( names[loop] == name ) {
+				return loop;
+			}
+		}
+
+		if ( name == null ) {
+			return -1;
+		}
+
+		for ( int loop = 0; loop < size; loop++ ) {
+			if ( name.equals( names[loop] ) ) {
+				return loop;
+			}
+		}
+
+		return -1;
+	}
+
+	private void removeAt( int index ) {
+
+		int toMove = mSize - index - 1;
+
+		if ( toMove > 0 ) {
+			System.arraycopy( mNames, index + 1, mNames, index, toMove );
+			System.arraycopy( mValues, index + 1, mValues, index, toMove );
+		}
+
+		mSize--;
+		mNames[mSize] = null;
+		mValues[mSize] = null;
+	}
+
+	private void checkMutable() {
+
+		if ( mImmutable ) {
+			throw new UnsupportedOperationException( "AttributeMap is immutable" );
+		}
+	}
+
+	private static List<Map<String, WeakReference<String>>> newInterned() {
+
+		List<Map<String, WeakReference<String>>> interned = CollectionUtils.newArrayList( INTERNED_STRIPES );
+
+		for ( int loop = 0; loop < INTERNED_STRIPES; loop++ ) {
+			Map<String, WeakReference<String>> stripe = CollectionUtils.newWeakHashMap();
+			interned.add( stripe );
+		}
+
+		return Collections.unmodifiableList( interned );
+	}
+
+	private static List<Lock> newInternedLocks() {
+
+		List<Lock> locks = CollectionUtils.newArrayList( INTERNED_STRIPES );
+
+		for ( int loop = 0; loop < INTERNED_STRIPES; loop++ ) {
+			locks.add( new ReentrantLock() );
+		}
+
+		return Collections.unmodifiableList( locks );
+	}
+
+	private static Map<String, String> newConstants() {
+
+		Map<String, String> constants = CollectionUtils.newHashMap();
+		constants.put( "true", "true" );
+		constants.put( "false", "false" );
+
+		try {
+			for ( Field field : InspectionResultConstants.class.getFields() ) {
+
+				if ( !String.class.equals( field.getType() ) || !Modifier.isStatic( field.getModifiers() ) ) {
+					continue;
+				}
+
+				String constant = (String) field.get( null );
+				constants.put( constant, constant );
+			}
+		} catch ( IllegalAccessException e ) {
+			throw new RuntimeException( e );
+		}
+
+		return Collections.unmodifiableMap( constants );
+	}
+
+	//
+	// Inner class
+	//
+
+	private class EntrySet
+		extends AbstractSet<Map.Entry<String, String>> {
+
+		//
+		// Public methods
+		//
+
+		@Override
+		public int size() {
+
+			return mSize;
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, String>> iterator() {
+
+			return new Iterator<Map.Entry<String, String>>() {
+
+				private int	mNext;
+
+				private int	mLast	= -1;
+
+				public boolean hasNext() {
+
+					return mNext < mSize;
+				}
+
+				public Map.Entry<String, String> next() {
+
+					if ( mNext >= mSize ) {
+						throw new NoSuchElementException();
+					}
+
+					mLast = mNext++;
+					return new Entry( mLast );
+				}
+
+				public void remove() {
+
+					if ( mLast == -1 ) {
+						throw new IllegalStateException();
+					}
+
+					checkMutable();
+					removeAt( mLast );
+					mNext = mLast;
+					mLast = -1;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Entry that reads through to the parallel arrays.
+	 */
+
+	private class Entry
+		implements Map.Entry<String, String> {
+
+		//
+		// Private members
+		//
+
+		private int	mIndex;
+
+		//
+		// Constructor
+		//
+
+		public Entry( int index ) {
+
+			mIndex = index;
+		}
+
+		//
+		// Public methods
+		//
+
+		public String getKey() {
+
+			return mNames[mIndex];
+		}
+
+		public String getValue() {
+
+			return mValues[mIndex];
+		}
+
+		public String setValue( String value ) {
+
+			checkMutable();
+
+			String previous = mValues[mIndex];
+			mValues[mIndex] = intern( value );
+
+			return previous;
+		}
+
+		@Override
+		public boolean equals( Object that ) {
+
+			if ( !( that instanceof Map.Entry<?, ?> ) ) {
+				return false;
+			}
+
+			Map.Entry<?, ?> entry = (Map.Entry<?, ?>) that;
+
+			return ObjectUtils.nullSafeEquals( getKey(), entry.getKey() ) && ObjectUtils.nullSafeEquals( getValue(), entry.getValue() );
+		}
+
+		@Override
+		public int hashCode() {
+
+			return ObjectUtils.nullSafeHashCode( getKey() ) ^ ObjectUtils.nullSafeHashCode( getValue() );
+		}
+
+		@Override
+		public String toString() {
+
+			return getKey() + "=" + getValue();
+		}
+	}
+}
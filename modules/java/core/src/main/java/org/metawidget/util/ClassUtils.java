@@ -12,12 +12,20 @@
 package org.metawidget.util;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.security.AccessControlException;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.metawidget.util.simple.StringUtils;
 
@@ -42,31 +50,20 @@ public final class ClassUtils {
 	/**
 	 * Lookup JavaBean-convention getter without using <code>java.beans</code>, as that package is
 	 * not available on all target platforms.
+	 * <p>
+	 * Lookups (including failed lookups) are cached.
 	 */
 
 	public static Method getReadMethod( Class<?> clazz, String property ) {
 
-		String propertyUppercased = StringUtils.capitalize( property );
-
-		try {
-			return clazz.getMethod( JAVABEAN_GET_PREFIX + propertyUppercased );
-		} catch ( Exception e1 ) {
-			try {
-				Method method = clazz.getMethod( JAVABEAN_IS_PREFIX + propertyUppercased );
+		Method readMethod = getPropertyAccessor( clazz, property ).getReadMethod();
 
-				// As per section 8.3.2 (Boolean properties) of The JavaBeans API specification,
-				// 'is' only applies to boolean (little 'b')
-
-				if ( boolean.class.equals( method.getReturnType() ) ) {
-					return method;
-				}
-
-			} catch ( Exception e2 ) {
-				// Fall through
-			}
+		if ( readMethod == null ) {
+			String propertyUppercased = StringUtils.capitalize( property );
+			throw new RuntimeException( "No such method " + JAVABEAN_GET_PREFIX + propertyUppercased + " (or boolean " + JAVABEAN_IS_PREFIX + propertyUppercased + ") on " + clazz );
 		}
 
-		throw new RuntimeException( "No such method " + JAVABEAN_GET_PREFIX + propertyUppercased + " (or boolean " + JAVABEAN_IS_PREFIX + propertyUppercased + ") on " + clazz );
+		return readMethod;
 	}
 
 	/**
@@ -76,31 +73,13 @@ public final class ClassUtils {
 
 	public static Method getWriteMethod( Class<?> clazz, String property, Class<?> type ) {
 
-		String propertyUppercased = StringUtils.capitalize( property );
-
-		// First, try and match based on subtypes of the property type
-
-		Class<?> typeSuper = type;
-
-		while ( typeSuper != null ) {
-			try {
-				return clazz.getMethod( JAVABEAN_SET_PREFIX + propertyUppercased, typeSuper );
-			} catch ( Exception e ) {
-				typeSuper = typeSuper.getSuperclass();
-			}
-		}
-
-		// Next, try and match based on interfaces of the property type
+		Method writeMethod = getPropertyAccessor( clazz, property ).getWriteMethod( clazz, property, type );
 
-		for ( Class<?> anInterface : type.getInterfaces() ) {
-			try {
-				return clazz.getMethod( JAVABEAN_SET_PREFIX + propertyUppercased, anInterface );
-			} catch ( Exception e ) {
-				// Keep trying
-			}
+		if ( writeMethod == null ) {
+			throw new RuntimeException( "No such method " + JAVABEAN_SET_PREFIX + StringUtils.capitalize( property ) + "( " + type.getName() + " ) on " + clazz );
 		}
 
-		throw new RuntimeException( "No such method " + JAVABEAN_SET_PREFIX + propertyUppercased + "( " + type.getName() + " ) on " + clazz );
+		return writeMethod;
 	}
 
 	/**
@@ -132,12 +111,21 @@ public final class ClassUtils {
 
 		try {
 			Class<?> baseClass = base.getClass();
+			PropertyAccessor propertyAccessor = getPropertyAccessor( baseClass, property );
 
 			// Determine the type based on the 'read' method, not the value.getClass(), because
 			// that is unreliable for 'Integer' versus 'int'
 
-			Method method = getReadMethod( baseClass, property );
-			method = getWriteMethod( baseClass, property, method.getReturnType() );
+			Method method = propertyAccessor.getWriteMethod();
+
+			if ( method == null ) {
+
+				// (the miss is cached, so don't look it up again just to report it)
+
+				Class<?> type = getReadMethod( baseClass, property ).getReturnType();
+				throw new RuntimeException( "No such method " + JAVABEAN_SET_PREFIX + StringUtils.capitalize( property ) + "( " + type.getName() + " ) on " + baseClass );
+			}
+
 			method.invoke( base, value );
 		} catch ( Exception e ) {
 			throw new RuntimeException( "Unable to set '" + property + "' of '" + base + "' to '" + value + "'", e );
@@ -364,7 +352,7 @@ public final class ClassUtils {
 	 * reset the ThreadLocal.
 	 */
 
-	/* package private */static final Set<ClassLoader>	ALIEN_CLASSLOADERS	= CollectionUtils.newHashSet();
+	/* package private */static final Set<ClassLoader>	ALIEN_CLASSLOADERS	= new CopyOnWriteArraySet<ClassLoader>();
 
 	/**
 	 * When dealing with multiple isolated ClassLoaders, sometimes the object being inspected may
@@ -391,9 +379,7 @@ public final class ClassUtils {
 			return;
 		}
 
-		synchronized ( ALIEN_CLASSLOADERS ) {
-			ALIEN_CLASSLOADERS.add( classLoader );
-		}
+		ALIEN_CLASSLOADERS.add( classLoader );
 	}
 
 	/**
@@ -482,16 +468,15 @@ public final class ClassUtils {
 			// Fall through and try other ClassLoaders
 		}
 
-		// Try our alien ClassLoaders
+		// Try our alien ClassLoaders (iterating over a copy-on-write snapshot, so no lock is held
+		// while calling Class.forName)
 
-		synchronized ( ALIEN_CLASSLOADERS ) {
-			for ( ClassLoader alienClassLoader : ALIEN_CLASSLOADERS ) {
-				try {
-					return Class.forName( classNameToUse, false, alienClassLoader );
-				} catch ( ClassNotFoundException e ) {
+		for ( ClassLoader alienClassLoader : ALIEN_CLASSLOADERS ) {
+			try {
+				return Class.forName( classNameToUse, false, alienClassLoader );
+			} catch ( ClassNotFoundException e ) {
 
-					// Fall through and try other ClassLoaders
-				}
+				// Fall through and try other ClassLoaders
 			}
 		}
 
@@ -566,29 +551,78 @@ public final class ClassUtils {
 	@SuppressWarnings( "unchecked" )
 	public static <T extends Annotation> T getOriginalAnnotation( Method method, Class<T> annotationClass ) {
 
-		Map<Class<? extends Annotation>, Annotation> cache = ORIGINAL_ANNOTATION_CACHE.get( method );
+		ConcurrentMap<Class<? extends Annotation>, Object> cache = ORIGINAL_ANNOTATION_CACHE.get( method );
 
 		if ( cache == null ) {
-			cache = CollectionUtils.newWeakHashMap();
-			ORIGINAL_ANNOTATION_CACHE.put( method, cache );
+			cache = new ConcurrentHashMap<Class<? extends Annotation>, Object>();
+			ConcurrentMap<Class<? extends Annotation>, Object> existingCache = ORIGINAL_ANNOTATION_CACHE.putIfAbsent( method, cache );
+
+			if ( existingCache != null ) {
+				cache = existingCache;
+			}
 		}
 
-		// Must synchronize, as WeakHashMap is not Thread safe and WeakHashMap:383 contains an
-		// infinite while: while (e != null && !(e.hash == h && eq(k, e.get())))
+		Object annotation = cache.get( annotationClass );
 
-		synchronized ( cache ) {
+		if ( annotation == null ) {
 
-			// Use 'containsKey', because we may cache it as being 'null'
+			// Resolve outside of any lock. Two threads may occasionally resolve the same
+			// annotation, but only one result is kept
 
-			if ( cache.containsKey( annotationClass ) ) {
-				return (T) cache.get( annotationClass );
+			annotation = internalGetOriginalAnnotation( method, annotationClass );
+
+			if ( annotation == null ) {
+				annotation = NO_ANNOTATION;
 			}
 
-			T annotation = internalGetOriginalAnnotation( method, annotationClass );
-			cache.put( annotationClass, annotation );
+			Object existingAnnotation = cache.putIfAbsent( annotationClass, annotation );
+
+			if ( existingAnnotation != null ) {
+				annotation = existingAnnotation;
+			}
+		}
+
+		if ( annotation == NO_ANNOTATION ) {
+			return null;
+		}
+
+		return (T) annotation;
+	}
+
+	/**
+	 * Gets all annotations defined on the given method, following the same rules as
+	 * <code>getOriginalAnnotation</code>. Where the method and one of its interfaces define the same
+	 * annotation type, the one that <code>getOriginalAnnotation</code> would return comes first.
+	 * <p>
+	 * Unlike <code>getOriginalAnnotation</code>, this method is not cached. It is intended for
+	 * callers (such as <code>Trait</code>s) that resolve all annotations once and cache them
+	 * themselves.
+	 */
+
+	public static Annotation[] getOriginalAnnotations( Method method ) {
 
-			return annotation;
+		List<Annotation> annotations = CollectionUtils.newArrayList();
+		Method methodToUse = getOriginalAnnotatedMethod( method );
+
+		if ( methodToUse != null ) {
+			annotations.addAll( Arrays.asList( methodToUse.getAnnotations() ) );
 		}
+
+		// Interfaces too, in case annotations are defined there
+
+		String name = method.getName();
+		Class<?>[] parameterTypes = method.getParameterTypes();
+
+		for ( Class<?> iface : method.getDeclaringClass().getInterfaces() ) {
+
+			try {
+				annotations.addAll( Arrays.asList( iface.getDeclaredMethod( name, parameterTypes ).getAnnotations() ) );
+			} catch ( Exception e ) {
+				// Not in this interface
+			}
+		}
+
+		return annotations.toArray( new Annotation[annotations.size()] );
 	}
 
 	/**
@@ -738,43 +772,190 @@ public final class ClassUtils {
 	// Private statics
 	//
 
-	private static final Map<Method, Map<Class<? extends Annotation>, Annotation>>	ORIGINAL_ANNOTATION_CACHE	= CollectionUtils.newHashMap();
+	/**
+	 * Cache of original annotations, keyed by method and then by annotation class. Methods without
+	 * the annotation are cached as <code>NO_ANNOTATION</code>, because ConcurrentHashMap does not
+	 * allow null values.
+	 */
+
+	private static final ConcurrentMap<Method, ConcurrentMap<Class<? extends Annotation>, Object>>	ORIGINAL_ANNOTATION_CACHE	= new ConcurrentHashMap<Method, ConcurrentMap<Class<? extends Annotation>, Object>>();
+
+	private static final Object																		NO_ANNOTATION				= new Object();
 
 	/**
-	 * We found <code>getOriginalAnnotation</code> to be around 10x slower that just
-	 * <code>method.getAnnotation</code>, so we cache it.
+	 * Cache of JavaBean-convention accessors, keyed weakly by class and then by property name.
+	 * <p>
+	 * <code>getProperty</code> and <code>setProperty</code> are called on hot UI paths (such as
+	 * binding and table rendering), so we look up their methods only once, and without locking.
+	 * Missing methods are cached too (as PropertyAccessors with null methods).
+	 * <p>
+	 * Keys are weak, so that caching a class does not stop its ClassLoader being unloaded (eg. on
+	 * webapp redeploy). Stale keys are purged, via <code>PROPERTY_ACCESSOR_CACHE_QUEUE</code>,
+	 * whenever a class is added. PropertyAccessors reference their class's Methods, and therefore
+	 * the class itself. So they are held softly, else the map's values would keep its keys
+	 * reachable forever.
 	 */
 
-	private static <T extends Annotation> T internalGetOriginalAnnotation( Method method, Class<T> annotationClass ) {
+	private static final ConcurrentMap<WeakClassKey, SoftReference<ConcurrentMap<String, PropertyAccessor>>>	PROPERTY_ACCESSOR_CACHE			= new ConcurrentHashMap<WeakClassKey, SoftReference<ConcurrentMap<String, PropertyAccessor>>>();
 
-		Method methodToUse = method;
-		String name = methodToUse.getName();
-		Class<?>[] parameterTypes = methodToUse.getParameterTypes();
+	private static final ReferenceQueue<Class<?>>															PROPERTY_ACCESSOR_CACHE_QUEUE	= new ReferenceQueue<Class<?>>();
 
-		// If no annotations are defined at all, traverse up the hierarchy
+	private static PropertyAccessor getPropertyAccessor( Class<?> clazz, String property ) {
 
-		while ( methodToUse.getAnnotations().length == 0 ) {
+		SoftReference<ConcurrentMap<String, PropertyAccessor>> reference = PROPERTY_ACCESSOR_CACHE.get( new WeakClassKey( clazz, null ) );
+		ConcurrentMap<String, PropertyAccessor> propertyAccessors = null;
 
-			Class<?> superclass = methodToUse.getDeclaringClass().getSuperclass();
-			methodToUse = null;
+		if ( reference != null ) {
+			propertyAccessors = reference.get();
+		}
 
-			while ( superclass != null ) {
+		if ( propertyAccessors == null ) {
 
-				try {
-					methodToUse = superclass.getDeclaredMethod( name, parameterTypes );
-					break;
-				} catch ( Exception e ) {
-					// Not in this superclass, but may be in super-superclass
-				}
+			// Purge classes that have since been unloaded
 
-				superclass = superclass.getSuperclass();
+			for ( Reference<? extends Class<?>> stale = PROPERTY_ACCESSOR_CACHE_QUEUE.poll(); stale != null; stale = PROPERTY_ACCESSOR_CACHE_QUEUE.poll() ) {
+				PROPERTY_ACCESSOR_CACHE.remove( stale );
 			}
 
-			if ( methodToUse == null ) {
-				break;
+			// Two threads may occasionally both add the same class. Whichever map is kept, the
+			// other thread's lookups are simply not cached
+
+			propertyAccessors = new ConcurrentHashMap<String, PropertyAccessor>();
+			PROPERTY_ACCESSOR_CACHE.put( new WeakClassKey( clazz, PROPERTY_ACCESSOR_CACHE_QUEUE ), new SoftReference<ConcurrentMap<String, PropertyAccessor>>( propertyAccessors ) );
+		}
+
+		PropertyAccessor propertyAccessor = propertyAccessors.get( property );
+
+		if ( propertyAccessor != null ) {
+			return propertyAccessor;
+		}
+
+		Method readMethod = findReadMethod( clazz, property );
+
+		if ( readMethod == null ) {
+			propertyAccessor = new PropertyAccessor( null, null );
+		} else {
+			propertyAccessor = new PropertyAccessor( readMethod, findWriteMethod( clazz, property, readMethod.getReturnType() ) );
+		}
+
+		PropertyAccessor existingPropertyAccessor = propertyAccessors.putIfAbsent( property, propertyAccessor );
+
+		if ( existingPropertyAccessor != null ) {
+			return existingPropertyAccessor;
+		}
+
+		return propertyAccessor;
+	}
+
+	/**
+	 * Equivalent to trying <code>clazz.getMethod( "getFoo" )</code> then
+	 * <code>clazz.getMethod( "isFoo" )</code>, but without throwing (and catching)
+	 * <code>NoSuchMethodException</code>s.
+	 *
+	 * @return the method, or null if there is no such method
+	 */
+
+	private static Method findReadMethod( Class<?> clazz, String property ) {
+
+		String propertyUppercased = StringUtils.capitalize( property );
+		Method[] methods = clazz.getMethods();
+		Method method = findMethod( methods, JAVABEAN_GET_PREFIX + propertyUppercased );
+
+		if ( method != null ) {
+			return method;
+		}
+
+		method = findMethod( methods, JAVABEAN_IS_PREFIX + propertyUppercased );
+
+		// As per section 8.3.2 (Boolean properties) of The JavaBeans API specification,
+		// 'is' only applies to boolean (little 'b')
+
+		if ( method != null && boolean.class.equals( method.getReturnType() ) ) {
+			return method;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Equivalent to trying <code>clazz.getMethod( "setFoo", type )</code> for each superclass (then
+	 * each interface) of the given type, but without throwing (and catching)
+	 * <code>NoSuchMethodException</code>s.
+	 *
+	 * @return the method, or null if there is no such method
+	 */
+
+	private static Method findWriteMethod( Class<?> clazz, String property, Class<?> type ) {
+
+		String methodName = JAVABEAN_SET_PREFIX + StringUtils.capitalize( property );
+		Method[] methods = clazz.getMethods();
+
+		// First, try and match based on subtypes of the property type
+
+		Class<?> typeSuper = type;
+
+		while ( typeSuper != null ) {
+			Method method = findMethod( methods, methodName, typeSuper );
+
+			if ( method != null ) {
+				return method;
 			}
+
+			typeSuper = typeSuper.getSuperclass();
 		}
 
+		// Next, try and match based on interfaces of the property type
+
+		for ( Class<?> anInterface : type.getInterfaces() ) {
+			Method method = findMethod( methods, methodName, anInterface );
+
+			if ( method != null ) {
+				return method;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Finds the method with the given name and exact parameter types. As with
+	 * <code>Class.getMethod</code>, if there is more than one (ie. covariant return types) picks the
+	 * one with the most specific return type.
+	 */
+
+	private static Method findMethod( Method[] methods, String name, Class<?>... parameterTypes ) {
+
+		Method found = null;
+
+		for ( Method method : methods ) {
+
+			if ( !method.getName().equals( name ) ) {
+				continue;
+			}
+
+			if ( !Arrays.equals( method.getParameterTypes(), parameterTypes ) ) {
+				continue;
+			}
+
+			if ( found == null || found.getReturnType().isAssignableFrom( method.getReturnType() ) ) {
+				found = method;
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * We found <code>getOriginalAnnotation</code> to be around 10x slower that just
+	 * <code>method.getAnnotation</code>, so we cache it.
+	 */
+
+	private static <T extends Annotation> T internalGetOriginalAnnotation( Method method, Class<T> annotationClass ) {
+
+		Method methodToUse = getOriginalAnnotatedMethod( method );
+		String name = method.getName();
+		Class<?>[] parameterTypes = method.getParameterTypes();
+
 		// If this method has the annotation, return it
 
 		if ( methodToUse != null ) {
@@ -806,6 +987,46 @@ public final class ClassUtils {
 		return null;
 	}
 
+	/**
+	 * If <em>no</em> annotations are defined on the given method, searches up the class heirarchy
+	 * for the nearest original version of the method that does define some.
+	 *
+	 * @return the method to read annotations from, or null if no version defines any
+	 */
+
+	private static Method getOriginalAnnotatedMethod( Method method ) {
+
+		Method methodToUse = method;
+		String name = methodToUse.getName();
+		Class<?>[] parameterTypes = methodToUse.getParameterTypes();
+
+		// If no annotations are defined at all, traverse up the hierarchy
+
+		while ( methodToUse.getAnnotations().length == 0 ) {
+
+			Class<?> superclass = methodToUse.getDeclaringClass().getSuperclass();
+			methodToUse = null;
+
+			while ( superclass != null ) {
+
+				try {
+					methodToUse = superclass.getDeclaredMethod( name, parameterTypes );
+					break;
+				} catch ( Exception e ) {
+					// Not in this superclass, but may be in super-superclass
+				}
+
+				superclass = superclass.getSuperclass();
+			}
+
+			if ( methodToUse == null ) {
+				break;
+			}
+		}
+
+		return methodToUse;
+	}
+
 	private static Class<?> getPrimitive( String className ) {
 
 		if ( "byte".equals( className ) ) {
@@ -843,6 +1064,149 @@ public final class ClassUtils {
 		return null;
 	}
 
+	//
+	// Inner class
+	//
+
+	/**
+	 * Cached read and write methods of a property. Either may be null.
+	 */
+
+	private static final class PropertyAccessor {
+
+		//
+		// Private statics
+		//
+
+		private static final Object								NO_WRITE_METHOD	= new Object();
+
+		//
+		// Private members
+		//
+
+		private final Method									mReadMethod;
+
+		private final Method									mWriteMethod;
+
+		/**
+		 * Write methods for types other than the read method's return type (as requested through
+		 * the public <code>getWriteMethod</code>). Created lazily, as most properties never need
+		 * it. Two threads may occasionally both create it, in which case some lookups are simply
+		 * not cached.
+		 */
+
+		private volatile ConcurrentMap<Class<?>, Object>	mWriteMethodsByType;
+
+		//
+		// Constructor
+		//
+
+		public PropertyAccessor( Method readMethod, Method writeMethod ) {
+
+			mReadMethod = readMethod;
+			mWriteMethod = writeMethod;
+		}
+
+		//
+		// Public methods
+		//
+
+		public Method getReadMethod() {
+
+			return mReadMethod;
+		}
+
+		public Method getWriteMethod() {
+
+			return mWriteMethod;
+		}
+
+		public Method getWriteMethod( Class<?> clazz, String property, Class<?> type ) {
+
+			if ( mReadMethod != null && mReadMethod.getReturnType().equals( type ) ) {
+				return mWriteMethod;
+			}
+
+			ConcurrentMap<Class<?>, Object> writeMethodsByType = mWriteMethodsByType;
+
+			if ( writeMethodsByType == null ) {
+				writeMethodsByType = new ConcurrentHashMap<Class<?>, Object>();
+				mWriteMethodsByType = writeMethodsByType;
+			}
+
+			Object writeMethod = writeMethodsByType.get( type );
+
+			if ( writeMethod == null ) {
+				writeMethod = findWriteMethod( clazz, property, type );
+
+				if ( writeMethod == null ) {
+					writeMethod = NO_WRITE_METHOD;
+				}
+
+				writeMethodsByType.putIfAbsent( type, writeMethod );
+			}
+
+			if ( writeMethod == NO_WRITE_METHOD ) {
+				return null;
+			}
+
+			return (Method) writeMethod;
+		}
+	}
+
+	/**
+	 * Weak reference to a class, for use as a ConcurrentHashMap key.
+	 * <p>
+	 * Compares by identity of the referent, so that a key created just for a lookup (without a
+	 * queue) matches the key stored in the map. Caches the referent's hash code, so that a stale
+	 * key can still be found (and removed) once it has been cleared.
+	 */
+
+	public static final class WeakClassKey
+		extends WeakReference<Class<?>> {
+
+		//
+		// Private members
+		//
+
+		private final int	mHashCode;
+
+		//
+		// Constructor
+		//
+
+		public WeakClassKey( Class<?> clazz, ReferenceQueue<Class<?>> queue ) {
+
+			super( clazz, queue );
+			mHashCode = System.identityHashCode( clazz );
+		}
+
+		//
+		// Public methods
+		//
+
+		@Override
+		public boolean equals( Object that ) {
+
+			if ( this == that ) {
+				return true;
+			}
+
+			if ( !( that instanceof WeakClassKey ) ) {
+				return false;
+			}
+
+			Class<?> clazz = get();
+			return clazz != null && clazz == ( (WeakClassKey) that ).get();
+		}
+
+		@Override
+		public int hashCode() {
+
+			return mHashCode;
+		}
+	}
+
 	//
 	// Private constructor
 	//
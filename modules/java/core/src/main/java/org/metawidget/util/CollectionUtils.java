@@ -11,6 +11,7 @@
 
 package org.metawidget.util;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -214,6 +215,21 @@ public final class CollectionUtils {
 		return Collections.unmodifiableList( Arrays.asList( array ) );
 	}
 
+	/**
+	 * Type-safe equivalent of <code>Collection.toArray</code>, for Collections of generic types
+	 * (eg. <code>List&lt;WidgetProcessor&lt;W, M&gt;&gt;</code>) whose arrays cannot be created
+	 * using <code>new</code> without a raw type.
+	 *
+	 * @param componentType
+	 *            the (erased) component type of the array. Must be assignable from every element
+	 */
+
+	@SuppressWarnings( "unchecked" )
+	public static <T> T[] toArray( Collection<? extends T> collection, Class<?> componentType ) {
+
+		return collection.toArray( (T[]) Array.newInstance( componentType, collection.size() ) );
+	}
+
 	public static <T> String toString( Collection<T> collection ) {
 
 		return toString( collection, StringUtils.SEPARATOR_COMMA );
@@ -14,7 +14,12 @@ package org.metawidget.util;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 import static org.metawidget.inspector.propertytype.PropertyTypeInspectionResultConstants.*;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Utilities for working with WidgetBuilders.
@@ -30,6 +35,46 @@ import java.util.Map;
 
 public final class WidgetBuilderUtils {
 
+	//
+	// Private statics
+	//
+
+	/**
+	 * Maximum number of distinct lookups to cache.
+	 * <p>
+	 * Lookups are usually static metadata (annotations, XML files), but can also be generated
+	 * dynamically (eg. by Expression Language) so the cache is bounded.
+	 */
+
+	private static final int												LOOKUP_CACHE_SIZE			= 256;
+
+	/**
+	 * Cache of parsed <code>lookup</code> and <code>lookup-labels</code> attributes.
+	 */
+
+	private static final Map<String, List<String>>						LOOKUP_CACHE				= new LookupCache<String, List<String>>();
+
+	/**
+	 * Guards <code>LOOKUP_CACHE</code>. Even reads must lock, as the cache is access-ordered.
+	 */
+
+	private static final Lock											LOOKUP_CACHE_LOCK			= new ReentrantLock();
+
+	/**
+	 * Cache of <code>lookup</code> and <code>lookup-labels</code> attribute pairs to Maps of lookup
+	 * values to labels. Bounded as a whole (not per <code>lookup</code>), as either attribute may be
+	 * generated dynamically.
+	 */
+
+	private static final Map<LookupLabelsKey, Map<String, String>>		LOOKUP_LABELS_MAP_CACHE	= new LookupCache<LookupLabelsKey, Map<String, String>>();
+
+	/**
+	 * Guards <code>LOOKUP_LABELS_MAP_CACHE</code>. Even reads must lock, as the cache is
+	 * access-ordered.
+	 */
+
+	private static final Lock											LOOKUP_LABELS_MAP_CACHE_LOCK	= new ReentrantLock();
+
 	//
 	// Public methods
 	//
@@ -146,6 +191,175 @@ public final class WidgetBuilderUtils {
 		return true;
 	}
 
+	/**
+	 * Parses the given <code>lookup</code> (or <code>lookup-labels</code>) attribute.
+	 * <p>
+	 * Equivalent to <code>CollectionUtils.fromString</code>, but cached. Lookups can run to
+	 * thousands of entries, so it is wasteful to re-split them on every build.
+	 *
+	 * @return an unmodifiable List of the lookup values. Never null
+	 */
+
+	public static List<String> parseLookup( String lookup ) {
+
+		if ( lookup == null || lookup.length() == 0 ) {
+			return Collections.emptyList();
+		}
+
+		// Cached?
+
+		List<String> parsed;
+
+		LOOKUP_CACHE_LOCK.lock();
+
+		try {
+			parsed = LOOKUP_CACHE.get( lookup );
+		} finally {
+			LOOKUP_CACHE_LOCK.unlock();
+		}
+
+		if ( parsed == null ) {
+			parsed = Collections.unmodifiableList( CollectionUtils.fromString( lookup ) );
+
+			LOOKUP_CACHE_LOCK.lock();
+
+			try {
+				LOOKUP_CACHE.put( lookup, parsed );
+			} finally {
+				LOOKUP_CACHE_LOCK.unlock();
+			}
+		}
+
+		return parsed;
+	}
+
+	/**
+	 * Returns a Map of the given <code>lookup</code> attribute's values to the given
+	 * <code>lookup-labels</code> attribute's labels.
+	 * <p>
+	 * Equivalent to <code>CollectionUtils.newHashMap</code>, but cached.
+	 *
+	 * @return an unmodifiable Map of lookup values to labels. Never null
+	 */
+
+	public static Map<String, String> getLookupLabelsMap( String lookup, String lookupLabels ) {
+
+		LookupLabelsKey key = new LookupLabelsKey( lookup, lookupLabels );
+
+		// Cached?
+
+		Map<String, String> labelsMap;
+
+		LOOKUP_LABELS_MAP_CACHE_LOCK.lock();
+
+		try {
+			labelsMap = LOOKUP_LABELS_MAP_CACHE.get( key );
+		} finally {
+			LOOKUP_LABELS_MAP_CACHE_LOCK.unlock();
+		}
+
+		if ( labelsMap != null ) {
+			return labelsMap;
+		}
+
+		// Build it (outside the lock. Failures, such as mismatched sizes, are not cached)
+
+		labelsMap = Collections.unmodifiableMap( CollectionUtils.newHashMap( parseLookup( lookup ), parseLookup( lookupLabels ) ) );
+
+		LOOKUP_LABELS_MAP_CACHE_LOCK.lock();
+
+		try {
+			LOOKUP_LABELS_MAP_CACHE.put( key, labelsMap );
+		} finally {
+			LOOKUP_LABELS_MAP_CACHE_LOCK.unlock();
+		}
+
+		return labelsMap;
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Least-recently-used cache, bounded to <code>LOOKUP_CACHE_SIZE</code>.
+	 */
+
+	private static class LookupCache<K, V>
+		extends LinkedHashMap<K, V> {
+
+		//
+		// Private statics
+		//
+
+		private static final long	serialVersionUID	= 1l;
+
+		//
+		// Constructor
+		//
+
+		public LookupCache() {
+
+			super( 16, 0.75f, true );
+		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected boolean removeEldestEntry( Map.Entry<K, V> eldest ) {
+
+			return size() > LOOKUP_CACHE_SIZE;
+		}
+	}
+
+	/**
+	 * Key of a <code>lookup</code> and <code>lookup-labels</code> attribute pair. Avoids
+	 * concatenating the two, as lookups can run to thousands of entries.
+	 */
+
+	private static class LookupLabelsKey {
+
+		//
+		// Private members
+		//
+
+		private final String	mLookup;
+
+		private final String	mLookupLabels;
+
+		//
+		// Constructor
+		//
+
+		public LookupLabelsKey( String lookup, String lookupLabels ) {
+
+			mLookup = ( lookup == null ? "" : lookup );
+			mLookupLabels = ( lookupLabels == null ? "" : lookupLabels );
+		}
+
+		//
+		// Public methods
+		//
+
+		@Override
+		public boolean equals( Object that ) {
+
+			if ( !( that instanceof LookupLabelsKey ) ) {
+				return false;
+			}
+
+			return mLookup.equals( ( (LookupLabelsKey) that ).mLookup ) && mLookupLabels.equals( ( (LookupLabelsKey) that ).mLookupLabels );
+		}
+
+		@Override
+		public int hashCode() {
+
+			return 31 * mLookup.hashCode() + mLookupLabels.hashCode();
+		}
+	}
+
 	//
 	// Private constructor
 	//
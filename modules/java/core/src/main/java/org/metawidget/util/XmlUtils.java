@@ -13,15 +13,22 @@ package org.metawidget.util;
 
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -58,6 +65,8 @@ public final class XmlUtils {
 
 	/**
 	 * Gets the DOM attributes of the given Node as a Map.
+	 * <p>
+	 * The Map is a compact <code>AttributeMap</code>, with interned names and values.
 	 */
 
 	public static Map<String, String> getAttributesAsMap( Node node ) {
@@ -69,7 +78,7 @@ public final class XmlUtils {
 			return Collections.emptyMap();
 		}
 
-		Map<String, String> attributes = CollectionUtils.newHashMap( length );
+		Map<String, String> attributes = new AttributeMap( length );
 
 		for ( int loop = 0; loop < length; loop++ ) {
 			Node attributeNode = nodes.item( loop );
@@ -103,7 +112,7 @@ public final class XmlUtils {
 				continue;
 			}
 
-			element.setAttribute( entry.getKey(), value );
+			element.setAttribute( entry.getKey(), AttributeMap.intern( value ) );
 		}
 	}
 
@@ -383,12 +392,14 @@ public final class XmlUtils {
 			return null;
 		}
 
+		DOCUMENT_BUILDER_LOCK.lock();
+
 		try {
-			synchronized ( DOCUMENT_BUILDER ) {
-				return DOCUMENT_BUILDER.parse( new InputSource( new StringReader( xml ) ) );
-			}
+			return DOCUMENT_BUILDER.parse( new InputSource( new StringReader( xml ) ) );
 		} catch ( Exception e ) {
 			throw new RuntimeException( e );
+		} finally {
+			DOCUMENT_BUILDER_LOCK.unlock();
 		}
 	}
 
@@ -399,16 +410,24 @@ public final class XmlUtils {
 
 	public static Document newDocument() {
 
-		synchronized ( DOCUMENT_BUILDER ) {
+		DOCUMENT_BUILDER_LOCK.lock();
+
+		try {
 			return DOCUMENT_BUILDER.newDocument();
+		} finally {
+			DOCUMENT_BUILDER_LOCK.unlock();
 		}
 	}
 
 	public static Document parse( InputStream stream )
 		throws IOException, SAXException {
 
-		synchronized ( DOCUMENT_BUILDER ) {
+		DOCUMENT_BUILDER_LOCK.lock();
+
+		try {
 			return DOCUMENT_BUILDER.parse( stream );
+		} finally {
+			DOCUMENT_BUILDER_LOCK.unlock();
 		}
 	}
 
@@ -572,7 +591,40 @@ public final class XmlUtils {
 
 	public static String inspectionResultToJsonSchema( Element inspectionResult ) {
 
-		return inspectionResultToJsonSchema( XmlUtils.getFirstChildElement( inspectionResult ), false );
+		StringWriter writer = new StringWriter();
+
+		try {
+			inspectionResultToJsonSchema( inspectionResult, writer );
+		} catch ( IOException e ) {
+			throw new RuntimeException( e );
+		}
+
+		return writer.toString();
+	}
+
+	/**
+	 * Convert the given Element to a JSON Schema (v3), streaming it directly to the given Writer
+	 * rather than building it up as a String. Useful for large schemas returned by REST services.
+	 * Does not flush or close the Writer.
+	 */
+
+	public static void inspectionResultToJsonSchema( Element inspectionResult, Writer writer )
+		throws IOException {
+
+		writeJsonSchema( XmlUtils.getFirstChildElement( inspectionResult ), false, writer );
+	}
+
+	/**
+	 * Convert the given Element to a JSON Schema (v3), streaming it directly to the given
+	 * OutputStream as UTF-8. Flushes, but does not close, the OutputStream.
+	 */
+
+	public static void inspectionResultToJsonSchema( Element inspectionResult, OutputStream out )
+		throws IOException {
+
+		Writer writer = new BufferedWriter( new OutputStreamWriter( out, "UTF-8" ) );
+		inspectionResultToJsonSchema( inspectionResult, writer );
+		writer.flush();
 	}
 
 	/**
@@ -607,130 +659,123 @@ public final class XmlUtils {
 
 	private static final String[]	JSON_SCHEMA_NON_STRING_ATTRIBUTE_NAMES	= new String[] { REQUIRED, HIDDEN, "minimum", "maximum", "minLength", "maxLength", "propertyOrder" };
 
-	private static String inspectionResultToJsonSchema( Element element, boolean excludeName ) {
-
-		StringBuilder jsonBuilder = new StringBuilder();
+	private static void writeJsonSchema( Element element, boolean excludeName, Writer writer )
+		throws IOException {
 
-		if ( element != null ) {
+		if ( element == null ) {
+			return;
+		}
 
-			// For each child trait...
+		writer.write( '{' );
+		boolean needsSeparator = false;
 
-			Element trait = XmlUtils.getFirstChildElement( element );
+		// Actions without an explicit type are functions...
 
-			while ( trait != null ) {
+		if ( ACTION.equals( getLocalName( element ) ) && !element.hasAttribute( TYPE ) ) {
+			writer.write( "\"type\":\"function\"" );
+			needsSeparator = true;
+		}
 
-				// ...that has a name...
+		// ...then write out the root...
 
-				if ( trait.hasAttribute( NAME ) ) {
+		NamedNodeMap attributes = element.getAttributes();
 
-					// ..recurse into it...
+		for ( int loop = 0, length = attributes.getLength(); loop < length; loop++ ) {
 
-					String traitSchema = inspectionResultToJsonSchema( trait, true );
+			Node attribute = attributes.item( loop );
+			String attributeName = attribute.getNodeName();
 
-					if ( traitSchema.length() > 0 ) {
+			if ( excludeName && NAME.equals( attributeName ) ) {
+				continue;
+			}
 
-						if ( jsonBuilder.length() > 0 ) {
-							jsonBuilder.append( StringUtils.SEPARATOR_COMMA_CHAR );
-						}
+			if ( needsSeparator ) {
+				writer.write( StringUtils.SEPARATOR_COMMA_CHAR );
+			}
 
-						jsonBuilder.append( '\"' );
-						jsonBuilder.append( trait.getAttribute( NAME ) );
-						jsonBuilder.append( "\":" );
-						jsonBuilder.append( traitSchema );
-					}
-				}
+			writeJsonSchemaAttribute( attributeName, attribute.getNodeValue(), writer );
+			needsSeparator = true;
+		}
 
-				trait = XmlUtils.getNextSiblingElement( trait );
-			}
+		// ...then each child trait that has a name...
 
-			// ...and write them all out as 'properties'
+		boolean writtenProperties = false;
+		Element trait = XmlUtils.getFirstChildElement( element );
 
-			if ( jsonBuilder.length() > 0 ) {
-				jsonBuilder.insert( 0, "\"properties\":{" );
-				jsonBuilder.append( '}' );
+		while ( trait != null ) {
 
-				// For arrays, 'properties' is inside 'items'
+			if ( trait.hasAttribute( NAME ) ) {
 
-				if ( "array".equals( element.getAttribute( TYPE ) ) ) {
-					jsonBuilder.insert( 0, "\"items\":{" );
-					jsonBuilder.append( '}' );
-				}
-			}
+				// ...as 'properties' (for arrays, 'properties' is inside 'items')...
 
-			// Finally write out the root...
+				if ( !writtenProperties ) {
 
-			String attributes = attributesToJsonSchema( element.getAttributes(), excludeName );
+					if ( needsSeparator ) {
+						writer.write( StringUtils.SEPARATOR_COMMA_CHAR );
+					}
 
-			if ( attributes.length() > 0 ) {
+					if ( "array".equals( element.getAttribute( TYPE ) ) ) {
+						writer.write( "\"items\":{" );
+					}
 
-				if ( jsonBuilder.length() > 0 ) {
-					jsonBuilder.insert( 0, "," );
+					writer.write( "\"properties\":{" );
+					writtenProperties = true;
+				} else {
+					writer.write( StringUtils.SEPARATOR_COMMA_CHAR );
 				}
 
-				jsonBuilder.insert( 0, attributes );
-			}
+				// ...recursing into each
 
-			if ( ACTION.equals( getLocalName( element ) ) && !element.hasAttribute( "type" ) ) {
-				if ( jsonBuilder.length() > 0 ) {
-					jsonBuilder.insert( 0, "," );
-				}
-				jsonBuilder.insert( 0, "\"type\":\"function\"" );
+				writer.write( '\"' );
+				writer.write( trait.getAttribute( NAME ) );
+				writer.write( "\":" );
+				writeJsonSchema( trait, true, writer );
 			}
 
-			// ...all inside an Object
-
-			jsonBuilder.insert( 0, "{" );
-			jsonBuilder.append( "}" );
+			trait = XmlUtils.getNextSiblingElement( trait );
 		}
 
-		return jsonBuilder.toString();
-	}
-
-	private static String attributesToJsonSchema( NamedNodeMap attributes, boolean excludeName ) {
-
-		StringBuilder propertyBuilder = new StringBuilder();
-
-		for ( int loop = 0, length = attributes.getLength(); loop < length; loop++ ) {
+		if ( writtenProperties ) {
+			writer.write( '}' );
 
-			Node attribute = attributes.item( loop );
+			if ( "array".equals( element.getAttribute( TYPE ) ) ) {
+				writer.write( '}' );
+			}
+		}
 
-			String attributeName = attribute.getNodeName();
-			String attributeValue = attribute.getNodeValue();
+		// ...all inside an Object
 
-			if ( excludeName && NAME.equals( attributeName ) ) {
-				continue;
-			}
+		writer.write( '}' );
+	}
 
-			// Best guess element names (e.g. 'foo-bar' becomes 'fooBar')
+	private static void writeJsonSchemaAttribute( String name, String value, Writer writer )
+		throws IOException {
 
-			attributeName = StringUtils.camelCase( attributeName, '-' );
+		// Best guess element names (e.g. 'foo-bar' becomes 'fooBar')
 
-			if ( propertyBuilder.length() > 0 ) {
-				propertyBuilder.append( StringUtils.SEPARATOR_COMMA_CHAR );
-			}
+		String attributeName = StringUtils.camelCase( name, '-' );
 
-			propertyBuilder.append( "\"" + attributeName + "\"" );
-			propertyBuilder.append( StringUtils.SEPARATOR_COLON_CHAR );
+		writer.write( '\"' );
+		writer.write( attributeName );
+		writer.write( '\"' );
+		writer.write( StringUtils.SEPARATOR_COLON_CHAR );
 
-			if ( ArrayUtils.contains( JSON_SCHEMA_ARRAY_BASED_ATTRIBUTE_NAMES, attributeName ) ) {
-				propertyBuilder.append( "[" );
-				propertyBuilder.append( arrayToJsonSchema( attributeValue ) );
-				propertyBuilder.append( "]" );
-			} else if ( ArrayUtils.contains( JSON_SCHEMA_NON_STRING_ATTRIBUTE_NAMES, attributeName ) && !attributeValue.contains( "{" )) {
-				propertyBuilder.append( attributeValue );
-			} else if ( "xsi:nil".equals( attributeValue )) {
-				propertyBuilder.append( "null" );
-			} else {
+		if ( ArrayUtils.contains( JSON_SCHEMA_ARRAY_BASED_ATTRIBUTE_NAMES, attributeName ) ) {
+			writer.write( '[' );
+			writer.write( arrayToJsonSchema( value ) );
+			writer.write( ']' );
+		} else if ( ArrayUtils.contains( JSON_SCHEMA_NON_STRING_ATTRIBUTE_NAMES, attributeName ) && !value.contains( "{" ) ) {
+			writer.write( value );
+		} else if ( "xsi:nil".equals( value ) ) {
+			writer.write( "null" );
+		} else {
 
-				// Write out all other values as a string, as this is the safest option
+			// Write out all other values as a string, as this is the safest option
 
-				propertyBuilder.append( "\"" );
-				propertyBuilder.append( attributeValue );
-				propertyBuilder.append( "\"" );
-			}
+			writer.write( '\"' );
+			writer.write( value );
+			writer.write( '\"' );
 		}
-
-		return propertyBuilder.toString();
 	}
 
 	private static String arrayToJsonSchema( String array ) {
@@ -1653,6 +1698,12 @@ public final class XmlUtils {
 		}
 	}
 
+	/**
+	 * Guards <code>DOCUMENT_BUILDER</code>, which is not Thread safe.
+	 */
+
+	private static final Lock				DOCUMENT_BUILDER_LOCK	= new ReentrantLock();
+
 	private static final Pattern			PATTERN_AMP		= Pattern.compile( "&", Pattern.LITERAL );
 
 	private static final Pattern			PATTERN_LT		= Pattern.compile( "<", Pattern.LITERAL );
@@ -0,0 +1,127 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.validator;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.metawidget.inspector.impl.propertystyle.Property;
+import org.metawidget.util.CollectionUtils;
+
+/**
+ * Validator for a single type, compiled from its inspection result by <code>ValidatorCompiler</code>.
+ * <p>
+ * All constraints (including regular expressions) are compiled, and all property accessors resolved,
+ * up front. Validation therefore never touches the DOM. <code>CompiledValidator</code>s are
+ * immutable and can be shared across threads.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class CompiledValidator {
+
+	//
+	// Private members
+	//
+
+	private final String			mType;
+
+	private final Property[]		mProperties;
+
+	private final Constraint[][]	mConstraints;
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * @param properties
+	 *            the properties to validate
+	 * @param constraints
+	 *            the constraints for each property, in the same order as <code>properties</code>
+	 */
+
+	public CompiledValidator( String type, Property[] properties, Constraint[][] constraints ) {
+
+		if ( properties.length != constraints.length ) {
+			throw new IllegalArgumentException( "Properties and constraints must be the same length" );
+		}
+
+		mType = type;
+		mProperties = properties;
+		mConstraints = constraints;
+	}
+
+	//
+	// Public methods
+	//
+
+	public String getType() {
+
+		return mType;
+	}
+
+	/**
+	 * Returns whether the given Object satisfies every constraint. Stops at the first failure.
+	 */
+
+	public boolean isValid( Object toValidate ) {
+
+		for ( int loop = 0, length = mProperties.length; loop < length; loop++ ) {
+
+			Object value = mProperties[loop].read( toValidate );
+
+			for ( Constraint constraint : mConstraints[loop] ) {
+				if ( !constraint.isSatisfiedBy( value ) ) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Validates the given Object against every constraint.
+	 *
+	 * @return the failures, or an empty List if the Object is valid. Never null
+	 */
+
+	public List<ValidationFailure> validate( Object toValidate ) {
+
+		List<ValidationFailure> failures = null;
+
+		for ( int loop = 0, length = mProperties.length; loop < length; loop++ ) {
+
+			Property property = mProperties[loop];
+			Object value = property.read( toValidate );
+
+			for ( Constraint constraint : mConstraints[loop] ) {
+				if ( constraint.isSatisfiedBy( value ) ) {
+					continue;
+				}
+
+				if ( failures == null ) {
+					failures = CollectionUtils.newArrayList();
+				}
+
+				failures.add( new ValidationFailure( property.getName(), constraint, value ) );
+			}
+		}
+
+		if ( failures == null ) {
+			return Collections.emptyList();
+		}
+
+		return failures;
+	}
+}
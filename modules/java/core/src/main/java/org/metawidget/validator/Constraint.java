@@ -0,0 +1,49 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.validator;
+
+/**
+ * A single, compiled constraint on a property value.
+ * <p>
+ * Constraints must be immutable and thread-safe, as a <code>CompiledValidator</code> shares them
+ * across all threads.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface Constraint {
+
+	//
+	// Methods
+	//
+
+	/**
+	 * The inspection result attribute this constraint was compiled from (eg.
+	 * <code>maximum-length</code>).
+	 */
+
+	String getName();
+
+	/**
+	 * The value of the inspection result attribute this constraint was compiled from (eg.
+	 * <code>30</code>).
+	 */
+
+	String getValue();
+
+	/**
+	 * @param value
+	 *            the property value to check. May be null
+	 */
+
+	boolean isSatisfiedBy( Object value );
+}
@@ -0,0 +1,71 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.validator;
+
+/**
+ * A property value that failed a <code>Constraint</code>. Immutable.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class ValidationFailure {
+
+	//
+	// Private members
+	//
+
+	private final String		mProperty;
+
+	private final Constraint	mConstraint;
+
+	private final Object		mValue;
+
+	//
+	// Constructor
+	//
+
+	public ValidationFailure( String property, Constraint constraint, Object value ) {
+
+		mProperty = property;
+		mConstraint = constraint;
+		mValue = value;
+	}
+
+	//
+	// Public methods
+	//
+
+	public String getProperty() {
+
+		return mProperty;
+	}
+
+	public Constraint getConstraint() {
+
+		return mConstraint;
+	}
+
+	/**
+	 * The property value that failed. May be null.
+	 */
+
+	public Object getValue() {
+
+		return mValue;
+	}
+
+	@Override
+	public String toString() {
+
+		return mProperty + " (" + mConstraint.getName() + "=" + mConstraint.getValue() + "): " + mValue;
+	}
+}
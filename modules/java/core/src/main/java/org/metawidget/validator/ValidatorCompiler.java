@@ -0,0 +1,563 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.validator;
+
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import org.metawidget.iface.MetawidgetException;
+import org.metawidget.inspector.iface.DomInspector;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.impl.propertystyle.Property;
+import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
+import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle;
+import org.metawidget.util.ClassUtils.WeakClassKey;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.LogUtils;
+import org.metawidget.util.LogUtils.Log;
+import org.metawidget.util.XmlUtils;
+import org.w3c.dom.Element;
+
+/**
+ * Compiles inspection results into <code>CompiledValidator</code>s, for validating Objects outside
+ * of any UI (eg. REST or JSON payloads) against the same metadata the UI uses.
+ * <p>
+ * The following inspection result attributes are compiled into constraints:
+ * <ul>
+ * <li><code>required</code> - the value must not be null (or an empty String)</li>
+ * <li><code>minimum-length</code> and <code>maximum-length</code> - the length of a String, or the
+ * size of a Collection, Map or array</li>
+ * <li><code>minimum-value</code> and <code>maximum-value</code> - the value of a Number</li>
+ * <li><code>validation-pattern</code> - a regular expression the whole String must match</li>
+ * </ul>
+ * <p>
+ * Null values only fail <code>required</code>, and values of inapplicable types are ignored.
+ * Subclasses can support further attributes by overriding <code>newConstraints</code>.
+ * <p>
+ * Only the type's own properties are validated. The properties of nested Objects (eg.
+ * <code>address.street</code>) are not: to validate them, get the validator for the nested type and
+ * validate the nested Object separately.
+ * <p>
+ * <code>CompiledValidator</code>s are cached per type, so <code>getValidator</code> only inspects a
+ * type once. This class is thread-safe.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class ValidatorCompiler {
+
+	//
+	// Private statics
+	//
+
+	private static final Log										LOG			= LogUtils.getLog( ValidatorCompiler.class );
+
+	//
+	// Private members
+	//
+
+	private final Inspector											mInspector;
+
+	private final PropertyStyle										mPropertyStyle;
+
+	/**
+	 * Cache of CompiledValidators, keyed weakly by type so that caching a type does not stop its
+	 * ClassLoader being unloaded. Stale keys are purged, via <code>mCacheQueue</code>, whenever a
+	 * type is added.
+	 * <p>
+	 * CompiledValidators reference their type's Methods, and therefore the type itself. So they are
+	 * held softly, else the map's values would keep its keys reachable forever.
+	 */
+
+	private final ConcurrentMap<WeakClassKey, SoftReference<CompiledValidator>>	mCache		= new ConcurrentHashMap<WeakClassKey, SoftReference<CompiledValidator>>();
+
+	private final ReferenceQueue<Class<?>>										mCacheQueue	= new ReferenceQueue<Class<?>>();
+
+	/**
+	 * Held while compiling a type that is missing from <code>mCache</code>, so that each type is
+	 * only inspected once. Never held by lookups that hit.
+	 */
+
+	private final Lock															mCacheLock	= new ReentrantLock();
+
+	//
+	// Constructor
+	//
+
+	public ValidatorCompiler( Inspector inspector ) {
+
+		this( inspector, new JavaBeanPropertyStyle() );
+	}
+
+	/**
+	 * @param propertyStyle
+	 *            the PropertyStyle used to read property values at validation time. Should match
+	 *            the PropertyStyle used by the Inspector
+	 */
+
+	public ValidatorCompiler( Inspector inspector, PropertyStyle propertyStyle ) {
+
+		mInspector = inspector;
+		mPropertyStyle = propertyStyle;
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Gets the (cached) CompiledValidator for the given type, inspecting and compiling it if
+	 * necessary.
+	 */
+
+	public CompiledValidator getValidator( Class<?> type ) {
+
+		CompiledValidator validator = getCachedValidator( type );
+
+		if ( validator != null ) {
+			return validator;
+		}
+
+		// Missed: lock, and check again in case another thread compiled it meanwhile
+
+		mCacheLock.lock();
+
+		try {
+			validator = getCachedValidator( type );
+
+			if ( validator != null ) {
+				return validator;
+			}
+
+			// Purge types that have since been unloaded
+
+			for ( Reference<? extends Class<?>> stale = mCacheQueue.poll(); stale != null; stale = mCacheQueue.poll() ) {
+				mCache.remove( stale );
+			}
+
+			validator = compile( type.getName(), inspect( type.getName() ) );
+			mCache.put( new WeakClassKey( type, mCacheQueue ), new SoftReference<CompiledValidator>( validator ) );
+
+			return validator;
+		} finally {
+			mCacheLock.unlock();
+		}
+	}
+
+	/**
+	 * Compiles the given inspection result into a (non-cached) CompiledValidator.
+	 *
+	 * @param inspectionResult
+	 *            the inspection result (ie. the <code>inspection-result</code> element). May be null
+	 */
+
+	public CompiledValidator compile( String type, Element inspectionResult ) {
+
+		List<Property> properties = CollectionUtils.newArrayList();
+		List<Constraint[]> constraints = CollectionUtils.newArrayList();
+
+		Element entity = null;
+
+		if ( inspectionResult != null ) {
+			entity = XmlUtils.getFirstChildElement( inspectionResult );
+		}
+
+		if ( entity != null ) {
+
+			Map<String, Property> propertiesByName = mPropertyStyle.getProperties( type );
+
+			for ( Element child = XmlUtils.getFirstChildElement( entity ); child != null; child = XmlUtils.getNextSiblingElement( child ) ) {
+
+				if ( !PROPERTY.equals( XmlUtils.getLocalName( child ) ) ) {
+					continue;
+				}
+
+				Map<String, String> attributes = XmlUtils.getAttributesAsMap( child );
+				List<Constraint> propertyConstraints = newConstraints( attributes );
+
+				if ( propertyConstraints.isEmpty() ) {
+					continue;
+				}
+
+				String name = attributes.get( NAME );
+				Property property = propertiesByName.get( name );
+
+				if ( property == null || !property.isReadable() ) {
+					throw MetawidgetException.newException( "Unable to validate '" + name + "' of " + type + ": no readable property" );
+				}
+
+				properties.add( property );
+				constraints.add( propertyConstraints.toArray( new Constraint[propertyConstraints.size()] ) );
+			}
+		}
+
+		return new CompiledValidator( type, properties.toArray( new Property[properties.size()] ), constraints.toArray( new Constraint[constraints.size()][] ) );
+	}
+
+	//
+	// Protected methods
+	//
+
+	/**
+	 * Inspects the given type, without an Object to inspect.
+	 *
+	 * @return the inspection result, or null if the type could not be inspected
+	 */
+
+	protected Element inspect( String type ) {
+
+		if ( mInspector instanceof DomInspector<?> ) {
+			return (Element) ( (DomInspector<?>) mInspector ).inspectAsDom( null, type );
+		}
+
+		String xml = mInspector.inspect( null, type );
+
+		if ( xml == null ) {
+			return null;
+		}
+
+		return XmlUtils.documentFromString( xml ).getDocumentElement();
+	}
+
+	/**
+	 * Compiles the given property attributes into Constraints.
+	 * <p>
+	 * Length and value attributes that are not numbers (such as unevaluated Expression Language) are
+	 * skipped, as they cannot be compiled ahead of time. Evaluate them beforehand (eg. using an
+	 * <code>InspectionResultProcessor</code>) to have them validated.
+	 * <p>
+	 * Subclasses can override this method to support further attributes.
+	 *
+	 * @return the Constraints. Never null
+	 */
+
+	protected List<Constraint> newConstraints( Map<String, String> attributes ) {
+
+		List<Constraint> constraints = CollectionUtils.newArrayList();
+
+		if ( TRUE.equals( attributes.get( REQUIRED ) ) ) {
+			constraints.add( new RequiredConstraint() );
+		}
+
+		addNumericConstraint( constraints, MINIMUM_LENGTH, attributes.get( MINIMUM_LENGTH ) );
+		addNumericConstraint( constraints, MAXIMUM_LENGTH, attributes.get( MAXIMUM_LENGTH ) );
+		addNumericConstraint( constraints, MINIMUM_VALUE, attributes.get( MINIMUM_VALUE ) );
+		addNumericConstraint( constraints, MAXIMUM_VALUE, attributes.get( MAXIMUM_VALUE ) );
+
+		String value = attributes.get( VALIDATION_PATTERN );
+
+		if ( value != null && !"".equals( value ) ) {
+			constraints.add( new PatternConstraint( value ) );
+		}
+
+		return constraints;
+	}
+
+	//
+	// Private methods
+	//
+
+	private CompiledValidator getCachedValidator( Class<?> type ) {
+
+		SoftReference<CompiledValidator> reference = mCache.get( new WeakClassKey( type, null ) );
+
+		if ( reference == null ) {
+			return null;
+		}
+
+		return reference.get();
+	}
+
+	/**
+	 * Adds a length or value constraint, unless the given value is empty or not a number.
+	 */
+
+	private void addNumericConstraint( List<Constraint> constraints, String name, String value ) {
+
+		if ( value == null || "".equals( value ) ) {
+			return;
+		}
+
+		try {
+			if ( MINIMUM_LENGTH.equals( name ) || MAXIMUM_LENGTH.equals( name ) ) {
+				constraints.add( new LengthConstraint( name, value, MINIMUM_LENGTH.equals( name ) ) );
+			} else {
+				constraints.add( new ValueConstraint( name, value, MINIMUM_VALUE.equals( name ) ) );
+			}
+		} catch ( NumberFormatException e ) {
+			LOG.debug( "Skipping non-numeric {0} ''{1}''", name, value );
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	private abstract static class BaseConstraint
+		implements Constraint {
+
+		//
+		// Private members
+		//
+
+		private final String	mName;
+
+		private final String	mValue;
+
+		//
+		// Constructor
+		//
+
+		protected BaseConstraint( String name, String value ) {
+
+			mName = name;
+			mValue = value;
+		}
+
+		//
+		// Public methods
+		//
+
+		public String getName() {
+
+			return mName;
+		}
+
+		public String getValue() {
+
+			return mValue;
+		}
+	}
+
+	private static class RequiredConstraint
+		extends BaseConstraint {
+
+		//
+		// Constructor
+		//
+
+		public RequiredConstraint() {
+
+			super( REQUIRED, TRUE );
+		}
+
+		//
+		// Public methods
+		//
+
+		public boolean isSatisfiedBy( Object value ) {
+
+			if ( value == null ) {
+				return false;
+			}
+
+			if ( value instanceof CharSequence ) {
+				return ( ( (CharSequence) value ).length() > 0 );
+			}
+
+			return true;
+		}
+	}
+
+	private static class LengthConstraint
+		extends BaseConstraint {
+
+		//
+		// Private members
+		//
+
+		private final int		mLength;
+
+		private final boolean	mMinimum;
+
+		//
+		// Constructor
+		//
+
+		public LengthConstraint( String name, String value, boolean minimum ) {
+
+			super( name, value );
+
+			mLength = Integer.parseInt( value );
+			mMinimum = minimum;
+		}
+
+		//
+		// Public methods
+		//
+
+		public boolean isSatisfiedBy( Object value ) {
+
+			int length;
+
+			if ( value instanceof CharSequence ) {
+				length = ( (CharSequence) value ).length();
+			} else if ( value instanceof Collection<?> ) {
+				length = ( (Collection<?>) value ).size();
+			} else if ( value instanceof Map<?, ?> ) {
+				length = ( (Map<?, ?>) value ).size();
+			} else if ( value != null && value.getClass().isArray() ) {
+				length = Array.getLength( value );
+			} else {
+				return true;
+			}
+
+			if ( mMinimum ) {
+				return ( length >= mLength );
+			}
+
+			return ( length <= mLength );
+		}
+	}
+
+	/**
+	 * Compares Numbers against a bound, using <code>long</code> arithmetic for integral values and
+	 * bounds (so that large <code>long</code>s compare exactly), <code>BigDecimal</code> for
+	 * <code>BigDecimal</code> and <code>BigInteger</code> values, and <code>double</code> arithmetic
+	 * otherwise.
+	 */
+
+	private static class ValueConstraint
+		extends BaseConstraint {
+
+		//
+		// Private members
+		//
+
+		private final BigDecimal	mBound;
+
+		private final double		mDoubleBound;
+
+		private final long			mLongBound;
+
+		private final boolean		mIntegralBound;
+
+		private final boolean		mMinimum;
+
+		//
+		// Constructor
+		//
+
+		public ValueConstraint( String name, String value, boolean minimum ) {
+
+			super( name, value );
+
+			mBound = new BigDecimal( value );
+			mDoubleBound = mBound.doubleValue();
+			mMinimum = minimum;
+
+			boolean integralBound;
+			long longBound;
+
+			try {
+				longBound = mBound.longValueExact();
+				integralBound = true;
+			} catch ( ArithmeticException e ) {
+				longBound = 0;
+				integralBound = false;
+			}
+
+			mLongBound = longBound;
+			mIntegralBound = integralBound;
+		}
+
+		//
+		// Public methods
+		//
+
+		public boolean isSatisfiedBy( Object value ) {
+
+			if ( !( value instanceof Number ) ) {
+				return true;
+			}
+
+			int comparison;
+
+			if ( mIntegralBound && ( value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte ) ) {
+				long longValue = ( (Number) value ).longValue();
+				comparison = ( longValue < mLongBound ? -1 : ( longValue == mLongBound ? 0 : 1 ) );
+			} else if ( value instanceof BigDecimal ) {
+				comparison = ( (BigDecimal) value ).compareTo( mBound );
+			} else if ( value instanceof BigInteger ) {
+				comparison = new BigDecimal( (BigInteger) value ).compareTo( mBound );
+			} else {
+				double doubleValue = ( (Number) value ).doubleValue();
+
+				// NaN never satisfies a bound
+
+				if ( Double.isNaN( doubleValue ) ) {
+					return false;
+				}
+
+				comparison = Double.compare( doubleValue, mDoubleBound );
+			}
+
+			if ( mMinimum ) {
+				return ( comparison >= 0 );
+			}
+
+			return ( comparison <= 0 );
+		}
+	}
+
+	private static class PatternConstraint
+		extends BaseConstraint {
+
+		//
+		// Private members
+		//
+
+		private final Pattern	mPattern;
+
+		//
+		// Constructor
+		//
+
+		public PatternConstraint( String value ) {
+
+			super( VALIDATION_PATTERN, value );
+
+			mPattern = Pattern.compile( value );
+		}
+
+		//
+		// Public methods
+		//
+
+		public boolean isSatisfiedBy( Object value ) {
+
+			if ( value == null ) {
+				return true;
+			}
+
+			if ( value instanceof CharSequence ) {
+				return mPattern.matcher( (CharSequence) value ).matches();
+			}
+
+			return mPattern.matcher( value.toString() ).matches();
+		}
+	}
+}
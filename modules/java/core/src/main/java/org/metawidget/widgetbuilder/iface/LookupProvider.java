@@ -0,0 +1,67 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.widgetbuilder.iface;
+
+import java.util.List;
+import java.util.Map;
+
+import org.metawidget.iface.Immutable;
+
+/**
+ * Interface for supplying lookups to WidgetBuilders, as an alternative to serializing them into
+ * comma-separated <code>lookup</code> and <code>lookup-labels</code> attributes.
+ * <p>
+ * Useful for large lookups (eg. thousands of countries or product codes). The returned Lists are
+ * never split, parsed or copied. Instead they are read by index as the widget needs them, so they
+ * can be backed lazily (eg. an <code>AbstractList</code> backed by a database). Note the UI
+ * toolkit itself may still read every element (eg. Swing sizes a <code>JComboBox</code> by its
+ * widest item, unless it has a prototype display value).
+ * <p>
+ * Currently only <code>SwingWidgetBuilder</code> and the Swing <code>ReadOnlyWidgetBuilder</code>
+ * consult a LookupProvider (see <code>SwingWidgetBuilderConfig.setLookupProvider</code> and
+ * <code>ReadOnlyWidgetBuilderConfig.setLookupProvider</code>). Other WidgetBuilders use the
+ * <code>lookup</code> attributes.
+ * <p>
+ * LookupProviders must be immutable (or, at least, appear that way to clients. They can have
+ * caches internally, as long as they are threadsafe).
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface LookupProvider
+	extends Immutable {
+
+	//
+	// Methods
+	//
+
+	/**
+	 * Supplies the lookup values for this business field.
+	 *
+	 * @param attributes
+	 *            attributes of the business field. Never null
+	 * @return the lookup values, or null if this LookupProvider does not supply a lookup for this
+	 *         business field (in which case any <code>lookup</code> attribute is used instead)
+	 */
+
+	List<String> getLookup( Map<String, String> attributes );
+
+	/**
+	 * Supplies the lookup labels for this business field. Only called if <code>getLookup</code>
+	 * returned non-null.
+	 *
+	 * @return the lookup labels, one per lookup value, or null if the lookup values should be used
+	 *         as their own labels
+	 */
+
+	List<String> getLookupLabels( Map<String, String> attributes );
+}
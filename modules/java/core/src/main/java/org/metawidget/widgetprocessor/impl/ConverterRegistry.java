@@ -0,0 +1,258 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.widgetprocessor.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of converters, indexed by the pair of classes they convert between.
+ * <p>
+ * Lookups traverse the superclasses of the source class (and, optionally, of the target class) for
+ * a suitable converter. So for example registering a converter for <code>Number.class</code> will
+ * match <code>Integer.class</code>, <code>Double.class</code> etc., unless a more subclass-specific
+ * converter is also registered. Converters are registered against exactly the classes given, so
+ * converters for a primitive class and its wrapper class never collide. By default, primitive
+ * classes are looked up as their wrapper classes (so a converter registered for a primitive class
+ * is never found), but this can be turned off to look up primitive classes as themselves.
+ * <p>
+ * Resolved lookups (including lookups that found no converter) are cached per class pair, so
+ * binding many widgets of the same types neither traverses class hierarchies nor allocates lookup
+ * keys. Lookups are thread-safe and take no locks: both the registered converters and the cache are
+ * immutable maps, published through volatile fields and replaced (never modified) on write. This
+ * also avoids APIs unavailable to GWT. Converters should be registered while configuring (eg. in a
+ * constructor), before the registry is shared between threads.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class ConverterRegistry<C> {
+
+	//
+	// Private statics
+	//
+
+	/**
+	 * Marker for cached lookups that found no converter.
+	 */
+
+	private static final Object								NO_CONVERTER		= new Object();
+
+	/**
+	 * Wrapper classes, keyed by primitive class. Equivalent of <code>ClassUtils.getWrapperClass</code>,
+	 * which is not available to GWT.
+	 */
+
+	private static final Map<Class<?>, Class<?>>			PRIMITIVE_WRAPPERS	= new HashMap<Class<?>, Class<?>>();
+
+	static {
+		PRIMITIVE_WRAPPERS.put( boolean.class, Boolean.class );
+		PRIMITIVE_WRAPPERS.put( byte.class, Byte.class );
+		PRIMITIVE_WRAPPERS.put( char.class, Character.class );
+		PRIMITIVE_WRAPPERS.put( short.class, Short.class );
+		PRIMITIVE_WRAPPERS.put( int.class, Integer.class );
+		PRIMITIVE_WRAPPERS.put( long.class, Long.class );
+		PRIMITIVE_WRAPPERS.put( float.class, Float.class );
+		PRIMITIVE_WRAPPERS.put( double.class, Double.class );
+	}
+
+	//
+	// Private members
+	//
+
+	private final boolean									mTraverseTargetSuperclasses;
+
+	private final boolean									mLookupPrimitivesAsWrappers;
+
+	/**
+	 * Registered converters, keyed by target class then source class. Never modified once
+	 * published.
+	 */
+
+	private volatile Map<Class<?>, Map<Class<?>, C>>		mConverters			= new HashMap<Class<?>, Map<Class<?>, C>>();
+
+	/**
+	 * Resolved lookups, keyed by (as given) target class then (as given) source class. Never
+	 * modified once published.
+	 */
+
+	private volatile Map<Class<?>, Map<Class<?>, Object>>	mResolved			= new HashMap<Class<?>, Map<Class<?>, Object>>();
+
+	//
+	// Constructor
+	//
+
+	public ConverterRegistry() {
+
+		this( false );
+	}
+
+	/**
+	 * @param traverseTargetSuperclasses
+	 *            whether to also traverse the superclasses of the target class. If true, each
+	 *            target class is tried (most specific first) against every source class
+	 */
+
+	public ConverterRegistry( boolean traverseTargetSuperclasses ) {
+
+		this( traverseTargetSuperclasses, true );
+	}
+
+	/**
+	 * @param traverseTargetSuperclasses
+	 *            whether to also traverse the superclasses of the target class. If true, each
+	 *            target class is tried (most specific first) against every source class
+	 * @param lookupPrimitivesAsWrappers
+	 *            whether to look up primitive classes as their wrapper classes. If false, primitive
+	 *            classes only match converters registered for exactly that primitive class
+	 */
+
+	public ConverterRegistry( boolean traverseTargetSuperclasses, boolean lookupPrimitivesAsWrappers ) {
+
+		mTraverseTargetSuperclasses = traverseTargetSuperclasses;
+		mLookupPrimitivesAsWrappers = lookupPrimitivesAsWrappers;
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Registers a converter for exactly the given pair of classes. A converter registered for a
+	 * primitive class does not replace one registered for its wrapper class, or vice versa.
+	 * <p>
+	 * Safe to call while other threads look up converters, but not while other threads register
+	 * them.
+	 */
+
+	public void register( Class<?> source, Class<?> target, C converter ) {
+
+		Map<Class<?>, Map<Class<?>, C>> converters = new HashMap<Class<?>, Map<Class<?>, C>>( mConverters );
+		Map<Class<?>, C> convertersBySource = converters.get( target );
+
+		if ( convertersBySource == null ) {
+			convertersBySource = new HashMap<Class<?>, C>();
+		} else {
+			convertersBySource = new HashMap<Class<?>, C>( convertersBySource );
+		}
+
+		convertersBySource.put( source, converter );
+		converters.put( target, convertersBySource );
+		mConverters = converters;
+
+		// Previously resolved lookups may now resolve differently
+
+		mResolved = new HashMap<Class<?>, Map<Class<?>, Object>>();
+	}
+
+	/**
+	 * Gets the converter for the given pair of classes.
+	 *
+	 * @return the converter, or null if there is no suitable converter
+	 */
+
+	@SuppressWarnings( "unchecked" )
+	public C getConverter( Class<?> source, Class<?> target ) {
+
+		Map<Class<?>, Map<Class<?>, Object>> resolved = mResolved;
+		Map<Class<?>, Object> resolvedBySource = resolved.get( target );
+		Object converter = null;
+
+		if ( resolvedBySource != null ) {
+			converter = resolvedBySource.get( source );
+		}
+
+		if ( converter == null ) {
+			converter = resolveConverter( mConverters, source, target );
+
+			if ( converter == null ) {
+				converter = NO_CONVERTER;
+			}
+
+			// Publish a copy with the new lookup. Racing threads may each publish their own copy,
+			// losing each other's lookups, but those will simply be resolved again
+
+			if ( resolvedBySource == null ) {
+				resolvedBySource = new HashMap<Class<?>, Object>();
+			} else {
+				resolvedBySource = new HashMap<Class<?>, Object>( resolvedBySource );
+			}
+
+			resolvedBySource.put( source, converter );
+			resolved = new HashMap<Class<?>, Map<Class<?>, Object>>( resolved );
+			resolved.put( target, resolvedBySource );
+			mResolved = resolved;
+		}
+
+		if ( converter == NO_CONVERTER ) {
+			return null;
+		}
+
+		return (C) converter;
+	}
+
+	//
+	// Private methods
+	//
+
+	private C resolveConverter( Map<Class<?>, Map<Class<?>, C>> converters, Class<?> source, Class<?> target ) {
+
+		Class<?> targetTraversal = target;
+
+		if ( mLookupPrimitivesAsWrappers ) {
+			targetTraversal = getWrapperClass( targetTraversal );
+		}
+
+		while ( targetTraversal != null ) {
+
+			Map<Class<?>, C> convertersBySource = converters.get( targetTraversal );
+
+			if ( convertersBySource != null ) {
+
+				Class<?> sourceTraversal = source;
+
+				if ( mLookupPrimitivesAsWrappers ) {
+					sourceTraversal = getWrapperClass( sourceTraversal );
+				}
+
+				while ( sourceTraversal != null ) {
+					C converter = convertersBySource.get( sourceTraversal );
+
+					if ( converter != null ) {
+						return converter;
+					}
+
+					sourceTraversal = sourceTraversal.getSuperclass();
+				}
+			}
+
+			if ( !mTraverseTargetSuperclasses ) {
+				break;
+			}
+
+			targetTraversal = targetTraversal.getSuperclass();
+		}
+
+		return null;
+	}
+
+	private static Class<?> getWrapperClass( Class<?> clazz ) {
+
+		Class<?> wrapperClass = PRIMITIVE_WRAPPERS.get( clazz );
+
+		if ( wrapperClass == null ) {
+			return clazz;
+		}
+
+		return wrapperClass;
+	}
+}
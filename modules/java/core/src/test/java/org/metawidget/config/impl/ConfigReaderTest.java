@@ -17,6 +17,10 @@ import java.io.File;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import javax.swing.SwingConstants;
@@ -25,9 +29,11 @@ import junit.framework.TestCase;
 
 import org.metawidget.config.iface.ConfigReader;
 import org.metawidget.config.impl.AllTypesInspectorConfig.FooEnum;
+import org.metawidget.iface.Immutable;
 import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspector.composite.CompositeInspector;
 import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.iface.InspectorException;
 import org.metawidget.inspector.propertytype.PropertyTypeInspector;
 import org.metawidget.inspector.xml.XmlInspector;
 import org.metawidget.util.IOUtils;
@@ -692,10 +698,315 @@ public class ConfigReaderTest
 		}
 	}
 
+	public void testLazyInspectors() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<metawidget xmlns=\"http://metawidget.org\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://metawidget.org http://metawidget.org/xsd/metawidget-1.0.xsd\" version=\"1.0\">";
+		xml += "<compositeInspector xmlns=\"java:org.metawidget.inspector.composite\" config=\"CompositeInspectorConfig\">";
+		xml += "<inspectors><array>";
+		xml += "<countingInspector xmlns=\"java:org.metawidget.config.impl.ConfigReaderTest\" config=\"AllTypesInspectorConfig\"/>";
+		xml += "<propertyTypeInspector xmlns=\"java:org.metawidget.inspector.propertytype\"/>";
+		xml += "</array></inspectors>";
+		xml += "</compositeInspector></metawidget>";
+
+		// Eager (the default)
+
+		CountingInspector.CONSTRUCTED = 0;
+		new BaseConfigReader().configure( new ByteArrayInputStream( xml.getBytes() ), Inspector.class );
+		assertEquals( 1, CountingInspector.CONSTRUCTED );
+
+		// Lazy
+
+		CountingInspector.CONSTRUCTED = 0;
+		BaseConfigReader configReader = new BaseConfigReader();
+		configReader.setLazyInspectors( true );
+		Inspector inspector = (Inspector) configReader.configure( new ByteArrayInputStream( xml.getBytes() ), Inspector.class );
+		assertTrue( inspector instanceof CompositeInspector );
+		assertEquals( 0, CountingInspector.CONSTRUCTED );
+
+		String inspectionResult = inspector.inspect( null, "Foo" );
+		assertTrue( inspectionResult.contains( "type=\"Foo\"" ) );
+		assertEquals( 1, CountingInspector.CONSTRUCTED );
+		inspector.inspect( null, "Foo" );
+		assertEquals( 1, CountingInspector.CONSTRUCTED );
+
+		// Only inside CompositeInspectors
+
+		xml = "<?xml version=\"1.0\"?>";
+		xml += "<metawidget xmlns=\"http://metawidget.org\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://metawidget.org http://metawidget.org/xsd/metawidget-1.0.xsd\" version=\"1.0\">";
+		xml += "<countingInspector xmlns=\"java:org.metawidget.config.impl.ConfigReaderTest\" config=\"AllTypesInspectorConfig\"/>";
+		xml += "</metawidget>";
+
+		configReader = new BaseConfigReader();
+		configReader.setLazyInspectors( true );
+		assertTrue( configReader.configure( new ByteArrayInputStream( xml.getBytes() ), Inspector.class ) instanceof CountingInspector );
+		assertEquals( 2, CountingInspector.CONSTRUCTED );
+	}
+
+	public void testLazyInspectorsConstructedInParallel() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<metawidget xmlns=\"http://metawidget.org\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://metawidget.org http://metawidget.org/xsd/metawidget-1.0.xsd\" version=\"1.0\">";
+		xml += "<compositeInspector xmlns=\"java:org.metawidget.inspector.composite\" config=\"CompositeInspectorConfig\">";
+		xml += "<inspectors><array>";
+		xml += "<latchInspector xmlns=\"java:org.metawidget.config.impl.ConfigReaderTest\" config=\"AllTypesInspectorConfig\"/>";
+		xml += "<otherLatchInspector xmlns=\"java:org.metawidget.config.impl.ConfigReaderTest\" config=\"AllTypesInspectorConfig\"/>";
+		xml += "</array></inspectors>";
+		xml += "</compositeInspector></metawidget>";
+
+		// Each LatchInspector waits for the other to start constructing, so constructing them one
+		// after another would time out
+
+		LatchInspector.LATCH = new CountDownLatch( 2 );
+		ExecutorService executor = Executors.newCachedThreadPool();
+
+		try {
+			BaseConfigReader configReader = new BaseConfigReader();
+			configReader.setLazyInspectors( true );
+			configReader.setLazyInspectorExecutor( executor );
+			Inspector inspector = (Inspector) configReader.configure( new ByteArrayInputStream( xml.getBytes() ), Inspector.class );
+			assertEquals( 2, LatchInspector.LATCH.getCount() );
+
+			String inspectionResult = inspector.inspect( null, "Foo" );
+			assertTrue( inspectionResult.contains( "type=\"Foo\"" ) );
+			assertEquals( 0, LatchInspector.LATCH.getCount() );
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	public void testLazyInspectorsWithoutExecutor() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<metawidget xmlns=\"http://metawidget.org\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://metawidget.org http://metawidget.org/xsd/metawidget-1.0.xsd\" version=\"1.0\">";
+		xml += "<compositeInspector xmlns=\"java:org.metawidget.inspector.composite\" config=\"CompositeInspectorConfig\">";
+		xml += "<inspectors><array>";
+		xml += "<threadInspector xmlns=\"java:org.metawidget.config.impl.ConfigReaderTest\" config=\"AllTypesInspectorConfig\"/>";
+		xml += "<propertyTypeInspector xmlns=\"java:org.metawidget.inspector.propertytype\"/>";
+		xml += "</array></inspectors>";
+		xml += "</compositeInspector></metawidget>";
+
+		// Constructed on the calling Thread
+
+		ThreadInspector.REQUIRED_THREAD = Thread.currentThread();
+		ThreadInspector.CONSTRUCTED = 0;
+		BaseConfigReader configReader = new BaseConfigReader();
+		configReader.setLazyInspectors( true );
+		Inspector inspector = (Inspector) configReader.configure( new ByteArrayInputStream( xml.getBytes() ), Inspector.class );
+
+		assertTrue( inspector.inspect( null, "Foo" ).contains( "type=\"Foo\"" ) );
+		assertEquals( 1, ThreadInspector.CONSTRUCTED );
+	}
+
+	public void testLazyInspectorBackgroundFailureNotCached()
+		throws Exception {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<metawidget xmlns=\"http://metawidget.org\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://metawidget.org http://metawidget.org/xsd/metawidget-1.0.xsd\" version=\"1.0\">";
+		xml += "<compositeInspector xmlns=\"java:org.metawidget.inspector.composite\" config=\"CompositeInspectorConfig\">";
+		xml += "<inspectors><array>";
+		xml += "<propertyTypeInspector xmlns=\"java:org.metawidget.inspector.propertytype\"/>";
+		xml += "<threadInspector xmlns=\"java:org.metawidget.config.impl.ConfigReaderTest\" config=\"AllTypesInspectorConfig\"/>";
+		xml += "</array></inspectors>";
+		xml += "</compositeInspector></metawidget>";
+
+		// ThreadInspector fails on the Executor's Thread (like an Inspector that needs a
+		// FacesContext), so should be retried on the calling Thread
+
+		ThreadInspector.REQUIRED_THREAD = Thread.currentThread();
+		ThreadInspector.CONSTRUCTED = 0;
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		try {
+			BaseConfigReader configReader = new BaseConfigReader();
+			configReader.setLazyInspectors( true );
+			configReader.setLazyInspectorExecutor( executor );
+			Inspector inspector = (Inspector) configReader.configure( new ByteArrayInputStream( xml.getBytes() ), Inspector.class );
+
+			assertTrue( inspector.inspect( null, "Foo" ).contains( "type=\"Foo\"" ) );
+			assertTrue( inspector.inspect( null, "Foo" ).contains( "type=\"Foo\"" ) );
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination( 5, TimeUnit.SECONDS );
+		}
+
+		assertTrue( ThreadInspector.CONSTRUCTED <= 2 );
+	}
+
+	public void testLazyInspectorFailure() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<metawidget xmlns=\"http://metawidget.org\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://metawidget.org http://metawidget.org/xsd/metawidget-1.0.xsd\" version=\"1.0\">";
+		xml += "<compositeInspector xmlns=\"java:org.metawidget.inspector.composite\" config=\"CompositeInspectorConfig\">";
+		xml += "<inspectors><array>";
+		xml += "<failingInspector xmlns=\"java:org.metawidget.config.impl.ConfigReaderTest\" config=\"AllTypesInspectorConfig\"/>";
+		xml += "<propertyTypeInspector xmlns=\"java:org.metawidget.inspector.propertytype\"/>";
+		xml += "</array></inspectors>";
+		xml += "</compositeInspector></metawidget>";
+
+		FailingInspector.CONSTRUCTED = 0;
+		BaseConfigReader configReader = new BaseConfigReader();
+		configReader.setLazyInspectors( true );
+		Inspector inspector = (Inspector) configReader.configure( new ByteArrayInputStream( xml.getBytes() ), Inspector.class );
+
+		// Failure should be cached, not retried on every inspection
+
+		for ( int loop = 0; loop < 2; loop++ ) {
+			try {
+				inspector.inspect( null, "Foo" );
+				fail();
+			} catch ( InspectorException e ) {
+				assertEquals( "Bad input file", e.getCause().getMessage() );
+			}
+		}
+
+		assertEquals( 1, FailingInspector.CONSTRUCTED );
+	}
+
 	//
 	// Inner class
 	//
 
+	public static class CountingInspector
+		implements Inspector, Immutable {
+
+		//
+		// Public statics
+		//
+
+		public static int	CONSTRUCTED;
+
+		//
+		// Constructor
+		//
+
+		public CountingInspector( @SuppressWarnings( "unused" ) AllTypesInspectorConfig config ) {
+
+			CONSTRUCTED++;
+		}
+
+		//
+		// Public methods
+		//
+
+		public String inspect( Object toInspect, String type, String... names ) {
+
+			return "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\"><entity type=\"" + type + "\"/></inspection-result>";
+		}
+	}
+
+	public static class LatchInspector
+		implements Inspector, Immutable {
+
+		//
+		// Public statics
+		//
+
+		public static CountDownLatch	LATCH;
+
+		//
+		// Constructor
+		//
+
+		public LatchInspector( @SuppressWarnings( "unused" ) AllTypesInspectorConfig config ) {
+
+			LATCH.countDown();
+
+			try {
+				if ( !LATCH.await( 5, TimeUnit.SECONDS ) ) {
+					throw new RuntimeException( "Not constructed in parallel" );
+				}
+			} catch ( InterruptedException e ) {
+				throw new RuntimeException( e );
+			}
+		}
+
+		//
+		// Public methods
+		//
+
+		public String inspect( Object toInspect, String type, String... names ) {
+
+			return "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\"><entity type=\"" + type + "\"/></inspection-result>";
+		}
+	}
+
+	public static class OtherLatchInspector
+		extends LatchInspector {
+
+		//
+		// Constructor
+		//
+
+		public OtherLatchInspector( AllTypesInspectorConfig config ) {
+
+			super( config );
+		}
+	}
+
+	public static class FailingInspector
+		implements Inspector, Immutable {
+
+		//
+		// Public statics
+		//
+
+		public static int	CONSTRUCTED;
+
+		//
+		// Constructor
+		//
+
+		public FailingInspector( @SuppressWarnings( "unused" ) AllTypesInspectorConfig config ) {
+
+			CONSTRUCTED++;
+			throw new RuntimeException( "Bad input file" );
+		}
+
+		//
+		// Public methods
+		//
+
+		public String inspect( Object toInspect, String type, String... names ) {
+
+			return null;
+		}
+	}
+
+	public static class ThreadInspector
+		implements Inspector, Immutable {
+
+		//
+		// Public statics
+		//
+
+		public static Thread	REQUIRED_THREAD;
+
+		public static int		CONSTRUCTED;
+
+		//
+		// Constructor
+		//
+
+		public ThreadInspector( @SuppressWarnings( "unused" ) AllTypesInspectorConfig config ) {
+
+			CONSTRUCTED++;
+
+			if ( Thread.currentThread() != REQUIRED_THREAD ) {
+				throw new RuntimeException( "No context on this Thread" );
+			}
+		}
+
+		//
+		// Public methods
+		//
+
+		public String inspect( Object toInspect, String type, String... names ) {
+
+			return "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\"><entity type=\"" + type + "\"/></inspection-result>";
+		}
+	}
+
 	static class Foo {
 
 		// Just an inner class
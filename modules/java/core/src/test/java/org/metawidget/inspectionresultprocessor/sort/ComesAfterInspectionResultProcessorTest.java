@@ -15,6 +15,7 @@ import junit.framework.TestCase;
 
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessorException;
 import org.metawidget.util.XmlUtils;
+import org.w3c.dom.Element;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -233,6 +234,59 @@ public class ComesAfterInspectionResultProcessorTest
 		assertEquals( validateXml, outputXml );
 	}
 
+	public void testLargeEntity()
+		throws Exception {
+
+		// Set up a long chain of properties, each coming after the next (so
+		// that the sort must visit the entire chain from the very first property)
+
+		int properties = 2000;
+
+		StringBuilder builder = new StringBuilder( "<?xml version=\"1.0\"?>" );
+		builder.append( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\">" );
+		builder.append( "<entity type=\"Foo\">" );
+		builder.append( "<property name=\"last\" comes-after=\"\"/>" );
+
+		for ( int loop = 0; loop < properties; loop++ ) {
+
+			builder.append( "<property name=\"prop" );
+			builder.append( loop );
+			builder.append( "\"" );
+
+			if ( loop < properties - 1 ) {
+				builder.append( " comes-after=\"prop" );
+				builder.append( loop + 1 );
+				builder.append( "\"" );
+			}
+
+			builder.append( "/>" );
+		}
+
+		builder.append( "</entity></inspection-result>" );
+
+		Element inspectionResult = XmlUtils.documentFromString( builder.toString() ).getDocumentElement();
+
+		// Run processor
+
+		Element processed = new ComesAfterInspectionResultProcessor<Object>().processInspectionResultAsDom( inspectionResult, null, null, null, (String[]) null );
+
+		// Test result (sorted in place)
+
+		assertTrue( processed == inspectionResult );
+		Element entity = XmlUtils.getFirstChildElement( processed );
+		assertEquals( properties + 1, entity.getChildNodes().getLength() );
+		Element property = XmlUtils.getFirstChildElement( entity );
+
+		for ( int loop = properties - 1; loop >= 0; loop-- ) {
+
+			assertEquals( "prop" + loop, property.getAttribute( "name" ) );
+			property = XmlUtils.getNextSiblingElement( property );
+		}
+
+		assertEquals( "last", property.getAttribute( "name" ) );
+		assertTrue( XmlUtils.getNextSiblingElement( property ) == null );
+	}
+
 	public void testInfiniteLoop() {
 
 		try {
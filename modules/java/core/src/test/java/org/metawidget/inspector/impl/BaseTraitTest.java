@@ -0,0 +1,160 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.impl;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import junit.framework.TestCase;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class BaseTraitTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testResolvedAnnotations() {
+
+		BaseTrait trait = new ResolvedTrait( "foo" );
+
+		assertEquals( "foo", trait.getName() );
+		assertEquals( "Foo", trait.getAnnotation( Tag.class ).value() );
+		assertTrue( trait.isAnnotationPresent( Tag.class ) );
+		assertTrue( !trait.isAnnotationPresent( Deprecated.class ) );
+		assertEquals( 1, trait.getAnnotations().length );
+	}
+
+	public void testDefaultResolveAnnotations() {
+
+		// Subclasses that only implement getAnnotation need not override resolveAnnotations
+
+		BaseTrait trait = new BaseTrait( "bar" ) {
+
+			public <T extends Annotation> T getAnnotation( Class<T> annotation ) {
+
+				if ( Deprecated.class.equals( annotation ) ) {
+					return annotation.cast( Annotated.class.getAnnotation( Deprecated.class ) );
+				}
+
+				return null;
+			}
+		};
+
+		assertTrue( trait.isAnnotationPresent( Deprecated.class ) );
+		assertTrue( !trait.isAnnotationPresent( Tag.class ) );
+		assertEquals( 0, trait.getAnnotations().length );
+	}
+
+	public void testDefaultGetAnnotation() {
+
+		// Subclasses that only implement resolveAnnotations need not override getAnnotation
+
+		BaseTrait trait = new BaseTrait( "baz" ) {
+
+			@Override
+			protected Annotation[] resolveAnnotations() {
+
+				return Annotated.class.getAnnotations();
+			}
+		};
+
+		assertEquals( "Foo", trait.getAnnotation( Tag.class ).value() );
+		assertTrue( trait.isAnnotationPresent( Deprecated.class ) );
+		assertTrue( !trait.isAnnotationPresent( Retention.class ) );
+		assertEquals( 2, trait.getAnnotations().length );
+
+		// Default BaseTrait has no annotations at all
+
+		trait = new BaseTrait( "abc" ) {
+			// Default implementation
+		};
+
+		assertTrue( trait.getAnnotation( Tag.class ) == null );
+		assertEquals( 0, trait.getAnnotations().length );
+	}
+
+	public void testGetAnnotationsConsistentWithGetAnnotation() {
+
+		// Subclasses that override both only get the annotations getAnnotation agrees with
+
+		BaseTrait trait = new ResolvedTrait( "foo" ) {
+
+			@Override
+			public <T extends Annotation> T getAnnotation( Class<T> annotation ) {
+
+				if ( Tag.class.equals( annotation ) ) {
+					return null;
+				}
+
+				return super.getAnnotation( annotation );
+			}
+		};
+
+		assertTrue( !trait.isAnnotationPresent( Tag.class ) );
+		assertEquals( 0, trait.getAnnotations().length );
+	}
+
+	//
+	// Inner class
+	//
+
+	@Retention( RetentionPolicy.RUNTIME )
+	static @interface Tag {
+
+		String value();
+	}
+
+	@Tag( "Foo" )
+	@Deprecated
+	/* package private */static class Annotated {
+
+		// Just for annotations
+	}
+
+	/* package private */static class ResolvedTrait
+		extends BaseTrait {
+
+		//
+		// Constructor
+		//
+
+		public ResolvedTrait( String name ) {
+
+			super( name );
+		}
+
+		//
+		// Public methods
+		//
+
+		public <T extends Annotation> T getAnnotation( Class<T> annotation ) {
+
+			return getResolvedAnnotation( annotation );
+		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected Annotation[] resolveAnnotations() {
+
+			return new Annotation[] { Annotated.class.getAnnotation( Tag.class ) };
+		}
+	}
+}
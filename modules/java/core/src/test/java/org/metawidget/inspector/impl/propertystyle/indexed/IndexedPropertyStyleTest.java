@@ -0,0 +1,407 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.impl.propertystyle.indexed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.text.MessageFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+
+import org.metawidget.config.iface.ResourceResolver;
+import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.inspector.impl.propertystyle.Property;
+import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
+import org.metawidget.inspector.impl.propertystyle.ValueAndDeclaredType;
+import org.metawidget.inspector.impl.propertystyle.indexed.IndexedPropertyStyle.IndexedProperty;
+import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle;
+import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyleConfig;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.MetawidgetTestUtils;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class IndexedPropertyStyleTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testRoundTrip()
+		throws Exception {
+
+		JavaBeanPropertyStyle javaBeanPropertyStyle = new JavaBeanPropertyStyle( new JavaBeanPropertyStyleConfig().setSupportPublicFields( true ).setPrivateFieldConvention( new MessageFormat( "'m'{1}" ) ) );
+		PropertyStyle propertyStyle = newIndexedPropertyStyle( javaBeanPropertyStyle, Foo.class.getName() );
+
+		Map<String, Property> expected = javaBeanPropertyStyle.getProperties( Foo.class.getName() );
+		Map<String, Property> actual = propertyStyle.getProperties( Foo.class.getName() );
+
+		assertEquals( CollectionUtils.newArrayList( expected.keySet() ), CollectionUtils.newArrayList( actual.keySet() ) );
+
+		for ( Property expectedProperty : expected.values() ) {
+
+			Property actualProperty = actual.get( expectedProperty.getName() );
+			assertTrue( actualProperty instanceof IndexedProperty );
+			assertEquals( expectedProperty.getType(), actualProperty.getType() );
+			assertEquals( expectedProperty.getGenericType(), actualProperty.getGenericType() );
+			assertEquals( expectedProperty.isReadable(), actualProperty.isReadable() );
+			assertEquals( expectedProperty.isWritable(), actualProperty.isWritable() );
+			assertEquals( expectedProperty.getAnnotation( Everything.class ), actualProperty.getAnnotation( Everything.class ) );
+			assertEquals( expectedProperty.isAnnotationPresent( Simple.class ), actualProperty.isAnnotationPresent( Simple.class ) );
+			assertEquals( expectedProperty.getAnnotation( Simple.class ), actualProperty.getAnnotation( Simple.class ) );
+		}
+
+		// Annotations (getter, setter, private field, overridden getter)
+
+		Everything everything = actual.get( "name" ).getAnnotation( Everything.class );
+		assertTrue( everything.equals( expected.get( "name" ).getAnnotation( Everything.class ) ) );
+		assertTrue( expected.get( "name" ).getAnnotation( Everything.class ).equals( everything ) );
+		assertEquals( expected.get( "name" ).getAnnotation( Everything.class ).hashCode(), everything.hashCode() );
+		assertEquals( Everything.class, everything.annotationType() );
+		assertEquals( "foo", everything.string() );
+		assertEquals( 'x', everything.character() );
+		assertEquals( 42L, everything.number() );
+		assertEquals( 1.5d, everything.decimal() );
+		assertEquals( ElementType.METHOD, everything.enumeration() );
+		assertEquals( Date.class, everything.clazz() );
+		assertEquals( int.class, everything.classes()[1] );
+		assertEquals( "bar", everything.annotation().value() );
+		assertEquals( 2, everything.annotations().length );
+		assertEquals( "baz", everything.annotations()[1].value() );
+		assertTrue( 3 == everything.numbers()[2] );
+		assertTrue( everything.toString().startsWith( "@" + Everything.class.getName() + "(" ) );
+		assertTrue( everything == actual.get( "name" ).getAnnotation( Everything.class ) );
+
+		everything.strings()[0] = "changed";
+		assertEquals( "a", everything.strings()[0] );
+
+		assertEquals( "setter", actual.get( "age" ).getAnnotation( Simple.class ).value() );
+		assertEquals( "field", actual.get( "dateOfBirth" ).getAnnotation( Simple.class ).value() );
+		assertEquals( "public", actual.get( "publicField" ).getAnnotation( Simple.class ).value() );
+		assertEquals( "super", actual.get( "overridden" ).getAnnotation( Simple.class ).value() );
+		assertTrue( !actual.get( "readOnly" ).isAnnotationPresent( Simple.class ) );
+		assertTrue( actual.get( "readOnly" ).getAnnotation( Simple.class ) == null );
+
+		// Read and write
+
+		Foo foo = new Foo();
+		actual.get( "name" ).write( foo, "Homer" );
+		assertEquals( "Homer", foo.getName() );
+		assertEquals( "Homer", actual.get( "name" ).read( foo ) );
+		actual.get( "age" ).write( foo, 36 );
+		assertEquals( 36, actual.get( "age" ).read( foo ) );
+		actual.get( "publicField" ).write( foo, "Marge" );
+		assertEquals( "Marge", foo.publicField );
+		assertEquals( "Marge", actual.get( "publicField" ).read( foo ) );
+		assertEquals( "read only", actual.get( "readOnly" ).read( foo ) );
+
+		// Traverse
+
+		assertEquals( "Homer", propertyStyle.traverse( foo, Foo.class.getName(), false, "name" ).getValue() );
+	}
+
+	public void testLongStrings()
+		throws Exception {
+
+		// Longer than DataOutputStream.writeUTF's 64KB limit, including multi-byte characters
+
+		StringBuilder builder = new StringBuilder();
+
+		while ( builder.length() < 70000 ) {
+			builder.append( "Long\u00e9Type" );
+		}
+
+		final String longType = builder.toString();
+		final JavaBeanPropertyStyle javaBeanPropertyStyle = new JavaBeanPropertyStyle();
+
+		PropertyStyle propertyStyle = newIndexedPropertyStyle( new PropertyStyle() {
+
+			public Map<String, Property> getProperties( String type ) {
+
+				if ( longType.equals( type ) ) {
+					return CollectionUtils.newHashMap();
+				}
+
+				return javaBeanPropertyStyle.getProperties( type );
+			}
+
+			public ValueAndDeclaredType traverse( Object toTraverse, String type, boolean onlyToParent, String... names ) {
+
+				throw new UnsupportedOperationException();
+			}
+		}, longType, Foo.class.getName() );
+
+		assertTrue( propertyStyle.getProperties( longType ).isEmpty() );
+		assertTrue( propertyStyle.getProperties( Foo.class.getName() ).get( "name" ) instanceof IndexedProperty );
+	}
+
+	public void testFallback()
+		throws Exception {
+
+		PropertyStyle propertyStyle = newIndexedPropertyStyle( new JavaBeanPropertyStyle(), Foo.class.getName() );
+
+		Map<String, Property> properties = propertyStyle.getProperties( SuperFoo.class.getName() );
+		assertEquals( 1, properties.size() );
+		assertTrue( !( properties.get( "overridden" ) instanceof IndexedProperty ) );
+		assertEquals( "super", properties.get( "overridden" ).getAnnotation( Simple.class ).value() );
+	}
+
+	public void testBadIndex() {
+
+		try {
+			new IndexedPropertyStyle( newConfig( new byte[] { 1, 2, 3, 4 } ) );
+			fail();
+		} catch ( InspectorException e ) {
+			assertEquals( "Not a property index", e.getMessage() );
+		}
+
+		try {
+			new IndexedPropertyStyle( new IndexedPropertyStyleConfig().setFile( "does-not-exist" ) );
+			fail();
+		} catch ( InspectorException e ) {
+			assertEquals( "java.io.FileNotFoundException: Unable to locate does-not-exist on CLASSPATH", e.getMessage() );
+		}
+	}
+
+	public void testExcludes()
+		throws Exception {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new PropertyIndexWriter().write( out, CollectionUtils.newArrayList( Foo.class.getName() ) );
+
+		IndexedPropertyStyleConfig config = newConfig( out.toByteArray() );
+		assertEquals( "[age, dateOfBirth, dates, name, overridden, readOnly]", new IndexedPropertyStyle( config ).getProperties( Foo.class.getName() ).keySet().toString() );
+
+		config = newConfig( out.toByteArray() );
+		config.setExcludeName( "age" );
+		assertEquals( "[dateOfBirth, dates, name, overridden, readOnly]", new IndexedPropertyStyle( config ).getProperties( Foo.class.getName() ).keySet().toString() );
+
+		config = newConfig( out.toByteArray() );
+		config.setExcludeReturnType( Date.class, List.class );
+		assertEquals( "[age, name, overridden, readOnly]", new IndexedPropertyStyle( config ).getProperties( Foo.class.getName() ).keySet().toString() );
+
+		// (overridden is originally declared by SuperFoo)
+
+		config = newConfig( out.toByteArray() );
+		config.setExcludeBaseType( Pattern.compile( ".*SuperFoo$" ) );
+		assertEquals( "[age, dateOfBirth, dates, name, readOnly]", new IndexedPropertyStyle( config ).getProperties( Foo.class.getName() ).keySet().toString() );
+	}
+
+	/**
+	 * Test the index written by the <code>process-test-classes</code> phase of the build.
+	 */
+
+	public void testBuildTimeIndex() {
+
+		Map<String, Property> properties = new IndexedPropertyStyle().getProperties( Foo.class.getName() );
+
+		assertEquals( "[age, dateOfBirth, dates, name, overridden, readOnly]", properties.keySet().toString() );
+		assertTrue( properties.get( "name" ) instanceof IndexedProperty );
+		assertEquals( "foo", properties.get( "name" ).getAnnotation( Everything.class ).string() );
+	}
+
+	public void testConfig() {
+
+		JavaBeanPropertyStyle fallbackPropertyStyle = new JavaBeanPropertyStyle();
+
+		MetawidgetTestUtils.testEqualsAndHashcode( IndexedPropertyStyleConfig.class, new IndexedPropertyStyleConfig() {
+			// Subclass
+		}, "resourceResolver" );
+
+		IndexedPropertyStyleConfig config1 = new IndexedPropertyStyleConfig().setFallbackPropertyStyle( fallbackPropertyStyle );
+		IndexedPropertyStyleConfig config2 = new IndexedPropertyStyleConfig().setFallbackPropertyStyle( fallbackPropertyStyle );
+		assertEquals( config1, config2 );
+		assertEquals( config1.hashCode(), config2.hashCode() );
+
+		config2.setFile( "foo" );
+		assertTrue( !config1.equals( config2 ) );
+
+		config1.setFile( "foo" );
+		assertEquals( config1, config2 );
+		assertEquals( config1.hashCode(), config2.hashCode() );
+	}
+
+	//
+	// Private methods
+	//
+
+	private PropertyStyle newIndexedPropertyStyle( PropertyStyle propertyStyle, String... types )
+		throws Exception {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		List<String> typesList = CollectionUtils.newArrayList( types );
+		new PropertyIndexWriter( propertyStyle ).write( out, typesList );
+
+		return new IndexedPropertyStyle( newConfig( out.toByteArray() ) );
+	}
+
+	/**
+	 * @return a config that reads the given bytes as its index
+	 */
+
+	private IndexedPropertyStyleConfig newConfig( final byte[] index ) {
+
+		IndexedPropertyStyleConfig config = new IndexedPropertyStyleConfig().setFile( "test-index" );
+		config.setResourceResolver( new ResourceResolver() {
+
+			public InputStream openResource( String resource ) {
+
+				assertEquals( "test-index", resource );
+				return new ByteArrayInputStream( index );
+			}
+		} );
+
+		return config;
+	}
+
+	//
+	// Inner class
+	//
+
+	@Retention( RetentionPolicy.RUNTIME )
+	@Target( { ElementType.FIELD, ElementType.METHOD } )
+	public static @interface Simple {
+
+		String value();
+	}
+
+	@Retention( RetentionPolicy.RUNTIME )
+	@Target( { ElementType.FIELD, ElementType.METHOD } )
+	public static @interface Everything {
+
+		String string();
+
+		String[] strings() default { "a", "b" };
+
+		char character() default 'x';
+
+		long number();
+
+		int[] numbers() default { 1, 2, 3 };
+
+		double decimal() default 1.5d;
+
+		boolean flag() default true;
+
+		ElementType enumeration() default ElementType.METHOD;
+
+		Class<?> clazz() default Date.class;
+
+		Class<?>[] classes() default { String.class, int.class };
+
+		Simple annotation();
+
+		Simple[] annotations() default { @Simple( "bar" ), @Simple( "baz" ) };
+	}
+
+	public static class SuperFoo {
+
+		@Simple( "super" )
+		public String getOverridden() {
+
+			return null;
+		}
+	}
+
+	public static class Foo
+		extends SuperFoo {
+
+		//
+		// Public members
+		//
+
+		@Simple( "public" )
+		public String		publicField;
+
+		//
+		// Private members
+		//
+
+		private String		mName;
+
+		private int			mAge;
+
+		@Simple( "field" )
+		private Date		mDateOfBirth;
+
+		private List<Date>	mDates;
+
+		//
+		// Public methods
+		//
+
+		@Everything( string = "foo", number = 42, annotation = @Simple( "bar" ) )
+		public String getName() {
+
+			return mName;
+		}
+
+		public void setName( String name ) {
+
+			mName = name;
+		}
+
+		public int getAge() {
+
+			return mAge;
+		}
+
+		@Simple( "setter" )
+		public void setAge( int age ) {
+
+			mAge = age;
+		}
+
+		public Date getDateOfBirth() {
+
+			return mDateOfBirth;
+		}
+
+		public void setDateOfBirth( Date dateOfBirth ) {
+
+			mDateOfBirth = dateOfBirth;
+		}
+
+		public List<Date> getDates() {
+
+			return mDates;
+		}
+
+		public void setDates( List<Date> dates ) {
+
+			mDates = dates;
+		}
+
+		public String getReadOnly() {
+
+			return "read only";
+		}
+
+		@Override
+		public String getOverridden() {
+
+			return "overridden";
+		}
+	}
+}
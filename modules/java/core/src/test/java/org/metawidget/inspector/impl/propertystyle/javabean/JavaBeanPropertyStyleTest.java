@@ -14,18 +14,22 @@ package org.metawidget.inspector.impl.propertystyle.javabean;
 import java.beans.BeanInfo;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.text.MessageFormat;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.SortedMap;
 import java.util.regex.Pattern;
 
 import junit.framework.TestCase;
 
 import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.inspector.impl.BaseTrait;
 import org.metawidget.inspector.impl.BaseTraitStyle;
 import org.metawidget.inspector.impl.propertystyle.Property;
 import org.metawidget.inspector.impl.propertystyle.ValueAndDeclaredType;
@@ -53,18 +57,30 @@ public class JavaBeanPropertyStyleTest
 		JavaBeanPropertyStyle propertyStyle = new JavaBeanPropertyStyle( config );
 		Map<String, Property> properties = propertyStyle.getProperties( Foo.class.getName() );
 
-		assertTrue( properties instanceof TreeMap<?, ?> );
+		assertTrue( properties instanceof SortedMap<?, ?> );
 		assertEquals( 10, properties.size() );
+		assertEquals( "bar", ( (SortedMap<String, Property>) properties ).firstKey() );
 
 		assertEquals( "baz", properties.get( "baz" ).getName() );
 
+		// Every caller gets the same, unmodifiable, cached Map
+
+		assertTrue( properties == propertyStyle.getProperties( Foo.class.getName() ) );
+
+		try {
+			properties.remove( "baz" );
+			fail();
+		} catch ( UnsupportedOperationException e ) {
+			// Should fail
+		}
+
 		// With excluded type
 
 		config.setExcludeReturnType( String.class );
 		propertyStyle = new JavaBeanPropertyStyle( config );
 		properties = propertyStyle.getProperties( Foo.class.getName() );
 
-		assertTrue( properties instanceof TreeMap<?, ?> );
+		assertTrue( properties instanceof SortedMap<?, ?> );
 		assertEquals( 4, properties.size() );
 
 		assertEquals( "bar", properties.get( "bar" ).getName() );
@@ -82,7 +98,7 @@ public class JavaBeanPropertyStyleTest
 		JavaBeanPropertyStyle propertyStyle = new JavaBeanPropertyStyle( config );
 		Map<String, Property> properties = propertyStyle.getProperties( Foo.class.getName() );
 
-		assertTrue( properties instanceof TreeMap<?, ?> );
+		assertTrue( properties instanceof SortedMap<?, ?> );
 		assertEquals( 10, properties.size() );
 
 		assertEquals( "baz", properties.get( "baz" ).getName() );
@@ -93,7 +109,7 @@ public class JavaBeanPropertyStyleTest
 		propertyStyle = new JavaBeanPropertyStyle( config );
 		properties = propertyStyle.getProperties( Foo.class.getName() );
 
-		assertTrue( properties instanceof TreeMap<?, ?> );
+		assertTrue( properties instanceof SortedMap<?, ?> );
 		assertEquals( 8, properties.size() );
 
 		assertEquals( "foo", properties.get( "foo" ).getName() );
@@ -292,6 +308,37 @@ public class JavaBeanPropertyStyleTest
 		assertTrue( field == property.getPrivateField() );
 	}
 
+	public void testGetAnnotations() {
+
+		JavaBeanPropertyStyleConfig config = new JavaBeanPropertyStyleConfig();
+		config.setPrivateFieldConvention( new MessageFormat( "'m'{1}" ) );
+		Map<String, Property> properties = new JavaBeanPropertyStyle( config ).getProperties( AnnotationsTest.class.getName() );
+
+		// Getter wins over setter, setter wins over private field
+
+		BaseTrait property = (BaseTrait) properties.get( "foo" );
+		Annotation[] annotations = property.getAnnotations();
+		assertEquals( 2, annotations.length );
+		assertEquals( "getter", ( (Tag) annotations[0] ).value() );
+		assertTrue( annotations[1] instanceof Deprecated );
+		assertTrue( annotations[0] == property.getAnnotation( Tag.class ) );
+		assertTrue( annotations[1] == property.getAnnotation( Deprecated.class ) );
+		assertTrue( property.isAnnotationPresent( Tag.class ) );
+		assertTrue( !property.isAnnotationPresent( Retention.class ) );
+		assertTrue( property.getAnnotation( Retention.class ) == null );
+
+		// Unannotated overridden getter
+
+		property = (BaseTrait) properties.get( "bar" );
+		assertEquals( 1, property.getAnnotations().length );
+		assertEquals( "super", property.getAnnotation( Tag.class ).value() );
+
+		// Resolved once, and shared
+
+		assertTrue( property.getAnnotations()[0] == property.getAnnotations()[0] );
+		assertTrue( property.getAnnotations() != property.getAnnotations() );
+	}
+
 	public void testConfig() {
 
 		MetawidgetTestUtils.testEqualsAndHashcode( JavaBeanPropertyStyleConfig.class, new JavaBeanPropertyStyleConfig() {
@@ -611,4 +658,54 @@ public class JavaBeanPropertyStyleTest
 			return mFoo;
 		}
 	}
+
+	@Retention( RetentionPolicy.RUNTIME )
+	static @interface Tag {
+
+		String value();
+	}
+
+	static class SuperAnnotationsTest {
+
+		@Tag( "super" )
+		public String getBar() {
+
+			return null;
+		}
+	}
+
+	static class AnnotationsTest
+		extends SuperAnnotationsTest {
+
+		//
+		// Private members
+		//
+
+		@Tag( "field" )
+		@Deprecated
+		private String	mFoo;
+
+		//
+		// Public methods
+		//
+
+		@Tag( "getter" )
+		public String getFoo() {
+
+			return mFoo;
+		}
+
+		@Tag( "setter" )
+		@Deprecated
+		public void setFoo( String foo ) {
+
+			mFoo = foo;
+		}
+
+		@Override
+		public String getBar() {
+
+			return "bar";
+		}
+	}
 }
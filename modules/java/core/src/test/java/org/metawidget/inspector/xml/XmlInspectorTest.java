@@ -21,6 +21,8 @@ import junit.framework.TestCase;
 
 import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.inspector.impl.XmlModelStore;
+import org.metawidget.inspector.impl.XmlModelStore.XmlModel;
 import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle;
 import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyleConfig;
 import org.metawidget.util.CollectionUtils;
@@ -849,6 +851,71 @@ public class XmlInspectorTest
 		assertEquals( 2, entity.getChildNodes().getLength() );
 	}
 
+	public void testSharedModel() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<inspection-result xmlns=\"http://www.metawidget.org/inspection-result\" version=\"1.0\">";
+		xml += "<!-- A comment -->";
+		xml += "<entity type=\"Foo\">\r\n";
+		xml += "   <property name=\"abc\" type=\"java.lang.String\"/>\r\n";
+		xml += "   <property name=\"def\" type=\"java.lang.String\"/>\r\n";
+		xml += "</entity>";
+		xml += "</inspection-result>";
+
+		String key = XmlModelStore.getKey( XmlInspector.class, xml.getBytes() );
+		assertEquals( null, XmlModelStore.getModel( key ) );
+
+		// Configs that differ in other respects still share
+
+		XmlInspector inspector1 = new XmlInspector( new XmlInspectorConfig().setInputStream( new ByteArrayInputStream( xml.getBytes() ) ).setSharedModel( true ) );
+		Element root = XmlModelStore.getModel( key );
+		assertTrue( root != null );
+
+		XmlInspector inspector2 = new XmlInspector( new XmlInspectorConfig().setInputStream( new ByteArrayInputStream( xml.getBytes() ) ).setInferInheritanceHierarchy( true ).setSharedModel( true ) );
+		assertTrue( root == XmlModelStore.getModel( key ) );
+
+		// Compacted and interned
+
+		assertEquals( 1, root.getChildNodes().getLength() );
+		Element entity = (Element) root.getFirstChild();
+		assertEquals( 2, entity.getChildNodes().getLength() );
+		assertTrue( ( (Element) entity.getFirstChild() ).getAttribute( TYPE ) == ( (Element) entity.getLastChild() ).getAttribute( TYPE ) );
+
+		XmlModel model = null;
+
+		for ( XmlModel candidate : XmlModelStore.getModels() ) {
+			if ( key.equals( candidate.getKey() ) ) {
+				model = candidate;
+			}
+		}
+
+		assertEquals( 4, model.getElements() );
+		assertEquals( 7, model.getAttributes() );
+		assertEquals( 0, model.getTextNodes() );
+		assertTrue( model.getEstimatedSize() > 0 );
+		assertTrue( model.toString().startsWith( key + ": 4 elements, 7 attributes, 0 text nodes, ~" ) );
+
+		// Same inspection results as unshared
+
+		String expected = new XmlInspector( new XmlInspectorConfig().setInputStream( new ByteArrayInputStream( xml.getBytes() ) ) ).inspect( null, "Foo" );
+		assertEquals( expected, inspector1.inspect( null, "Foo" ) );
+		assertEquals( expected, inspector2.inspect( null, "Foo" ) );
+		assertTrue( expected.contains( "name=\"def\"" ) );
+	}
+
+	public void testSharedModelNotSupported() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<inspection-result xmlns=\"http://www.metawidget.org/inspection-result\" version=\"1.0\">";
+		xml += "<entity type=\"Foo\"><property name=\"abc\"/></entity>";
+		xml += "</inspection-result>";
+
+		String key = XmlModelStore.getKey( UnshareableXmlInspector.class, xml.getBytes() );
+		UnshareableXmlInspector inspector = new UnshareableXmlInspector( new XmlInspectorConfig().setInputStream( new ByteArrayInputStream( xml.getBytes() ) ).setSharedModel( true ) );
+		assertEquals( null, XmlModelStore.getModel( key ) );
+		assertTrue( inspector.inspect( null, "Foo" ).contains( "name=\"abc\"" ) );
+	}
+
 	//
 	// Protected methods
 	//
@@ -919,4 +986,19 @@ public class XmlInspectorTest
 
 		public Object	toTraverse;
 	}
+
+	public static class UnshareableXmlInspector
+		extends XmlInspector {
+
+		public UnshareableXmlInspector( XmlInspectorConfig config ) {
+
+			super( config );
+		}
+
+		@Override
+		protected boolean isSharedModelSupported() {
+
+			return false;
+		}
+	}
 }
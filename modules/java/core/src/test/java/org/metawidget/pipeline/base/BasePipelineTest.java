@@ -13,9 +13,20 @@ package org.metawidget.pipeline.base;
 
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JComponent;
 import javax.swing.JPanel;
@@ -23,12 +34,15 @@ import javax.swing.JPanel;
 import junit.framework.TestCase;
 
 import org.metawidget.config.iface.ConfigReader;
+import org.metawidget.config.iface.ResourceResolver;
 import org.metawidget.config.impl.BaseConfigReader;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.inspectionresultprocessor.sort.ComesAfterInspectionResultProcessor;
+import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.inspector.propertytype.PropertyTypeInspector;
 import org.metawidget.layout.iface.AdvancedLayout;
 import org.metawidget.layout.iface.Layout;
+import org.metawidget.pipeline.w3c.CompiledPipeline;
 import org.metawidget.pipeline.w3c.W3CPipeline;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.XmlUtils;
@@ -37,6 +51,7 @@ import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 import org.metawidget.widgetprocessor.iface.AdvancedWidgetProcessor;
 import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -286,6 +301,301 @@ public class BasePipelineTest
 		assertEquals( myInspectionResultProcessor, pipeline.getInspectionResultProcessor( MyInspectionResultProcessor.class ) );
 	}
 
+	public void testCompile()
+		throws Exception {
+
+		final List<String> events = Collections.synchronizedList( CollectionUtils.<String> newArrayList() );
+		W3CPipeline<JComponent, JComponent, JComponent> pipeline = new MockPipeline();
+		PropertyTypeInspector inspector = new PropertyTypeInspector();
+		pipeline.setInspector( inspector );
+		pipeline.setWidgetBuilder( new WidgetBuilder<JComponent, JComponent>() {
+
+			public JComponent buildWidget( String elementName, Map<String, String> attributes, JComponent metawidget ) {
+
+				if ( ENTITY.equals( elementName ) || "nested".equals( attributes.get( NAME ) ) ) {
+					return null;
+				}
+
+				return new JPanel();
+			}
+		} );
+		pipeline.setLayout( new Layout<JComponent, JComponent, JComponent>() {
+
+			public void layoutWidget( JComponent widget, String elementName, Map<String, String> attributes, JComponent container, JComponent metawidget ) {
+
+				events.add( metawidget.getName() + ":" + attributes.get( NAME ) + ":" + attributes.get( READ_ONLY ) + ":" + attributes.get( "stub" ) );
+			}
+		} );
+		pipeline.setReadOnly( true );
+		pipeline.setMaximumInspectionDepth( 5 );
+
+		final CompiledPipeline<JComponent, JComponent, JComponent> compiledPipeline = pipeline.compile();
+
+		// Snapshot is unaffected by later changes
+
+		pipeline.setInspector( null );
+		pipeline.addWidgetProcessor( new WidgetProcessor<JComponent, JComponent>() {
+
+			public JComponent processWidget( JComponent widget, String elementName, Map<String, String> attributes, JComponent metawidget ) {
+
+				return null;
+			}
+		} );
+
+		assertTrue( inspector == compiledPipeline.getInspector() );
+		assertTrue( compiledPipeline.isReadOnly() );
+		assertEquals( 5, compiledPipeline.getMaximumInspectionDepth() );
+		assertEquals( null, compiledPipeline.getWidgetProcessors() );
+		assertEquals( null, compiledPipeline.getInspectionResultProcessors() );
+
+		// Nested
+
+		CompiledPipeline<JComponent, JComponent, JComponent> nestedPipeline = compiledPipeline.compileNested( null );
+		assertTrue( nestedPipeline.isReadOnly() );
+		assertEquals( 4, nestedPipeline.getMaximumInspectionDepth() );
+		assertTrue( inspector == nestedPipeline.getInspector() );
+
+		// Many Threads, one CompiledPipeline, a Context per call
+
+		Thread[] threads = new Thread[8];
+		final List<Throwable> errors = Collections.synchronizedList( CollectionUtils.<Throwable> newArrayList() );
+
+		for ( int loop = 0; loop < threads.length; loop++ ) {
+
+			final String owner = "owner" + loop;
+
+			threads[loop] = new Thread() {
+
+				@Override
+				public void run() {
+
+					try {
+						for ( int inner = 0; inner < 50; inner++ ) {
+							final JPanel pipelineOwner = new JPanel();
+							pipelineOwner.setName( owner );
+
+							Element inspectionResult = compiledPipeline.inspectAsDom( pipelineOwner, new Foo(), Foo.class.getName() );
+							assertEquals( "nested", XmlUtils.getFirstChildElement( XmlUtils.getFirstChildElement( inspectionResult ) ).getAttribute( NAME ) );
+
+							compiledPipeline.buildWidgets( inspectionResult, new CompiledPipeline.Context<JComponent, JComponent>() {
+
+								public JComponent getPipelineOwner() {
+
+									return pipelineOwner;
+								}
+
+								public Map<String, String> getAdditionalAttributes( JComponent widget ) {
+
+									return CollectionUtils.newHashMap( Collections.singletonMap( "stub", "stub" + widget.getClass().getSimpleName() ) );
+								}
+
+								public JComponent buildNestedMetawidget( Map<String, String> attributes ) {
+
+									return new JPanel();
+								}
+							} );
+						}
+					} catch ( Throwable t ) {
+						errors.add( t );
+					}
+				}
+			};
+			threads[loop].start();
+		}
+
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+
+		assertTrue( errors.toString(), errors.isEmpty() );
+		assertEquals( 8 * 50 * 2, events.size() );
+		assertTrue( events.contains( "owner3:nested:null:stubJPanel" ) );
+		assertTrue( events.contains( "owner5:other:true:stubJPanel" ) );
+	}
+
+	public void testCompiledProcessors()
+		throws Exception {
+
+		final List<String> events = CollectionUtils.newArrayList();
+		W3CPipeline<JComponent, JComponent, JComponent> pipeline = new MockPipeline();
+		pipeline.setInspector( new PropertyTypeInspector() );
+		pipeline.setInspectionResultProcessors( new ComesAfterInspectionResultProcessor<JComponent>() );
+		pipeline.setWidgetBuilder( new WidgetBuilder<JComponent, JComponent>() {
+
+			public JComponent buildWidget( String elementName, Map<String, String> attributes, JComponent metawidget ) {
+
+				return new JPanel();
+			}
+		} );
+		pipeline.setWidgetProcessors( new WidgetProcessor<JComponent, JComponent>() {
+
+			public JComponent processWidget( JComponent widget, String elementName, Map<String, String> attributes, JComponent metawidget ) {
+
+				events.add( elementName + ":" + attributes.get( NAME ) );
+				return widget;
+			}
+		} );
+		pipeline.setLayout( new Layout<JComponent, JComponent, JComponent>() {
+
+			public void layoutWidget( JComponent widget, String elementName, Map<String, String> attributes, JComponent container, JComponent metawidget ) {
+
+				// Do nothing
+			}
+		} );
+
+		CompiledPipeline<JComponent, JComponent, JComponent> compiledPipeline = pipeline.compile();
+
+		// Processor Lists are built once, and shared by nested pipelines
+
+		List<WidgetProcessor<JComponent, JComponent>> widgetProcessors = compiledPipeline.getWidgetProcessors();
+		assertEquals( 1, widgetProcessors.size() );
+		assertTrue( widgetProcessors == compiledPipeline.getWidgetProcessors() );
+		assertTrue( widgetProcessors == compiledPipeline.compileNested( null ).getWidgetProcessors() );
+		List<InspectionResultProcessor<JComponent>> inspectionResultProcessors = compiledPipeline.getInspectionResultProcessors();
+		assertTrue( inspectionResultProcessors == compiledPipeline.getInspectionResultProcessors() );
+		assertTrue( inspectionResultProcessors == compiledPipeline.compileNested( null ).getInspectionResultProcessors() );
+
+		try {
+			widgetProcessors.clear();
+			fail();
+		} catch ( UnsupportedOperationException e ) {
+			// Should fail
+		}
+
+		// ...and used as they are by each call
+
+		Element inspectionResult = compiledPipeline.inspectAsDom( new JPanel(), new Foo(), Foo.class.getName() );
+		compiledPipeline.buildWidgets( inspectionResult, new CompiledPipeline.Context<JComponent, JComponent>() {
+
+			public JComponent getPipelineOwner() {
+
+				return new JPanel();
+			}
+
+			public Map<String, String> getAdditionalAttributes( JComponent widget ) {
+
+				return null;
+			}
+
+			public JComponent buildNestedMetawidget( Map<String, String> attributes ) {
+
+				return null;
+			}
+		} );
+
+		assertEquals( "[entity:null]", events.toString() );
+		assertEquals( 1, widgetProcessors.size() );
+	}
+
+	/**
+	 * Stress test many concurrent renders through the same ConfigReader, Inspectors and
+	 * PropertyStyle, to exercise their locking. Meanwhile, sample the render Threads and fail if
+	 * any of them is ever found blocked on a Metawidget monitor (which would pin a virtual Thread).
+	 */
+
+	public void testConcurrentRenders()
+		throws Exception {
+
+		final String config = "<metawidget xmlns=\"http://metawidget.org\" version=\"1.0\">"
+				+ "<compositeInspector xmlns=\"java:org.metawidget.inspector.composite\" config=\"CompositeInspectorConfig\"><inspectors><array>"
+				+ "<propertyTypeInspector xmlns=\"java:org.metawidget.inspector.propertytype\"/>"
+				+ "<xmlInspector xmlns=\"java:org.metawidget.inspector.xml\" config=\"XmlInspectorConfig\"><inputStream><resource>model.xml</resource></inputStream></xmlInspector>"
+				+ "</array></inspectors></compositeInspector></metawidget>";
+		final String model = "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\">"
+				+ "<entity type=\"" + Foo.class.getName() + "\"><property name=\"other\" required=\"true\"/></entity></inspection-result>";
+
+		final ConfigReader configReader = new BaseConfigReader( new ResourceResolver() {
+
+			public InputStream openResource( String resource ) {
+
+				if ( "model.xml".equals( resource ) ) {
+					return new ByteArrayInputStream( model.getBytes() );
+				}
+
+				return new ByteArrayInputStream( config.getBytes() );
+			}
+		} );
+
+		int renders = 2000;
+		ExecutorService executor = Executors.newFixedThreadPool( 200 );
+		List<Future<String>> futures = CollectionUtils.newArrayList();
+		final List<String> blocked = Collections.synchronizedList( CollectionUtils.<String> newArrayList() );
+		final AtomicBoolean sampling = new AtomicBoolean( true );
+
+		Thread sampler = new Thread() {
+
+			@Override
+			public void run() {
+
+				ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+				while ( sampling.get() ) {
+					for ( ThreadInfo threadInfo : threadMXBean.getThreadInfo( threadMXBean.getAllThreadIds(), 1 ) ) {
+
+						if ( threadInfo == null || threadInfo.getThreadState() != Thread.State.BLOCKED || threadInfo.getStackTrace().length == 0 ) {
+							continue;
+						}
+
+						StackTraceElement top = threadInfo.getStackTrace()[0];
+
+						if ( top.getClassName().startsWith( "org.metawidget." ) ) {
+							blocked.add( top.toString() );
+						}
+					}
+				}
+			}
+		};
+
+		sampler.start();
+
+		try {
+			for ( int loop = 0; loop < renders; loop++ ) {
+				futures.add( executor.submit( new Callable<String>() {
+
+					public String call()
+						throws Exception {
+
+						final StringBuilder builder = new StringBuilder();
+						W3CPipeline<JComponent, JComponent, JComponent> pipeline = new MockPipeline();
+						pipeline.setInspector( (Inspector) configReader.configure( "metawidget.xml", Inspector.class ) );
+						pipeline.setWidgetBuilder( new WidgetBuilder<JComponent, JComponent>() {
+
+							public JComponent buildWidget( String elementName, Map<String, String> attributes, JComponent metawidget ) {
+
+								if ( ENTITY.equals( elementName ) ) {
+									return null;
+								}
+
+								return new JPanel();
+							}
+						} );
+						pipeline.setLayout( new Layout<JComponent, JComponent, JComponent>() {
+
+							public void layoutWidget( JComponent widget, String elementName, Map<String, String> attributes, JComponent container, JComponent metawidget ) {
+
+								builder.append( attributes.get( NAME ) + ":" + attributes.get( TYPE ) + ":" + attributes.get( REQUIRED ) + ";" );
+							}
+						} );
+
+						pipeline.buildWidgets( pipeline.inspectAsDom( new Foo(), Foo.class.getName() ) );
+						return builder.toString();
+					}
+				} ) );
+			}
+
+			for ( Future<String> future : futures ) {
+				assertEquals( "nested:" + Foo.class.getName() + ":null;other:java.lang.String:true;", future.get( 60, TimeUnit.SECONDS ) );
+			}
+		} finally {
+			sampling.set( false );
+			sampler.join();
+			executor.shutdownNow();
+		}
+
+		assertEquals( renders, futures.size() );
+		assertTrue( blocked.toString(), blocked.isEmpty() );
+	}
+
 	//
 	// Inner class
 	//
@@ -319,6 +629,23 @@ public class BasePipelineTest
 		}
 	}
 
+	public static class Foo {
+
+		//
+		// Public methods
+		//
+
+		public Foo getNested() {
+
+			return null;
+		}
+
+		public String getOther() {
+
+			return null;
+		}
+	}
+
 	/* package private */static class MyInspectionResultProcessor
 		implements InspectionResultProcessor<JComponent> {
 
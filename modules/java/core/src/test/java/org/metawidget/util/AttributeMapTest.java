@@ -0,0 +1,176 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.util;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.TestCase;
+
+import org.metawidget.inspector.InspectionResultConstants;
+import org.w3c.dom.Element;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class AttributeMapTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testIntern() {
+
+		assertTrue( InspectionResultConstants.NAME == AttributeMap.intern( new String( "name" ) ) );
+		assertTrue( InspectionResultConstants.TRUE == AttributeMap.intern( new String( "true" ) ) );
+		String foo = AttributeMap.intern( new String( "com.myapp.Foo" ) );
+		assertTrue( foo == AttributeMap.intern( new String( "com.myapp.Foo" ) ) );
+		assertEquals( null, AttributeMap.intern( null ) );
+	}
+
+	public void testConcurrentIntern()
+		throws Exception {
+
+		// Many threads interning the same (non-constant) Strings must all agree on one instance
+
+		final int threadCount = 8;
+		final int stringCount = 500;
+		final CountDownLatch start = new CountDownLatch( 1 );
+		final List<String[]> results = CollectionUtils.newArrayList();
+		final List<Throwable> failures = CollectionUtils.newArrayList();
+		List<Thread> threads = CollectionUtils.newArrayList();
+
+		for ( int loop = 0; loop < threadCount; loop++ ) {
+
+			final String[] interned = new String[stringCount];
+			results.add( interned );
+
+			Thread thread = new Thread() {
+
+				@Override
+				public void run() {
+
+					try {
+						start.await();
+
+						for ( int string = 0; string < stringCount; string++ ) {
+							interned[string] = AttributeMap.intern( new String( "com.myapp.Concurrent" + string ) );
+						}
+					} catch ( Throwable t ) {
+						synchronized ( failures ) {
+							failures.add( t );
+						}
+					}
+				}
+			};
+
+			threads.add( thread );
+			thread.start();
+		}
+
+		start.countDown();
+
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+
+		assertTrue( failures.isEmpty() );
+
+		String[] first = results.get( 0 );
+
+		for ( String[] interned : results ) {
+			for ( int string = 0; string < stringCount; string++ ) {
+				assertEquals( "com.myapp.Concurrent" + string, interned[string] );
+				assertTrue( first[string] == interned[string] );
+			}
+		}
+	}
+
+	public void testAttributeMap() {
+
+		String foo = AttributeMap.intern( new String( "com.myapp.Foo" ) );
+
+		// getAttributesAsMap interns names and values
+
+		Element root = XmlUtils.documentFromString( "<root name=\"bar\" type=\"com.myapp.Foo\" required=\"true\"/>" ).getDocumentElement();
+		Map<String, String> attributes = XmlUtils.getAttributesAsMap( root );
+		assertTrue( attributes instanceof AttributeMap );
+		assertEquals( 3, attributes.size() );
+		assertTrue( foo == attributes.get( "type" ) );
+		assertTrue( InspectionResultConstants.TRUE == attributes.get( InspectionResultConstants.REQUIRED ) );
+		assertTrue( InspectionResultConstants.NAME == attributes.keySet().iterator().next() );
+
+		// Map contract
+
+		Map<String, String> hashMap = CollectionUtils.newHashMap( attributes );
+		assertEquals( hashMap, attributes );
+		assertEquals( attributes, hashMap );
+		assertEquals( hashMap.hashCode(), attributes.hashCode() );
+
+		for ( int loop = 0; loop < 20; loop++ ) {
+			attributes.put( "attribute" + loop, String.valueOf( loop ) );
+		}
+
+		assertEquals( 23, attributes.size() );
+		assertEquals( "19", attributes.get( "attribute19" ) );
+		assertEquals( "bar", attributes.put( "name", null ) );
+		assertTrue( attributes.containsKey( "name" ) );
+		assertEquals( null, attributes.get( "name" ) );
+		assertEquals( null, attributes.remove( "name" ) );
+		assertTrue( !attributes.containsKey( "name" ) );
+		assertEquals( "required", attributes.keySet().iterator().next() );
+
+		for ( Iterator<String> i = attributes.keySet().iterator(); i.hasNext(); ) {
+			if ( i.next().startsWith( "attribute" ) ) {
+				i.remove();
+			}
+		}
+
+		assertEquals( 2, attributes.size() );
+		assertEquals( "{required=true, type=com.myapp.Foo}", attributes.toString() );
+	}
+
+	public void testImmutableCopy() {
+
+		Map<String, String> attributes = new AttributeMap();
+		attributes.put( "required", "true" );
+		attributes.put( "type", "com.myapp.Foo" );
+
+		AttributeMap immutable = ( (AttributeMap) attributes ).immutableCopy();
+		assertTrue( immutable.isImmutable() );
+		assertTrue( immutable == immutable.immutableCopy() );
+		assertEquals( attributes, immutable );
+
+		try {
+			immutable.put( "foo", "bar" );
+			fail();
+		} catch ( UnsupportedOperationException e ) {
+			assertEquals( "AttributeMap is immutable", e.getMessage() );
+		}
+
+		try {
+			immutable.entrySet().iterator().next().setValue( "bar" );
+			fail();
+		} catch ( UnsupportedOperationException e ) {
+			assertEquals( "AttributeMap is immutable", e.getMessage() );
+		}
+
+		attributes.clear();
+		assertTrue( attributes.isEmpty() );
+		assertEquals( 2, immutable.size() );
+	}
+
+}
@@ -160,6 +160,63 @@ public class ClassUtilsTest
 		}
 	}
 
+	public void testCachedProperties()
+		throws Exception {
+
+		// Covariant return type should pick the most specific getter (as Class.getMethod does)
+
+		assertEquals( Baz.class, ClassUtils.getReadMethod( CovariantFoo.class, "bar" ).getReturnType() );
+
+		// Setter based on an interface of the property type
+
+		CovariantFoo foo = new CovariantFoo();
+		Baz baz = new Baz();
+		ClassUtils.setProperty( foo, "bar", baz );
+		assertTrue( baz == ClassUtils.getProperty( foo, "bar" ) );
+		assertTrue( baz == ClassUtils.getProperty( foo, "bar" ) );
+
+		// getWriteMethod for types other than the getter's (cached per type)
+
+		for ( int loop = 0; loop < 2; loop++ ) {
+			assertEquals( Bar.class, ClassUtils.getWriteMethod( CovariantFoo.class, "bar", Bar.class ).getParameterTypes()[0] );
+			assertEquals( Bar.class, ClassUtils.getWriteMethod( CovariantFoo.class, "bar", Baz.class ).getParameterTypes()[0] );
+
+			try {
+				ClassUtils.getWriteMethod( CovariantFoo.class, "bar", String.class );
+				fail();
+			} catch ( Exception e ) {
+				assertEquals( "No such method setBar( java.lang.String ) on class org.metawidget.util.ClassUtilsTest$CovariantFoo", e.getMessage() );
+			}
+		}
+
+		// Failed lookups should keep failing (even though they are cached)
+
+		for ( int loop = 0; loop < 2; loop++ ) {
+			try {
+				ClassUtils.getReadMethod( CovariantFoo.class, "bigBoolean1" );
+				fail();
+			} catch ( Exception e ) {
+				assertEquals( "No such method getBigBoolean1 (or boolean isBigBoolean1) on class org.metawidget.util.ClassUtilsTest$CovariantFoo", e.getMessage() );
+			}
+		}
+
+		for ( int loop = 0; loop < 2; loop++ ) {
+			try {
+				ClassUtils.setProperty( foo, "littleBoolean", true );
+				fail();
+			} catch ( Exception e ) {
+				assertEquals( "No such method setLittleBoolean( boolean ) on class org.metawidget.util.ClassUtilsTest$CovariantFoo", e.getCause().getMessage() );
+			}
+
+			try {
+				ClassUtils.setProperty( foo, "bigBoolean1", true );
+				fail();
+			} catch ( Exception e ) {
+				assertEquals( "No such method getBigBoolean1 (or boolean isBigBoolean1) on class org.metawidget.util.ClassUtilsTest$CovariantFoo", e.getCause().getMessage() );
+			}
+		}
+	}
+
 	public void testStrictJavaBeanConvention()
 		throws Exception {
 
@@ -305,6 +362,32 @@ public class ClassUtilsTest
 		}
 	}
 
+	public static class CovariantFoo
+		extends Foo {
+
+		//
+		// Private members
+		//
+
+		private Bar	mCovariantBar;
+
+		//
+		// Public methods
+		//
+
+		@Override
+		public Baz getBar() {
+
+			return (Baz) mCovariantBar;
+		}
+
+		@Override
+		public void setBar( Bar bar ) {
+
+			mCovariantBar = bar;
+		}
+	}
+
 	static interface Bar {
 		// Just a marker interface
 	}
@@ -40,6 +40,12 @@ public class CollectionUtilsTest
 
 		assertTrue( CollectionUtils.newLinkedHashMap() != null );
 
+		CharSequence[] array = CollectionUtils.toArray( list, CharSequence.class );
+		assertEquals( CharSequence.class, array.getClass().getComponentType() );
+		assertEquals( 2, array.length );
+		assertEquals( "foo", array[0] );
+		assertEquals( "bar", array[1] );
+
 		assertEquals( CollectionUtils.newArrayList( "foo", "bar" ), CollectionUtils.fromString( "foo, bar" ) );
 		assertEquals( CollectionUtils.newArrayList( "foo", "bar", "" ), CollectionUtils.fromString( "foo, bar," ) );
 		assertEquals( CollectionUtils.newArrayList( "foo", "bar", "baz" ), CollectionUtils.fromString( "foo, bar,  baz" ) );
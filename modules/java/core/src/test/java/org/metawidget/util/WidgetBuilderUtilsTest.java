@@ -15,6 +15,7 @@ import static org.metawidget.inspector.InspectionResultConstants.*;
 import static org.metawidget.inspector.propertytype.PropertyTypeInspectionResultConstants.*;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -47,4 +48,63 @@ public class WidgetBuilderUtilsTest
 		attributes.put( ACTUAL_CLASS, HashSet.class.getName() );
 		assertEquals( HashSet.class, WidgetBuilderUtils.getActualClassOrType( attributes, null ) );
 	}
+
+	public void testLookups() {
+
+		// parseLookup
+
+		List<String> lookup = WidgetBuilderUtils.parseLookup( "foo, bar\\,baz, abc" );
+		assertEquals( CollectionUtils.newArrayList( "foo", "bar,baz", "abc" ), lookup );
+		assertTrue( lookup == WidgetBuilderUtils.parseLookup( "foo, bar\\,baz, abc" ) );
+		assertTrue( WidgetBuilderUtils.parseLookup( null ).isEmpty() );
+		assertTrue( WidgetBuilderUtils.parseLookup( "" ).isEmpty() );
+
+		try {
+			lookup.add( "def" );
+			fail();
+		} catch ( UnsupportedOperationException e ) {
+			// Should fail
+		}
+
+		// getLookupLabelsMap
+
+		Map<String, String> labelsMap = WidgetBuilderUtils.getLookupLabelsMap( "foo, bar\\,baz, abc", "Foo, Bar, Abc" );
+		assertEquals( "Foo", labelsMap.get( "foo" ) );
+		assertEquals( "Bar", labelsMap.get( "bar,baz" ) );
+		assertEquals( "Abc", labelsMap.get( "abc" ) );
+		assertEquals( 3, labelsMap.size() );
+		assertTrue( labelsMap == WidgetBuilderUtils.getLookupLabelsMap( "foo, bar\\,baz, abc", "Foo, Bar, Abc" ) );
+		assertEquals( "Abc2", WidgetBuilderUtils.getLookupLabelsMap( "foo, bar\\,baz, abc", "Foo2, Bar2, Abc2" ).get( "abc" ) );
+
+		try {
+			WidgetBuilderUtils.getLookupLabelsMap( "foo, bar", "Foo" );
+			fail();
+		} catch ( Exception e ) {
+			assertEquals( "Keys list must be same size as values list", e.getMessage() );
+		}
+	}
+
+	public void testLookupLabelsCacheIsBounded()
+		throws Exception {
+
+		// Many (eg. dynamically generated) lookup-labels for the same lookup
+
+		Map<String, String> firstLabelsMap = WidgetBuilderUtils.getLookupLabelsMap( "foo", "Foo0" );
+		assertTrue( firstLabelsMap == WidgetBuilderUtils.getLookupLabelsMap( "foo", "Foo0" ) );
+
+		for ( int loop = 1; loop < 1000; loop++ ) {
+			assertEquals( "Foo" + loop, WidgetBuilderUtils.getLookupLabelsMap( "foo", "Foo" + loop ).get( "foo" ) );
+		}
+
+		// Least recently used should have been evicted (but still be correct)
+
+		Map<String, String> reparsedLabelsMap = WidgetBuilderUtils.getLookupLabelsMap( "foo", "Foo0" );
+		assertTrue( firstLabelsMap != reparsedLabelsMap );
+		assertEquals( firstLabelsMap, reparsedLabelsMap );
+
+		// Most recently used still cached
+
+		Map<String, String> labelsMap = WidgetBuilderUtils.getLookupLabelsMap( "foo", "Foo999" );
+		assertTrue( labelsMap == WidgetBuilderUtils.getLookupLabelsMap( "foo", "Foo999" ) );
+	}
 }
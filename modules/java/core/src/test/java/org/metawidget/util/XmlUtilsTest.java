@@ -11,6 +11,8 @@
 
 package org.metawidget.util;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
@@ -279,7 +281,8 @@ public class XmlUtilsTest
 		assertEquals( "<inspection-result><foo fooAttr=\"1\"><bar barAttr=\"2\" data=\"bar2\"/></foo><foo fooAttr=\"2\"><bar barAttr=\"3\" data=\"bar3\"/></foo></inspection-result>", XmlUtils.documentToString( documentMaster, false ) );
 	}
 
-	public void testinspectionResultToJsonSchema() {
+	public void testinspectionResultToJsonSchema()
+		throws Exception {
 
 		// Normal case
 
@@ -340,6 +343,20 @@ public class XmlUtilsTest
 
 		document = XmlUtils.documentFromString( "<inspection-result><entity type=\"1\" title=\"xsi:nil\"/>></inspection-result>" );
 		assertEquals( "{\"title\":null,\"type\":\"1\"}", XmlUtils.inspectionResultToJsonSchema( document.getDocumentElement() ) );
+
+		// Test streaming
+
+		document = XmlUtils.documentFromString( "<inspection-result><entity name=\"root\" type=\"1\"><property name=\"bar\" type=\"array\" label=\"B\u00e4r\"><property name=\"nested\" nestedAttr=\"3\"/></property><action name=\"anAction\"/></entity></inspection-result>" );
+		String expected = "{\"name\":\"root\",\"type\":\"1\",\"properties\":{\"bar\":{\"label\":\"B\u00e4r\",\"type\":\"array\",\"items\":{\"properties\":{\"nested\":{\"nestedAttr\":\"3\"}}}},\"anAction\":{\"type\":\"function\"}}}";
+		assertEquals( expected, XmlUtils.inspectionResultToJsonSchema( document.getDocumentElement() ) );
+
+		StringWriter writer = new StringWriter();
+		XmlUtils.inspectionResultToJsonSchema( document.getDocumentElement(), writer );
+		assertEquals( expected, writer.toString() );
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		XmlUtils.inspectionResultToJsonSchema( document.getDocumentElement(), out );
+		assertEquals( expected, out.toString( "UTF-8" ) );
 	}
 
 	//
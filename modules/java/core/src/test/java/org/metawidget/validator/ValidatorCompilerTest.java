@@ -0,0 +1,361 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.validator;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.TestCase;
+
+import org.metawidget.iface.MetawidgetException;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.XmlUtils;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class ValidatorCompilerTest
+	extends TestCase {
+
+	//
+	// Private statics
+	//
+
+	private static final String	XML	= "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\"><entity type=\"" + Foo.class.getName() + "\">" +
+										"<property name=\"name\" required=\"true\" minimum-length=\"2\" maximum-length=\"5\" validation-pattern=\"[A-Z][a-z]*\"/>" +
+										"<property name=\"age\" minimum-value=\"18\" maximum-value=\"9223372036854775807\"/>" +
+										"<property name=\"price\" minimum-value=\"0.5\" maximum-value=\"\"/>" +
+										"<property name=\"tags\" maximum-length=\"2\"/>" +
+										"<property name=\"unconstrained\"/>" +
+										"<action name=\"save\" required=\"true\"/>" +
+										"</entity></inspection-result>";
+
+	//
+	// Public methods
+	//
+
+	public void testValidator() {
+
+		final int[] inspections = new int[1];
+
+		ValidatorCompiler compiler = new ValidatorCompiler( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				inspections[0]++;
+				return XML;
+			}
+		} );
+
+		CompiledValidator validator = compiler.getValidator( Foo.class );
+		assertEquals( Foo.class.getName(), validator.getType() );
+		assertTrue( validator == compiler.getValidator( Foo.class ) );
+		assertEquals( 1, inspections[0] );
+
+		// Valid
+
+		Foo foo = new Foo();
+		foo.setName( "Abc" );
+		foo.setAge( 18 );
+		foo.setPrice( new BigDecimal( "0.5" ) );
+		assertTrue( validator.isValid( foo ) );
+		assertTrue( validator.validate( foo ).isEmpty() );
+
+		// Required
+
+		foo.setName( null );
+		assertFalse( validator.isValid( foo ) );
+		List<ValidationFailure> failures = validator.validate( foo );
+		assertEquals( 1, failures.size() );
+		assertEquals( "name", failures.get( 0 ).getProperty() );
+		assertEquals( "required", failures.get( 0 ).getConstraint().getName() );
+		assertEquals( null, failures.get( 0 ).getValue() );
+
+		foo.setName( "" );
+		failures = validator.validate( foo );
+		assertEquals( "name (required=true): ", failures.get( 0 ).toString() );
+		assertEquals( "minimum-length", failures.get( 1 ).getConstraint().getName() );
+		assertEquals( "validation-pattern", failures.get( 2 ).getConstraint().getName() );
+		assertEquals( 3, failures.size() );
+
+		// Length and pattern
+
+		foo.setName( "A" );
+		failures = validator.validate( foo );
+		assertEquals( "minimum-length", failures.get( 0 ).getConstraint().getName() );
+		assertEquals( "2", failures.get( 0 ).getConstraint().getValue() );
+		assertEquals( 1, failures.size() );
+
+		foo.setName( "Abcdef" );
+		assertEquals( "maximum-length", validator.validate( foo ).get( 0 ).getConstraint().getName() );
+
+		foo.setName( "abc" );
+		assertEquals( "validation-pattern", validator.validate( foo ).get( 0 ).getConstraint().getName() );
+
+		foo.setName( "Abc" );
+		foo.setTags( Arrays.asList( "a", "b", "c" ) );
+		assertEquals( "tags", validator.validate( foo ).get( 0 ).getProperty() );
+		foo.setTags( Collections.<String> emptyList() );
+		assertTrue( validator.isValid( foo ) );
+
+		// Value
+
+		foo.setAge( 17 );
+		failures = validator.validate( foo );
+		assertEquals( "age", failures.get( 0 ).getProperty() );
+		assertEquals( "minimum-value", failures.get( 0 ).getConstraint().getName() );
+		assertEquals( 17l, failures.get( 0 ).getValue() );
+
+		foo.setAge( Long.MAX_VALUE );
+		assertTrue( validator.isValid( foo ) );
+
+		foo.setPrice( new BigDecimal( "0.49" ) );
+		assertEquals( "price", validator.validate( foo ).get( 0 ).getProperty() );
+		foo.setPrice( null );
+		assertTrue( validator.isValid( foo ) );
+	}
+
+	public void testConcurrentGetValidator()
+		throws Exception {
+
+		// Many threads getting the same, uncached type must all agree on one, once-inspected
+		// validator
+
+		final int[] inspections = new int[1];
+
+		final ValidatorCompiler compiler = new ValidatorCompiler( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				synchronized ( inspections ) {
+					inspections[0]++;
+				}
+
+				return XML;
+			}
+		} );
+
+		final int threadCount = 8;
+		final CountDownLatch start = new CountDownLatch( 1 );
+		final CompiledValidator[] results = new CompiledValidator[threadCount];
+		final List<Throwable> failures = CollectionUtils.newArrayList();
+		List<Thread> threads = CollectionUtils.newArrayList();
+
+		for ( int loop = 0; loop < threadCount; loop++ ) {
+
+			final int index = loop;
+
+			Thread thread = new Thread() {
+
+				@Override
+				public void run() {
+
+					try {
+						start.await();
+						results[index] = compiler.getValidator( Foo.class );
+					} catch ( Throwable t ) {
+						synchronized ( failures ) {
+							failures.add( t );
+						}
+					}
+				}
+			};
+
+			threads.add( thread );
+			thread.start();
+		}
+
+		start.countDown();
+
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+
+		assertTrue( failures.isEmpty() );
+		assertEquals( 1, inspections[0] );
+
+		for ( CompiledValidator validator : results ) {
+			assertTrue( results[0] == validator );
+		}
+	}
+
+	public void testCompile() {
+
+		ValidatorCompiler compiler = new ValidatorCompiler( null );
+
+		assertTrue( compiler.compile( Foo.class.getName(), null ).isValid( new Foo() ) );
+
+		CompiledValidator validator = compiler.compile( Foo.class.getName(), XmlUtils.documentFromString( XML ).getDocumentElement() );
+		assertFalse( validator.isValid( new Foo() ) );
+
+		try {
+			compiler.compile( Foo.class.getName(), XmlUtils.documentFromString( XML.replace( "\"tags\"", "\"missing\"" ) ).getDocumentElement() );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertEquals( "Unable to validate 'missing' of " + Foo.class.getName() + ": no readable property", e.getMessage() );
+		}
+	}
+
+	public void testNonNumericConstraints() {
+
+		// Unevaluated Expression Language cannot be compiled, so is skipped
+
+		String xml = "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\"><entity type=\"" + Foo.class.getName() + "\">" +
+						"<property name=\"name\" minimum-length=\"#{foo.minimumLength}\" maximum-length=\"5\"/>" +
+						"<property name=\"age\" minimum-value=\"#{foo.minimumAge}\" maximum-value=\"${foo.maximumAge}\"/>" +
+						"<property name=\"price\" minimum-value=\"0.5\" maximum-value=\"unbounded\"/>" +
+						"</entity></inspection-result>";
+
+		CompiledValidator validator = new ValidatorCompiler( null ).compile( Foo.class.getName(), XmlUtils.documentFromString( xml ).getDocumentElement() );
+
+		Foo foo = new Foo();
+		foo.setName( "A" );
+		foo.setAge( -1 );
+		foo.setPrice( new BigDecimal( "1000000" ) );
+		assertTrue( validator.isValid( foo ) );
+
+		foo.setName( "Abcdef" );
+		foo.setPrice( new BigDecimal( "0.49" ) );
+		assertEquals( 2, validator.validate( foo ).size() );
+		assertEquals( "name", validator.validate( foo ).get( 0 ).getProperty() );
+		assertEquals( "price", validator.validate( foo ).get( 1 ).getProperty() );
+	}
+
+	public void testCustomConstraint() {
+
+		ValidatorCompiler compiler = new ValidatorCompiler( null ) {
+
+			@Override
+			protected List<Constraint> newConstraints( Map<String, String> attributes ) {
+
+				List<Constraint> constraints = super.newConstraints( attributes );
+
+				if ( "unconstrained".equals( attributes.get( "name" ) ) ) {
+					constraints.add( new Constraint() {
+
+						public String getName() {
+
+							return "not-null";
+						}
+
+						public String getValue() {
+
+							return "true";
+						}
+
+						public boolean isSatisfiedBy( Object value ) {
+
+							return ( value != null );
+						}
+					} );
+				}
+
+				return constraints;
+			}
+		};
+
+		Foo foo = new Foo();
+		foo.setName( "Abc" );
+		foo.setAge( 18 );
+
+		CompiledValidator validator = compiler.compile( Foo.class.getName(), XmlUtils.documentFromString( XML ).getDocumentElement() );
+		assertEquals( "not-null", validator.validate( foo ).get( 0 ).getConstraint().getName() );
+		foo.setUnconstrained( new Object() );
+		assertTrue( validator.isValid( foo ) );
+	}
+
+	//
+	// Inner class
+	//
+
+	public static class Foo {
+
+		//
+		// Private members
+		//
+
+		private String			mName;
+
+		private long			mAge;
+
+		private BigDecimal		mPrice;
+
+		private List<String>	mTags;
+
+		private Object			mUnconstrained;
+
+		//
+		// Public methods
+		//
+
+		public String getName() {
+
+			return mName;
+		}
+
+		public void setName( String name ) {
+
+			mName = name;
+		}
+
+		public long getAge() {
+
+			return mAge;
+		}
+
+		public void setAge( long age ) {
+
+			mAge = age;
+		}
+
+		public BigDecimal getPrice() {
+
+			return mPrice;
+		}
+
+		public void setPrice( BigDecimal price ) {
+
+			mPrice = price;
+		}
+
+		public List<String> getTags() {
+
+			return mTags;
+		}
+
+		public void setTags( List<String> tags ) {
+
+			mTags = tags;
+		}
+
+		public Object getUnconstrained() {
+
+			return mUnconstrained;
+		}
+
+		public void setUnconstrained( Object unconstrained ) {
+
+			mUnconstrained = unconstrained;
+		}
+
+		public void save() {
+
+			// Do nothing
+		}
+	}
+}
@@ -0,0 +1,155 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.widgetprocessor.impl;
+
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class ConverterRegistryTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testConverterRegistry() {
+
+		ConverterRegistry<String> registry = new ConverterRegistry<String>();
+		registry.register( Number.class, String.class, "numberToString" );
+		registry.register( Integer.class, String.class, "integerToString" );
+		registry.register( Object.class, Object.class, "objectToObject" );
+
+		// Exact, superclass and primitive
+
+		assertEquals( "integerToString", registry.getConverter( Integer.class, String.class ) );
+		assertEquals( "numberToString", registry.getConverter( Long.class, String.class ) );
+		assertEquals( "integerToString", registry.getConverter( int.class, String.class ) );
+		assertEquals( "numberToString", registry.getConverter( double.class, String.class ) );
+		assertEquals( null, registry.getConverter( String.class, Integer.class ) );
+
+		// Target superclasses are not traversed by default
+
+		assertEquals( null, registry.getConverter( Date.class, String.class ) );
+		assertEquals( "objectToObject", registry.getConverter( Date.class, Object.class ) );
+
+		// Cached lookups (including misses) are invalidated by registering
+
+		registry.register( Object.class, String.class, "objectToString" );
+		assertEquals( "objectToString", registry.getConverter( Date.class, String.class ) );
+		assertEquals( "integerToString", registry.getConverter( Integer.class, String.class ) );
+	}
+
+	public void testTraverseTargetSuperclasses() {
+
+		ConverterRegistry<String> registry = new ConverterRegistry<String>( true );
+		registry.register( String.class, Object.class, "fromString" );
+		registry.register( Number.class, Number.class, "numberToNumber" );
+		registry.register( Integer.class, Number.class, "integerToNumber" );
+
+		assertEquals( "fromString", registry.getConverter( String.class, Date.class ) );
+		assertEquals( "numberToNumber", registry.getConverter( Long.class, int.class ) );
+		assertEquals( "integerToNumber", registry.getConverter( int.class, Long.class ) );
+		assertEquals( null, registry.getConverter( Date.class, Long.class ) );
+
+		// Registering primitives (lookups are wrapped, so primitive registrations are not found)
+
+		registry.register( boolean.class, String.class, "booleanToString" );
+		assertEquals( "fromString", registry.getConverter( String.class, boolean.class ) );
+		assertEquals( null, registry.getConverter( Boolean.class, String.class ) );
+		assertEquals( null, registry.getConverter( boolean.class, String.class ) );
+	}
+
+	public void testPrimitivesAndWrappersDoNotCollide() {
+
+		// Looking up primitives as wrappers
+
+		ConverterRegistry<String> registry = new ConverterRegistry<String>();
+		registry.register( String.class, int.class, "stringToInt" );
+		registry.register( String.class, Integer.class, "stringToInteger" );
+
+		assertEquals( "stringToInteger", registry.getConverter( String.class, Integer.class ) );
+		assertEquals( "stringToInteger", registry.getConverter( String.class, int.class ) );
+
+		// Looking up primitives as themselves
+
+		registry = new ConverterRegistry<String>( false, false );
+		registry.register( String.class, int.class, "stringToInt" );
+		registry.register( String.class, Integer.class, "stringToInteger" );
+		registry.register( int.class, String.class, "intToString" );
+		registry.register( Number.class, String.class, "numberToString" );
+
+		assertEquals( "stringToInt", registry.getConverter( String.class, int.class ) );
+		assertEquals( "stringToInteger", registry.getConverter( String.class, Integer.class ) );
+		assertEquals( "intToString", registry.getConverter( int.class, String.class ) );
+		assertEquals( "numberToString", registry.getConverter( Integer.class, String.class ) );
+		assertEquals( null, registry.getConverter( long.class, String.class ) );
+		assertEquals( null, registry.getConverter( String.class, long.class ) );
+
+		// Registering in the other order makes no difference
+
+		registry = new ConverterRegistry<String>( false, false );
+		registry.register( String.class, Integer.class, "stringToInteger" );
+		registry.register( String.class, int.class, "stringToInt" );
+
+		assertEquals( "stringToInt", registry.getConverter( String.class, int.class ) );
+		assertEquals( "stringToInteger", registry.getConverter( String.class, Integer.class ) );
+	}
+
+	public void testConcurrentLookups()
+		throws Exception {
+
+		final ConverterRegistry<String> registry = new ConverterRegistry<String>();
+		registry.register( Number.class, String.class, "numberToString" );
+		registry.register( Integer.class, String.class, "integerToString" );
+		registry.register( String.class, Date.class, "stringToDate" );
+
+		final Class<?>[] sources = new Class<?>[] { Integer.class, int.class, Long.class, double.class, String.class, Object.class };
+		final String[] expected = new String[] { "integerToString", "integerToString", "numberToString", "numberToString", null, null };
+		final Throwable[] failure = new Throwable[1];
+		Thread[] threads = new Thread[8];
+
+		for ( int loop = 0; loop < threads.length; loop++ ) {
+			threads[loop] = new Thread() {
+
+				@Override
+				public void run() {
+
+					try {
+						for ( int repeat = 0; repeat < 1000; repeat++ ) {
+							for ( int source = 0; source < sources.length; source++ ) {
+								assertEquals( expected[source], registry.getConverter( sources[source], String.class ) );
+							}
+
+							assertEquals( "stringToDate", registry.getConverter( String.class, Date.class ) );
+						}
+					} catch ( Throwable t ) {
+						failure[0] = t;
+					}
+				}
+			};
+			threads[loop].start();
+		}
+
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+
+		if ( failure[0] != null ) {
+			throw new Exception( failure[0] );
+		}
+	}
+}
@@ -15,6 +15,7 @@ import java.io.InputStream;
 import java.net.URL;
 
 import javax.faces.context.FacesContext;
+import javax.servlet.ServletContext;
 
 import org.metawidget.config.impl.SimpleResourceResolver;
 import org.metawidget.inspector.iface.InspectorException;
@@ -23,6 +24,11 @@ import org.metawidget.inspector.iface.InspectorException;
  * Specialized ResourceResolver for Java Server Faces.
  * <p>
  * Resolves references by looking in <code>/WEB-INF/</code> first.
+ * <p>
+ * If constructed during a JSF request, also captures the <code>ServletContext</code> so that
+ * resources can still be resolved from threads without a <code>FacesContext</code> (eg. when
+ * <code>BaseConfigReader.setLazyInspectorExecutor</code> constructs Inspectors in the
+ * background).
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -30,6 +36,29 @@ import org.metawidget.inspector.iface.InspectorException;
 public class FacesResourceResolver
 	extends SimpleResourceResolver {
 
+	//
+	// Private members
+	//
+
+	private ServletContext	mServletContext;
+
+	//
+	// Constructor
+	//
+
+	public FacesResourceResolver() {
+
+		FacesContext facesContext = FacesContext.getCurrentInstance();
+
+		if ( facesContext != null ) {
+			Object context = facesContext.getExternalContext().getContext();
+
+			if ( context instanceof ServletContext ) {
+				mServletContext = (ServletContext) context;
+			}
+		}
+	}
+
 	//
 	// Protected methods
 	//
@@ -42,7 +71,16 @@ public class FacesResourceResolver
 	public InputStream openResource( String resource ) {
 
 		try {
-			URL url = FacesContext.getCurrentInstance().getExternalContext().getResource( "/WEB-INF/" + resource );
+			URL url;
+			FacesContext facesContext = FacesContext.getCurrentInstance();
+
+			if ( facesContext != null ) {
+				url = facesContext.getExternalContext().getResource( "/WEB-INF/" + resource );
+			} else if ( mServletContext != null ) {
+				url = mServletContext.getResource( "/WEB-INF/" + resource );
+			} else {
+				url = null;
+			}
 
 			if ( url != null ) {
 				return url.openStream();
@@ -47,6 +47,7 @@ import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.layout.iface.Layout;
 import org.metawidget.pipeline.w3c.W3CPipeline;
+import org.metawidget.util.AttributeMap;
 import org.metawidget.util.ClassUtils;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.LogUtils;
@@ -209,7 +210,15 @@ public abstract class UIMetawidget
 		ConfigReader configReader = (ConfigReader) applicationMap.get( APPLICATION_ATTRIBUTE_CONFIG_READER );
 
 		if ( configReader == null ) {
-			configReader = new BaseConfigReader( new FacesResourceResolver() );
+			BaseConfigReader baseConfigReader = new BaseConfigReader( new FacesResourceResolver() );
+
+			// Defer expensive Inspectors (eg. HibernateInspector) until first inspection
+
+			if ( TRUE.equals( externalContext.getInitParameter( COMPONENT_FAMILY + ".faces.component.LAZY_INSPECTORS" ) ) ) {
+				baseConfigReader.setLazyInspectors( true );
+			}
+
+			configReader = baseConfigReader;
 			applicationMap.put( APPLICATION_ATTRIBUTE_CONFIG_READER, configReader );
 		}
 
@@ -978,9 +987,6 @@ public abstract class UIMetawidget
 
 	protected void layoutWidget( UIComponent component, String elementName, Map<String, String> attributes ) {
 
-		Map<String, Object> componentAttributes = component.getAttributes();
-		componentAttributes.put( COMPONENT_ATTRIBUTE_METADATA, attributes );
-
 		// If this component already exists in the list, remove it and re-add it. This
 		// enables us to sort existing, manually created components in the correct order
 		//
@@ -997,6 +1003,18 @@ public abstract class UIMetawidget
 			attributes.putAll( additionalAttributes );
 		}
 
+		// Metadata is retained for the lifetime of the component, so store it trimmed to size
+
+		AttributeMap metadata;
+
+		if ( attributes instanceof AttributeMap ) {
+			metadata = ( (AttributeMap) attributes ).immutableCopy();
+		} else {
+			metadata = new AttributeMap( attributes ).immutableCopy();
+		}
+
+		component.getAttributes().put( COMPONENT_ATTRIBUTE_METADATA, metadata );
+
 		// BasePipeline will call .layoutWidget
 	}
 
@@ -1027,7 +1045,7 @@ public abstract class UIMetawidget
 			// helps our layout display proper labels, required stars etc. - even for components
 			// whose binding is not a descendant of our parent binding
 
-			Map<String, String> childAttributes = CollectionUtils.newHashMap();
+			Map<String, String> childAttributes = new AttributeMap();
 			miscAttributes.put( COMPONENT_ATTRIBUTE_METADATA, childAttributes );
 
 			ValueBinding binding = component.getValueBinding( "value" );
@@ -314,7 +314,7 @@ public class HtmlWidgetBuilder
 
 		// (pageDirection is a 'safer' default for anything but short lists)
 
-		List<?> values = CollectionUtils.fromString( lookup );
+		List<?> values = WidgetBuilderUtils.parseLookup( lookup );
 
 		if ( values.size() > SHORT_LOOKUP_SIZE ) {
 			if ( component instanceof HtmlSelectManyCheckbox ) {
@@ -372,7 +372,7 @@ public class HtmlWidgetBuilder
 			}
 		}
 
-		addSelectItems( component, valuesAfterConversion, CollectionUtils.fromString( attributes.get( LOOKUP_LABELS ) ), attributes, metawidget );
+		addSelectItems( component, valuesAfterConversion, WidgetBuilderUtils.parseLookup( attributes.get( LOOKUP_LABELS ) ), attributes, metawidget );
 	}
 
 	protected void setMaximumLength( UIComponent component, Map<String, String> attributes ) {
@@ -30,7 +30,6 @@ import org.metawidget.faces.component.UIMetawidget;
 import org.metawidget.faces.component.UIStub;
 import org.metawidget.faces.component.layout.SimpleLayout;
 import org.metawidget.util.ClassUtils;
-import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 
@@ -104,14 +103,14 @@ public class ReadOnlyWidgetBuilder
 
 			// Special support for read-only lookups with labels
 
-			List<String> labels = CollectionUtils.fromString( lookupLabels );
+			List<String> labels = WidgetBuilderUtils.parseLookup( lookupLabels );
 
 			if ( labels.isEmpty() ) {
 				return application.createComponent( HtmlOutputText.COMPONENT_TYPE );
 			}
 
 			HtmlLookupOutputText lookupOutputText = (HtmlLookupOutputText) application.createComponent( HtmlLookupOutputText.COMPONENT_TYPE );
-			lookupOutputText.setLabels( CollectionUtils.fromString( lookup ), labels );
+			lookupOutputText.setLabels( WidgetBuilderUtils.parseLookup( lookup ), labels );
 
 			return lookupOutputText;
 		}
@@ -276,19 +276,14 @@ public class GroovyPropertyStyle
 
 		public <T extends Annotation> T getAnnotation( Class<T> annotation ) {
 
-			if ( mField != null ) {
-				return mField.getAnnotation( annotation );
-			}
-
-			if ( mGetterMethod != null ) {
-				return mGetterMethod.getAnnotation( annotation );
-			}
+			// Fail on every lookup, as soon as the property is inspected, rather than leaving it
+			// to whenever the annotations happen to be resolved
 
-			if ( mSetterMethod != null ) {
-				return mSetterMethod.getAnnotation( annotation );
+			if ( mField == null && mGetterMethod == null && mSetterMethod == null ) {
+				throw InspectorException.newException( "Don't know how to getAnnotation from " + getName() );
 			}
 
-			throw InspectorException.newException( "Don't know how to getAnnotation from " + getName() );
+			return getResolvedAnnotation( annotation );
 		}
 
 		public String getGenericType() {
@@ -314,5 +309,27 @@ public class GroovyPropertyStyle
 			
 			throw InspectorException.newException( "Don't know how to getGenericType from " + getName() );
 		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected Annotation[] resolveAnnotations() {
+
+			if ( mField != null ) {
+				return mField.getAnnotations();
+			}
+
+			if ( mGetterMethod != null ) {
+				return mGetterMethod.getAnnotations();
+			}
+
+			if ( mSetterMethod != null ) {
+				return mSetterMethod.getAnnotations();
+			}
+
+			throw InspectorException.newException( "Don't know how to getAnnotation from " + getName() );
+		}
 	}
 }
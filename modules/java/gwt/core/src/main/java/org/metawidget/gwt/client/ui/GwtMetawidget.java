@@ -14,8 +14,12 @@ package org.metawidget.gwt.client.ui;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 import static org.metawidget.util.simple.StringUtils.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.Set;
@@ -67,6 +71,18 @@ public class GwtMetawidget
 	extends FlowPanel
 	implements HasName {
 
+	//
+	// Public statics
+	//
+
+	/**
+	 * Client property under which lazy LayoutDecorators store a <code>Map&lt;Widget, Runnable&gt;</code>
+	 * of their deferred layouts, keyed by section widget. <code>getWidget</code> runs them if it
+	 * cannot otherwise find a widget.
+	 */
+
+	public static final String								DEFERRED_LAYOUTS		= "metawidget-deferred-layouts";
+
 	//
 	// Private statics
 	//
@@ -469,15 +485,17 @@ public class GwtMetawidget
 			throw new RuntimeException( "Widgets still building asynchronously: need to complete before calling getWidget( \"" + GwtUtils.toString( names, SEPARATOR_DOT_CHAR ) + "\" )" );
 		}
 
-		Map<String, Widget> children = mAddedWidgets;
+		GwtMetawidget metawidget = this;
 
 		for ( int loop = 0, length = names.length; loop < length; loop++ ) {
-			if ( children == null ) {
-				return null;
-			}
-
 			String name = names[loop];
-			Widget widget = children.get( name );
+			Widget widget = metawidget.mAddedWidgets.get( name );
+
+			// Not found? Maybe it is in a lazy section that has yet to be laid out
+
+			if ( widget == null && metawidget.runDeferredLayouts() ) {
+				widget = metawidget.mAddedWidgets.get( name );
+			}
 
 			if ( widget == null ) {
 				return null;
@@ -491,7 +509,7 @@ public class GwtMetawidget
 				return null;
 			}
 
-			children = ( (GwtMetawidget) widget ).mAddedWidgets;
+			metawidget = (GwtMetawidget) widget;
 		}
 
 		return null;
@@ -564,6 +582,44 @@ public class GwtMetawidget
 		}
 	}
 
+	/**
+	 * Gets the values from the Widgets with the given paths.
+	 * <p>
+	 * Each path is a list of names separated by forward slashes (eg. <code>address/street</code>).
+	 * This is equivalent to calling <code>getValue</code> for each path. Widgets are looked up in
+	 * the index of names GwtMetawidget already keeps of the Widgets it has added.
+	 *
+	 * @return the values, keyed by path, in the same order as the given paths
+	 */
+
+	public Map<String, Object> getValues( Collection<String> paths ) {
+
+		Map<String, Object> values = new LinkedHashMap<String, Object>();
+
+		for ( String path : paths ) {
+			values.put( path, getValue( getWidgetForPath( path ) ) );
+		}
+
+		return values;
+	}
+
+	/**
+	 * Sets the Widgets with the given paths to the specified values.
+	 * <p>
+	 * This is equivalent to calling <code>setValue</code> for each path. See
+	 * <code>getValues</code>.
+	 *
+	 * @param values
+	 *            the values, keyed by path (eg. <code>address/street</code>)
+	 */
+
+	public void setValues( Map<String, ?> values ) {
+
+		for ( Map.Entry<String, ?> entry : values.entrySet() ) {
+			setValue( entry.getValue(), getWidgetForPath( entry.getKey() ) );
+		}
+	}
+
 	public Facet getFacet( String name ) {
 
 		return mFacets.get( name );
@@ -796,6 +852,10 @@ public class GwtMetawidget
 
 			super.clear();
 			mAddedWidgets.clear();
+
+			if ( mClientProperties != null ) {
+				mClientProperties.remove( DEFERRED_LAYOUTS );
+			}
 		}
 
 		// Schedule a new build
@@ -984,6 +1044,41 @@ public class GwtMetawidget
 	// Private members
 	//
 
+	private Widget getWidgetForPath( String path ) {
+
+		List<String> names = GwtUtils.fromString( path, SEPARATOR_FORWARD_SLASH_CHAR );
+		Widget widget = getWidget( names.toArray( new String[names.size()] ) );
+
+		if ( widget == null ) {
+			throw new RuntimeException( "No such widget " + path );
+		}
+
+		return widget;
+	}
+
+	/**
+	 * Lays out any lazy sections that have yet to be laid out.
+	 *
+	 * @return true if any were laid out
+	 */
+
+	private boolean runDeferredLayouts() {
+
+		Map<Widget, Runnable> deferredLayouts = getClientProperty( DEFERRED_LAYOUTS );
+
+		if ( deferredLayouts == null || deferredLayouts.isEmpty() ) {
+			return false;
+		}
+
+		// (copy, as running a deferred layout removes it)
+
+		for ( Runnable deferredLayout : new ArrayList<Runnable>( deferredLayouts.values() ) ) {
+			deferredLayout.run();
+		}
+
+		return true;
+	}
+
 	private Object getValue( Widget widget, WidgetBuilder<Widget, GwtMetawidget> widgetBuilder ) {
 
 		// Recurse into CompositeWidgetBuilders
@@ -20,7 +20,10 @@ import org.metawidget.gwt.client.ui.GwtMetawidget;
 import org.metawidget.layout.decorator.LayoutDecoratorConfig;
 import org.metawidget.util.simple.StringUtils;
 
+import com.google.gwt.event.logical.shared.SelectionEvent;
+import com.google.gwt.event.logical.shared.SelectionHandler;
 import com.google.gwt.user.client.ui.FlowPanel;
+import com.google.gwt.user.client.ui.HasName;
 import com.google.gwt.user.client.ui.Panel;
 import com.google.gwt.user.client.ui.TabPanel;
 import com.google.gwt.user.client.ui.Widget;
@@ -34,6 +37,12 @@ import com.google.gwt.user.client.ui.Widget;
 public class TabPanelLayoutDecorator
 	extends GwtNestedSectionLayoutDecorator {
 
+	//
+	// Private members
+	//
+
+	private final boolean	mLazy;
+
 	//
 	// Constructor
 	//
@@ -41,6 +50,15 @@ public class TabPanelLayoutDecorator
 	public TabPanelLayoutDecorator( LayoutDecoratorConfig<Widget, Panel, GwtMetawidget> config ) {
 
 		super( config );
+
+		mLazy = false;
+	}
+
+	public TabPanelLayoutDecorator( TabPanelLayoutDecoratorConfig config ) {
+
+		super( config );
+
+		mLazy = config.isLazy();
 	}
 
 	//
@@ -57,6 +75,10 @@ public class TabPanelLayoutDecorator
 		if ( previousSectionWidget == null ) {
 			tabPanel = new TabPanel();
 
+			if ( mLazy ) {
+				tabPanel.addSelectionHandler( new LazyTabHandler( tabPanel, metawidget ) );
+			}
+
 			// Add to parent container
 
 			Map<String, String> tabPanelAttributes = new HashMap<String, String>();
@@ -87,4 +109,137 @@ public class TabPanelLayoutDecorator
 
 		return newPanel;
 	}
+
+	@Override
+	protected boolean isLazy( Panel previousSectionWidget ) {
+
+		// The first tab is visible immediately, so is never lazy
+
+		return ( mLazy && previousSectionWidget != null );
+	}
+
+	/**
+	 * Overridden to never defer overridden widgets, as <code>OverriddenWidgetBuilder</code> can
+	 * only find them during the initial build.
+	 */
+
+	@Override
+	protected boolean isDeferrable( String elementName, Map<String, String> attributes, GwtMetawidget metawidget ) {
+
+		String name = attributes.get( NAME );
+
+		for ( Widget existingUnusedWidget : metawidget.fetchExistingUnusedWidgets() ) {
+			if ( existingUnusedWidget instanceof HasName && name.equals( ( (HasName) existingUnusedWidget ).getName() ) ) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Overridden to lay out the tab when it is first selected, or when
+	 * <code>GwtMetawidget.getWidget</code> searches for a widget it cannot otherwise find.
+	 */
+
+	@Override
+	protected void deferSection( Panel sectionWidget, LazySection lazySection, GwtMetawidget metawidget ) {
+
+		Map<Widget, Runnable> deferredLayouts = metawidget.getClientProperty( GwtMetawidget.DEFERRED_LAYOUTS );
+
+		if ( deferredLayouts == null ) {
+			deferredLayouts = new HashMap<Widget, Runnable>();
+			metawidget.putClientProperty( GwtMetawidget.DEFERRED_LAYOUTS, deferredLayouts );
+		}
+
+		deferredLayouts.put( sectionWidget, new LazyTabLayout( sectionWidget, lazySection, deferredLayouts ) );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Lays out lazy tabs as they are selected.
+	 */
+
+	private static class LazyTabHandler
+		implements SelectionHandler<Integer> {
+
+		//
+		// Private members
+		//
+
+		private final TabPanel		mTabPanel;
+
+		private final GwtMetawidget	mMetawidget;
+
+		//
+		// Constructor
+		//
+
+		public LazyTabHandler( TabPanel tabPanel, GwtMetawidget metawidget ) {
+
+			mTabPanel = tabPanel;
+			mMetawidget = metawidget;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void onSelection( SelectionEvent<Integer> event ) {
+
+			Map<Widget, Runnable> deferredLayouts = mMetawidget.getClientProperty( GwtMetawidget.DEFERRED_LAYOUTS );
+
+			if ( deferredLayouts == null ) {
+				return;
+			}
+
+			Runnable deferredLayout = deferredLayouts.get( mTabPanel.getWidget( event.getSelectedItem() ) );
+
+			if ( deferredLayout != null ) {
+				deferredLayout.run();
+			}
+		}
+	}
+
+	/**
+	 * Builds and lays out a lazy tab.
+	 */
+
+	private static class LazyTabLayout
+		implements Runnable {
+
+		//
+		// Private members
+		//
+
+		private final Panel					mTab;
+
+		private final LazySection			mLazySection;
+
+		private final Map<Widget, Runnable>	mDeferredLayouts;
+
+		//
+		// Constructor
+		//
+
+		public LazyTabLayout( Panel tab, LazySection lazySection, Map<Widget, Runnable> deferredLayouts ) {
+
+			mTab = tab;
+			mLazySection = lazySection;
+			mDeferredLayouts = deferredLayouts;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void run() {
+
+			mDeferredLayouts.remove( mTab );
+			mLazySection.layout();
+		}
+	}
 }
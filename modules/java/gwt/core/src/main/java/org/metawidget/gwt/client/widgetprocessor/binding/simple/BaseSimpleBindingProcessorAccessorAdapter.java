@@ -0,0 +1,193 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.gwt.client.widgetprocessor.binding.simple;
+
+/**
+ * Convenience implementation.
+ * <p>
+ * Composes paths (eg. <code>contact.address.street</code>) at runtime from one
+ * <code>SimpleBindingProcessorAccessor</code> per class and property, as supplied by
+ * <code>getPropertyAccessor</code>. Each step of a path is resolved against the runtime class of
+ * the object it is applied to, and remembered for as long as that class does not change, so
+ * repeated calls go straight to the property. Adapters generated by
+ * <code>SimpleBindingProcessorAdapterGenerator</code> extend this class.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public abstract class BaseSimpleBindingProcessorAccessorAdapter<T>
+	implements SimpleBindingProcessorAccessorAdapter<T> {
+
+	//
+	// Public methods
+	//
+
+	public Object getProperty( T object, String... names ) {
+
+		return getAccessor( names ).getProperty( object );
+	}
+
+	public Class<?> getPropertyType( T object, String... names ) {
+
+		return getAccessor( names ).getPropertyType( object );
+	}
+
+	public void setProperty( T object, Object value, String... names ) {
+
+		getAccessor( names ).setProperty( object, value );
+	}
+
+	public void invokeAction( T object, String... names ) {
+
+		getAccessor( names ).invokeAction( object );
+	}
+
+	public SimpleBindingProcessorAccessor<T> getAccessor( String... names ) {
+
+		// Sanity check
+
+		if ( names == null || names.length == 0 ) {
+			throw new RuntimeException( "No names specified" );
+		}
+
+		return new PathAccessor( names );
+	}
+
+	//
+	// Protected methods
+	//
+
+	/**
+	 * Gets the accessor for the given property (or action) of the given object.
+	 * <p>
+	 * The returned accessor is passed the same object, and should not itself traverse any further.
+	 * Because the result is remembered against the runtime class of the object, it must depend only
+	 * on that class and the name.
+	 *
+	 * @param object
+	 *            the object to access. Never null
+	 * @return the accessor, or null if the object has no such property
+	 */
+
+	protected abstract SimpleBindingProcessorAccessor<Object> getPropertyAccessor( Object object, String name );
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Accessor for a path, composed of one property accessor per name.
+	 */
+
+	private class PathAccessor
+		implements SimpleBindingProcessorAccessor<T> {
+
+		//
+		// Private members
+		//
+
+		private final String[]									mNames;
+
+		/**
+		 * Runtime class of the object each name was last resolved against.
+		 */
+
+		private final Class<?>[]								mResolvedClasses;
+
+		private final SimpleBindingProcessorAccessor<Object>[]	mResolvedAccessors;
+
+		//
+		// Constructor
+		//
+
+		@SuppressWarnings( "unchecked" )
+		public PathAccessor( String[] names ) {
+
+			mNames = names;
+			mResolvedClasses = new Class<?>[names.length];
+			mResolvedAccessors = new SimpleBindingProcessorAccessor[names.length];
+		}
+
+		//
+		// Public methods
+		//
+
+		public Object getProperty( T object ) {
+
+			Object owner = traverse( object );
+			return resolve( owner, mNames.length - 1 ).getProperty( owner );
+		}
+
+		public Class<?> getPropertyType( T object ) {
+
+			Object owner = traverse( object );
+			return resolve( owner, mNames.length - 1 ).getPropertyType( owner );
+		}
+
+		public void setProperty( T object, Object value ) {
+
+			Object owner = traverse( object );
+			resolve( owner, mNames.length - 1 ).setProperty( owner, value );
+		}
+
+		public void invokeAction( T object ) {
+
+			Object owner = traverse( object );
+			resolve( owner, mNames.length - 1 ).invokeAction( owner );
+		}
+
+		//
+		// Private methods
+		//
+
+		/**
+		 * @return the object that owns the last name in the path
+		 */
+
+		private Object traverse( T object ) {
+
+			Object owner = object;
+
+			for ( int loop = 0, length = mNames.length - 1; loop < length; loop++ ) {
+				owner = resolve( owner, loop ).getProperty( owner );
+			}
+
+			return owner;
+		}
+
+		private SimpleBindingProcessorAccessor<Object> resolve( Object owner, int index ) {
+
+			if ( owner == null ) {
+				throw new NullPointerException( "Cannot access property '" + mNames[index] + "' of null" );
+			}
+
+			// Same class as last time?
+
+			Class<?> ownerClass = owner.getClass();
+
+			if ( ownerClass.equals( mResolvedClasses[index] ) ) {
+				return mResolvedAccessors[index];
+			}
+
+			SimpleBindingProcessorAccessor<Object> accessor = getPropertyAccessor( owner, mNames[index] );
+
+			if ( accessor == null ) {
+				throw new RuntimeException( "Unknown property '" + mNames[index] + "' of " + ownerClass.getName() );
+			}
+
+			mResolvedClasses[index] = ownerClass;
+			mResolvedAccessors[index] = accessor;
+
+			return accessor;
+		}
+	}
+}
@@ -184,13 +184,17 @@ public class SimpleBindingProcessor
 			throw new RuntimeException( "Don't know how to bind to a " + classToBindTo );
 		}
 
+		// ...resolve the path (once, so that save and rebind need not)...
+
+		SimpleBindingProcessorAccessor<Object> accessor = getAccessor( adapter, names );
+
 		// ...fetch the value...
 
-		Object value = adapter.getProperty( toInspect, names );
+		Object value = accessor.getProperty( toInspect );
 
 		// ...convert it (if necessary)...
 
-		Class<?> propertyType = adapter.getPropertyType( toInspect, names );
+		Class<?> propertyType = accessor.getPropertyType( toInspect );
 		Converter<Object> converter = getConverter( propertyType );
 
 		if ( converter != null ) {
@@ -212,7 +216,8 @@ public class SimpleBindingProcessor
 				state.bindings = new HashSet<Object[]>();
 			}
 
-			state.bindings.add( new Object[] { widget, names, converter, propertyType } );
+			state.adapter = adapter;
+			state.bindings.add( new Object[] { widget, names, converter, propertyType, accessor } );
 		} catch ( Exception e ) {
 			Window.alert( path + ": " + e.getMessage() );
 		}
@@ -247,6 +252,11 @@ public class SimpleBindingProcessor
 				throw new RuntimeException( "Don't know how to rebind to a " + classToRebind );
 			}
 
+			// (accessors were resolved against the adapter at bind time, so only use them if the
+			// rebound object shares the same adapter)
+
+			boolean useAccessors = ( adapter == state.adapter );
+
 			// ...for each bound property...
 
 			for ( Object[] binding : state.bindings ) {
@@ -257,7 +267,15 @@ public class SimpleBindingProcessor
 
 				// ...fetch the value...
 
-				Object value = adapter.getProperty( toRebind, names );
+				Object value;
+
+				if ( useAccessors ) {
+					@SuppressWarnings( "unchecked" )
+					SimpleBindingProcessorAccessor<Object> accessor = (SimpleBindingProcessorAccessor<Object>) binding[4];
+					value = accessor.getProperty( toRebind );
+				} else {
+					value = adapter.getProperty( toRebind, names );
+				}
 
 				// ...convert it (if necessary)...
 
@@ -302,6 +320,8 @@ public class SimpleBindingProcessor
 				throw new RuntimeException( "Don't know how to save to a " + classToBindTo );
 			}
 
+			boolean useAccessors = ( adapter == state.adapter );
+
 			// ...for each bound property...
 
 			for ( Object[] binding : state.bindings ) {
@@ -323,7 +343,13 @@ public class SimpleBindingProcessor
 
 				// ...and set it
 
-				adapter.setProperty( toSave, value, names );
+				if ( useAccessors ) {
+					@SuppressWarnings( "unchecked" )
+					SimpleBindingProcessorAccessor<Object> accessor = (SimpleBindingProcessorAccessor<Object>) binding[4];
+					accessor.setProperty( toSave, value );
+				} else {
+					adapter.setProperty( toSave, value, names );
+				}
 			}
 		}
 
@@ -380,6 +406,27 @@ public class SimpleBindingProcessor
 	// Private methods
 	//
 
+	/**
+	 * Gets the Accessor for the given path.
+	 * <p>
+	 * Uses the adapter's own pre-resolved accessor if it has one (such as those generated by
+	 * <code>SimpleBindingProcessorAdapterGenerator</code>), otherwise wraps the adapter.
+	 */
+
+	private SimpleBindingProcessorAccessor<Object> getAccessor( SimpleBindingProcessorAdapter<Object> adapter, String[] names ) {
+
+		if ( adapter instanceof SimpleBindingProcessorAccessorAdapter<?> ) {
+			@SuppressWarnings( "unchecked" )
+			SimpleBindingProcessorAccessor<Object> accessor = ( (SimpleBindingProcessorAccessorAdapter<Object>) adapter ).getAccessor( names );
+
+			if ( accessor != null ) {
+				return accessor;
+			}
+		}
+
+		return new AdapterAccessor( adapter, names );
+	}
+
 	/**
 	 * Gets the Converter for the given Class (if any).
 	 * <p>
@@ -429,8 +476,60 @@ public class SimpleBindingProcessor
 
 	/* package private */static class State {
 
+		/* package private */SimpleBindingProcessorAdapter<?>	adapter;
+
 		/* package private */Set<Object[]>		bindings;
 
 		/* package private */Set<GwtMetawidget>	nestedMetawidgets;
 	}
+
+	/**
+	 * Accessor for adapters that cannot pre-resolve their paths.
+	 */
+
+	private static class AdapterAccessor
+		implements SimpleBindingProcessorAccessor<Object> {
+
+		//
+		// Private members
+		//
+
+		private SimpleBindingProcessorAdapter<Object>	mAdapter;
+
+		private String[]								mNames;
+
+		//
+		// Constructor
+		//
+
+		public AdapterAccessor( SimpleBindingProcessorAdapter<Object> adapter, String[] names ) {
+
+			mAdapter = adapter;
+			mNames = names;
+		}
+
+		//
+		// Public methods
+		//
+
+		public Object getProperty( Object object ) {
+
+			return mAdapter.getProperty( object, mNames );
+		}
+
+		public Class<?> getPropertyType( Object object ) {
+
+			return mAdapter.getPropertyType( object, mNames );
+		}
+
+		public void setProperty( Object object, Object value ) {
+
+			mAdapter.setProperty( object, value, mNames );
+		}
+
+		public void invokeAction( Object object ) {
+
+			mAdapter.invokeAction( object, mNames );
+		}
+	}
 }
@@ -0,0 +1,37 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.gwt.client.widgetprocessor.binding.simple;
+
+/**
+ * Accessor for a single, pre-resolved path of a domain object.
+ * <p>
+ * Where <code>SimpleBindingProcessorAdapter</code> resolves its <code>String...</code> names on
+ * every call, a <code>SimpleBindingProcessorAccessor</code> is resolved once (at
+ * <code>processWidget</code> time) and thereafter goes straight to the property. This makes
+ * <code>SimpleBindingProcessor.save</code> and <code>rebind</code> much cheaper for large forms.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface SimpleBindingProcessorAccessor<T> {
+
+	//
+	// Methods
+	//
+
+	Object getProperty( T object );
+
+	Class<?> getPropertyType( T object );
+
+	void setProperty( T object, Object value );
+
+	void invokeAction( T object );
+}
@@ -0,0 +1,38 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.gwt.client.widgetprocessor.binding.simple;
+
+/**
+ * <code>SimpleBindingProcessorAdapter</code> that can also pre-resolve its paths into
+ * <code>SimpleBindingProcessorAccessor</code>s.
+ * <p>
+ * Adapters generated by <code>SimpleBindingProcessorAdapterGenerator</code> implement this
+ * interface. Hand-written adapters need not: <code>SimpleBindingProcessor</code> will fall back
+ * to calling the <code>String...</code> methods of <code>SimpleBindingProcessorAdapter</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface SimpleBindingProcessorAccessorAdapter<T>
+	extends SimpleBindingProcessorAdapter<T> {
+
+	//
+	// Methods
+	//
+
+	/**
+	 * Gets the accessor for the given path.
+	 *
+	 * @return the accessor, or null if the path is not known to this adapter
+	 */
+
+	SimpleBindingProcessorAccessor<T> getAccessor( String... names );
+}
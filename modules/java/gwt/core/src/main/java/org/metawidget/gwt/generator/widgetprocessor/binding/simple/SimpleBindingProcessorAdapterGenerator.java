@@ -12,9 +12,15 @@
 package org.metawidget.gwt.generator.widgetprocessor.binding.simple;
 
 import java.io.PrintWriter;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import org.metawidget.gwt.client.widgetprocessor.binding.simple.SimpleBindingProcessorAdapter;
+import org.metawidget.gwt.client.widgetprocessor.binding.simple.BaseSimpleBindingProcessorAccessorAdapter;
+import org.metawidget.gwt.client.widgetprocessor.binding.simple.SimpleBindingProcessorAccessor;
 import org.metawidget.util.ClassUtils;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.simple.StringUtils;
 
 import com.google.gwt.core.ext.Generator;
@@ -25,7 +31,6 @@ import com.google.gwt.core.ext.typeinfo.JMethod;
 import com.google.gwt.core.ext.typeinfo.JPrimitiveType;
 import com.google.gwt.core.ext.typeinfo.JType;
 import com.google.gwt.core.ext.typeinfo.NotFoundException;
-import com.google.gwt.core.ext.typeinfo.TypeOracle;
 import com.google.gwt.user.rebind.ClassSourceFileComposerFactory;
 import com.google.gwt.user.rebind.SourceWriter;
 
@@ -52,13 +57,16 @@ import com.google.gwt.user.rebind.SourceWriter;
  * metawidget.addWidgetProcessor(new SimpleBindingProcessor(config));
  * </code>
  * <p>
- * This generator <em>statically</em> generates code for all levels of all possible properties (eg.
- * <code>contact.address.street</code>), including subtypes of properties. Because this could
- * quickly become very large, we impose the following restriction:
+ * This generator <em>statically</em> generates one <code>SimpleBindingProcessorAccessor</code> for
+ * every property (and action) of every reachable type, including subtypes of properties. The
+ * generated class extends <code>BaseSimpleBindingProcessorAccessorAdapter</code>, which composes
+ * these at runtime into all levels of possible paths (eg. <code>contact.address.street</code>).
+ * Generated code therefore grows with the number of types and properties, not with the number of
+ * paths, and cyclic references are generated only once. We still impose the following
+ * restriction:
  * <ul>
  * <li>only public getters/setters are recognised (not public member fields)</li>
- * <li>only properties whose return type is in the same package, or a subpackage, of the parent type
- * are traversed into</li>
+ * <li>only types in the same package, or a subpackage, of the parent type are reachable</li>
  * </ul>
  * Clients needing to avoid such restrictions must write their own class that implements
  * <code>SimpleBindingProcessorAdapter</code> or, more drastically, their own binding implementation
@@ -75,37 +83,18 @@ public class SimpleBindingProcessorAdapterGenerator
 	//
 
 	/**
-	 * Prefix to use for all variable names.
-	 * <p>
-	 * We prefix variable names (eg. 'theContact') rather than lowercasing them (eg. 'contact') to
-	 * avoid keyword clashes (eg. 'class')
+	 * Prefix to use for the generated map of accessors of each type.
 	 */
 
-	private static final String	VARIABLE_NAME_PREFIX	= "the";
-
-	private static final int	WRITE_GETTER			= 0;
-
-	private static final int	WRITE_TYPE_GETTER		= 1;
-
-	private static final int	WRITE_SETTER			= 2;
-
-	private static final int	WRITE_ACTION			= 3;
+	private static final String	ACCESSORS_PREFIX	= "ACCESSORS_";
 
 	/**
-	 * Maximum depth of recursion to avoid infinite recursion.
-	 * <p>
-	 * It is not possible to detect infinite recursion (caused by cyclic references) in advance
-	 * because SimpleBindingProcessorAdapterGenerator operates at compile-time, where the values of
-	 * objects are not known.
+	 * Index into the array of methods collected for each property name.
 	 */
 
-	private static final int	MAXIMUM_DEPTH			= 10;
-
-	//
-	// Private members
-	//
+	private static final int	GETTER				= 0;
 
-	private TypeOracle			mTypeOracle;
+	private static final int	ACTION				= 1;
 
 	//
 	// Public methods
@@ -116,11 +105,10 @@ public class SimpleBindingProcessorAdapterGenerator
 
 		// Lookup the type
 
-		mTypeOracle = context.getTypeOracle();
 		JClassType classType;
 
 		try {
-			classType = mTypeOracle.getType( typeName );
+			classType = context.getTypeOracle().getType( typeName );
 		} catch ( NotFoundException e ) {
 			throw new RuntimeException( e );
 		}
@@ -141,112 +129,193 @@ public class SimpleBindingProcessorAdapterGenerator
 		// Start the BindingAdapter subclass
 
 		ClassSourceFileComposerFactory composer = new ClassSourceFileComposerFactory( packageName, bindingClassName );
-		composer.addImplementedInterface( SimpleBindingProcessorAdapter.class.getName() + "<" + classType.getQualifiedSourceName() + ">" );
+		composer.setSuperclass( BaseSimpleBindingProcessorAccessorAdapter.class.getName() + "<" + classType.getQualifiedSourceName() + ">" );
 		SourceWriter sourceWriter = composer.createSourceWriter( context, printWriter );
 
 		if ( sourceWriter != null ) {
-			String variableName = VARIABLE_NAME_PREFIX + sourceClassName;
-			sourceWriter.println();
-			sourceWriter.println( "// Public methods" );
+			writeAdapter( sourceWriter, classType );
 
-			// getProperty method
+			// End the BindingAdapter subclass
 
-			sourceWriter.println();
-			sourceWriter.println( "public Object getProperty( " + classType.getQualifiedSourceName() + " " + variableName + ", String... names ) {" );
-			sourceWriter.indent();
-			writeMethod( sourceWriter, classType, variableName, WRITE_GETTER );
-			sourceWriter.outdent();
-			sourceWriter.println( "}" );
+			sourceWriter.commit( logger );
+		}
 
-			// getPropertyType method
+		return qualifiedBindingClassName;
+	}
 
-			sourceWriter.println();
-			sourceWriter.println( "public Class<?> getPropertyType( " + classType.getQualifiedSourceName() + " " + variableName + ", String... names ) {" );
-			sourceWriter.indent();
-			writeMethod( sourceWriter, classType, variableName, WRITE_TYPE_GETTER );
-			sourceWriter.outdent();
-			sourceWriter.println( "}" );
+	//
+	// Package private methods
+	//
 
-			// setProperty method
+	/**
+	 * Writes the body of the adapter for the given type.
+	 */
+
+	/* package private */void writeAdapter( SourceWriter sourceWriter, JClassType classType ) {
+
+		String accessorType = SimpleBindingProcessorAccessor.class.getName() + "<Object>";
+		List<JClassType> types = getReachableTypes( classType );
+		List<Map<String, JMethod[]>> typesProperties = CollectionUtils.newArrayList();
+
+		for ( JClassType type : types ) {
+			typesProperties.add( getProperties( type ) );
+		}
+
+		// One map of accessors per type...
+
+		sourceWriter.println();
+		sourceWriter.println( "// Private statics" );
+		sourceWriter.println();
+
+		for ( int loop = 0, length = types.size(); loop < length; loop++ ) {
+			if ( typesProperties.get( loop ).isEmpty() ) {
+				continue;
+			}
+
+			sourceWriter.println( "private static final java.util.Map<String, " + accessorType + "> " + ACCESSORS_PREFIX + loop + " = new java.util.HashMap<String, " + accessorType + ">();" );
+		}
+
+		// ...holding one accessor per property
+
+		sourceWriter.println();
+		sourceWriter.println( "static {" );
+		sourceWriter.indent();
+
+		for ( int loop = 0, length = types.size(); loop < length; loop++ ) {
+			Map<String, JMethod[]> properties = typesProperties.get( loop );
+
+			if ( properties.isEmpty() ) {
+				continue;
+			}
+
+			JClassType type = types.get( loop );
 
 			sourceWriter.println();
-			sourceWriter.println( "public void setProperty( " + classType.getQualifiedSourceName() + " " + variableName + ", Object value, String... names ) {" );
-			sourceWriter.indent();
-			writeMethod( sourceWriter, classType, variableName, WRITE_SETTER );
-			sourceWriter.outdent();
-			sourceWriter.println( "}" );
+			sourceWriter.println( "// " + type.getQualifiedSourceName() + " properties" );
+
+			for ( Map.Entry<String, JMethod[]> entry : properties.entrySet() ) {
+				writeAccessor( sourceWriter, type, ACCESSORS_PREFIX + loop, accessorType, entry.getKey(), entry.getValue() );
+			}
+		}
+
+		sourceWriter.outdent();
+		sourceWriter.println( "}" );
 
-			// invokeAction method
+		// getPropertyAccessor method (most specific types first)
+
+		sourceWriter.println();
+		sourceWriter.println( "// Protected methods" );
+		sourceWriter.println();
+		sourceWriter.println( "protected " + accessorType + " getPropertyAccessor( Object object, String name ) {" );
+		sourceWriter.indent();
+		sourceWriter.println();
+		sourceWriter.println( accessorType + " accessor;" );
+
+		for ( int loop = 0, length = types.size(); loop < length; loop++ ) {
+			if ( typesProperties.get( loop ).isEmpty() ) {
+				continue;
+			}
 
 			sourceWriter.println();
-			sourceWriter.println( "public void invokeAction( " + classType.getQualifiedSourceName() + " " + variableName + ", String... names ) {" );
+			sourceWriter.println( "if ( object instanceof " + types.get( loop ).getQualifiedSourceName() + " ) {" );
 			sourceWriter.indent();
-			writeMethod( sourceWriter, classType, variableName, WRITE_ACTION );
+			sourceWriter.println( "accessor = " + ACCESSORS_PREFIX + loop + ".get( name );" );
+			sourceWriter.println( "if ( accessor != null ) return accessor;" );
 			sourceWriter.outdent();
 			sourceWriter.println( "}" );
-
-			// End the BindingAdapter subclass
-
-			sourceWriter.commit( logger );
 		}
 
-		return qualifiedBindingClassName;
+		sourceWriter.println();
+		sourceWriter.println( "return null;" );
+		sourceWriter.outdent();
+		sourceWriter.println( "}" );
 	}
 
 	//
 	// Private methods
 	//
 
-	private void writeMethod( SourceWriter sourceWriter, JClassType classType, String variableName, int writeType ) {
+	/**
+	 * Gets the given type, and every type reachable from it, each only once.
+	 * <p>
+	 * Reachable types are the subtypes and superclasses of a type, and the return types of its
+	 * properties that are in the same package (or a subpackage) as it.
+	 *
+	 * @return the types, ordered such that subtypes always come before their supertypes
+	 */
 
-		// Sanity check
+	private List<JClassType> getReachableTypes( JClassType classType ) {
 
-		sourceWriter.println();
-		sourceWriter.println( "// Sanity check" );
-		sourceWriter.println();
-		sourceWriter.println( "if ( names == null || names.length == 0 ) throw new RuntimeException( \"No names specified\" );" );
+		List<JClassType> types = CollectionUtils.newArrayList();
+		Set<JClassType> visited = CollectionUtils.newHashSet();
+		LinkedList<JClassType> toVisit = new LinkedList<JClassType>();
+		toVisit.add( classType );
 
-		writeSubtypes( sourceWriter, classType, variableName, 0, writeType, 0 );
-	}
+		while ( !toVisit.isEmpty() ) {
+			JClassType parentType = toVisit.removeFirst();
 
-	private void writeSubtypes( SourceWriter sourceWriter, JClassType classType, String variableName, int nameIndex, int writeType, int depth ) {
+			// For the type, each subclass and every superclass...
 
-		// Avoid going too deep
+			List<JClassType> relatedTypes = CollectionUtils.newArrayList( parentType.getSubtypes() );
+			JClassType typeTraversal = parentType;
 
-		if ( depth > MAXIMUM_DEPTH ) {
-			return;
-		}
+			while ( typeTraversal != null ) {
+				relatedTypes.add( typeTraversal );
+				typeTraversal = typeTraversal.getSuperclass();
+			}
+
+			for ( JClassType relatedType : relatedTypes ) {
+				if ( !visited.add( relatedType ) ) {
+					continue;
+				}
 
-		// For each subclass...
+				addType( types, relatedType );
 
-		for ( JClassType subtype : classType.getSubtypes() ) {
-			// ...write its subclass-level properties...
+				// ...visit the return types of its properties (if within our own package)
 
-			writeProperties( sourceWriter, subtype, variableName, nameIndex, true, classType, writeType, depth );
+				for ( JMethod[] methods : getProperties( relatedType ).values() ) {
+					if ( methods[GETTER] == null ) {
+						continue;
+					}
+
+					JClassType nestedClassType = methods[GETTER].getReturnType().isClass();
+
+					if ( nestedClassType != null && nestedClassType.getPackage().getName().startsWith( parentType.getPackage().getName() ) ) {
+						toVisit.add( nestedClassType );
+					}
+				}
+			}
 		}
 
-		// ...and for the base class write every superclass
+		return types;
+	}
 
-		JClassType typeTraversal = classType;
+	/**
+	 * Adds the given type before the first of its supertypes (if any).
+	 */
 
-		while ( typeTraversal != null ) {
-			writeProperties( sourceWriter, typeTraversal, variableName, nameIndex, false, classType, writeType, depth );
+	private void addType( List<JClassType> types, JClassType type ) {
 
-			typeTraversal = typeTraversal.getSuperclass();
+		for ( int loop = 0, length = types.size(); loop < length; loop++ ) {
+			if ( type.isAssignableTo( types.get( loop ) ) ) {
+				types.add( loop, type );
+				return;
+			}
 		}
 
-		// ...or error for an unknown property
-
-		sourceWriter.println();
-		sourceWriter.println( "// Unknown" );
-		sourceWriter.println();
-		sourceWriter.println( "throw new RuntimeException( \"Unknown property '\" + names[" + nameIndex + "] + \"' of " + classType.getParameterizedQualifiedSourceName() + "\" );" );
+		types.add( type );
 	}
 
-	private void writeProperties( SourceWriter sourceWriter, JClassType classType, String variableName, int nameIndex, boolean writeInstanceOf, JClassType parentType, int writeType, int depth ) {
+	/**
+	 * Gets the properties and actions declared by the given type.
+	 *
+	 * @return map of (decapitalized) names to an array of the getter and the action method for that
+	 *         name (either of which may be null)
+	 */
 
-		String currentVariableName = variableName;
-		boolean writtenAProperty = false;
+	private Map<String, JMethod[]> getProperties( JClassType classType ) {
+
+		Map<String, JMethod[]> properties = CollectionUtils.newLinkedHashMap();
 
 		for ( JMethod method : classType.getMethods() ) {
 			// ...if the method is public...
@@ -255,193 +324,168 @@ public class SimpleBindingProcessorAdapterGenerator
 				continue;
 			}
 
-			String methodName = method.getName();
-			JType returnType = method.getReturnType();
-
 			// ...and follows the action convention...
 
-			if ( JPrimitiveType.VOID.equals( returnType ) ) {
-				if ( writeType == WRITE_ACTION ) {
-					if ( method.getParameters().length == 0 ) {
-						sourceWriter.println( "if ( \"" + methodName + "\".equals( names[" + nameIndex + "] )) { " + currentVariableName + StringUtils.SEPARATOR_DOT_CHAR + methodName + "(); return; }" );
-					}
+			String name;
+			int index;
+
+			if ( JPrimitiveType.VOID.equals( method.getReturnType() ) ) {
+				if ( method.getParameters().length != 0 ) {
+					continue;
 				}
 
-				continue;
+				name = method.getName();
+				index = ACTION;
 			}
 
-			// ...or follows the JavaBean convention...
+			// ...or follows the JavaBean convention
+
+			else {
+				String propertyName = getPropertyName( method );
 
-			String propertyName;
+				if ( propertyName == null ) {
+					continue;
+				}
 
-			if ( methodName.startsWith( ClassUtils.JAVABEAN_GET_PREFIX ) ) {
-				propertyName = methodName.substring( ClassUtils.JAVABEAN_GET_PREFIX.length() );
-			} else if ( methodName.startsWith( ClassUtils.JAVABEAN_IS_PREFIX ) && "boolean".equals( method.getReturnType().getQualifiedSourceName() )) {
+				name = StringUtils.decapitalize( propertyName );
+				index = GETTER;
+			}
 
-				// As per section 8.3.2 (Boolean properties) of The JavaBeans API specification, 'is'
-				// only applies to boolean (little 'b')
+			JMethod[] methods = properties.get( name );
 
-				propertyName = methodName.substring( ClassUtils.JAVABEAN_IS_PREFIX.length() );
-			} else {
-				continue;
+			if ( methods == null ) {
+				methods = new JMethod[2];
+				properties.put( name, methods );
 			}
 
-			String decapitalizedPropertyName = StringUtils.decapitalize( propertyName );
+			methods[index] = method;
+		}
 
-			// Open the block
+		return properties;
+	}
 
-			if ( !writtenAProperty ) {
-				sourceWriter.println();
-				sourceWriter.println( "// " + classType.getSimpleSourceName() + " properties" );
-				sourceWriter.println();
+	/**
+	 * Writes a <code>SimpleBindingProcessorAccessor</code> for a single property (or action) of a
+	 * single type. The accessor does not traverse any further.
+	 */
 
-				if ( writeInstanceOf ) {
-					sourceWriter.println( "if ( " + currentVariableName + " instanceof " + classType.getName() + " ) {" );
-					sourceWriter.indent();
-					String superclassVariableName = currentVariableName;
-					currentVariableName = VARIABLE_NAME_PREFIX + classType.getSimpleSourceName();
-					sourceWriter.println( classType.getParameterizedQualifiedSourceName() + " " + currentVariableName + " = (" + classType.getParameterizedQualifiedSourceName() + ") " + superclassVariableName + ";" );
-				}
+	private void writeAccessor( SourceWriter sourceWriter, JClassType classType, String accessorsName, String accessorType, String name, JMethod[] methods ) {
 
-				writtenAProperty = true;
-			}
+		String castVariableName = "( (" + classType.getQualifiedSourceName() + ") object )";
+		JMethod getter = methods[GETTER];
+		JMethod action = methods[ACTION];
 
-			// ...call our adaptee...
+		sourceWriter.println();
+		sourceWriter.println( accessorsName + ".put( \"" + name + "\", new " + accessorType + "() {" );
+		sourceWriter.indent();
 
-			sourceWriter.println( "if ( \"" + decapitalizedPropertyName + "\".equals( names[" + nameIndex + "] )) {" );
-			sourceWriter.indent();
+		// getProperty method
 
-			int nextNameIndex = nameIndex + 1;
+		sourceWriter.println();
+		sourceWriter.println( "public Object getProperty( Object object ) {" );
+		sourceWriter.indent();
 
-			// ...recursively if the return type is within our own package...
+		if ( getter == null ) {
+			sourceWriter.println( "throw new RuntimeException( \"Unknown property '" + name + "' of " + classType.getParameterizedQualifiedSourceName() + "\" );" );
+		} else {
+			sourceWriter.println( "return " + castVariableName + StringUtils.SEPARATOR_DOT_CHAR + getter.getName() + "();" );
+		}
 
-			JClassType nestedClassType = returnType.isClass();
+		sourceWriter.outdent();
+		sourceWriter.println( "}" );
 
-			if ( nestedClassType != null && nestedClassType.getPackage().getName().startsWith( parentType.getPackage().getName() ) ) {
-				String nestedVariableName = VARIABLE_NAME_PREFIX + propertyName;
+		// getPropertyType method
 
-				if ( depth > 0 ) {
-					nestedVariableName += ( depth + 1 );
-				}
+		sourceWriter.println();
+		sourceWriter.println( "public Class<?> getPropertyType( Object object ) {" );
+		sourceWriter.indent();
 
-				sourceWriter.println( nestedClassType.getParameterizedQualifiedSourceName() + " " + nestedVariableName + " = " + currentVariableName + StringUtils.SEPARATOR_DOT_CHAR + methodName + "();" );
-
-				switch ( writeType ) {
-					case WRITE_GETTER:
-						sourceWriter.println( "if ( names.length == " + nextNameIndex + " ) return " + nestedVariableName + ";" );
-						break;
-
-					case WRITE_TYPE_GETTER:
-						sourceWriter.println( "if ( names.length == " + nextNameIndex + " ) return " + getWrapperType( returnType ).getQualifiedSourceName() + ".class;" );
-						break;
-
-					case WRITE_SETTER:
-						try {
-							String setterMethodName = "set" + propertyName;
-							classType.getMethod( setterMethodName, new JType[] { returnType } );
-							sourceWriter.println( "if ( names.length == " + nextNameIndex + " ) { " + currentVariableName + StringUtils.SEPARATOR_DOT_CHAR + setterMethodName + "( (" + getWrapperType( returnType ).getParameterizedQualifiedSourceName() + ") value ); return; }" );
-						} catch ( NotFoundException e ) {
-							sourceWriter.println( "if ( names.length == " + nextNameIndex + " ) throw new RuntimeException( \"No setter for name '" + decapitalizedPropertyName + "'\" );" );
-						}
-						break;
-						
-					case WRITE_ACTION:
-						break;
-						
-					default:
-						throw new UnsupportedOperationException( String.valueOf( writeType ));
-				}
+		if ( getter == null ) {
+			sourceWriter.println( "throw new RuntimeException( \"Unknown property '" + name + "' of " + classType.getParameterizedQualifiedSourceName() + "\" );" );
+		} else {
+			sourceWriter.println( "return " + getWrapperTypeName( getter.getReturnType(), false ) + ".class;" );
+		}
 
-				writeSubtypes( sourceWriter, nestedClassType, nestedVariableName, nextNameIndex, writeType, depth + 1 );
-				sourceWriter.outdent();
-				sourceWriter.println( "}" );
-				continue;
-			}
+		sourceWriter.outdent();
+		sourceWriter.println( "}" );
 
-			// ...or non-recursively for other types (eg. boolean, Date, Class)
+		// setProperty method
 
-			sourceWriter.println( "if ( names.length > " + nextNameIndex + " ) throw new RuntimeException( \"Cannot traverse into property '" + decapitalizedPropertyName + ".\" + names[" + nextNameIndex + "] + \"'\" );" );
+		sourceWriter.println();
+		sourceWriter.println( "public void setProperty( Object object, Object value ) {" );
+		sourceWriter.indent();
+
+		if ( getter == null ) {
+			sourceWriter.println( "throw new RuntimeException( \"Unknown property '" + name + "' of " + classType.getParameterizedQualifiedSourceName() + "\" );" );
+		} else {
+			JType returnType = getter.getReturnType();
+
+			try {
+				String setterMethodName = "set" + getPropertyName( getter );
+				classType.getMethod( setterMethodName, new JType[] { returnType } );
+				sourceWriter.println( castVariableName + StringUtils.SEPARATOR_DOT_CHAR + setterMethodName + "( (" + getWrapperTypeName( returnType, true ) + ") value );" );
+			} catch ( NotFoundException e ) {
+				sourceWriter.println( "throw new RuntimeException( \"No setter for property '" + name + "'\" );" );
+			}
+		}
 
-			switch ( writeType ) {
-				case WRITE_GETTER:
-					sourceWriter.println( "return " + currentVariableName + StringUtils.SEPARATOR_DOT_CHAR + methodName + "();" );
-					break;
+		sourceWriter.outdent();
+		sourceWriter.println( "}" );
 
-				case WRITE_TYPE_GETTER:
-					sourceWriter.println( "return " + getWrapperType( returnType ).getQualifiedSourceName() + ".class;" );
-					break;
+		// invokeAction method
 
-				case WRITE_SETTER:
-					try {
-						String setterMethodName = "set" + propertyName;
-						classType.getMethod( setterMethodName, new JType[] { returnType } );
-						sourceWriter.println( currentVariableName + StringUtils.SEPARATOR_DOT_CHAR + setterMethodName + "( (" + getWrapperType( returnType ).getParameterizedQualifiedSourceName() + ") value );" );
-						sourceWriter.println( "return;" );
-					} catch ( NotFoundException e ) {
-						sourceWriter.println( "throw new RuntimeException( \"No setter for property '" + decapitalizedPropertyName + "'\" );" );
-					}
-					break;
-
-				case WRITE_ACTION:
-					sourceWriter.println( "if ( names.length == " + nextNameIndex + " ) throw new RuntimeException( \"Cannot execute '" + decapitalizedPropertyName + "' - is a property, not an action\" );" );
-					break;
-					
-				default:
-					throw new UnsupportedOperationException( String.valueOf( writeType ));
-			}
+		sourceWriter.println();
+		sourceWriter.println( "public void invokeAction( Object object ) {" );
+		sourceWriter.indent();
 
-			sourceWriter.outdent();
-			sourceWriter.println( "}" );
+		if ( action == null ) {
+			sourceWriter.println( "throw new RuntimeException( \"Cannot execute '" + name + "' - is a property, not an action\" );" );
+		} else {
+			sourceWriter.println( castVariableName + StringUtils.SEPARATOR_DOT_CHAR + action.getName() + "();" );
 		}
 
-		// Close the block
+		sourceWriter.outdent();
+		sourceWriter.println( "}" );
 
-		if ( writtenAProperty && writeInstanceOf ) {
-			sourceWriter.outdent();
-			sourceWriter.println( "}" );
-		}
+		sourceWriter.outdent();
+		sourceWriter.println( "} );" );
 	}
 
-	private JType getWrapperType( JType classType ) {
+	/**
+	 * @return the (capitalized) JavaBean property name of the given method, or null if the method
+	 *         is not a JavaBean-convention getter
+	 */
 
-		JPrimitiveType primitiveType = classType.isPrimitive();
+	private String getPropertyName( JMethod method ) {
 
-		if ( primitiveType == null ) {
-			return classType;
-		}
+		String methodName = method.getName();
 
-		if ( primitiveType.equals( JPrimitiveType.BOOLEAN ) ) {
-			return mTypeOracle.findType( Boolean.class.getName() );
+		if ( methodName.startsWith( ClassUtils.JAVABEAN_GET_PREFIX ) ) {
+			return methodName.substring( ClassUtils.JAVABEAN_GET_PREFIX.length() );
 		}
 
-		if ( primitiveType.equals( JPrimitiveType.BYTE ) ) {
-			return mTypeOracle.findType( Byte.class.getName() );
-		}
+		// As per section 8.3.2 (Boolean properties) of The JavaBeans API specification, 'is'
+		// only applies to boolean (little 'b')
 
-		if ( primitiveType.equals( JPrimitiveType.CHAR ) ) {
-			return mTypeOracle.findType( Character.class.getName() );
+		if ( methodName.startsWith( ClassUtils.JAVABEAN_IS_PREFIX ) && "boolean".equals( method.getReturnType().getQualifiedSourceName() ) ) {
+			return methodName.substring( ClassUtils.JAVABEAN_IS_PREFIX.length() );
 		}
 
-		if ( primitiveType.equals( JPrimitiveType.DOUBLE ) ) {
-			return mTypeOracle.findType( Double.class.getName() );
-		}
+		return null;
+	}
 
-		if ( primitiveType.equals( JPrimitiveType.FLOAT ) ) {
-			return mTypeOracle.findType( Float.class.getName() );
-		}
+	private String getWrapperTypeName( JType type, boolean parameterized ) {
 
-		if ( primitiveType.equals( JPrimitiveType.INT ) ) {
-			return mTypeOracle.findType( Integer.class.getName() );
-		}
+		JPrimitiveType primitiveType = type.isPrimitive();
 
-		if ( primitiveType.equals( JPrimitiveType.LONG ) ) {
-			return mTypeOracle.findType( Long.class.getName() );
+		if ( primitiveType != null ) {
+			return primitiveType.getQualifiedBoxedSourceName();
 		}
 
-		if ( primitiveType.equals( JPrimitiveType.SHORT ) ) {
-			return mTypeOracle.findType( Short.class.getName() );
+		if ( parameterized ) {
+			return type.getParameterizedQualifiedSourceName();
 		}
 
-		throw new RuntimeException( "No wrapper for " + primitiveType );
+		return type.getQualifiedSourceName();
 	}
 }
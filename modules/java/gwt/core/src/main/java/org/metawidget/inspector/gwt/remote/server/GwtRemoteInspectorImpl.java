@@ -13,6 +13,8 @@ package org.metawidget.inspector.gwt.remote.server;
 
 import java.io.Serializable;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -22,8 +24,10 @@ import org.metawidget.config.impl.ServletResourceResolver;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.inspector.gwt.remote.iface.GwtRemoteInspector;
 import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.pipeline.w3c.CompiledPipeline;
 import org.metawidget.pipeline.w3c.W3CPipeline;
 import org.metawidget.util.ClassUtils;
+import org.metawidget.util.XmlUtils;
 
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 
@@ -51,7 +55,20 @@ public class GwtRemoteInspectorImpl
 	// Private members
 	//
 
-	private transient GwtRemoteInspectorImplPipeline	mPipeline;
+	private transient GwtRemoteInspectorImplPipeline								mPipeline;
+
+	/**
+	 * Guards reconfiguring and compiling <code>mPipeline</code>.
+	 */
+
+	private final Lock																mPipelineLock	= new ReentrantLock();
+
+	/**
+	 * Thread-safe snapshot of <code>mPipeline</code>, shared by all requests. Reset whenever
+	 * <code>mPipeline</code> is reconfigured.
+	 */
+
+	private transient volatile CompiledPipeline<Object, Object, GwtRemoteInspectorImpl>	mCompiledPipeline;
 
 	//
 	// Constructor
@@ -72,14 +89,25 @@ public class GwtRemoteInspectorImpl
 
 		super.init( servletConfig );
 
-		mPipeline.setConfigReader( new BaseConfigReader( new ServletResourceResolver( getServletContext() ) ));
+		// Reconfigure and reset under the same lock that getCompiledPipeline compiles under, so that
+		// a CompiledPipeline of a half-configured pipeline can never be published
 
-		// Locate metawidget.xml (if one specified)
+		mPipelineLock.lock();
 
-		String config = getConfigInitParameter();
+		try {
+			mPipeline.setConfigReader( new BaseConfigReader( new ServletResourceResolver( getServletContext() ) ));
 
-		if ( config != null ) {
-			mPipeline.setConfig( config );
+			// Locate metawidget.xml (if one specified)
+
+			String config = getConfigInitParameter();
+
+			if ( config != null ) {
+				mPipeline.setConfig( config );
+			}
+
+			mCompiledPipeline = null;
+		} finally {
+			mPipelineLock.unlock();
 		}
 	}
 
@@ -94,17 +122,31 @@ public class GwtRemoteInspectorImpl
 
 	public String inspect( Serializable toInspect, String type, String[] names ) {
 
-		return mPipeline.inspect( toInspect, type, names );
+		return XmlUtils.nodeToString( getCompiledPipeline().inspectAsDom( this, toInspect, type, names ), false );
 	}
 
 	public void setInspector( Inspector inspector ) {
 
-		mPipeline.setInspector( inspector );
+		mPipelineLock.lock();
+
+		try {
+			mPipeline.setInspector( inspector );
+			mCompiledPipeline = null;
+		} finally {
+			mPipelineLock.unlock();
+		}
 	}
 
 	public void setInspectionResultProcessors( InspectionResultProcessor<GwtRemoteInspectorImpl>... inspectionResultProcessors ) {
 
-		mPipeline.setInspectionResultProcessors( inspectionResultProcessors );
+		mPipelineLock.lock();
+
+		try {
+			mPipeline.setInspectionResultProcessors( inspectionResultProcessors );
+			mCompiledPipeline = null;
+		} finally {
+			mPipelineLock.unlock();
+		}
 	}
 
 	//
@@ -132,6 +174,37 @@ public class GwtRemoteInspectorImpl
 		return getServletConfig().getInitParameter( "config" );
 	}
 
+	//
+	// Private methods
+	//
+
+	/**
+	 * Compiles the pipeline on first use. Thereafter concurrent requests share the
+	 * <code>CompiledPipeline</code> without locking.
+	 */
+
+	private CompiledPipeline<Object, Object, GwtRemoteInspectorImpl> getCompiledPipeline() {
+
+		CompiledPipeline<Object, Object, GwtRemoteInspectorImpl> compiledPipeline = mCompiledPipeline;
+
+		if ( compiledPipeline == null ) {
+			mPipelineLock.lock();
+
+			try {
+				compiledPipeline = mCompiledPipeline;
+
+				if ( compiledPipeline == null ) {
+					compiledPipeline = mPipeline.compile();
+					mCompiledPipeline = compiledPipeline;
+				}
+			} finally {
+				mPipelineLock.unlock();
+			}
+		}
+
+		return compiledPipeline;
+	}
+
 	//
 	// Inner class
 	//
@@ -0,0 +1,241 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.gwt.client.widgetprocessor.binding.simple;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.metawidget.util.CollectionUtils;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class BaseSimpleBindingProcessorAccessorAdapterTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testComposedPaths() {
+
+		ContactAdapter adapter = new ContactAdapter();
+		Contact contact = new Contact();
+		contact.address = new Address();
+		contact.address.contact = new Contact();
+		contact.address.contact.name = "Nested";
+
+		// Cyclic paths compose from the same two accessors
+
+		SimpleBindingProcessorAccessor<Contact> accessor = adapter.getAccessor( "address", "contact", "name" );
+		assertEquals( "Nested", accessor.getProperty( contact ) );
+		assertEquals( String.class, accessor.getPropertyType( contact ) );
+		accessor.setProperty( contact, "Changed" );
+		assertEquals( "Changed", contact.address.contact.name );
+
+		assertEquals( "Changed", adapter.getProperty( contact, "address", "contact", "name" ) );
+		adapter.setProperty( contact, "Top", "name" );
+		assertEquals( "Top", contact.name );
+
+		adapter.invokeAction( contact, "address", "contact", "save" );
+		assertTrue( contact.address.contact.saved );
+		assertFalse( contact.saved );
+	}
+
+	public void testResolvesOncePerClass() {
+
+		ContactAdapter adapter = new ContactAdapter();
+		Contact contact = new Contact();
+		contact.name = "Foo";
+
+		SimpleBindingProcessorAccessor<Contact> accessor = adapter.getAccessor( "name" );
+		assertEquals( "Foo", accessor.getProperty( contact ) );
+		assertEquals( "Foo", accessor.getProperty( contact ) );
+		assertEquals( 1, adapter.resolved.size() );
+
+		// Resolves again if the class changes
+
+		PersonalContact personalContact = new PersonalContact();
+		personalContact.name = "Bar";
+		assertEquals( "Bar", accessor.getProperty( personalContact ) );
+		assertEquals( 2, adapter.resolved.size() );
+	}
+
+	public void testErrors() {
+
+		ContactAdapter adapter = new ContactAdapter();
+		Contact contact = new Contact();
+
+		try {
+			adapter.getAccessor();
+			fail();
+		} catch ( RuntimeException e ) {
+			assertEquals( "No names specified", e.getMessage() );
+		}
+
+		try {
+			adapter.getProperty( contact, "foo" );
+			fail();
+		} catch ( RuntimeException e ) {
+			assertEquals( "Unknown property 'foo' of " + Contact.class.getName(), e.getMessage() );
+		}
+
+		try {
+			adapter.getProperty( contact, "address", "contact" );
+			fail();
+		} catch ( NullPointerException e ) {
+			assertEquals( "Cannot access property 'contact' of null", e.getMessage() );
+		}
+
+		contact.name = "Foo";
+
+		try {
+			adapter.getProperty( contact, "name", "length" );
+			fail();
+		} catch ( RuntimeException e ) {
+			assertEquals( "Unknown property 'length' of java.lang.String", e.getMessage() );
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	/* package private */static class Contact {
+
+		public String	name;
+
+		public Address	address;
+
+		public boolean	saved;
+	}
+
+	/* package private */static class PersonalContact
+		extends Contact {
+
+		// Just a subclass
+	}
+
+	/* package private */static class Address {
+
+		public Contact	contact;
+	}
+
+	/**
+	 * Hand-written equivalent of what <code>SimpleBindingProcessorAdapterGenerator</code>
+	 * generates, recording each resolution.
+	 */
+
+	/* package private */static class ContactAdapter
+		extends BaseSimpleBindingProcessorAccessorAdapter<Contact> {
+
+		//
+		// Public members
+		//
+
+		public List<String>	resolved	= CollectionUtils.newArrayList();
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected SimpleBindingProcessorAccessor<Object> getPropertyAccessor( Object object, String name ) {
+
+			resolved.add( name );
+
+			if ( object instanceof Contact ) {
+				if ( "name".equals( name ) ) {
+					return new TestAccessor() {
+
+						@Override
+						public Object getProperty( Object contact ) {
+
+							return ( (Contact) contact ).name;
+						}
+
+						@Override
+						public void setProperty( Object contact, Object value ) {
+
+							( (Contact) contact ).name = (String) value;
+						}
+					};
+				}
+
+				if ( "address".equals( name ) ) {
+					return new TestAccessor() {
+
+						@Override
+						public Object getProperty( Object contact ) {
+
+							return ( (Contact) contact ).address;
+						}
+					};
+				}
+
+				if ( "save".equals( name ) ) {
+					return new TestAccessor() {
+
+						@Override
+						public void invokeAction( Object contact ) {
+
+							( (Contact) contact ).saved = true;
+						}
+					};
+				}
+			}
+
+			if ( object instanceof Address && "contact".equals( name ) ) {
+				return new TestAccessor() {
+
+					@Override
+					public Object getProperty( Object address ) {
+
+						return ( (Address) address ).contact;
+					}
+				};
+			}
+
+			return null;
+		}
+	}
+
+	/* package private */static class TestAccessor
+		implements SimpleBindingProcessorAccessor<Object> {
+
+		//
+		// Public methods
+		//
+
+		public Object getProperty( Object object ) {
+
+			throw new UnsupportedOperationException();
+		}
+
+		public Class<?> getPropertyType( Object object ) {
+
+			return String.class;
+		}
+
+		public void setProperty( Object object, Object value ) {
+
+			throw new UnsupportedOperationException();
+		}
+
+		public void invokeAction( Object object ) {
+
+			throw new UnsupportedOperationException();
+		}
+	}
+}
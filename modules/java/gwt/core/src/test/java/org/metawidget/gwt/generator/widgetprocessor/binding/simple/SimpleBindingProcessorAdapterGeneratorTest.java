@@ -0,0 +1,361 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.gwt.generator.widgetprocessor.binding.simple;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.metawidget.util.CollectionUtils;
+
+import com.google.gwt.core.ext.typeinfo.JClassType;
+import com.google.gwt.core.ext.typeinfo.JMethod;
+import com.google.gwt.core.ext.typeinfo.JPackage;
+import com.google.gwt.core.ext.typeinfo.JParameter;
+import com.google.gwt.core.ext.typeinfo.JPrimitiveType;
+import com.google.gwt.core.ext.typeinfo.JType;
+import com.google.gwt.core.ext.typeinfo.NotFoundException;
+import com.google.gwt.user.rebind.SourceWriter;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class SimpleBindingProcessorAdapterGeneratorTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testCyclicTypes() {
+
+		MockType contact = new MockType( "com.foo.Contact" );
+		MockType address = new MockType( "com.foo.Address" );
+		contact.addGetter( "getAddress", address.getProxy() );
+		address.addGetter( "getContact", contact.getProxy() );
+
+		String source = generate( contact );
+
+		// One accessor per (class, property), however deep the paths go
+
+		assertEquals( 1, count( source, "ACCESSORS_0.put( \"address\"" ) );
+		assertEquals( 1, count( source, "ACCESSORS_1.put( \"contact\"" ) );
+		assertEquals( 1, count( source, ".getAddress()" ) );
+		assertEquals( 1, count( source, ".getContact()" ) );
+		assertEquals( 2, count( source, ".put( " ) );
+		assertEquals( 2, count( source, " instanceof " ) );
+	}
+
+	public void testWideTypes() {
+
+		MockType node = new MockType( "com.foo.Node" );
+		MockType root = new MockType( "com.foo.Root" );
+
+		for ( int loop = 0; loop < 10; loop++ ) {
+			node.addGetter( "getChild" + loop, node.getProxy() );
+			root.addGetter( "getNode" + loop, node.getProxy() );
+		}
+
+		// Would be 10 + 10^2 + ... paths up to the maximum depth if every path were generated
+
+		assertEquals( 20, count( generate( root ), ".put( " ) );
+	}
+
+	public void testSubtypesBeforeSupertypes() {
+
+		MockType contact = new MockType( "com.foo.Contact" );
+		MockType personalContact = new MockType( "com.foo.PersonalContact" );
+		MockType businessContact = new MockType( "com.foo.BusinessContact" );
+		contact.addGetter( "getName", new MockType( "java.lang.String" ).getProxy() );
+		personalContact.addGetter( "getDateOfBirth", new MockType( "java.util.Date" ).getProxy() );
+		businessContact.addGetter( "getCompany", new MockType( "java.lang.String" ).getProxy() );
+		personalContact.setSuperclass( contact );
+		businessContact.setSuperclass( contact );
+
+		String source = generate( contact );
+
+		int personalContactIndex = source.indexOf( "object instanceof com.foo.PersonalContact" );
+		int businessContactIndex = source.indexOf( "object instanceof com.foo.BusinessContact" );
+		int contactIndex = source.indexOf( "object instanceof com.foo.Contact " );
+
+		assertTrue( personalContactIndex != -1 );
+		assertTrue( businessContactIndex != -1 );
+		assertTrue( personalContactIndex < contactIndex );
+		assertTrue( businessContactIndex < contactIndex );
+
+		// Types outside the package are not traversed into
+
+		assertEquals( -1, source.indexOf( "java.lang.String properties" ) );
+		assertEquals( -1, source.indexOf( "java.util.Date properties" ) );
+		assertEquals( 3, count( source, ".put( " ) );
+	}
+
+	public void testPropertiesAndActions() {
+
+		MockType contact = new MockType( "com.foo.Contact" );
+		contact.addGetter( "getAge", JPrimitiveType.INT );
+		contact.addSetter( "setAge", JPrimitiveType.INT );
+		contact.addGetter( "isActive", JPrimitiveType.BOOLEAN );
+		contact.addGetter( "isNotABoolean", new MockType( "java.lang.Boolean" ).getProxy() );
+		contact.addAction( "save" );
+
+		String source = generate( contact );
+
+		assertTrue( source.contains( "return ( (com.foo.Contact) object ).getAge();" ) );
+		assertTrue( source.contains( "return java.lang.Integer.class;" ) );
+		assertTrue( source.contains( "( (com.foo.Contact) object ).setAge( (java.lang.Integer) value );" ) );
+		assertTrue( source.contains( "return ( (com.foo.Contact) object ).isActive();" ) );
+		assertTrue( source.contains( "throw new RuntimeException( \"No setter for property 'active'\" );" ) );
+		assertTrue( source.contains( "throw new RuntimeException( \"Cannot execute 'age' - is a property, not an action\" );" ) );
+		assertEquals( -1, source.indexOf( "notABoolean" ) );
+		assertTrue( source.contains( "( (com.foo.Contact) object ).save();" ) );
+		assertTrue( source.contains( "throw new RuntimeException( \"Unknown property 'save' of com.foo.Contact\" );" ) );
+		assertEquals( 3, count( source, ".put( " ) );
+	}
+
+	//
+	// Private methods
+	//
+
+	private static String generate( MockType type ) {
+
+		MockSourceWriter sourceWriter = new MockSourceWriter();
+		new SimpleBindingProcessorAdapterGenerator().writeAdapter( sourceWriter.getProxy(), type.getProxy() );
+
+		return sourceWriter.toString();
+	}
+
+	private static int count( String source, String toFind ) {
+
+		int count = 0;
+
+		for ( int index = source.indexOf( toFind ); index != -1; index = source.indexOf( toFind, index + 1 ) ) {
+			count++;
+		}
+
+		return count;
+	}
+
+	@SuppressWarnings( "unchecked" )
+	/* package private */static <T> T newProxy( Class<T> iface, final Map<String, Object> answers ) {
+
+		return (T) Proxy.newProxyInstance( iface.getClassLoader(), new Class[] { iface }, new InvocationHandler() {
+
+			public Object invoke( Object proxy, Method method, Object[] args ) {
+
+				return answers.get( method.getName() );
+			}
+		} );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Records the source written to a SourceWriter, ignoring indentation.
+	 */
+
+	private static class MockSourceWriter
+		implements InvocationHandler {
+
+		//
+		// Private members
+		//
+
+		private StringBuilder	mSource	= new StringBuilder();
+
+		//
+		// Public methods
+		//
+
+		public SourceWriter getProxy() {
+
+			return (SourceWriter) Proxy.newProxyInstance( SourceWriter.class.getClassLoader(), new Class[] { SourceWriter.class }, this );
+		}
+
+		public Object invoke( Object proxy, Method method, Object[] args ) {
+
+			String name = method.getName();
+
+			if ( "print".equals( name ) ) {
+				mSource.append( args[0] );
+			} else if ( "println".equals( name ) ) {
+				if ( args != null ) {
+					mSource.append( args[0] );
+				}
+
+				mSource.append( '\n' );
+			}
+
+			return null;
+		}
+
+		@Override
+		public String toString() {
+
+			return mSource.toString();
+		}
+	}
+
+	/**
+	 * Minimal JClassType, declaring only the methods it is given.
+	 */
+
+	private static class MockType
+		implements InvocationHandler {
+
+		//
+		// Private members
+		//
+
+		private String				mQualifiedName;
+
+		private JClassType			mProxy;
+
+		private JClassType			mSuperclass;
+
+		private List<JClassType>	mSubtypes	= CollectionUtils.newArrayList();
+
+		private List<JMethod>		mMethods	= CollectionUtils.newArrayList();
+
+		private List<JMethod>		mSetters	= CollectionUtils.newArrayList();
+
+		//
+		// Constructor
+		//
+
+		public MockType( String qualifiedName ) {
+
+			mQualifiedName = qualifiedName;
+			mProxy = (JClassType) Proxy.newProxyInstance( JClassType.class.getClassLoader(), new Class[] { JClassType.class }, this );
+		}
+
+		//
+		// Public methods
+		//
+
+		public JClassType getProxy() {
+
+			return mProxy;
+		}
+
+		public void setSuperclass( MockType superclass ) {
+
+			mSuperclass = superclass.getProxy();
+			superclass.mSubtypes.add( mProxy );
+		}
+
+		public void addGetter( String name, JType returnType ) {
+
+			mMethods.add( newMethod( name, returnType, 0 ) );
+		}
+
+		public void addSetter( String name, JType parameterType ) {
+
+			mSetters.add( newMethod( name, parameterType, 1 ) );
+		}
+
+		public void addAction( String name ) {
+
+			mMethods.add( newMethod( name, JPrimitiveType.VOID, 0 ) );
+		}
+
+		public Object invoke( Object proxy, Method method, Object[] args )
+			throws NotFoundException {
+
+			String name = method.getName();
+
+			if ( "getQualifiedSourceName".equals( name ) || "getParameterizedQualifiedSourceName".equals( name ) || "toString".equals( name ) ) {
+				return mQualifiedName;
+			}
+
+			if ( "getPackage".equals( name ) ) {
+				Map<String, Object> answers = CollectionUtils.newHashMap();
+				answers.put( "getName", mQualifiedName.substring( 0, mQualifiedName.lastIndexOf( '.' ) ) );
+				return newProxy( JPackage.class, answers );
+			}
+
+			if ( "isClass".equals( name ) ) {
+				return mProxy;
+			}
+
+			if ( "getSuperclass".equals( name ) ) {
+				return mSuperclass;
+			}
+
+			if ( "getSubtypes".equals( name ) ) {
+				return mSubtypes.toArray( new JClassType[mSubtypes.size()] );
+			}
+
+			if ( "getMethods".equals( name ) ) {
+				return mMethods.toArray( new JMethod[mMethods.size()] );
+			}
+
+			if ( "getMethod".equals( name ) ) {
+				for ( JMethod setter : mSetters ) {
+					if ( setter.getName().equals( args[0] ) && setter.getReturnType().equals( ( (JType[]) args[1] )[0] ) ) {
+						return setter;
+					}
+				}
+
+				throw new NotFoundException();
+			}
+
+			if ( "isAssignableTo".equals( name ) ) {
+				for ( JClassType superclass = mProxy; superclass != null; superclass = superclass.getSuperclass() ) {
+					if ( superclass == args[0] ) {
+						return true;
+					}
+				}
+
+				return false;
+			}
+
+			if ( "equals".equals( name ) ) {
+				return ( proxy == args[0] );
+			}
+
+			if ( "hashCode".equals( name ) ) {
+				return System.identityHashCode( proxy );
+			}
+
+			return null;
+		}
+
+		//
+		// Private methods
+		//
+
+		/**
+		 * @param type
+		 *            the return type or, for a setter, the parameter type (stored as the return type
+		 *            for simplicity)
+		 */
+
+		private static JMethod newMethod( String name, JType type, int parameters ) {
+
+			Map<String, Object> answers = CollectionUtils.newHashMap();
+			answers.put( "getName", name );
+			answers.put( "getReturnType", type );
+			answers.put( "isPublic", true );
+			answers.put( "getParameters", new JParameter[parameters] );
+
+			return newProxy( JMethod.class, answers );
+		}
+	}
+}
@@ -13,7 +13,10 @@ package org.metawidget.inspector.hibernate;
 
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +24,7 @@ import org.metawidget.config.iface.ResourceResolver;
 import org.metawidget.inspector.iface.InspectorException;
 import org.metawidget.inspector.impl.BaseXmlInspector;
 import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.IOUtils;
 import org.metawidget.util.XmlUtils;
 import org.metawidget.util.simple.StringUtils;
 import org.w3c.dom.Document;
@@ -47,6 +51,8 @@ public class HibernateInspector
 
 	private static final InputStream[]	EMPTY_INPUTSTREAM_ARRAY			= new InputStream[0];
 
+	private static final byte[][]		EMPTY_BYTE_ARRAY_ARRAY			= new byte[0][];
+
 	private static final String			PROPERTY_REF_ATTRIBUTE			= "property-ref";
 
 	//
@@ -162,6 +168,44 @@ public class HibernateInspector
 		return documentMaster.getDocumentElement();
 	}
 
+	/**
+	 * Overridden to include the content of every <code>&lt;mapping resource&gt;</code> (of every
+	 * hibernate-configuration file) in the key a shared model is stored under.
+	 */
+
+	@Override
+	protected byte[][] getSharedModelResources( ResourceResolver resolver, byte[]... contents )
+		throws Exception {
+
+		List<byte[]> resources = CollectionUtils.newArrayList();
+
+		for ( byte[] content : contents ) {
+			Document document = XmlUtils.parse( new ByteArrayInputStream( content ) );
+
+			if ( !document.hasChildNodes() || !HIBERNATE_CONFIGURATION_ELEMENT.equals( document.getDocumentElement().getNodeName() ) ) {
+				continue;
+			}
+
+			Element mapping = XmlUtils.getChildNamed( document.getDocumentElement(), "session-factory", "mapping" );
+			List<byte[]> mappingContents = CollectionUtils.newArrayList();
+
+			while ( mapping != null ) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				IOUtils.streamBetween( resolver.openResource( mapping.getAttribute( "resource" ) ), out );
+				mappingContents.add( out.toByteArray() );
+				mapping = XmlUtils.getSiblingNamed( mapping, "mapping" );
+			}
+
+			// (mapping resources are themselves parsed by getDocumentElement, so recurse)
+
+			byte[][] mappingContentsArray = mappingContents.toArray( EMPTY_BYTE_ARRAY_ARRAY );
+			resources.addAll( Arrays.asList( mappingContentsArray ) );
+			resources.addAll( Arrays.asList( getSharedModelResources( resolver, mappingContentsArray ) ) );
+		}
+
+		return resources.toArray( EMPTY_BYTE_ARRAY_ARRAY );
+	}
+
 	/**
 	 * Prepend 'package' attribute to class 'name' and 'extends' attributes, and to 'class'
 	 * attributes of children.
@@ -54,6 +54,16 @@ public class HibernateInspectorConfig
 		return (HibernateInspectorConfig) super.setInputStream( stream );
 	}
 
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public HibernateInspectorConfig setSharedModel( boolean sharedModel ) {
+
+		return (HibernateInspectorConfig) super.setSharedModel( sharedModel );
+	}
+
 	/**
 	 * Sets whether the Inspector returns &lt;id&gt; properties as <code>hidden="true"</code>. True
 	 * by default.
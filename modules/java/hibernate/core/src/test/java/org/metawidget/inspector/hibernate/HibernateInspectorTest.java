@@ -14,9 +14,11 @@ package org.metawidget.inspector.hibernate;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 
 import junit.framework.TestCase;
 
+import org.metawidget.config.iface.ResourceResolver;
 import org.metawidget.config.impl.SimpleResourceResolver;
 import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.inspector.iface.InspectorException;
@@ -185,6 +187,41 @@ public class HibernateInspectorTest
 		assertEquals( property.getNextSibling(), null );
 	}
 
+	public void testSharedModel() {
+
+		final String mapping1 = "org/metawidget/inspector/hibernate/test-mapping1.hbm.xml";
+		final ResourceResolver resolver = new SimpleResourceResolver();
+
+		HibernateInspectorConfig config = new HibernateInspectorConfig().setInputStream( resolver.openResource( "org/metawidget/inspector/hibernate/test-hibernate.cfg.xml" ) );
+		config.setSharedModel( true );
+		Inspector shared = new HibernateInspector( config );
+
+		config = new HibernateInspectorConfig().setInputStream( resolver.openResource( "org/metawidget/inspector/hibernate/test-hibernate.cfg.xml" ) );
+		config.setSharedModel( true );
+		Inspector sharedAgain = new HibernateInspector( config );
+
+		assertEquals( shared.inspect( null, "org.metawidget.inspector.hibernate.SubFoo" ), sharedAgain.inspect( null, "org.metawidget.inspector.hibernate.SubFoo" ) );
+
+		// Same hibernate.cfg.xml, but different mapping resources, must not share
+
+		config = new HibernateInspectorConfig().setInputStream( resolver.openResource( "org/metawidget/inspector/hibernate/test-hibernate.cfg.xml" ) );
+		config.setSharedModel( true );
+		config.setResourceResolver( new ResourceResolver() {
+
+			public InputStream openResource( String resource ) {
+
+				if ( mapping1.equals( resource ) ) {
+					return new ByteArrayInputStream( "<hibernate-mapping/>".getBytes() );
+				}
+
+				return resolver.openResource( resource );
+			}
+		} );
+
+		assertNotNull( shared.inspect( null, "org.metawidget.inspector.hibernate.SubFoo" ) );
+		assertNull( new HibernateInspector( config ).inspect( null, "org.metawidget.inspector.hibernate.SubFoo" ) );
+	}
+
 	public void testConfig() {
 
 		MetawidgetTestUtils.testEqualsAndHashcode( HibernateInspectorConfig.class, new HibernateInspectorConfig() {
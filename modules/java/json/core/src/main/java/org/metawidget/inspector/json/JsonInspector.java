@@ -15,10 +15,14 @@ import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.metawidget.inspector.iface.DomInspector;
 import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.XmlUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -30,6 +34,12 @@ import com.google.gson.JsonPrimitive;
 
 /**
  * Inspector to look for metadata in JSON files.
+ * <p>
+ * The JSON is parsed at construction time, then indexed on first inspection into an immutable index
+ * of precomputed attributes per path. Inspections are then simple lookups.
+ * <p>
+ * A JSON value that fails to index does not fail the whole index. Instead, the failure is reported
+ * by those inspections that include the value (as a property, or by traversing through it).
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -41,7 +51,11 @@ public class JsonInspector
 	// Private members
 	//
 
-	private JsonObject	mRoot;
+	private final JsonObject	mRoot;
+
+	private volatile JsonEntity	mRootEntity;
+
+	private final Lock			mRootEntityLock	= new ReentrantLock();
 
 	//
 	// Constructor
@@ -55,7 +69,9 @@ public class JsonInspector
 			throw InspectorException.newException( "No JSON input stream specified" );
 		}
 
-		// Parse the JSON
+		// Parse the JSON now, so that bad JSON fails fast. Index it later, as indexing calls
+		// newJsonEntity, which subclasses may override and which must not run before their own
+		// constructors have
 
 		mRoot = (JsonObject) new JsonParser().parse( new InputStreamReader( inputStream ) );
 	}
@@ -77,17 +93,17 @@ public class JsonInspector
 
 	public Element inspectAsDom( Object toInspect, String type, String... names ) {
 
-		JsonObject root = getRoot();
+		JsonEntity jsonEntity = getRootEntity();
 
 		// Traverse names
 
-		for( String name : names ) {
+		for ( String name : names ) {
 
-			if ( !root.has( name )) {
+			jsonEntity = jsonEntity.getProperty( name );
+
+			if ( jsonEntity == null ) {
 				return null;
 			}
-
-			root = root.getAsJsonObject( name );
 		}
 
 		// Start the DOM
@@ -100,50 +116,280 @@ public class JsonInspector
 		entity.setAttribute( TYPE, type );
 		documentRoot.appendChild( entity );
 
-		// Write all JSON values into it
+		inspectEntity( entity, jsonEntity, names );
 
-		for ( Map.Entry<String, JsonElement> entry : root.entrySet() ) {
+		// Write all precomputed properties into it
 
-			JsonElement element = entry.getValue();
-
-			// Write the name
+		for ( Map.Entry<String, JsonEntity> entry : jsonEntity.getProperties().entrySet() ) {
 
 			Element child = document.createElementNS( NAMESPACE, PROPERTY );
 			child.setAttribute( NAME, entry.getKey() );
+			entry.getValue().writeAttributes( child );
+			entity.appendChild( child );
+		}
 
-			// Write the type
+		// Return the DOM
+
+		return documentRoot;
+	}
+
+	//
+	// Protected methods
+	//
 
-			if ( element.isJsonPrimitive() ) {
+	/**
+	 * Index the given JSON value, precomputing the attributes it will have when inspected as a
+	 * property, and recursively indexing its own properties.
+	 * <p>
+	 * Called once per JSON value, on first inspection (never from the constructor). Subclasses can
+	 * override this to interpret the JSON differently. Overrides should index nested values using
+	 * <code>indexJsonEntity</code>, so that a nested value that fails to index only fails the
+	 * inspections that include it.
+	 *
+	 * @param name
+	 *            the name of the JSON value, or null for the root
+	 */
 
-				JsonPrimitive primitive = (JsonPrimitive) element;
+	protected JsonEntity newJsonEntity( String name, JsonElement element ) {
 
-				if ( primitive.isNumber() ) {
-					child.setAttribute( TYPE, int.class.getName() );
-				} else if ( primitive.isBoolean() ) {
-					child.setAttribute( TYPE, boolean.class.getName() );
-				} else {
-					child.setAttribute( TYPE, String.class.getName() );
-				}
-			} else if ( element.isJsonArray() ) {
-				child.setAttribute( TYPE, "array" );
+		// Infer the type
+
+		String type;
+
+		if ( element.isJsonPrimitive() ) {
+
+			JsonPrimitive primitive = (JsonPrimitive) element;
+
+			if ( primitive.isNumber() ) {
+				type = int.class.getName();
+			} else if ( primitive.isBoolean() ) {
+				type = boolean.class.getName();
 			} else {
-				child.setAttribute( TYPE, Object.class.getName() );
+				type = String.class.getName();
 			}
+		} else if ( element.isJsonArray() ) {
+			type = "array";
+		} else {
+			type = Object.class.getName();
+		}
 
-			entity.appendChild( child );
+		Map<String, String> attributes = Collections.singletonMap( TYPE, type );
+
+		// Only JSON objects can be traversed into
+
+		if ( !element.isJsonObject() ) {
+			return new JsonEntity( attributes, null );
 		}
 
-		// Return the DOM
+		Map<String, JsonEntity> properties = CollectionUtils.newLinkedHashMap();
 
-		return documentRoot;
+		for ( Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet() ) {
+			properties.put( entry.getKey(), indexJsonEntity( entry.getKey(), entry.getValue() ) );
+		}
+
+		return new JsonEntity( attributes, properties );
 	}
 
-	//
-	// Protected methods
-	//
+	/**
+	 * Index the given JSON value using <code>newJsonEntity</code>. If that fails, returns an entity
+	 * that reports the failure whenever it is inspected, rather than failing the whole index.
+	 *
+	 * @param name
+	 *            the name of the JSON value, or null for the root
+	 */
+
+	protected final JsonEntity indexJsonEntity( String name, JsonElement element ) {
+
+		try {
+			return newJsonEntity( name, element );
+		} catch ( RuntimeException e ) {
+			return new JsonEntity( InspectorException.newException( e ) );
+		}
+	}
+
+	/**
+	 * Hook for subclasses to write additional attributes to the <code>entity</code> element. Does
+	 * nothing by default.
+	 */
+
+	protected void inspectEntity( Element entity, JsonEntity jsonEntity, String... names ) {
+
+		// Do nothing by default
+	}
+
+	/**
+	 * Gets the parsed root of the JSON.
+	 */
 
 	protected JsonObject getRoot() {
 
 		return mRoot;
 	}
+
+	/**
+	 * Gets the indexed root of the JSON, indexing it if this is the first inspection.
+	 */
+
+	protected JsonEntity getRootEntity() {
+
+		JsonEntity rootEntity = mRootEntity;
+
+		if ( rootEntity != null ) {
+			return rootEntity;
+		}
+
+		mRootEntityLock.lock();
+
+		try {
+			if ( mRootEntity == null ) {
+				mRootEntity = indexJsonEntity( null, mRoot );
+			}
+
+			return mRootEntity;
+		} finally {
+			mRootEntityLock.unlock();
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Immutable, indexed representation of a JSON value: its precomputed attributes, and its
+	 * (likewise indexed) properties.
+	 */
+
+	protected static class JsonEntity {
+
+		//
+		// Private members
+		//
+
+		private final String[]					mAttributeNames;
+
+		private final String[]					mAttributeValues;
+
+		private final Map<String, JsonEntity>	mProperties;
+
+		/**
+		 * Why this JSON value failed to index, or null if it indexed successfully.
+		 */
+
+		private final InspectorException		mException;
+
+		//
+		// Constructor
+		//
+
+		/**
+		 * @param properties
+		 *            the indexed properties, or null if this JSON value cannot be traversed into
+		 */
+
+		public JsonEntity( Map<String, String> attributes, Map<String, JsonEntity> properties ) {
+
+			mAttributeNames = new String[attributes.size()];
+			mAttributeValues = new String[attributes.size()];
+
+			int loop = 0;
+
+			for ( Map.Entry<String, String> entry : attributes.entrySet() ) {
+
+				// Attribute names are heavily repeated across large JSON files
+
+				mAttributeNames[loop] = entry.getKey().intern();
+				mAttributeValues[loop] = entry.getValue();
+				loop++;
+			}
+
+			if ( properties == null || properties.isEmpty() ) {
+				mProperties = properties == null ? null : Collections.<String, JsonEntity> emptyMap();
+			} else {
+				mProperties = Collections.unmodifiableMap( properties );
+			}
+
+			mException = null;
+		}
+
+		/**
+		 * Creates a JSON value that failed to index.
+		 */
+
+		/* package private */JsonEntity( InspectorException exception ) {
+
+			mAttributeNames = null;
+			mAttributeValues = null;
+			mProperties = null;
+			mException = exception;
+		}
+
+		//
+		// Public methods
+		//
+
+		/**
+		 * @return the properties of this JSON value, in order. Never null
+		 */
+
+		public Map<String, JsonEntity> getProperties() {
+
+			checkIndexed();
+
+			if ( mProperties == null ) {
+				return Collections.emptyMap();
+			}
+
+			return mProperties;
+		}
+
+		/**
+		 * @return the named, traversable property, or null if there is no such property
+		 */
+
+		public JsonEntity getProperty( String name ) {
+
+			checkIndexed();
+
+			if ( mProperties == null ) {
+				return null;
+			}
+
+			JsonEntity property = mProperties.get( name );
+
+			if ( property != null ) {
+				property.checkIndexed();
+			}
+
+			if ( property == null || property.mProperties == null ) {
+				return null;
+			}
+
+			return property;
+		}
+
+		public void writeAttributes( Element element ) {
+
+			checkIndexed();
+
+			for ( int loop = 0, length = mAttributeNames.length; loop < length; loop++ ) {
+				element.setAttribute( mAttributeNames[loop], mAttributeValues[loop] );
+			}
+		}
+
+		//
+		// Private methods
+		//
+
+		/**
+		 * Reports why this JSON value failed to index (if it did).
+		 */
+
+		private void checkIndexed() {
+
+			if ( mException != null ) {
+				throw InspectorException.newException( mException.getMessage(), mException );
+			}
+		}
+	}
 }
@@ -14,15 +14,19 @@ package org.metawidget.inspector.json;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.ByteArrayInputStream;
+import java.util.Map;
 
 import junit.framework.TestCase;
 
 import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.MetawidgetTestUtils;
 import org.metawidget.util.XmlUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import com.google.gson.JsonElement;
+
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -133,6 +137,63 @@ public class JsonInspectorTest
 		// Bad path
 
 		assertEquals( null, XmlUtils.documentFromString( inspector.inspect( null, "fooObject", "badPath" ) ) );
+
+		// Cannot traverse into primitives
+
+		assertEquals( null, inspector.inspect( null, "fooObject", "path1", "foo" ) );
+		assertEquals( null, inspector.inspect( null, "fooObject", "path1", "foo", "bar" ) );
+	}
+
+	public void testRepeatedLookups() {
+
+		String json = "{ \"path1\": { \"foo\": \"Foo\" }, \"path2\": { \"foo\": \"Foo\" }}";
+		CountingJsonInspector inspector = new CountingJsonInspector( new JsonInspectorConfig().setInputStream( new ByteArrayInputStream( json.getBytes() ) ) );
+
+		// Nothing indexed until the first inspection
+
+		assertEquals( 0, inspector.getIndexed() );
+
+		String path1 = inspector.inspect( null, "fooObject", "path1" );
+		assertEquals( 5, inspector.getIndexed() );
+
+		// Repeated lookups, of the same or another type, reuse the index
+
+		assertEquals( path1, inspector.inspect( null, "fooObject", "path1" ) );
+		assertEquals( path1, inspector.inspect( null, "fooObject", "path2" ) );
+		assertEquals( path1.replace( "fooObject", "barObject" ), inspector.inspect( null, "barObject", "path1" ) );
+		assertEquals( 5, inspector.getIndexed() );
+	}
+
+	public void testSubclass() {
+
+		String json = "{ \"foo\": \"Foo\", \"bar\": { \"baz\": true }}";
+		JsonInspector inspector = new LabellingJsonInspector( new JsonInspectorConfig().setInputStream( new ByteArrayInputStream( json.getBytes() ) ), " (JSON)" );
+
+		// newJsonEntity runs after the subclass constructor, so sees its fields
+
+		Document document = XmlUtils.documentFromString( inspector.inspect( null, "fooObject" ) );
+		Element entity = (Element) document.getDocumentElement().getFirstChild();
+		assertEquals( "", entity.getAttribute( LABEL ) );
+		Element property = (Element) entity.getFirstChild();
+		assertEquals( "foo", property.getAttribute( NAME ) );
+		assertEquals( String.class.getName(), property.getAttribute( TYPE ) );
+		assertEquals( "foo (JSON)", property.getAttribute( LABEL ) );
+		assertEquals( property.getAttributes().getLength(), 3 );
+		property = (Element) property.getNextSibling();
+		assertEquals( "bar", property.getAttribute( NAME ) );
+		assertEquals( Object.class.getName(), property.getAttribute( TYPE ) );
+		assertFalse( property.hasAttribute( LABEL ) );
+		assertEquals( property.getNextSibling(), null );
+
+		// inspectEntity sees the traversed names
+
+		document = XmlUtils.documentFromString( inspector.inspect( null, "barObject", "bar" ) );
+		entity = (Element) document.getDocumentElement().getFirstChild();
+		assertEquals( "bar (JSON)", entity.getAttribute( LABEL ) );
+		property = (Element) entity.getFirstChild();
+		assertEquals( "baz", property.getAttribute( NAME ) );
+		assertEquals( boolean.class.getName(), property.getAttribute( TYPE ) );
+		assertEquals( "baz (JSON)", property.getAttribute( LABEL ) );
 	}
 
 	public void testConfig() {
@@ -141,4 +202,94 @@ public class JsonInspectorTest
 			// Subclass
 		} );
 	}
+
+	//
+	// Inner class
+	//
+
+	static class CountingJsonInspector
+		extends JsonInspector {
+
+		//
+		// Private members
+		//
+
+		private int	mIndexed;
+
+		//
+		// Constructor
+		//
+
+		public CountingJsonInspector( JsonInspectorConfig config ) {
+
+			super( config );
+		}
+
+		//
+		// Public methods
+		//
+
+		public int getIndexed() {
+
+			return mIndexed;
+		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected JsonEntity newJsonEntity( String name, JsonElement element ) {
+
+			mIndexed++;
+			return super.newJsonEntity( name, element );
+		}
+	}
+
+	static class LabellingJsonInspector
+		extends JsonInspector {
+
+		//
+		// Private members
+		//
+
+		private final String	mLabelSuffix;
+
+		//
+		// Constructor
+		//
+
+		public LabellingJsonInspector( JsonInspectorConfig config, String labelSuffix ) {
+
+			super( config );
+			mLabelSuffix = labelSuffix;
+		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected JsonEntity newJsonEntity( String name, JsonElement element ) {
+
+			JsonEntity jsonEntity = super.newJsonEntity( name, element );
+
+			if ( !element.isJsonPrimitive() ) {
+				return jsonEntity;
+			}
+
+			Map<String, String> attributes = CollectionUtils.newLinkedHashMap();
+			attributes.put( TYPE, element.getAsJsonPrimitive().isBoolean() ? boolean.class.getName() : String.class.getName() );
+			attributes.put( LABEL, name + mLabelSuffix );
+			return new JsonEntity( attributes, null );
+		}
+
+		@Override
+		protected void inspectEntity( Element entity, JsonEntity jsonEntity, String... names ) {
+
+			if ( names.length > 0 ) {
+				entity.setAttribute( LABEL, names[names.length - 1] + mLabelSuffix );
+			}
+		}
+	}
 }
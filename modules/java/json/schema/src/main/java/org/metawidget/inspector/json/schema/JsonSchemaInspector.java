@@ -21,8 +21,6 @@ import org.metawidget.inspector.iface.InspectorException;
 import org.metawidget.inspector.json.JsonInspector;
 import org.metawidget.inspector.json.JsonInspectorConfig;
 import org.metawidget.util.CollectionUtils;
-import org.metawidget.util.XmlUtils;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import com.google.gson.JsonElement;
@@ -31,6 +29,10 @@ import com.google.gson.JsonObject;
 /**
  * Inspector to look for metadata in JSON Schema files. Consider using in conjunction with
  * <tt>JsonSchemaTypeMappingProcessorConfig</tt> to convert JSON types into Java types.
+ * <p>
+ * As with <code>JsonInspector</code>, the schema is indexed once, on first inspection, so large
+ * schema catalogs are only walked once. A property that is not a valid schema only fails the
+ * inspections that include it.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -57,84 +59,26 @@ public class JsonSchemaInspector
 	// Protected methods
 	//
 
-	@Override
-	public Element inspectAsDom( Object toInspect, String type, String... names ) {
-
-		JsonObject root = getRoot();
-
-		// Traverse names (via nested properties)
-
-		for ( String name : names ) {
-
-			if ( !root.has( PROPERTIES ) ) {
-				return null;
-			}
-
-			root = root.getAsJsonObject( PROPERTIES );
-
-			if ( !root.has( name ) ) {
-				return null;
-			}
-
-			root = root.getAsJsonObject( name );
-		}
-
-		// Start the DOM
-
-		Document document = XmlUtils.newDocument();
-		Element documentRoot = document.createElementNS( NAMESPACE, ROOT );
-		documentRoot.setAttribute( VERSION, "1.0" );
-		document.appendChild( documentRoot );
-		Element entity = document.createElementNS( NAMESPACE, ENTITY );
-		entity.setAttribute( TYPE, type );
-		documentRoot.appendChild( entity );
-
-		if ( names.length > 0 ) {
-			entity.setAttribute( NAME, names[names.length - 1] );
-		}
-
-		// Write all JSON names into it as attributes
-
-		writeJsonAttributesAsDom( entity, root );
-
-		// Write all direct descendants
-
-		if ( root.has( PROPERTIES ) ) {
-
-			root = root.getAsJsonObject( PROPERTIES );
-
-			for ( Map.Entry<String, JsonElement> entry : root.entrySet() ) {
-
-				String name = entry.getKey();
-				JsonElement element = entry.getValue();
+	/**
+	 * Overridden to index each schema's JSON names as attributes, and its nested
+	 * <code>properties</code> as properties.
+	 */
 
-				if ( !element.isJsonObject() ) {
-					throw InspectorException.newException( "'" + name + "' is not a " + JsonObject.class );
-				}
-
-				JsonObject property = element.getAsJsonObject();
+	@Override
+	protected JsonEntity newJsonEntity( String name, JsonElement element ) {
 
-				Element child = document.createElementNS( NAMESPACE, PROPERTY );
-				child.setAttribute( NAME, name );
-				writeJsonAttributesAsDom( child, property );
-				entity.appendChild( child );
-			}
+		if ( !element.isJsonObject() ) {
+			throw InspectorException.newException( "'" + name + "' is not a " + JsonObject.class );
 		}
 
-		// Return the DOM
-
-		return documentRoot;
-	}
+		JsonObject object = element.getAsJsonObject();
 
-	//
-	// Private methods
-	//
+		// All JSON names as attributes
 
-	private void writeJsonAttributesAsDom( Element element, JsonObject object ) {
+		Map<String, String> attributes = CollectionUtils.newLinkedHashMap();
 
 		for ( Map.Entry<String, JsonElement> entry : object.entrySet() ) {
 
-			String name = entry.getKey();
 			JsonElement jsonElement = entry.getValue();
 
 			if ( jsonElement.isJsonArray() ) {
@@ -142,7 +86,7 @@ public class JsonSchemaInspector
 				for ( Iterator<JsonElement> i = jsonElement.getAsJsonArray().iterator(); i.hasNext(); ) {
 					array.add( i.next().getAsString() );
 				}
-				element.setAttribute( name, CollectionUtils.toString( array ) );
+				attributes.put( entry.getKey(), CollectionUtils.toString( array ) );
 				continue;
 			}
 
@@ -150,7 +94,34 @@ public class JsonSchemaInspector
 				continue;
 			}
 
-			element.setAttribute( name, jsonElement.getAsString() );
+			attributes.put( entry.getKey(), jsonElement.getAsString() );
+		}
+
+		// All direct descendants
+
+		Map<String, JsonEntity> properties = CollectionUtils.newLinkedHashMap();
+
+		if ( object.has( PROPERTIES ) ) {
+
+			for ( Map.Entry<String, JsonElement> entry : object.getAsJsonObject( PROPERTIES ).entrySet() ) {
+				properties.put( entry.getKey(), indexJsonEntity( entry.getKey(), entry.getValue() ) );
+			}
+		}
+
+		return new JsonEntity( attributes, properties );
+	}
+
+	/**
+	 * Overridden to write the schema's own attributes (and name) to the <code>entity</code>.
+	 */
+
+	@Override
+	protected void inspectEntity( Element entity, JsonEntity jsonEntity, String... names ) {
+
+		if ( names.length > 0 ) {
+			entity.setAttribute( NAME, names[names.length - 1] );
 		}
+
+		jsonEntity.writeAttributes( entity );
 	}
 }
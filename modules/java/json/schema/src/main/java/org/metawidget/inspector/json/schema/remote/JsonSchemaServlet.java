@@ -0,0 +1,566 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.json.schema.remote;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.metawidget.config.impl.BaseConfigReader;
+import org.metawidget.config.impl.ServletResourceResolver;
+import org.metawidget.iface.MetawidgetException;
+import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.pipeline.w3c.CompiledPipeline;
+import org.metawidget.pipeline.w3c.W3CPipeline;
+import org.metawidget.util.ArrayUtils;
+import org.metawidget.util.ClassUtils;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.XmlUtils;
+import org.metawidget.util.simple.StringUtils;
+import org.w3c.dom.Element;
+
+/**
+ * Servlet for serving inspection results as JSON Schema, for example to the JavaScript version of
+ * Metawidget.
+ * <p>
+ * The servlet should be mapped to a path such as <code>/schema/*</code>. Requests to
+ * <code>/schema/com.myapp.Person</code> are then answered with the JSON Schema of the given type.
+ * Nested paths can be requested as <code>/schema/com.myapp.Person/address</code>.
+ * <p>
+ * The serialized JSON of each path is cached, along with a (weak) <code>ETag</code>. Subsequent
+ * requests that send a matching <code>If-None-Match</code> are answered with a
+ * <code>304 Not Modified</code>, and clients that send <code>Accept-Encoding: gzip</code> are served
+ * a pre-compressed copy. The cache is cleared whenever the Inspector or InspectionResultProcessors
+ * are reconfigured, and can also be cleared explicitly using <code>clearCache</code>.
+ * <p>
+ * This servlet recognizes the following &lt;init-param&gt;'s:
+ * <ul>
+ * <li><code>config</code> - fully qualified path to (optional) <code>metawidget.xml</code>, for
+ * example <code>com/foo/metawidget.xml</code>.
+ * </ul>
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class JsonSchemaServlet
+	extends HttpServlet {
+
+	//
+	// Private statics
+	//
+
+	private static final long						serialVersionUID	= 1l;
+
+	private static final String						CONTENT_TYPE		= "application/json";
+
+	private static final String						CHARSET				= "UTF-8";
+
+	private static final String						GZIP				= "gzip";
+
+	//
+	// Private members
+	//
+
+	private transient JsonSchemaServletPipeline								mPipeline;
+
+	/**
+	 * Guards reconfiguring and compiling <code>mPipeline</code>.
+	 */
+
+	private final Lock														mPipelineLock		= new ReentrantLock();
+
+	/**
+	 * Thread-safe snapshot of <code>mPipeline</code>, shared by all requests. Reset whenever
+	 * <code>mPipeline</code> is reconfigured.
+	 */
+
+	private transient volatile CompiledPipeline<Object, Object, JsonSchemaServlet>	mCompiledPipeline;
+
+	private transient Map<String, CachedSchema>								mCache;
+
+	/**
+	 * Guards <code>mCache</code> and <code>mCacheGeneration</code>.
+	 */
+
+	private final Lock														mCacheLock			= new ReentrantLock();
+
+	/**
+	 * Incremented (under <code>mCacheLock</code>) by every <code>clearCache</code>, so that
+	 * schemas inspected before a clear are not cached after it.
+	 */
+
+	private transient long													mCacheGeneration;
+
+	//
+	// Constructor
+	//
+
+	public JsonSchemaServlet() {
+
+		mPipeline = newPipeline();
+		mCache = CollectionUtils.newHashMap();
+	}
+
+	//
+	// Public methods
+	//
+
+	@Override
+	public void init()
+		throws ServletException {
+
+		// Reconfigure and compile under the same lock that getCompiledPipeline compiles under, so
+		// that a CompiledPipeline of a half-configured pipeline can never be published
+
+		mPipelineLock.lock();
+
+		try {
+			mPipeline.setConfigReader( new BaseConfigReader( new ServletResourceResolver( getServletContext() ) ) );
+
+			// Locate metawidget.xml (if one specified)
+
+			String config = getConfigInitParameter();
+
+			if ( config != null ) {
+				mPipeline.setConfig( config );
+			}
+
+			// Compile up front, so that concurrent requests only ever read from the pipeline
+
+			mCompiledPipeline = mPipeline.compile();
+		} finally {
+			mPipelineLock.unlock();
+		}
+	}
+
+	public void setInspector( Inspector inspector ) {
+
+		mPipelineLock.lock();
+
+		try {
+			mPipeline.setInspector( inspector );
+			mCompiledPipeline = null;
+		} finally {
+			mPipelineLock.unlock();
+		}
+
+		clearCache();
+	}
+
+	public void setInspectionResultProcessors( InspectionResultProcessor<JsonSchemaServlet>... inspectionResultProcessors ) {
+
+		mPipelineLock.lock();
+
+		try {
+			mPipeline.setInspectionResultProcessors( inspectionResultProcessors );
+			mCompiledPipeline = null;
+		} finally {
+			mPipelineLock.unlock();
+		}
+
+		clearCache();
+	}
+
+	/**
+	 * SPI for tools that reload Inspectors, or the classes they inspect, at runtime and need to
+	 * clear the cache of serialized JSON Schemas.
+	 */
+
+	public void clearCache() {
+
+		mCacheLock.lock();
+
+		try {
+			mCache.clear();
+			mCacheGeneration++;
+		} finally {
+			mCacheLock.unlock();
+		}
+	}
+
+	//
+	// Protected methods
+	//
+
+	@Override
+	protected void doGet( HttpServletRequest request, HttpServletResponse response )
+		throws IOException {
+
+		String path = request.getPathInfo();
+
+		if ( path == null || path.length() <= 1 ) {
+			response.sendError( HttpServletResponse.SC_NOT_FOUND );
+			return;
+		}
+
+		CachedSchema schema = getSchema( path.substring( 1 ) );
+
+		if ( schema == null ) {
+			response.sendError( HttpServletResponse.SC_NOT_FOUND );
+			return;
+		}
+
+		// Either representation (gzipped or not) has the same ETag, as they are semantically
+		// equivalent. Hence the ETag is a weak one
+
+		response.setHeader( "ETag", schema.getETag() );
+		response.setHeader( "Vary", "Accept-Encoding" );
+
+		if ( matchesETag( request.getHeader( "If-None-Match" ), schema.getETag() ) ) {
+			response.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+			return;
+		}
+
+		byte[] content = schema.getJson();
+
+		if ( acceptsGzip( request ) ) {
+			response.setHeader( "Content-Encoding", GZIP );
+			content = schema.getGzipped();
+		}
+
+		response.setContentType( CONTENT_TYPE );
+		response.setCharacterEncoding( CHARSET );
+		response.setContentLength( content.length );
+
+		OutputStream out = response.getOutputStream();
+
+		try {
+			out.write( content );
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Inspect the given path (ie. a type, optionally followed by names separated by forward slashes).
+	 * <p>
+	 * Subclasses can override this to, say, customize the inspection.
+	 *
+	 * @return the inspection result, ready for conversion to JSON Schema, or null if the path could
+	 *         not be inspected
+	 */
+
+	protected Element inspectAsDom( String path ) {
+
+		String[] typeAndNames = ArrayUtils.fromString( path, StringUtils.SEPARATOR_FORWARD_SLASH_CHAR );
+
+		if ( typeAndNames.length == 0 ) {
+			return null;
+		}
+
+		String[] names = new String[typeAndNames.length - 1];
+		System.arraycopy( typeAndNames, 1, names, 0, names.length );
+
+		return getCompiledPipeline().inspectAsDom( this, null, typeAndNames[0], names );
+	}
+
+	/**
+	 * Instantiate the Pipeline used by this servlet.
+	 * <p>
+	 * Subclasses wishing to use their own Pipeline should override this method to instantiate their
+	 * version.
+	 */
+
+	protected JsonSchemaServletPipeline newPipeline() {
+
+		return new JsonSchemaServletPipeline();
+	}
+
+	protected String getConfigInitParameter() {
+
+		return getServletConfig().getInitParameter( "config" );
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Compiles the pipeline on first use (if <code>init</code> has not already). Thereafter
+	 * concurrent requests share the <code>CompiledPipeline</code> without locking.
+	 */
+
+	private CompiledPipeline<Object, Object, JsonSchemaServlet> getCompiledPipeline() {
+
+		CompiledPipeline<Object, Object, JsonSchemaServlet> compiledPipeline = mCompiledPipeline;
+
+		if ( compiledPipeline == null ) {
+			mPipelineLock.lock();
+
+			try {
+				compiledPipeline = mCompiledPipeline;
+
+				if ( compiledPipeline == null ) {
+					compiledPipeline = mPipeline.compile();
+					mCompiledPipeline = compiledPipeline;
+				}
+			} finally {
+				mPipelineLock.unlock();
+			}
+		}
+
+		return compiledPipeline;
+	}
+
+	private CachedSchema getSchema( String path ) {
+
+		long cacheGeneration;
+
+		mCacheLock.lock();
+
+		try {
+			CachedSchema schema = mCache.get( path );
+
+			if ( schema != null ) {
+				return schema;
+			}
+
+			cacheGeneration = mCacheGeneration;
+		} finally {
+			mCacheLock.unlock();
+		}
+
+		// Inspect outside of the lock. Two threads may occasionally inspect the same path at the
+		// same time, but the result is the same either way
+
+		Element inspectionResult = inspectAsDom( path );
+
+		if ( inspectionResult == null ) {
+			return null;
+		}
+
+		CachedSchema schema = new CachedSchema( inspectionResult );
+
+		// If the cache was cleared while we were inspecting, our schema may be stale. Serve it,
+		// but do not cache it
+
+		mCacheLock.lock();
+
+		try {
+			if ( mCacheGeneration == cacheGeneration ) {
+				mCache.put( path, schema );
+			}
+		} finally {
+			mCacheLock.unlock();
+		}
+
+		return schema;
+	}
+
+	private static boolean acceptsGzip( HttpServletRequest request ) {
+
+		Enumeration<?> acceptEncodings = request.getHeaders( "Accept-Encoding" );
+
+		if ( acceptEncodings == null ) {
+			return false;
+		}
+
+		while ( acceptEncodings.hasMoreElements() ) {
+			for ( String encoding : ArrayUtils.fromString( (String) acceptEncodings.nextElement() ) ) {
+
+				String[] nameAndParameters = ArrayUtils.fromString( encoding, ';' );
+
+				if ( !GZIP.equals( nameAndParameters[0] ) ) {
+					continue;
+				}
+
+				// Respect 'gzip;q=0'
+
+				for ( int loop = 1; loop < nameAndParameters.length; loop++ ) {
+					String parameter = nameAndParameters[loop];
+
+					if ( parameter.startsWith( "q=" ) ) {
+						try {
+							return Float.parseFloat( parameter.substring( 2 ) ) > 0;
+						} catch ( NumberFormatException e ) {
+							return false;
+						}
+					}
+				}
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Uses the weak comparison function, as per RFC 7232 for <code>If-None-Match</code>.
+	 */
+
+	private static boolean matchesETag( String ifNoneMatch, String eTag ) {
+
+		if ( ifNoneMatch == null ) {
+			return false;
+		}
+
+		String opaqueTag = stripWeak( eTag );
+
+		for ( String candidate : ArrayUtils.fromString( ifNoneMatch ) ) {
+			if ( "*".equals( candidate ) || opaqueTag.equals( stripWeak( candidate ) ) ) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static String stripWeak( String eTag ) {
+
+		if ( eTag.startsWith( "W/" ) ) {
+			return eTag.substring( 2 );
+		}
+
+		return eTag;
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * A serialized JSON Schema, its gzipped equivalent, and its ETag. Immutable.
+	 */
+
+	private static class CachedSchema {
+
+		//
+		// Private members
+		//
+
+		private final byte[]	mJson;
+
+		private final byte[]	mGzipped;
+
+		private final String	mETag;
+
+		//
+		// Constructor
+		//
+
+		public CachedSchema( Element inspectionResult ) {
+
+			try {
+				// Stream the JSON Schema straight to bytes, without an intermediate String
+
+				ByteArrayOutputStream json = new ByteArrayOutputStream();
+				XmlUtils.inspectionResultToJsonSchema( inspectionResult, json );
+				mJson = json.toByteArray();
+
+				ByteArrayOutputStream gzipped = new ByteArrayOutputStream( mJson.length / 4 + 32 );
+				GZIPOutputStream out = new GZIPOutputStream( gzipped );
+				out.write( mJson );
+				out.close();
+				mGzipped = gzipped.toByteArray();
+
+				byte[] hash = MessageDigest.getInstance( "SHA-1" ).digest( mJson );
+				StringBuilder builder = new StringBuilder( "W/\"" );
+
+				for ( byte b : hash ) {
+					builder.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) );
+					builder.append( Character.forDigit( b & 0xF, 16 ) );
+				}
+
+				builder.append( '\"' );
+				mETag = builder.toString();
+			} catch ( Exception e ) {
+				throw MetawidgetException.newException( e );
+			}
+		}
+
+		//
+		// Public methods
+		//
+
+		public byte[] getJson() {
+
+			return mJson;
+		}
+
+		public byte[] getGzipped() {
+
+			return mGzipped;
+		}
+
+		public String getETag() {
+
+			return mETag;
+		}
+	}
+
+	/**
+	 * Use the Pipeline for its Inspector/InspectionResultProcessor support.
+	 */
+
+	protected class JsonSchemaServletPipeline
+		extends W3CPipeline<Object, Object, JsonSchemaServlet> {
+
+		//
+		// Protected methods
+		//
+
+		/**
+		 * Overridden to clear the cache, as the Inspectors may have changed.
+		 */
+
+		@Override
+		protected void configure() {
+
+			super.configure();
+			clearCache();
+		}
+
+		@Override
+		protected String getDefaultConfiguration() {
+
+			return ClassUtils.getPackagesAsFolderNames( JsonSchemaServlet.class ) + "/metawidget-jsonschema-default.xml";
+		}
+
+		@Override
+		protected JsonSchemaServlet getPipelineOwner() {
+
+			// For passing to processInspectionResult
+
+			return JsonSchemaServlet.this;
+		}
+
+		//
+		// Unsupported protected methods (these are for client-side)
+		//
+
+		@Override
+		protected Map<String, String> getAdditionalAttributes( Object stub ) {
+
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		protected JsonSchemaServlet buildNestedMetawidget( Map<String, String> attributes )
+			throws Exception {
+
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -108,6 +108,34 @@ public class JsonSchemaInspectorTest
 		assertEquals( null, inspector.inspect( null, "fooObject", "path1" ) );
 	}
 
+	public void testBadPropertyOnlyFailsItsOwnInspections() {
+
+		String json = "{ properties: { \"good\": { \"goodProp\": true, properties: { \"nested\": { \"nestedProp\": 1 } } }, \"other\": { properties: { \"badProp\": \"bad\" } } } }";
+		JsonSchemaInspector inspector = new JsonSchemaInspector( new JsonInspectorConfig().setInputStream( new ByteArrayInputStream( json.getBytes() ) ) );
+
+		// Inspections that include the bad property fail, every time
+
+		for ( int loop = 0; loop < 2; loop++ ) {
+			try {
+				inspector.inspect( null, "fooObject", "other" );
+				fail();
+			} catch ( InspectorException e ) {
+				assertEquals( "'badProp' is not a " + JsonObject.class, e.getMessage() );
+			}
+		}
+
+		// ...but others do not
+
+		Document document = XmlUtils.documentFromString( inspector.inspect( null, "fooObject" ) );
+		assertEquals( 2, document.getDocumentElement().getFirstChild().getChildNodes().getLength() );
+
+		document = XmlUtils.documentFromString( inspector.inspect( null, "fooObject", "good" ) );
+		Element entity = (Element) document.getDocumentElement().getFirstChild();
+		assertEquals( "true", entity.getAttribute( "goodProp" ) );
+		assertEquals( "nested", ( (Element) entity.getFirstChild() ).getAttribute( NAME ) );
+		assertEquals( "1", ( (Element) entity.getFirstChild() ).getAttribute( "nestedProp" ) );
+	}
+
 	public void testTraversal() {
 
 		String json = "{ properties: { \"path1\": { \"properties\": { \"foo\": { \"fooProp\": \"Foo\" }}, \"bar\": 42 }, \"path2\": { \"baz\": true }}}";
@@ -0,0 +1,309 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.json.schema.remote;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import junit.framework.TestCase;
+
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.propertytype.PropertyTypeInspector;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.IOUtils;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class JsonSchemaServletTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testJsonSchemaServlet()
+		throws Exception {
+
+		JsonSchemaServlet servlet = new JsonSchemaServlet();
+		servlet.init( newServletConfig() );
+
+		// Default configuration
+
+		MockResponse response = get( servlet, "/" + Foo.class.getName(), null, null );
+		assertEquals( HttpServletResponse.SC_OK, response.getStatus() );
+		assertEquals( "application/json", response.getHeaders().get( "Content-Type" ) );
+		assertEquals( "{\"properties\":{\"bar\":{\"propertyOrder\":0,\"type\":\"string\"},\"baz\":{\"noSetter\":\"true\",\"propertyOrder\":1,\"type\":\"number\"}}}", response.getContent() );
+		assertEquals( null, response.getHeaders().get( "Content-Encoding" ) );
+
+		String eTag = response.getHeaders().get( "ETag" );
+		assertTrue( eTag.startsWith( "W/\"" ) );
+
+		// Not modified
+
+		response = get( servlet, "/" + Foo.class.getName(), eTag, null );
+		assertEquals( HttpServletResponse.SC_NOT_MODIFIED, response.getStatus() );
+		assertEquals( eTag, response.getHeaders().get( "ETag" ) );
+		assertEquals( "", response.getContent() );
+
+		response = get( servlet, "/" + Foo.class.getName(), "\"abc\", " + eTag.substring( 2 ), null );
+		assertEquals( HttpServletResponse.SC_NOT_MODIFIED, response.getStatus() );
+
+		response = get( servlet, "/" + Foo.class.getName(), "\"abc\"", null );
+		assertEquals( HttpServletResponse.SC_OK, response.getStatus() );
+
+		// Gzip
+
+		response = get( servlet, "/" + Foo.class.getName(), null, "deflate, gzip" );
+		assertEquals( "gzip", response.getHeaders().get( "Content-Encoding" ) );
+		assertEquals( "Accept-Encoding", response.getHeaders().get( "Vary" ) );
+		assertEquals( eTag, response.getHeaders().get( "ETag" ) );
+		ByteArrayOutputStream unzipped = new ByteArrayOutputStream();
+		IOUtils.streamBetween( new GZIPInputStream( new ByteArrayInputStream( response.getBytes() ) ), unzipped );
+		assertTrue( unzipped.toString( "UTF-8" ).startsWith( "{\"properties\":{\"bar\":" ) );
+
+		response = get( servlet, "/" + Foo.class.getName(), null, "gzip;q=0" );
+		assertEquals( null, response.getHeaders().get( "Content-Encoding" ) );
+
+		// Not found
+
+		assertEquals( HttpServletResponse.SC_NOT_FOUND, get( servlet, "/", null, null ).getStatus() );
+		assertEquals( HttpServletResponse.SC_NOT_FOUND, get( servlet, null, null, null ).getStatus() );
+
+		// (PropertyTypeInspector cannot traverse nested paths without an Object to inspect)
+
+		assertEquals( HttpServletResponse.SC_NOT_FOUND, get( servlet, "/" + Foo.class.getName() + "/bar", null, null ).getStatus() );
+
+		// Cache is cleared when Inspectors change
+
+		servlet.setInspector( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				if ( names.length > 0 ) {
+					return "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\"><entity type=\"" + type + "\" label=\"" + names[names.length - 1] + "\"/></inspection-result>";
+				}
+
+				return "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\"><entity type=\"" + type + "\" label=\"Foo\"/></inspection-result>";
+			}
+		} );
+
+		response = get( servlet, "/" + Foo.class.getName(), eTag, null );
+		assertEquals( HttpServletResponse.SC_OK, response.getStatus() );
+		assertEquals( "{\"title\":\"Foo\"}", response.getContent() );
+
+		// Nested path
+
+		response = get( servlet, "/" + Foo.class.getName() + "/bar/baz", null, null );
+		assertEquals( "{\"title\":\"baz\"}", response.getContent() );
+
+		servlet.setInspector( new PropertyTypeInspector() );
+		response = get( servlet, "/" + Foo.class.getName(), eTag, null );
+		assertEquals( HttpServletResponse.SC_NOT_MODIFIED, response.getStatus() );
+	}
+
+	public void testClearCacheDuringInspection()
+		throws Exception {
+
+		final JsonSchemaServlet servlet = new JsonSchemaServlet();
+		servlet.init( newServletConfig() );
+
+		final int[] inspections = new int[1];
+
+		servlet.setInspector( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				inspections[0]++;
+
+				// Simulate another thread clearing the cache mid-inspection
+
+				if ( inspections[0] == 1 ) {
+					servlet.clearCache();
+				}
+
+				return "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\"><entity type=\"" + type + "\" label=\"Foo" + inspections[0] + "\"/></inspection-result>";
+			}
+		} );
+
+		// Stale schema is served, but not cached
+
+		assertEquals( "{\"title\":\"Foo1\"}", get( servlet, "/" + Foo.class.getName(), null, null ).getContent() );
+		assertEquals( "{\"title\":\"Foo2\"}", get( servlet, "/" + Foo.class.getName(), null, null ).getContent() );
+		assertEquals( "{\"title\":\"Foo2\"}", get( servlet, "/" + Foo.class.getName(), null, null ).getContent() );
+		assertEquals( 2, inspections[0] );
+	}
+
+	//
+	// Private methods
+	//
+
+	private static ServletConfig newServletConfig() {
+
+		final ServletContext servletContext = newProxy( ServletContext.class, Collections.<String, Object> emptyMap() );
+		Map<String, Object> config = CollectionUtils.newHashMap();
+		config.put( "getServletContext", servletContext );
+
+		return newProxy( ServletConfig.class, config );
+	}
+
+	private static MockResponse get( JsonSchemaServlet servlet, String pathInfo, String ifNoneMatch, String acceptEncoding )
+		throws Exception {
+
+		Map<String, Object> request = CollectionUtils.newHashMap();
+		request.put( "getPathInfo", pathInfo );
+		request.put( "getHeader:If-None-Match", ifNoneMatch );
+
+		if ( acceptEncoding != null ) {
+			request.put( "getHeaders:Accept-Encoding", Collections.enumeration( Collections.singletonList( acceptEncoding ) ) );
+		}
+
+		MockResponse response = new MockResponse();
+		servlet.doGet( newProxy( HttpServletRequest.class, request ), response.getProxy() );
+
+		return response;
+	}
+
+	/**
+	 * Creates a Proxy that answers each method using the given Map, keyed by either the method name
+	 * or the method name and its first argument.
+	 */
+
+	@SuppressWarnings( "unchecked" )
+	/* package private */static <T> T newProxy( Class<T> iface, final Map<String, Object> answers ) {
+
+		return (T) Proxy.newProxyInstance( iface.getClassLoader(), new Class[] { iface }, new InvocationHandler() {
+
+			public Object invoke( Object proxy, Method method, Object[] args ) {
+
+				if ( args != null && args.length > 0 && answers.containsKey( method.getName() + ":" + args[0] ) ) {
+					return answers.get( method.getName() + ":" + args[0] );
+				}
+
+				return answers.get( method.getName() );
+			}
+		} );
+	}
+
+	//
+	// Inner class
+	//
+
+	public static class Foo {
+
+		//
+		// Public methods
+		//
+
+		public String getBar() {
+
+			return null;
+		}
+
+		public void setBar( @SuppressWarnings( "unused" ) String bar ) {
+
+			// Do nothing
+		}
+
+		public int getBaz() {
+
+			return 0;
+		}
+	}
+
+	/**
+	 * Records the status, headers and content written to an HttpServletResponse.
+	 */
+
+	private static class MockResponse
+		implements InvocationHandler {
+
+		//
+		// Private members
+		//
+
+		private int						mStatus	= HttpServletResponse.SC_OK;
+
+		private Map<String, String>		mHeaders	= CollectionUtils.newHashMap();
+
+		private ByteArrayOutputStream	mContent	= new ByteArrayOutputStream();
+
+		//
+		// Public methods
+		//
+
+		public HttpServletResponse getProxy() {
+
+			return (HttpServletResponse) Proxy.newProxyInstance( HttpServletResponse.class.getClassLoader(), new Class[] { HttpServletResponse.class }, this );
+		}
+
+		public Object invoke( Object proxy, Method method, Object[] args ) {
+
+			String name = method.getName();
+
+			if ( "setStatus".equals( name ) || "sendError".equals( name ) ) {
+				mStatus = (Integer) args[0];
+			} else if ( "setHeader".equals( name ) ) {
+				mHeaders.put( (String) args[0], (String) args[1] );
+			} else if ( "setContentType".equals( name ) ) {
+				mHeaders.put( "Content-Type", (String) args[0] );
+			} else if ( "getOutputStream".equals( name ) ) {
+				return new ServletOutputStream() {
+
+					@Override
+					public void write( int b )
+						throws IOException {
+
+						mContent.write( b );
+					}
+				};
+			}
+
+			return null;
+		}
+
+		public int getStatus() {
+
+			return mStatus;
+		}
+
+		public Map<String, String> getHeaders() {
+
+			return mHeaders;
+		}
+
+		public byte[] getBytes() {
+
+			return mContent.toByteArray();
+		}
+
+		public String getContent()
+			throws IOException {
+
+			return mContent.toString( "UTF-8" );
+		}
+	}
+}
@@ -87,7 +87,7 @@ public class HtmlWidgetBuilder
 		String lookup = attributes.get( LOOKUP );
 
 		if ( lookup != null && !"".equals( lookup ) ) {
-			return createSelectTag( CollectionUtils.fromString( lookup ), CollectionUtils.fromString( attributes.get( LOOKUP_LABELS ) ), attributes, metawidget );
+			return createSelectTag( WidgetBuilderUtils.parseLookup( lookup ), WidgetBuilderUtils.parseLookup( attributes.get( LOOKUP_LABELS ) ), attributes, metawidget );
 		}
 
 		if ( clazz != null ) {
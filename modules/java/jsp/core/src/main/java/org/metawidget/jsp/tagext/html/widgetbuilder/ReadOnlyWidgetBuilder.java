@@ -27,7 +27,6 @@ import org.metawidget.jsp.tagext.html.HtmlStubTag;
 import org.metawidget.jsp.tagext.html.widgetprocessor.HiddenFieldProcessor;
 import org.metawidget.jsp.tagext.layout.SimpleLayout;
 import org.metawidget.util.ClassUtils;
-import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 
@@ -150,11 +149,11 @@ public class ReadOnlyWidgetBuilder
 		String lookupLabels = attributes.get( LOOKUP_LABELS );
 
 		if ( lookupLabels != null ) {
-			List<String> lookupList = CollectionUtils.fromString( attributes.get( LOOKUP ) );
+			List<String> lookupList = WidgetBuilderUtils.parseLookup( attributes.get( LOOKUP ) );
 			int indexOf = lookupList.indexOf( value );
 
 			if ( indexOf != -1 ) {
-				List<String> lookupLabelsList = CollectionUtils.fromString( lookupLabels );
+				List<String> lookupLabelsList = WidgetBuilderUtils.parseLookup( lookupLabels );
 
 				if ( indexOf < lookupLabelsList.size() ) {
 					value = lookupLabelsList.get( indexOf );
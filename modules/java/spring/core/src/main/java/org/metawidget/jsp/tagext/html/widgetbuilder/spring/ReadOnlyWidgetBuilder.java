@@ -21,7 +21,7 @@ import javax.servlet.jsp.tagext.Tag;
 import org.metawidget.jsp.tagext.LiteralTag;
 import org.metawidget.jsp.tagext.MetawidgetTag;
 import org.metawidget.jsp.tagext.html.HtmlStubTag;
-import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.util.simple.StringUtils;
 import org.springframework.web.servlet.support.RequestContext;
 import org.springframework.web.servlet.tags.RequestContextAwareTag;
@@ -53,11 +53,11 @@ public class ReadOnlyWidgetBuilder
 		String lookupLabels = attributes.get( LOOKUP_LABELS );
 
 		if ( lookupLabels != null ) {
-			List<String> lookupList = CollectionUtils.fromString( attributes.get( LOOKUP ) );
+			List<String> lookupList = WidgetBuilderUtils.parseLookup( attributes.get( LOOKUP ) );
 			int indexOf = lookupList.indexOf( value );
 
 			if ( indexOf != -1 ) {
-				List<String> lookupLabelsList = CollectionUtils.fromString( lookupLabels );
+				List<String> lookupLabelsList = WidgetBuilderUtils.parseLookup( lookupLabels );
 
 				if ( indexOf < lookupLabelsList.size() ) {
 					value = lookupLabelsList.get( indexOf );
@@ -98,7 +98,7 @@ public class SpringWidgetBuilder
 		String lookup = attributes.get( LOOKUP );
 
 		if ( lookup != null && !"".equals( lookup ) ) {
-			return createSelectTag( CollectionUtils.fromString( lookup ), CollectionUtils.fromString( attributes.get( LOOKUP_LABELS ) ), attributes );
+			return createSelectTag( WidgetBuilderUtils.parseLookup( lookup ), WidgetBuilderUtils.parseLookup( attributes.get( LOOKUP_LABELS ) ), attributes );
 		}
 
 		if ( clazz != null ) {
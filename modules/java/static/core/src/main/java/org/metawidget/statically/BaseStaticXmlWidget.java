@@ -28,6 +28,12 @@ public abstract class BaseStaticXmlWidget
 	extends BaseStaticWidget
 	implements StaticXmlWidget {
 
+	//
+	// Private statics
+	//
+
+	private static final int	INITIAL_ATTRIBUTES	= 4;
+
 	//
 	// Private members
 	//
@@ -38,7 +44,19 @@ public abstract class BaseStaticXmlWidget
 
 	private String				mNamespaceURI;
 
-	private Map<String, String>	mAttributes;
+	/**
+	 * Attribute names, kept sorted (for consistent unit tests) and parallel to
+	 * <code>mAttributeValues</code>.
+	 * <p>
+	 * Most widgets have only a handful of attributes, so sorted arrays are considerably more compact
+	 * than a <code>TreeMap</code>.
+	 */
+
+	private String[]			mAttributeNames;
+
+	private String[]			mAttributeValues;
+
+	private int					mAttributeCount;
 
 	private String				mTextContent;
 
@@ -88,23 +106,44 @@ public abstract class BaseStaticXmlWidget
 
 	public String getAttribute( String name ) {
 
-		if ( mAttributes == null ) {
+		int index = indexOfAttribute( name );
+
+		if ( index < 0 ) {
 			return null;
 		}
 
-		return mAttributes.get( name );
+		return mAttributeValues[index];
 	}
 
 	public void putAttribute( String name, String value ) {
 
-		if ( mAttributes == null ) {
+		int index = indexOfAttribute( name );
 
-			// (use TreeMap for consistent unit tests)
+		if ( index >= 0 ) {
+			mAttributeValues[index] = value;
+			return;
+		}
 
-			mAttributes = CollectionUtils.newTreeMap();
+		if ( mAttributeNames == null ) {
+			mAttributeNames = new String[INITIAL_ATTRIBUTES];
+			mAttributeValues = new String[INITIAL_ATTRIBUTES];
+		} else if ( mAttributeCount == mAttributeNames.length ) {
+			String[] attributeNames = new String[mAttributeCount * 2];
+			String[] attributeValues = new String[mAttributeCount * 2];
+			System.arraycopy( mAttributeNames, 0, attributeNames, 0, mAttributeCount );
+			System.arraycopy( mAttributeValues, 0, attributeValues, 0, mAttributeCount );
+			mAttributeNames = attributeNames;
+			mAttributeValues = attributeValues;
 		}
 
-		mAttributes.put( name, value );
+		// Insert in sorted position
+
+		int insertAt = -( index + 1 );
+		System.arraycopy( mAttributeNames, insertAt, mAttributeNames, insertAt + 1, mAttributeCount - insertAt );
+		System.arraycopy( mAttributeValues, insertAt, mAttributeValues, insertAt + 1, mAttributeCount - insertAt );
+		mAttributeNames[insertAt] = name;
+		mAttributeValues[insertAt] = value;
+		mAttributeCount++;
 	}
 
 	public String getTextContent() {
@@ -242,13 +281,38 @@ public abstract class BaseStaticXmlWidget
 
 		writer.append( mTagName );
 
-		if ( mAttributes != null ) {
+		for ( int loop = 0; loop < mAttributeCount; loop++ ) {
+			writeAttribute( new LeadingSpaceWriter( writer ), mAttributeNames[loop], mAttributeValues[loop] );
+		}
+	}
+
+	/**
+	 * Binary search for the given attribute name.
+	 *
+	 * @return the index of the attribute, or <code>-( insertion point + 1 )</code> if there is no
+	 *         such attribute (as per <code>Arrays.binarySearch</code>)
+	 */
+
+	private int indexOfAttribute( String name ) {
+
+		int low = 0;
+		int high = mAttributeCount - 1;
 
-			for ( Map.Entry<String, String> entry : mAttributes.entrySet() ) {
+		while ( low <= high ) {
 
-				writeAttribute( new LeadingSpaceWriter( writer ), entry.getKey(), entry.getValue() );
+			int middle = ( low + high ) >>> 1;
+			int compare = mAttributeNames[middle].compareTo( name );
+
+			if ( compare < 0 ) {
+				low = middle + 1;
+			} else if ( compare > 0 ) {
+				high = middle - 1;
+			} else {
+				return middle;
 			}
 		}
+
+		return -( low + 1 );
 	}
 
 	private void writeEndTag( Writer writer )
@@ -193,6 +193,24 @@ public abstract class StaticMetawidget
 		}
 	}
 
+	/**
+	 * Copies this Metawidget's configured pipeline (its ConfigReader, Inspector,
+	 * InspectionResultProcessors, WidgetBuilder, WidgetProcessors and Layout, plus its read-only and
+	 * maximum inspection depth settings) to the given Metawidget, without reconfiguring it.
+	 * <p>
+	 * Useful for generating many Metawidgets from a single configuration (see
+	 * <code>StaticMetawidgetGenerator</code>). Unlike <code>initNestedMetawidget</code>, does not
+	 * set a path or reduce the maximum inspection depth.
+	 */
+
+	public void initSiblingMetawidget( StaticMetawidget siblingMetawidget ) {
+
+		siblingMetawidget.setConfig( null );
+		siblingMetawidget.setConfigReader( getConfigReader() );
+		mPipeline.initNestedPipeline( siblingMetawidget.mPipeline, null );
+		siblingMetawidget.setMaximumInspectionDepth( mPipeline.getMaximumInspectionDepth() );
+	}
+
 	@SuppressWarnings( { "unchecked" } )
 	public void setInspectionResultProcessors( InspectionResultProcessor<? extends StaticMetawidget>... inspectionResultProcessors ) {
 
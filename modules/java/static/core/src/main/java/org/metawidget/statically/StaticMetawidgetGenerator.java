@@ -0,0 +1,601 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.statically;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.metawidget.iface.MetawidgetException;
+import org.metawidget.inspector.iface.DomInspector;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.util.ArrayUtils;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.LogUtils;
+import org.metawidget.util.LogUtils.Log;
+import org.metawidget.util.XmlUtils;
+import org.metawidget.util.simple.PathUtils;
+import org.metawidget.util.simple.PathUtils.TypeAndNames;
+import org.metawidget.util.simple.StringUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Bulk driver for generating many static Metawidgets (eg. scaffolding views for every entity in an
+ * application) in one go.
+ * <p>
+ * The generator:
+ * <p>
+ * <ul>
+ * <li>configures a single, prototype <code>StaticMetawidget</code> and shares its pipeline
+ * (Inspectors, WidgetBuilders, Layouts etc. are immutable) with every generated Metawidget</li>
+ * <li>generates Metawidgets in parallel, across all available processors by default</li>
+ * <li>records, in a manifest file, a hash of each path's inspection results (including those of
+ * its nested Metawidgets) and skips paths whose hash is unchanged since the previous run (and whose
+ * output file still exists) without building any widgets</li>
+ * </ul>
+ * <p>
+ * Each manifest entry also records which paths were inspected during generation, so that
+ * subsequent runs need only re-inspect those paths. The hash also covers per-path settings (see
+ * <code>getSettings</code>). It does <em>not</em> cover the pipeline itself: if you change the
+ * WidgetBuilders, Layouts etc. programmatically (rather than via a different configuration
+ * file), delete the manifest.
+ * <p>
+ * Subclasses can override <code>initMetawidget</code> to apply per-path settings (eg.
+ * <code>setId</code> or <code>setValue</code>).
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class StaticMetawidgetGenerator {
+
+	//
+	// Private statics
+	//
+
+	private static final Log			LOG			= LogUtils.getLog( StaticMetawidgetGenerator.class );
+
+	private static final int			BUFFER_SIZE	= 8192;
+
+	//
+	// Private members
+	//
+
+	private final StaticMetawidget		mPrototype;
+
+	private File						mManifest;
+
+	private int							mThreads;
+
+	private Charset						mCharset;
+
+	private int							mInitialIndent;
+
+	//
+	// Constructor
+	//
+
+	/**
+	 * @param prototype
+	 *            a configured StaticMetawidget, whose pipeline will be shared by every generated
+	 *            Metawidget. Must have a public, no-args constructor
+	 */
+
+	public StaticMetawidgetGenerator( StaticMetawidget prototype ) {
+
+		mPrototype = prototype;
+		mThreads = Runtime.getRuntime().availableProcessors();
+		mCharset = Charset.forName( "UTF-8" );
+		mInitialIndent = -1;
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Sets the manifest file used to skip unchanged paths. If null (the default), every path is
+	 * always generated.
+	 */
+
+	public void setManifest( File manifest ) {
+
+		mManifest = manifest;
+	}
+
+	/**
+	 * Sets the number of threads to generate with. Defaults to the number of available processors.
+	 */
+
+	public void setThreads( int threads ) {
+
+		mThreads = threads;
+	}
+
+	public void setCharset( Charset charset ) {
+
+		mCharset = charset;
+	}
+
+	/**
+	 * Sets the initialIndent passed to <code>StaticMetawidget.write</code>. Defaults to -1 (no
+	 * indenting).
+	 */
+
+	public void setInitialIndent( int initialIndent ) {
+
+		mInitialIndent = initialIndent;
+	}
+
+	/**
+	 * Generates a Metawidget for each of the given paths, writing it to the corresponding File.
+	 *
+	 * @return the paths that were (re)generated, sorted. Paths skipped because they were unchanged
+	 *         are not included
+	 */
+
+	public List<String> generate( Map<String, File> pathsAndFiles ) {
+
+		// Configure the prototype up front, so that worker threads only ever read from it
+
+		mPrototype.getConfigReader();
+		mPrototype.getInspector();
+
+		Properties previousManifest = readManifest();
+		Properties manifest = new Properties();
+
+		ExecutorService executor = Executors.newFixedThreadPool( Math.max( 1, Math.min( mThreads, pathsAndFiles.size() ) ) );
+
+		try {
+			Map<GenerateTask, Future<Boolean>> futures = CollectionUtils.newLinkedHashMap();
+
+			for ( Map.Entry<String, File> entry : pathsAndFiles.entrySet() ) {
+				GenerateTask task = new GenerateTask( entry.getKey(), entry.getValue(), previousManifest.getProperty( entry.getKey() ) );
+				futures.put( task, executor.submit( task ) );
+			}
+
+			List<String> generated = CollectionUtils.newArrayList();
+
+			for ( Map.Entry<GenerateTask, Future<Boolean>> entry : futures.entrySet() ) {
+
+				GenerateTask task = entry.getKey();
+
+				if ( entry.getValue().get() ) {
+					generated.add( task.getPath() );
+				}
+
+				manifest.setProperty( task.getPath(), task.getManifestEntry() );
+			}
+
+			writeManifest( manifest );
+			Collections.sort( generated );
+
+			LOG.debug( "Generated {0} of {1} Metawidgets", generated.size(), pathsAndFiles.size() );
+
+			return generated;
+		} catch ( ExecutionException e ) {
+			throw MetawidgetException.newException( e.getCause() );
+		} catch ( InterruptedException e ) {
+			throw MetawidgetException.newException( e );
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	//
+	// Protected methods
+	//
+
+	/**
+	 * Initialize a generated Metawidget for the given path. Subclasses can override this to apply
+	 * per-path settings.
+	 */
+
+	protected void initMetawidget( StaticMetawidget metawidget, String path ) {
+
+		metawidget.setPath( path );
+	}
+
+	/**
+	 * Returns the settings of the given, initialized Metawidget that affect its output but not its
+	 * inspection results. These are included in the manifest hash, so that changing them
+	 * regenerates the path even though its inspection results are unchanged.
+	 * <p>
+	 * By default, returns the Metawidget's class, configuration, read-only setting and (for
+	 * <code>StaticXmlMetawidget</code>s) attributes and text content. Subclasses that override
+	 * <code>initMetawidget</code> to apply other settings should override this method too.
+	 */
+
+	protected String getSettings( StaticMetawidget metawidget ) {
+
+		StringBuilder builder = new StringBuilder( metawidget.getClass().getName() );
+		builder.append( '|' ).append( mPrototype.getConfig() );
+		builder.append( '|' ).append( metawidget.isReadOnly() );
+		builder.append( '|' ).append( mInitialIndent );
+		builder.append( '|' ).append( mCharset.name() );
+
+		if ( metawidget instanceof StaticXmlMetawidget ) {
+			StaticXmlMetawidget xmlMetawidget = (StaticXmlMetawidget) metawidget;
+			builder.append( '|' ).append( xmlMetawidget.getAttributes() );
+			builder.append( '|' ).append( xmlMetawidget.getTextContent() );
+		}
+
+		return builder.toString();
+	}
+
+	//
+	// Private methods
+	//
+
+	private StaticMetawidget newMetawidget( String path )
+		throws Exception {
+
+		StaticMetawidget metawidget = mPrototype.getClass().newInstance();
+		mPrototype.initSiblingMetawidget( metawidget );
+		initMetawidget( metawidget, path );
+
+		return metawidget;
+	}
+
+	private MessageDigest newDigest( StaticMetawidget metawidget )
+		throws Exception {
+
+		MessageDigest digest = MessageDigest.getInstance( "SHA-1" );
+		digest.update( getSettings( metawidget ).getBytes( "UTF-8" ) );
+
+		return digest;
+	}
+
+	/**
+	 * Digests a single inspection, as recorded in the manifest.
+	 */
+
+	private void digest( MessageDigest digest, String path, Element inspectionResult )
+		throws Exception {
+
+		digest.update( path.getBytes( "UTF-8" ) );
+
+		if ( inspectionResult != null ) {
+			digest.update( XmlUtils.nodeToString( inspectionResult, false ).getBytes( "UTF-8" ) );
+		}
+	}
+
+	private String toHex( byte[] hash ) {
+
+		StringBuilder builder = new StringBuilder( hash.length * 2 );
+
+		for ( byte b : hash ) {
+			builder.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) );
+			builder.append( Character.forDigit( b & 0xF, 16 ) );
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Renders the given Metawidget straight to the given File, through a chunk-buffered NIO
+	 * channel.
+	 */
+
+	private void writeFile( StaticMetawidget metawidget, File file )
+		throws IOException {
+
+		File parent = file.getParentFile();
+
+		if ( parent != null ) {
+			parent.mkdirs();
+		}
+
+		FileChannel channel = new FileOutputStream( file ).getChannel();
+
+		try {
+			Writer writer = Channels.newWriter( channel, mCharset.newEncoder(), BUFFER_SIZE );
+
+			try {
+				metawidget.write( writer, mInitialIndent );
+			} finally {
+				writer.close();
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Static Metawidgets always inspect types, never objects.
+	 */
+
+	private Element inspectAsDom( Inspector inspector, String type, String... names ) {
+
+		if ( inspector instanceof DomInspector<?> ) {
+
+			@SuppressWarnings( "unchecked" )
+			DomInspector<Element> domInspector = (DomInspector<Element>) inspector;
+			return domInspector.inspectAsDom( null, type, names );
+		}
+
+		Document document = XmlUtils.documentFromString( inspector.inspect( null, type, names ) );
+
+		if ( document == null ) {
+			return null;
+		}
+
+		return document.getDocumentElement();
+	}
+
+	private Properties readManifest() {
+
+		Properties manifest = new Properties();
+
+		if ( mManifest == null || !mManifest.exists() ) {
+			return manifest;
+		}
+
+		try {
+			InputStream in = new FileInputStream( mManifest );
+
+			try {
+				manifest.load( in );
+			} finally {
+				in.close();
+			}
+		} catch ( IOException e ) {
+			throw MetawidgetException.newException( e );
+		}
+
+		return manifest;
+	}
+
+	private void writeManifest( Properties manifest ) {
+
+		if ( mManifest == null ) {
+			return;
+		}
+
+		try {
+			File parent = mManifest.getParentFile();
+
+			if ( parent != null ) {
+				parent.mkdirs();
+			}
+
+			// Write to a temporary file and rename it, so that an interrupted run never leaves a
+			// truncated manifest
+
+			File temp = File.createTempFile( mManifest.getName(), ".tmp", parent );
+
+			try {
+				OutputStream out = new FileOutputStream( temp );
+
+				try {
+					manifest.store( out, "Metawidget inspection hashes" );
+				} finally {
+					out.close();
+				}
+
+				if ( !temp.renameTo( mManifest ) ) {
+
+					// (some platforms cannot rename over an existing file)
+
+					mManifest.delete();
+
+					if ( !temp.renameTo( mManifest ) ) {
+						throw MetawidgetException.newException( "Unable to rename " + temp + " to " + mManifest );
+					}
+				}
+			} finally {
+				temp.delete();
+			}
+		} catch ( IOException e ) {
+			throw MetawidgetException.newException( e );
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Generates a single path, unless its inspection results are unchanged.
+	 */
+
+	private class GenerateTask
+		implements Callable<Boolean> {
+
+		//
+		// Private members
+		//
+
+		private String			mPath;
+
+		private File			mFile;
+
+		private String			mPreviousEntry;
+
+		private String			mHash;
+
+		private List<String>	mInspectedPaths;
+
+		//
+		// Constructor
+		//
+
+		public GenerateTask( String path, File file, String previousEntry ) {
+
+			mPath = path;
+			mFile = file;
+			mPreviousEntry = previousEntry;
+		}
+
+		//
+		// Public methods
+		//
+
+		/**
+		 * @return true if the path was generated, false if it was unchanged
+		 */
+
+		public Boolean call()
+			throws Exception {
+
+			StaticMetawidget metawidget = newMetawidget( mPath );
+
+			// Unchanged? Re-inspect (but do not build) the paths inspected last time
+
+			if ( mPreviousEntry != null && mFile.exists() ) {
+
+				String[] previousEntry = mPreviousEntry.split( " " );
+				MessageDigest digest = newDigest( metawidget );
+				Inspector inspector = metawidget.getInspector();
+
+				for ( int loop = 1; loop < previousEntry.length; loop++ ) {
+					TypeAndNames typeAndNames = PathUtils.parsePath( previousEntry[loop] );
+					digest( digest, previousEntry[loop], inspectAsDom( inspector, typeAndNames.getType(), typeAndNames.getNamesAsArray() ) );
+				}
+
+				mHash = toHex( digest.digest() );
+
+				if ( previousEntry.length > 1 && mHash.equals( previousEntry[0] ) ) {
+					mInspectedPaths = CollectionUtils.newArrayList( previousEntry );
+					mInspectedPaths.remove( 0 );
+					return false;
+				}
+			}
+
+			// Changed: record (and digest) every inspection as we stream the output
+
+			DigestingInspector digestingInspector = new DigestingInspector( metawidget.getInspector(), newDigest( metawidget ) );
+			metawidget.setInspector( digestingInspector );
+			writeFile( metawidget, mFile );
+			mHash = toHex( digestingInspector.getDigest().digest() );
+			mInspectedPaths = digestingInspector.getInspectedPaths();
+
+			return true;
+		}
+
+		public String getPath() {
+
+			return mPath;
+		}
+
+		/**
+		 * Only valid after <code>call</code> has completed.
+		 *
+		 * @return the hash, followed by the space-separated paths that were inspected
+		 */
+
+		public String getManifestEntry() {
+
+			StringBuilder builder = new StringBuilder( mHash );
+
+			for ( String inspectedPath : mInspectedPaths ) {
+				builder.append( ' ' ).append( inspectedPath );
+			}
+
+			return builder.toString();
+		}
+	}
+
+	/**
+	 * Wraps the shared Inspector for the duration of a single <code>GenerateTask</code>, recording
+	 * and digesting every inspection made by the Metawidget (and its nested Metawidgets, which
+	 * inherit the same Inspector).
+	 * <p>
+	 * Not thread-safe, but each instance is only used by a single task.
+	 */
+
+	private class DigestingInspector
+		implements DomInspector<Element> {
+
+		//
+		// Private members
+		//
+
+		private Inspector		mDelegate;
+
+		private MessageDigest	mDigest;
+
+		private List<String>	mInspectedPaths	= CollectionUtils.newArrayList();
+
+		//
+		// Constructor
+		//
+
+		public DigestingInspector( Inspector delegate, MessageDigest digest ) {
+
+			mDelegate = delegate;
+			mDigest = digest;
+		}
+
+		//
+		// Public methods
+		//
+
+		public String inspect( Object toInspect, String type, String... names ) {
+
+			Element inspectionResult = inspectAsDom( toInspect, type, names );
+
+			if ( inspectionResult == null ) {
+				return null;
+			}
+
+			return XmlUtils.nodeToString( inspectionResult, false );
+		}
+
+		public Element inspectAsDom( Object toInspect, String type, String... names ) {
+
+			Element inspectionResult = StaticMetawidgetGenerator.this.inspectAsDom( mDelegate, type, names );
+			String path = type;
+
+			if ( names != null && names.length > 0 ) {
+				path += StringUtils.SEPARATOR_FORWARD_SLASH + ArrayUtils.toString( names, StringUtils.SEPARATOR_FORWARD_SLASH );
+			}
+
+			try {
+				digest( mDigest, path, inspectionResult );
+			} catch ( Exception e ) {
+				throw MetawidgetException.newException( e );
+			}
+
+			mInspectedPaths.add( path );
+
+			return inspectionResult;
+		}
+
+		public MessageDigest getDigest() {
+
+			return mDigest;
+		}
+
+		public List<String> getInspectedPaths() {
+
+			return mInspectedPaths;
+		}
+	}
+}
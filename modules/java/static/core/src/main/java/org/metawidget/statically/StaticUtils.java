@@ -94,34 +94,77 @@ public final class StaticUtils {
 
 		/**
 		 * Write the given characters, inserting indents as necessary.
+		 * <p>
+		 * Characters are passed to the underlying Writer a line at a time, rather than one by one.
 		 */
 
 		@Override
 		public void write( char[] characters, int offset, int length )
 			throws IOException {
 
-			// For each character...
+			int start = offset;
+			int end = offset + length;
+
+			while ( start < end ) {
+
+				writeIndentIfNecessary();
 
-			for ( int loop = offset, end = offset + length; loop < end; loop++ ) {
+				// Write up to (and including) the next newline...
 
-				// ...write indent if necessary...
+				int lineEnd = start;
 
-				if ( mWriteIndent ) {
-					mWriteIndent = false;
-					for ( int indent = 0; indent < mIndent; indent++ ) {
-						mWriter.write( '\t' );
-					}
+				while ( lineEnd < end && characters[lineEnd] != '\n' ) {
+					lineEnd++;
 				}
 
-				// ...then write the character...
+				if ( lineEnd < end ) {
+					lineEnd++;
+					mWriteIndent = true;
+				}
 
-				mWriter.write( characters, loop, 1 );
+				mWriter.write( characters, start, lineEnd - start );
+				start = lineEnd;
+			}
+		}
 
-				// ...and watch for next indent
+		/**
+		 * Overridden to avoid copying the String into a char array.
+		 */
 
-				if ( characters[loop] == '\n' ) {
+		@Override
+		public void write( String string, int offset, int length )
+			throws IOException {
+
+			int start = offset;
+			int end = offset + length;
+
+			while ( start < end ) {
+
+				writeIndentIfNecessary();
+
+				int lineEnd = string.indexOf( '\n', start );
+
+				if ( lineEnd == -1 || lineEnd >= end ) {
+					lineEnd = end;
+				} else {
+					lineEnd++;
 					mWriteIndent = true;
 				}
+
+				mWriter.write( string, start, lineEnd - start );
+				start = lineEnd;
+			}
+		}
+
+		@Override
+		public void write( int character )
+			throws IOException {
+
+			writeIndentIfNecessary();
+			mWriter.write( character );
+
+			if ( character == '\n' ) {
+				mWriteIndent = true;
 			}
 		}
 
@@ -144,6 +187,24 @@ public final class StaticUtils {
 
 			return mWriter.toString();
 		}
+
+		//
+		// Private methods
+		//
+
+		private void writeIndentIfNecessary()
+			throws IOException {
+
+			if ( !mWriteIndent ) {
+				return;
+			}
+
+			mWriteIndent = false;
+
+			for ( int indent = mIndent; indent > 0; indent -= TABS.length() ) {
+				mWriter.write( TABS, 0, Math.min( indent, TABS.length() ) );
+			}
+		}
 	}
 
 	/**
@@ -189,15 +250,36 @@ public final class StaticUtils {
 		public void write( char[] characters, int offset, int length )
 			throws IOException {
 
-			for ( int loop = offset, end = offset + length; loop < end; loop++ ) {
+			if ( length == 0 ) {
+				return;
+			}
+
+			writeLeadingSpaceIfNecessary();
+			mWriter.write( characters, offset, length );
+		}
 
-				if ( mWriteLeadingSpace ) {
-					mWriter.write( ' ' );
-					mWriteLeadingSpace = false;
-				}
+		/**
+		 * Overridden to avoid copying the String into a char array.
+		 */
+
+		@Override
+		public void write( String string, int offset, int length )
+			throws IOException {
 
-				mWriter.write( characters, loop, 1 );
+			if ( length == 0 ) {
+				return;
 			}
+
+			writeLeadingSpaceIfNecessary();
+			mWriter.write( string, offset, length );
+		}
+
+		@Override
+		public void write( int character )
+			throws IOException {
+
+			writeLeadingSpaceIfNecessary();
+			mWriter.write( character );
 		}
 
 		@Override
@@ -213,8 +295,27 @@ public final class StaticUtils {
 
 			mWriter.close();
 		}
+
+		//
+		// Private methods
+		//
+
+		private void writeLeadingSpaceIfNecessary()
+			throws IOException {
+
+			if ( mWriteLeadingSpace ) {
+				mWriter.write( ' ' );
+				mWriteLeadingSpace = false;
+			}
+		}
 	}
 
+	//
+	// Private statics
+	//
+
+	private static final String	TABS	= "\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t";
+
 	//
 	// Private constructor
 	//
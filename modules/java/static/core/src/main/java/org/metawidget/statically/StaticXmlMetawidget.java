@@ -12,6 +12,7 @@
 package org.metawidget.statically;
 
 import java.io.Writer;
+import java.util.Collections;
 import java.util.Map;
 
 import org.metawidget.iface.MetawidgetException;
@@ -61,6 +62,19 @@ public abstract class StaticXmlMetawidget
 		return mAttributes.get( name );
 	}
 
+	/**
+	 * @return an unmodifiable view of this Metawidget's attributes, sorted by name. Never null
+	 */
+
+	public Map<String, String> getAttributes() {
+
+		if ( mAttributes == null ) {
+			return Collections.emptyMap();
+		}
+
+		return Collections.unmodifiableMap( mAttributes );
+	}
+
 	public String getPrefix() {
 
 		return "m";
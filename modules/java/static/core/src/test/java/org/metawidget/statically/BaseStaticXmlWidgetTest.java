@@ -11,8 +11,12 @@
 
 package org.metawidget.statically;
 
+import java.io.StringWriter;
+
 import junit.framework.TestCase;
 
+import org.metawidget.statically.StaticUtils.IndentedWriter;
+
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -37,4 +41,49 @@ public class BaseStaticXmlWidgetTest
 		widget.putAttribute( "abc", null );
 		assertEquals( "<foo bar=\"\" baz=\"BAZ\"/>", widget.toString() );
 	}
+
+	public static void testManyAttributes() {
+
+		BaseStaticXmlWidget widget = new BaseStaticXmlWidget( "x", "foo", "foo.com" ) {
+			// Just a concrete version
+		};
+
+		for ( char c = 'j'; c >= 'a'; c-- ) {
+			widget.putAttribute( String.valueOf( c ), String.valueOf( c ).toUpperCase() );
+		}
+
+		widget.putAttribute( "e", "changed" );
+		assertEquals( "changed", widget.getAttribute( "e" ) );
+		assertEquals( "J", widget.getAttribute( "j" ) );
+		assertEquals( null, widget.getAttribute( "k" ) );
+		assertEquals( "<x:foo a=\"A\" b=\"B\" c=\"C\" d=\"D\" e=\"changed\" f=\"F\" g=\"G\" h=\"H\" i=\"I\" j=\"J\"/>", widget.toString() );
+	}
+
+	public static void testIndentedWriter()
+		throws Exception {
+
+		BaseStaticXmlWidget widget = new BaseStaticXmlWidget( null, "foo", "foo.com" ) {
+			// Just a concrete version
+		};
+
+		BaseStaticXmlWidget child = new BaseStaticXmlWidget( null, "bar", "foo.com" ) {
+			// Just a concrete version
+		};
+
+		child.putAttribute( "baz", "BAZ" );
+		child.setTextContent( "abc" );
+		widget.getChildren().add( child );
+
+		StringWriter writer = new StringWriter();
+		widget.write( new IndentedWriter( writer, 1 ) );
+		assertEquals( "\t<foo>\r\n\t\t<bar baz=\"BAZ\">abc</bar>\r\n\t</foo>\r\n", writer.toString() );
+
+		// Deep indents, and single characters
+
+		writer = new StringWriter();
+		IndentedWriter indentedWriter = new IndentedWriter( writer, 20 );
+		indentedWriter.write( 'a' );
+		indentedWriter.write( "b\nc".toCharArray() );
+		assertEquals( "\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\tab\n\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\tc", writer.toString() );
+	}
 }
@@ -105,7 +105,7 @@ public class HtmlWidgetBuilder
 
 		if ( lookup != null && !"".equals( lookup ) ) {
 			HtmlSelectOneMenu select = new HtmlSelectOneMenu();
-			addSelectItems( select, CollectionUtils.fromString( lookup ), CollectionUtils.fromString( attributes.get( LOOKUP_LABELS ) ), attributes );
+			addSelectItems( select, WidgetBuilderUtils.parseLookup( lookup ), WidgetBuilderUtils.parseLookup( attributes.get( LOOKUP_LABELS ) ), attributes );
 
 			return select;
 		}
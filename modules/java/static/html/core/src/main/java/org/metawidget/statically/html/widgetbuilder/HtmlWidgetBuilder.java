@@ -92,7 +92,7 @@ public class HtmlWidgetBuilder
 
 		if ( lookup != null && !"".equals( lookup ) ) {
 			HtmlSelect select = new HtmlSelect();
-			addSelectItems( select, CollectionUtils.fromString( lookup ), CollectionUtils.fromString( attributes.get( LOOKUP_LABELS ) ), attributes );
+			addSelectItems( select, WidgetBuilderUtils.parseLookup( lookup ), WidgetBuilderUtils.parseLookup( attributes.get( LOOKUP_LABELS ) ), attributes );
 			return select;
 		}
 
@@ -11,10 +11,25 @@
 
 package org.metawidget.statically.html;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.io.StringWriter;
+import java.util.Map;
+import java.util.Properties;
 
 import junit.framework.TestCase;
 
+import org.metawidget.inspector.composite.CompositeInspector;
+import org.metawidget.inspector.composite.CompositeInspectorConfig;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.propertytype.PropertyTypeInspector;
+import org.metawidget.statically.StaticMetawidget;
+import org.metawidget.statically.StaticMetawidgetGenerator;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.IOUtils;
+
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -115,6 +130,168 @@ public class StaticHtmlMetawidgetTest
 		assertEquals( result, writer.toString() );
 	}
 
+	public void testGenerator()
+		throws Exception {
+
+		File directory = File.createTempFile( "metawidget", "" );
+		directory.delete();
+		File fooFile = new File( directory, "foo.html" );
+		File nestedFooFile = new File( directory, "nested/nestedFoo.html" );
+		File manifest = new File( directory, "manifest.properties" );
+
+		Map<String, File> pathsAndFiles = CollectionUtils.newHashMap();
+		pathsAndFiles.put( Foo.class.getName(), fooFile );
+		pathsAndFiles.put( NestedFoo.class.getName(), nestedFooFile );
+
+		final String[] id = new String[] { "foo" };
+
+		StaticMetawidgetGenerator generator = new StaticMetawidgetGenerator( new StaticHtmlMetawidget() ) {
+
+			@Override
+			protected void initMetawidget( StaticMetawidget metawidget, String path ) {
+
+				super.initMetawidget( metawidget, path );
+				( (StaticHtmlMetawidget) metawidget ).setId( id[0] );
+			}
+		};
+
+		generator.setManifest( manifest );
+		generator.setInitialIndent( 0 );
+
+		try {
+			// Generate everything
+
+			assertEquals( CollectionUtils.newArrayList( Foo.class.getName(), NestedFoo.class.getName() ), generator.generate( pathsAndFiles ) );
+
+			StaticHtmlMetawidget metawidget = new StaticHtmlMetawidget();
+			metawidget.setId( "foo" );
+			metawidget.setPath( NestedFoo.class.getName() );
+			StringWriter writer = new StringWriter();
+			metawidget.write( writer, 0 );
+			assertEquals( writer.toString(), readFile( nestedFooFile ) );
+			assertTrue( readFile( fooFile ).startsWith( "<table id=\"foo\">" ) );
+
+			// Manifest records nested inspections, and is written without leaving temporary files
+
+			Properties properties = new Properties();
+			InputStream in = new FileInputStream( manifest );
+			properties.load( in );
+			in.close();
+			assertTrue( properties.getProperty( NestedFoo.class.getName() ).endsWith( " " + NestedFoo.class.getName() + " " + NestedFoo.class.getName() + "/nestedFoo" ) );
+			assertEquals( 3, directory.list().length );
+
+			// Nothing changed
+
+			assertTrue( generator.generate( pathsAndFiles ).isEmpty() );
+
+			// Per-path settings changed (same inspection result, different output)
+
+			id[0] = "bar";
+			assertEquals( CollectionUtils.newArrayList( Foo.class.getName(), NestedFoo.class.getName() ), generator.generate( pathsAndFiles ) );
+			assertTrue( readFile( fooFile ).startsWith( "<table id=\"bar\">" ) );
+			assertTrue( generator.generate( pathsAndFiles ).isEmpty() );
+
+			// Missing output
+
+			fooFile.delete();
+			assertEquals( CollectionUtils.newArrayList( Foo.class.getName() ), generator.generate( pathsAndFiles ) );
+
+			// Missing manifest
+
+			manifest.delete();
+			generator.setThreads( 1 );
+			assertEquals( 2, generator.generate( pathsAndFiles ).size() );
+		} finally {
+			fooFile.delete();
+			nestedFooFile.delete();
+			nestedFooFile.getParentFile().delete();
+			manifest.delete();
+			directory.delete();
+		}
+	}
+
+	public void testGeneratorInspectionChanged()
+		throws Exception {
+
+		File directory = File.createTempFile( "metawidget", "" );
+		directory.delete();
+		File fooFile = new File( directory, "foo.html" );
+		File nestedFooFile = new File( directory, "nestedFoo.html" );
+		File manifest = new File( directory, "manifest.properties" );
+
+		Map<String, File> pathsAndFiles = CollectionUtils.newHashMap();
+		pathsAndFiles.put( Foo.class.getName(), fooFile );
+		pathsAndFiles.put( NestedFoo.class.getName(), nestedFooFile );
+
+		// Inspector whose result for a path can be changed between runs
+
+		final Map<String, String> labels = CollectionUtils.newHashMap();
+
+		Inspector changingInspector = new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				if ( names.length > 0 || !labels.containsKey( type ) ) {
+					return null;
+				}
+
+				return "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\"><entity type=\"" + type + "\"><property name=\"" + labels.get( type ) + "\" label=\"Changed\"/></entity></inspection-result>";
+			}
+		};
+
+		StaticHtmlMetawidget prototype = new StaticHtmlMetawidget();
+		prototype.setInspector( new CompositeInspector( new CompositeInspectorConfig().setInspectors( new PropertyTypeInspector(), changingInspector ) ) );
+		StaticMetawidgetGenerator generator = new StaticMetawidgetGenerator( prototype );
+		generator.setManifest( manifest );
+
+		try {
+			assertEquals( 2, generator.generate( pathsAndFiles ).size() );
+			assertTrue( generator.generate( pathsAndFiles ).isEmpty() );
+			assertTrue( readFile( fooFile ).contains( ">Bar:<" ) );
+
+			// Only the path whose inspection result changed is regenerated
+
+			labels.put( Foo.class.getName(), "bar" );
+			assertEquals( CollectionUtils.newArrayList( Foo.class.getName() ), generator.generate( pathsAndFiles ) );
+			assertTrue( readFile( fooFile ).contains( ">Changed:<" ) );
+			assertTrue( generator.generate( pathsAndFiles ).isEmpty() );
+
+			labels.put( NestedFoo.class.getName(), "abc" );
+			assertEquals( CollectionUtils.newArrayList( NestedFoo.class.getName() ), generator.generate( pathsAndFiles ) );
+			assertTrue( readFile( nestedFooFile ).contains( ">Changed:<" ) );
+
+			// Changed back
+
+			labels.clear();
+			assertEquals( CollectionUtils.newArrayList( Foo.class.getName(), NestedFoo.class.getName() ), generator.generate( pathsAndFiles ) );
+			assertTrue( readFile( fooFile ).contains( ">Bar:<" ) );
+			assertFalse( readFile( nestedFooFile ).contains( ">Changed:<" ) );
+		} finally {
+			fooFile.delete();
+			nestedFooFile.delete();
+			manifest.delete();
+			directory.delete();
+		}
+	}
+
+	//
+	// Private methods
+	//
+
+	private String readFile( File file )
+		throws Exception {
+
+		InputStream in = new FileInputStream( file );
+
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			IOUtils.streamBetween( in, out );
+			return out.toString( "UTF-8" );
+		} finally {
+			in.close();
+		}
+	}
+
 	//
 	// Inner class
 	//
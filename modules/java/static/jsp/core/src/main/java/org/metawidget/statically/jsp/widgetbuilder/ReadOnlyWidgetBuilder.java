@@ -22,7 +22,6 @@ import org.metawidget.statically.StaticXmlMetawidget;
 import org.metawidget.statically.StaticXmlStub;
 import org.metawidget.statically.StaticXmlWidget;
 import org.metawidget.util.ClassUtils;
-import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 
@@ -80,7 +79,7 @@ public class ReadOnlyWidgetBuilder
 
 			// Special support for read-only lookups with labels
 
-			List<String> labels = CollectionUtils.fromString( lookupLabels );
+			List<String> labels = WidgetBuilderUtils.parseLookup( lookupLabels );
 
 			if ( labels.isEmpty() ) {
 				return new CoreOut();
@@ -97,7 +97,7 @@ public class SpringWidgetBuilder
 		String lookup = attributes.get( LOOKUP );
 
 		if ( lookup != null && !"".equals( lookup ) ) {
-			return createFormSelectTag( CollectionUtils.fromString( lookup ), CollectionUtils.fromString( attributes.get( LOOKUP_LABELS ) ), attributes );
+			return createFormSelectTag( WidgetBuilderUtils.parseLookup( lookup ), WidgetBuilderUtils.parseLookup( attributes.get( LOOKUP_LABELS ) ), attributes );
 		}
 
 		if ( clazz != null ) {
@@ -34,4 +34,18 @@ public class StrutsInspectorConfig
 
 		setDefaultFile( "struts-config.xml" );
 	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public StrutsInspectorConfig setSharedModel( boolean sharedModel ) {
+
+		return (StrutsInspectorConfig) super.setSharedModel( sharedModel );
+	}
 }
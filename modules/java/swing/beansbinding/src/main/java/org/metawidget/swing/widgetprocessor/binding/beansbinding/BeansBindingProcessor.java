@@ -20,6 +20,7 @@ import java.util.Set;
 import javax.swing.JComponent;
 import javax.swing.JScrollPane;
 
+import org.jdesktop.beansbinding.AbstractBindingListener;
 import org.jdesktop.beansbinding.AutoBinding.UpdateStrategy;
 import org.jdesktop.beansbinding.BeanProperty;
 import org.jdesktop.beansbinding.Binding;
@@ -28,7 +29,7 @@ import org.jdesktop.beansbinding.Bindings;
 import org.jdesktop.beansbinding.Converter;
 import org.metawidget.swing.SwingMetawidget;
 import org.metawidget.swing.widgetprocessor.binding.BindingConverter;
-import org.metawidget.util.ClassUtils;
+import org.metawidget.swing.widgetprocessor.binding.BindingRebinder;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.util.simple.ObjectUtils;
@@ -36,6 +37,7 @@ import org.metawidget.util.simple.PathUtils;
 import org.metawidget.util.simple.StringUtils;
 import org.metawidget.widgetprocessor.iface.AdvancedWidgetProcessor;
 import org.metawidget.widgetprocessor.iface.WidgetProcessorException;
+import org.metawidget.widgetprocessor.impl.ConverterRegistry;
 
 /**
  * Property binding implementation based on BeansBinding (JSR 295).
@@ -60,15 +62,15 @@ import org.metawidget.widgetprocessor.iface.WidgetProcessorException;
  */
 
 public class BeansBindingProcessor
-	implements AdvancedWidgetProcessor<JComponent, SwingMetawidget>, BindingConverter {
+	implements AdvancedWidgetProcessor<JComponent, SwingMetawidget>, BindingConverter, BindingRebinder {
 
 	//
 	// Private members
 	//
 
-	private final UpdateStrategy							mUpdateStrategy;
+	private final UpdateStrategy						mUpdateStrategy;
 
-	private final Map<ConvertFromTo<?, ?>, Converter<?, ?>>	mConverters	= CollectionUtils.newHashMap();
+	private final ConverterRegistry<Converter<?, ?>>	mConverters	= new ConverterRegistry<Converter<?, ?>>();
 
 	//
 	// Constructor
@@ -96,7 +98,9 @@ public class BeansBindingProcessor
 		// Custom converters (defensive copy)
 
 		if ( config.getConverters() != null ) {
-			mConverters.putAll( config.getConverters() );
+			for ( Map.Entry<ConvertFromTo<?, ?>, Converter<?, ?>> entry : config.getConverters().entrySet() ) {
+				mConverters.register( entry.getKey().getSource(), entry.getKey().getTarget(), entry.getValue() );
+			}
 		}
 	}
 
@@ -148,6 +152,11 @@ public class BeansBindingProcessor
 	 * <em>without</em> calling setToInspect, and therefore without reinspecting the object or
 	 * recreating the components. It is the client's responsbility to ensure the rebound object is
 	 * compatible with the original setToInspect.
+	 * <p>
+	 * The existing Bindings are reused, only their source object is swapped. BeansBinding requires
+	 * a Binding be unbound while its source object changes, but binding it again already
+	 * synchronizes the target, so the outcome of that synchronization is captured rather than
+	 * synchronizing a second time.
 	 */
 
 	public void rebind( Object toRebind, SwingMetawidget metawidget ) {
@@ -158,6 +167,9 @@ public class BeansBindingProcessor
 		// Our bindings
 
 		if ( state.getBindings() != null ) {
+
+			SyncFailureListener listener = new SyncFailureListener();
+
 			for ( org.jdesktop.beansbinding.Binding<Object, ?, ? extends Component, ?> binding : state.getBindings() ) {
 				binding.unbind();
 				binding.setSourceObject( toRebind );
@@ -167,9 +179,15 @@ public class BeansBindingProcessor
 					continue;
 				}
 
-				binding.bind();
+				binding.addBindingListener( listener );
+
+				try {
+					binding.bind();
+				} finally {
+					binding.removeBindingListener( listener );
+				}
 
-				SyncFailure failure = binding.refresh();
+				SyncFailure failure = listener.getFailure();
 
 				if ( failure != null ) {
 					throw WidgetProcessorException.newException( failure.getType().toString() );
@@ -432,38 +450,20 @@ public class BeansBindingProcessor
 
 	private <S, T> void registerConverter( Class<S> source, Class<T> target, Converter<S, T> converter ) {
 
-		mConverters.put( new ConvertFromTo<S, T>( source, target ), converter );
+		mConverters.register( source, target, converter );
 	}
 
 	/**
 	 * Gets the Converter for the given Class (if any).
+	 * <p>
+	 * Includes traversing superclasses of the given <code>sourceClass</code> for a suitable
+	 * Converter. Lookups are cached per pair of classes.
 	 */
 
 	@SuppressWarnings( "unchecked" )
 	private <V, W> Converter<V, W> getConverter( Class<V> sourceClass, Class<W> targetClass ) {
 
-		Class<V> sourceClassTraversal = sourceClass;
-		Class<W> targetClassTraversal = targetClass;
-
-		if ( sourceClassTraversal.isPrimitive() ) {
-			sourceClassTraversal = (Class<V>) ClassUtils.getWrapperClass( sourceClassTraversal );
-		}
-
-		if ( targetClassTraversal.isPrimitive() ) {
-			targetClassTraversal = (Class<W>) ClassUtils.getWrapperClass( targetClassTraversal );
-		}
-
-		while ( sourceClassTraversal != null ) {
-			Converter<V, W> converter = (Converter<V, W>) mConverters.get( new ConvertFromTo<V, W>( sourceClassTraversal, targetClassTraversal ) );
-
-			if ( converter != null ) {
-				return converter;
-			}
-
-			sourceClassTraversal = (Class<V>) sourceClassTraversal.getSuperclass();
-		}
-
-		return null;
+		return (Converter<V, W>) mConverters.getConverter( sourceClass, targetClass );
 	}
 
 	//
@@ -517,6 +517,43 @@ public class BeansBindingProcessor
 		}
 	}
 
+	/**
+	 * Captures the outcome of the synchronization performed by <code>Binding.bind</code>.
+	 */
+
+	private static class SyncFailureListener
+		extends AbstractBindingListener {
+
+		//
+		// Private members
+		//
+
+		private SyncFailure	mFailure;
+
+		//
+		// Public methods
+		//
+
+		@Override
+		@SuppressWarnings( "rawtypes" )
+		public void synced( Binding binding ) {
+
+			mFailure = null;
+		}
+
+		@Override
+		@SuppressWarnings( "rawtypes" )
+		public void syncFailed( Binding binding, SyncFailure failure ) {
+
+			mFailure = failure;
+		}
+
+		public SyncFailure getFailure() {
+
+			return mFailure;
+		}
+	}
+
 	/* package private */static final class ConvertFromTo<S, T> {
 
 		//
@@ -541,6 +578,16 @@ public class BeansBindingProcessor
 		// Public methods
 		//
 
+		public Class<S> getSource() {
+
+			return mSource;
+		}
+
+		public Class<T> getTarget() {
+
+			return mTarget;
+		}
+
 		@Override
 		public boolean equals( Object that ) {
 
@@ -14,6 +14,7 @@ package org.metawidget.swing;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.awt.BasicStroke;
+import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.Container;
 import java.awt.Dimension;
@@ -23,20 +24,25 @@ import java.awt.LayoutManager;
 import java.awt.Rectangle;
 import java.awt.Stroke;
 import java.beans.Beans;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.Executor;
 
 import javax.swing.JComponent;
 import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
 
 import org.metawidget.iface.Immutable;
 import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.layout.iface.Layout;
+import org.metawidget.pipeline.w3c.CompiledPipeline;
 import org.metawidget.pipeline.w3c.W3CPipeline;
+import org.metawidget.swing.widgetprocessor.binding.BindingRebinder;
 import org.metawidget.util.ArrayUtils;
 import org.metawidget.util.ClassUtils;
 import org.metawidget.util.CollectionUtils;
@@ -61,6 +67,29 @@ import org.w3c.dom.Element;
 public class SwingMetawidget
 	extends JComponent {
 
+	//
+	// Public statics
+	//
+
+	/**
+	 * Client property a Layout can set on a JComponent whose contents it has not finished laying
+	 * out yet (eg. a tab that has not been shown). The property's value must be a
+	 * <code>Runnable</code> that finishes the job. SwingMetawidget runs it (and clears the
+	 * property) before searching that JComponent for named components.
+	 */
+
+	public static final String		DEFERRED_LAYOUT		= "metawidget-deferred-layout";
+
+	/**
+	 * Client property a WidgetBuilder can set (to <code>Boolean.TRUE</code>) on the
+	 * SwingMetawidget it is building for, if it builds a component from the <em>values</em> of the
+	 * Object being inspected (eg. a JTable of a Collection), rather than just from the inspection
+	 * result. No <code>BindingRebinder</code> can update such components, so
+	 * <code>setIncrementalRebuild</code> recreates them rather than reusing them.
+	 */
+
+	public static final String		NOT_REBINDABLE		= "metawidget-not-rebindable";
+
 	//
 	// Private statics
 	//
@@ -102,6 +131,60 @@ public class SwingMetawidget
 
 	private Map<String, Facet>		mFacets				= CollectionUtils.newHashMap();
 
+	private Executor				mInspectionExecutor;
+
+	private JComponent				mInspectionPlaceholder;
+
+	/**
+	 * Incremented on every <code>invalidateInspection</code>, so that asynchronous inspection
+	 * results which have since gone stale can be discarded.
+	 */
+
+	private int						mInspectionRequest;
+
+	private boolean					mInspectionInProgress;
+
+	private boolean					mInspectionPlaceholderShown;
+
+	private LayoutManager			mLayoutBeforeInspectionPlaceholder;
+
+	private boolean					mIncrementalRebuild;
+
+	/**
+	 * Inspection result the current widgets were built from, kept during an incremental rebuild so
+	 * that the widgets can be reused if the new inspection result is identical.
+	 */
+
+	private Element					mIncrementalInspectionResult;
+
+	/**
+	 * Whether a pending incremental rebuild must lay out again (eg. after <code>setBundle</code>),
+	 * even if the inspection result is identical.
+	 */
+
+	private boolean					mIncrementalRelayout;
+
+	/**
+	 * Components built by the last build, keyed by name, along with the attributes they were built
+	 * from. Only kept during incremental rebuild.
+	 */
+
+	private Map<String, BuiltComponent>	mBuiltComponents;
+
+	/**
+	 * During an incremental rebuild, the components of the previous build that can be reused if
+	 * their attributes have not changed.
+	 */
+
+	private Map<String, BuiltComponent>	mReusableComponents;
+
+	/**
+	 * Index of named components, for <code>getValues</code> and <code>setValues</code>. Built
+	 * lazily after each build.
+	 */
+
+	private Map<String, Component>	mComponentIndex;
+
 	/* package private */Pipeline	mPipeline;
 
 	//
@@ -127,6 +210,26 @@ public class SwingMetawidget
 	public void setToInspect( Object toInspect ) {
 
 		updateToInspectWithoutInvalidate( toInspect );
+
+		// Keep the existing widgets, in case they can be reused
+
+		if ( mIncrementalRebuild ) {
+			if ( mIncrementalInspectionResult == null && !mNeedToBuildWidgets && mLastInspectionResult != null ) {
+				mIncrementalInspectionResult = mLastInspectionResult;
+			}
+
+			// (if an incremental rebuild is already pending, keep comparing against the same
+			// widgets)
+
+			if ( mIncrementalInspectionResult != null ) {
+				mLastInspectionResult = null;
+				mInspectionRequest++;
+				mNeedToBuildWidgets = true;
+				repaint();
+				return;
+			}
+		}
+
 		invalidateInspection();
 	}
 
@@ -288,7 +391,7 @@ public class SwingMetawidget
 	public void setBundle( ResourceBundle bundle ) {
 
 		mBundle = bundle;
-		invalidateWidgets();
+		invalidateWidgetsIncrementally();
 	}
 
 	/**
@@ -394,7 +497,76 @@ public class SwingMetawidget
 		}
 
 		mPipeline.setReadOnly( readOnly );
-		invalidateWidgets();
+		invalidateWidgetsIncrementally();
+	}
+
+	/**
+	 * Sets an Executor to run inspections on.
+	 * <p>
+	 * By default, SwingMetawidget inspects synchronously, just-in-time as it is painted, laid out
+	 * and so on. This happens on the Event Dispatch Thread, which can freeze the UI if inspection is
+	 * slow (eg. remote metadata). If an Executor is set, inspection (including running the
+	 * <code>InspectionResultProcessors</code>) is instead run on the Executor, the inspection
+	 * placeholder (if any) is shown meanwhile, and widgets are built back on the Event Dispatch
+	 * Thread once inspection completes.
+	 * <p>
+	 * Only one inspection runs at a time. Calls to <code>setToInspect</code> (and so on) made while
+	 * inspecting are coalesced, and only the latest is built. The pipeline is snapshotted on the
+	 * Event Dispatch Thread before each inspection, so calling <code>setInspector</code> (and so
+	 * on) meanwhile is safe, and takes effect from the next inspection. Note the Inspectors and
+	 * InspectionResultProcessors must still be thread-safe (the supplied ones all are).
+	 * <p>
+	 * While an inspection is in flight there are no components yet, so <code>getComponent</code>
+	 * and <code>getValue</code> return null and <code>getValues</code> returns null values.
+	 * <code>setValue</code> and <code>setValues</code> throw a MetawidgetException, as there is
+	 * nothing to set. The exception is an incremental rebuild (see
+	 * <code>setIncrementalRebuild</code>), which keeps the existing components until inspection
+	 * completes.
+	 *
+	 * @param inspectionExecutor
+	 *            the Executor to inspect on, or null to inspect synchronously
+	 */
+
+	public void setInspectionExecutor( Executor inspectionExecutor ) {
+
+		mInspectionExecutor = inspectionExecutor;
+	}
+
+	/**
+	 * Sets the component to show while inspecting asynchronously.
+	 *
+	 * @see #setInspectionExecutor(Executor)
+	 */
+
+	public void setInspectionPlaceholder( JComponent inspectionPlaceholder ) {
+
+		mInspectionPlaceholder = inspectionPlaceholder;
+	}
+
+	/**
+	 * Sets whether <code>setToInspect</code>, <code>setReadOnly</code> and <code>setBundle</code>
+	 * should rebuild incrementally.
+	 * <p>
+	 * By default, they remove and recreate all components. If incremental rebuild is enabled, the
+	 * existing components are kept until the new Object has been inspected. If the new inspection
+	 * result is identical to the previous one (for example, when switching between records of the
+	 * same class), the components are reused and only rebound, using the
+	 * <code>WidgetProcessors</code>' <code>BindingRebinder.rebind</code>. Otherwise the components
+	 * are laid out again, but each component whose attributes have not changed (including any
+	 * <code>READ_ONLY</code> forced by <code>setReadOnly</code>) is reused rather than recreated,
+	 * and is processed again by the WidgetProcessors. Only the components of changed properties
+	 * and actions are recreated. Nested Metawidgets rebuild incrementally too.
+	 * <p>
+	 * Components are only reused if there is at least one WidgetProcessor and every WidgetProcessor
+	 * implements <code>BindingRebinder</code> (the supplied binding implementations all do), and
+	 * if the component was not built from the values of the previous Object (see
+	 * <code>NOT_REBINDABLE</code>). Otherwise a rebind could leave components showing, or bound
+	 * to, the previous Object, so they are recreated instead.
+	 */
+
+	public void setIncrementalRebuild( boolean incrementalRebuild ) {
+
+		mIncrementalRebuild = incrementalRebuild;
 	}
 
 	public int getMaximumInspectionDepth() {
@@ -408,6 +580,29 @@ public class SwingMetawidget
 		invalidateWidgets();
 	}
 
+	public boolean isDeferNestedMetawidgets() {
+
+		return mPipeline.isDeferNestedMetawidgets();
+	}
+
+	/**
+	 * Sets whether nested SwingMetawidgets should be inspected and built lazily.
+	 * <p>
+	 * By default, nested SwingMetawidgets are built immediately, so building a SwingMetawidget
+	 * inspects its entire object graph. If deferred, nested SwingMetawidgets are added as
+	 * placeholders and only inspected and built on first access: when first sized or painted, or
+	 * when <code>getComponent</code>, <code>getValue</code> etc. reach into them.
+	 * <p>
+	 * Note this means the <code>endBuild</code> of a deferred SwingMetawidget is called
+	 * <em>after</em> the <code>endBuild</code> of its parent.
+	 */
+
+	public void setDeferNestedMetawidgets( boolean deferNestedMetawidgets ) {
+
+		mPipeline.setDeferNestedMetawidgets( deferNestedMetawidgets );
+		invalidateWidgets();
+	}
+
 	/**
 	 * Fetch a list of <code>JComponents</code> that were added manually, and have so far not been
 	 * used.
@@ -562,6 +757,12 @@ public class SwingMetawidget
 	@SuppressWarnings( "unchecked" )
 	public <T> T getValue( String... names ) {
 
+		buildWidgets();
+
+		if ( isAwaitingInspection() ) {
+			return null;
+		}
+
 		ComponentAndValueProperty componentAndValueProperty = getComponentAndValueProperty( names );
 		return (T) ClassUtils.getProperty( componentAndValueProperty.getComponent(), componentAndValueProperty.getValueProperty() );
 	}
@@ -580,6 +781,59 @@ public class SwingMetawidget
 		ClassUtils.setProperty( componentAndValueProperty.getComponent(), componentAndValueProperty.getValueProperty(), value );
 	}
 
+	/**
+	 * Gets the values from the Components with the given paths.
+	 * <p>
+	 * Each path is a list of names separated by forward slashes (eg. <code>address/street</code>).
+	 * This is equivalent to calling <code>getValue</code> for each path, but rather than searching
+	 * for each Component in turn, Components are looked up in an index of names that is built once
+	 * per build. The index does not lay out deferred layouts (eg. lazy tabs), so a path that is not
+	 * indexed falls back to searching as per <code>getValue</code>, laying out only the deferred
+	 * layouts it needs.
+	 *
+	 * @return the values, keyed by path, in the same order as the given paths
+	 */
+
+	public Map<String, Object> getValues( Collection<String> paths ) {
+
+		Map<String, Object> values = CollectionUtils.newLinkedHashMap();
+
+		buildWidgets();
+
+		if ( isAwaitingInspection() ) {
+			for ( String path : paths ) {
+				values.put( path, null );
+			}
+
+			return values;
+		}
+
+		for ( String path : paths ) {
+			ComponentAndValueProperty componentAndValueProperty = getIndexedComponentAndValueProperty( path );
+			values.put( path, ClassUtils.getProperty( componentAndValueProperty.getComponent(), componentAndValueProperty.getValueProperty() ) );
+		}
+
+		return values;
+	}
+
+	/**
+	 * Sets the Components with the given paths to the specified values.
+	 * <p>
+	 * This is equivalent to calling <code>setValue</code> for each path. See
+	 * <code>getValues</code>.
+	 *
+	 * @param values
+	 *            the values, keyed by path (eg. <code>address/street</code>)
+	 */
+
+	public void setValues( Map<String, ?> values ) {
+
+		for ( Map.Entry<String, ?> entry : values.entrySet() ) {
+			ComponentAndValueProperty componentAndValueProperty = getIndexedComponentAndValueProperty( entry.getKey() );
+			ClassUtils.setProperty( componentAndValueProperty.getComponent(), componentAndValueProperty.getValueProperty(), entry.getValue() );
+		}
+	}
+
 	/**
 	 * Returns the property used to get/set the value of the component.
 	 * <p>
@@ -614,6 +868,10 @@ public class SwingMetawidget
 
 			if ( topComponent instanceof SwingMetawidget ) {
 				( (SwingMetawidget) topComponent ).buildWidgets();
+
+				if ( ( (SwingMetawidget) topComponent ).isAwaitingInspection() ) {
+					return null;
+				}
 			}
 
 			// Try to find a component
@@ -702,6 +960,7 @@ public class SwingMetawidget
 		nestedMetawidget.setPath( mPath + StringUtils.SEPARATOR_FORWARD_SLASH_CHAR + attributes.get( NAME ) );
 		nestedMetawidget.setBundle( mBundle );
 		nestedMetawidget.setOpaque( isOpaque() );
+		nestedMetawidget.setIncrementalRebuild( mIncrementalRebuild );
 		nestedMetawidget.setToInspect( mToInspect );
 	}
 
@@ -761,6 +1020,7 @@ public class SwingMetawidget
 	protected void invalidateInspection() {
 
 		mLastInspectionResult = null;
+		mInspectionRequest++;
 		invalidateWidgets();
 	}
 
@@ -770,14 +1030,21 @@ public class SwingMetawidget
 
 	protected void invalidateWidgets() {
 
-		if ( mNeedToBuildWidgets ) {
+		if ( mNeedToBuildWidgets && mIncrementalInspectionResult == null ) {
 			return;
 		}
 
+		// (cannot reuse the existing widgets)
+
+		mIncrementalInspectionResult = null;
+		mIncrementalRelayout = false;
+		mComponentIndex = null;
+
 		// Note: it is important to call removeAll BEFORE setting mNeedToBuildWidgets
 		// to true. On some JRE implementations (ie. 1.6_12) removeAll triggers an
 		// immediate repaint which sets mNeedToBuildWidgets back to false
 
+		hideInspectionPlaceholder();
 		super.removeAll();
 
 		// Prepare to build widgets
@@ -825,6 +1092,14 @@ public class SwingMetawidget
 		mPipeline.configureOnce();
 
 		mNeedToBuildWidgets = false;
+
+		// Inspect asynchronously?
+
+		if ( mLastInspectionResult == null && mInspectionExecutor != null && mPath != null ) {
+			inspectAsynchronously();
+			return;
+		}
+
 		mIgnoreAddRemove = true;
 
 		try {
@@ -832,7 +1107,7 @@ public class SwingMetawidget
 				mLastInspectionResult = inspect();
 			}
 
-			mPipeline.buildWidgets( mLastInspectionResult );
+			buildOrRebindWidgets( mLastInspectionResult );
 		} catch ( Exception e ) {
 			throw MetawidgetException.newException( e );
 		} finally {
@@ -842,7 +1117,14 @@ public class SwingMetawidget
 
 	protected void startBuild() {
 
+		if ( mIncrementalRebuild ) {
+			mBuiltComponents = CollectionUtils.newHashMap();
+		} else {
+			mBuiltComponents = null;
+		}
+
 		mExistingUnusedComponents = CollectionUtils.newArrayList( mExistingComponents );
+		putClientProperty( NOT_REBINDABLE, null );
 	}
 
 	/**
@@ -864,9 +1146,14 @@ public class SwingMetawidget
 
 		component.setName( attributes.get( NAME ) );
 
-		// Remove, then re-add to layout (to re-order the component)
+		// Remove, then re-add to layout (to re-order the component).
+		//
+		// Note: only if it is ours, as a deferred widget (see LazyLayout) is laid out outside of
+		// buildWidgets, where removing would invalidate the whole Metawidget
 
-		remove( component );
+		if ( component.getParent() == this ) {
+			remove( component );
+		}
 
 		// Look up any additional attributes
 
@@ -913,9 +1200,440 @@ public class SwingMetawidget
 		return mPipeline.inspectAsDom( mToInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray() );
 	}
 
+	/**
+	 * Inspect on the inspection Executor, then build widgets back on the Event Dispatch Thread.
+	 */
+
+	private void inspectAsynchronously() {
+
+		showInspectionPlaceholder();
+
+		// If already inspecting, coalesce with that request. inspectionCompleted will notice it has
+		// gone stale and inspect again using the latest
+
+		if ( mInspectionInProgress ) {
+			return;
+		}
+
+		// Capture the request, and snapshot the pipeline, here on the Event Dispatch Thread. The
+		// Executor must not touch mPipeline, as setInspector (and so on) may change it meanwhile
+
+		final int inspectionRequest = mInspectionRequest;
+		final Object toInspect = mToInspect;
+		final TypeAndNames typeAndNames = PathUtils.parsePath( mPath );
+		final CompiledPipeline<JComponent, JComponent, SwingMetawidget> compiledPipeline = mPipeline.compile();
+
+		mInspectionInProgress = true;
+
+		try {
+			mInspectionExecutor.execute( new Runnable() {
+
+				public void run() {
+
+					Element inspectionResult = null;
+					Exception exception = null;
+
+					try {
+						inspectionResult = compiledPipeline.inspectAsDom( SwingMetawidget.this, toInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray() );
+					} catch ( Exception e ) {
+						exception = e;
+					}
+
+					final Element finalInspectionResult = inspectionResult;
+					final Exception finalException = exception;
+
+					SwingUtilities.invokeLater( new Runnable() {
+
+						public void run() {
+
+							inspectionCompleted( inspectionRequest, finalInspectionResult, finalException );
+						}
+					} );
+				}
+			} );
+		} catch ( RuntimeException e ) {
+			mInspectionInProgress = false;
+			throw e;
+		}
+	}
+
+	/**
+	 * Called on the Event Dispatch Thread once an asynchronous inspection completes.
+	 */
+
+	private void inspectionCompleted( int inspectionRequest, Element inspectionResult, Exception exception ) {
+
+		mInspectionInProgress = false;
+
+		// Stale? Then invalidate, so that the next buildWidgets inspects the latest request
+
+		if ( inspectionRequest != mInspectionRequest ) {
+			if ( mIncrementalInspectionResult != null ) {
+				mNeedToBuildWidgets = true;
+				repaint();
+			} else {
+				invalidateWidgets();
+			}
+			return;
+		}
+
+		// Failed? Then leave the Metawidget empty until it is next invalidated, rather than showing
+		// the placeholder (or widgets bound to the previous Object) forever
+
+		if ( exception != null ) {
+			hideInspectionPlaceholder();
+			mIncrementalInspectionResult = null;
+			mComponentIndex = null;
+			super.removeAll();
+			revalidate();
+			repaint();
+
+			throw MetawidgetException.newException( exception );
+		}
+
+		// Replace the placeholder with the real widgets
+
+		hideInspectionPlaceholder();
+
+		if ( mIncrementalInspectionResult == null ) {
+			super.removeAll();
+		}
+
+		mNeedToBuildWidgets = false;
+		mLastInspectionResult = inspectionResult;
+		mIgnoreAddRemove = true;
+
+		try {
+			buildOrRebindWidgets( inspectionResult );
+		} catch ( Exception e ) {
+			throw MetawidgetException.newException( e );
+		} finally {
+			mIgnoreAddRemove = false;
+		}
+
+		revalidate();
+		repaint();
+	}
+
+	/**
+	 * Builds widgets from the given inspection result or, during an incremental rebuild, rebinds
+	 * the existing widgets if they were built from an identical inspection result.
+	 */
+
+	private void buildOrRebindWidgets( Element inspectionResult )
+		throws Exception {
+
+		mComponentIndex = null;
+
+		if ( mIncrementalInspectionResult != null ) {
+			Element previousInspectionResult = mIncrementalInspectionResult;
+			boolean relayout = mIncrementalRelayout;
+			mIncrementalInspectionResult = null;
+			mIncrementalRelayout = false;
+
+			if ( !relayout && previousInspectionResult.isEqualNode( inspectionResult ) && isRebindable() ) {
+				for ( WidgetProcessor<JComponent, SwingMetawidget> widgetProcessor : mPipeline.getWidgetProcessors() ) {
+					( (BindingRebinder) widgetProcessor ).rebind( mToInspect, this );
+				}
+
+				return;
+			}
+
+			// Otherwise rebuild, but reuse those components whose attributes have not changed
+
+			if ( hasOnlyBindingRebinders() ) {
+				mReusableComponents = mBuiltComponents;
+			}
+
+			super.removeAll();
+		}
+
+		try {
+			mPipeline.buildWidgets( inspectionResult );
+		} finally {
+			mReusableComponents = null;
+		}
+	}
+
+	/**
+	 * Invalidates the widgets but, during incremental rebuild, keeps them so that those whose
+	 * attributes have not changed can be reused. For changes (such as <code>setReadOnly</code>)
+	 * that do not need a new inspection.
+	 */
+
+	private void invalidateWidgetsIncrementally() {
+
+		if ( mIncrementalRebuild ) {
+			if ( mIncrementalInspectionResult == null && !mNeedToBuildWidgets && mLastInspectionResult != null ) {
+				mIncrementalInspectionResult = mLastInspectionResult;
+			}
+
+			if ( mIncrementalInspectionResult != null ) {
+				mIncrementalRelayout = true;
+				mNeedToBuildWidgets = true;
+				repaint();
+				return;
+			}
+		}
+
+		invalidateWidgets();
+	}
+
+	/**
+	 * Whether the existing components can be rebound to a new Object, rather than recreated.
+	 */
+
+	private boolean isRebindable() {
+
+		return hasOnlyBindingRebinders() && !isNotRebindable( this );
+	}
+
+	/**
+	 * Whether there is at least one WidgetProcessor, and every WidgetProcessor is a
+	 * <code>BindingRebinder</code>.
+	 */
+
+	private boolean hasOnlyBindingRebinders() {
+
+		List<WidgetProcessor<JComponent, SwingMetawidget>> widgetProcessors = mPipeline.getWidgetProcessors();
+
+		if ( widgetProcessors == null || widgetProcessors.isEmpty() ) {
+			return false;
+		}
+
+		for ( WidgetProcessor<JComponent, SwingMetawidget> widgetProcessor : widgetProcessors ) {
+			if ( !( widgetProcessor instanceof BindingRebinder ) ) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Whether the given SwingMetawidget, or any SwingMetawidget nested within it, has been marked
+	 * <code>NOT_REBINDABLE</code>.
+	 * <p>
+	 * Only searches the components already built, so as not to trigger building any nested
+	 * Metawidgets that have not been built yet (those will be built against the new Object anyway).
+	 */
+
+	private static boolean isNotRebindable( SwingMetawidget metawidget ) {
+
+		if ( metawidget.getClientProperty( NOT_REBINDABLE ) != null ) {
+			return true;
+		}
+
+		return isNotRebindable( metawidget.getBuiltComponents() );
+	}
+
+	private static boolean isNotRebindable( Component[] components ) {
+
+		for ( Component component : components ) {
+
+			if ( component instanceof SwingMetawidget ) {
+				if ( isNotRebindable( (SwingMetawidget) component ) ) {
+					return true;
+				}
+			} else if ( component instanceof Container ) {
+				if ( isNotRebindable( ( (Container) component ).getComponents() ) ) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the components built so far, without building any.
+	 */
+
+	private Component[] getBuiltComponents() {
+
+		return super.getComponents();
+	}
+
+	/**
+	 * @return true if an asynchronous inspection is in flight and there are no components yet (ie.
+	 *         not an incremental rebuild)
+	 */
+
+	private boolean isAwaitingInspection() {
+
+		return mInspectionInProgress && mIncrementalInspectionResult == null;
+	}
+
+	private void showInspectionPlaceholder() {
+
+		// (no placeholder during an incremental rebuild, keep showing the existing widgets)
+
+		if ( mInspectionPlaceholder == null || mInspectionPlaceholderShown || mIncrementalInspectionResult != null ) {
+			return;
+		}
+
+		mInspectionPlaceholderShown = true;
+		mLayoutBeforeInspectionPlaceholder = super.getLayout();
+		setLayout( new BorderLayout() );
+
+		mIgnoreAddRemove = true;
+
+		try {
+			add( mInspectionPlaceholder, BorderLayout.CENTER );
+		} finally {
+			mIgnoreAddRemove = false;
+		}
+
+		revalidate();
+	}
+
+	private void hideInspectionPlaceholder() {
+
+		if ( !mInspectionPlaceholderShown ) {
+			return;
+		}
+
+		mInspectionPlaceholderShown = false;
+
+		// (super.remove( Component ) calls our remove( int ), which would invalidate the widgets)
+
+		boolean ignoreAddRemove = mIgnoreAddRemove;
+		mIgnoreAddRemove = true;
+
+		try {
+			super.remove( mInspectionPlaceholder );
+		} finally {
+			mIgnoreAddRemove = ignoreAddRemove;
+		}
+
+		setLayout( mLayoutBeforeInspectionPlaceholder );
+		mLayoutBeforeInspectionPlaceholder = null;
+	}
+
 	private ComponentAndValueProperty getComponentAndValueProperty( String... names ) {
 
-		Component component = getComponent( names );
+		return getComponentAndValueProperty( getComponent( names ), names );
+	}
+
+	private ComponentAndValueProperty getIndexedComponentAndValueProperty( String path ) {
+
+		String[] names = ArrayUtils.fromString( path, StringUtils.SEPARATOR_FORWARD_SLASH_CHAR );
+		Component component = this;
+
+		for ( String name : names ) {
+
+			if ( component instanceof SwingMetawidget ) {
+				component = ( (SwingMetawidget) component ).getIndexedComponent( name );
+			} else if ( component instanceof Container ) {
+				component = getComponent( (Container) component, name );
+			} else {
+				component = null;
+			}
+
+			if ( component == null ) {
+				break;
+			}
+		}
+
+		if ( component == this ) {
+			component = null;
+		}
+
+		return getComponentAndValueProperty( component, names );
+	}
+
+	/**
+	 * Gets the Component with the given name from the index, building the index if necessary.
+	 */
+
+	private Component getIndexedComponent( String name ) {
+
+		buildWidgets();
+
+		// (don't index the inspection placeholder)
+
+		if ( mInspectionPlaceholderShown ) {
+			return null;
+		}
+
+		Map<String, Component> componentIndex = mComponentIndex;
+
+		if ( componentIndex == null ) {
+			componentIndex = CollectionUtils.newHashMap();
+			indexComponents( this, componentIndex );
+
+			// (don't keep the index if an asynchronous inspection is about to replace the widgets)
+
+			if ( !mInspectionInProgress ) {
+				mComponentIndex = componentIndex;
+			}
+		}
+
+		Component component = componentIndex.get( name );
+
+		// Not indexed? May be inside a deferred layout (eg. a lazy tab), which indexComponents
+		// leaves alone. Search for it, finishing deferred layouts along the way
+
+		if ( component == null ) {
+			component = getComponent( this, name );
+
+			if ( component != null ) {
+				mComponentIndex = null;
+			}
+		}
+
+		return component;
+	}
+
+	/**
+	 * Indexes Components by name. Follows the same rules as <code>getComponent( Container, String )</code>,
+	 * except that it does not finish deferred layouts.
+	 */
+
+	private void indexComponents( Container container, Map<String, Component> index ) {
+
+		for ( Component childComponent : container.getComponents() ) {
+
+			String childName = childComponent.getName();
+
+			// Drill into unnamed containers (ie. for TabbedPanes)
+
+			if ( childName == null ) {
+				if ( childComponent instanceof Container ) {
+					indexComponents( (Container) childComponent, index );
+				}
+
+				continue;
+			}
+
+			// First match wins, as per getComponent
+
+			if ( !index.containsKey( childName ) ) {
+				index.put( childName, childComponent );
+			}
+		}
+	}
+
+	private void runDeferredLayout( Container container ) {
+
+		if ( !( container instanceof JComponent ) ) {
+			return;
+		}
+
+		JComponent component = (JComponent) container;
+		Runnable deferredLayout = (Runnable) component.getClientProperty( DEFERRED_LAYOUT );
+
+		if ( deferredLayout == null ) {
+			return;
+		}
+
+		component.putClientProperty( DEFERRED_LAYOUT, null );
+		deferredLayout.run();
+	}
+
+	private ComponentAndValueProperty getComponentAndValueProperty( Component foundComponent, String... names ) {
+
+		Component component = foundComponent;
 
 		if ( component == null ) {
 			throw MetawidgetException.newException( "No component named '" + ArrayUtils.toString( names, "', '" ) + "'" );
@@ -967,6 +1685,10 @@ public class SwingMetawidget
 
 	private Component getComponent( Container container, String name ) {
 
+		// Finish deferred layouts (eg. lazy tabs), so that their components can be found
+
+		runDeferredLayout( container );
+
 		for ( Component childComponent : container.getComponents() ) {
 			// Drill into unnamed containers (ie. for TabbedPanes)
 
@@ -1069,8 +1791,12 @@ public class SwingMetawidget
 			// of the nested SwingMetawidget. This makes more sense, as otherwise the nested
 			// SwingMetawidget waits until being asked to paint, which is after the endBuild of the
 			// parent
+			//
+			// The exceptions are if nested Metawidgets are deferred, or if the layout has deferred
+			// adding the component (eg. a lazy TabbedPaneLayoutDecorator). In which case it is
+			// built just-in-time like any other
 
-			if ( component instanceof SwingMetawidget ) {
+			if ( component instanceof SwingMetawidget && component.getParent() != null && !isDeferNestedMetawidgets() ) {
 				( (SwingMetawidget) component ).buildWidgets();
 			}
 		}
@@ -1085,6 +1811,66 @@ public class SwingMetawidget
 			return null;
 		}
 
+		@Override
+		protected JComponent buildWidget( String elementName, Map<String, String> attributes ) {
+
+			// Only track properties and actions, see setIncrementalRebuild
+
+			if ( mBuiltComponents == null || ENTITY.equals( elementName ) ) {
+				return super.buildWidget( elementName, attributes );
+			}
+
+			String name = attributes.get( NAME );
+			Map<String, String> builtAttributes = CollectionUtils.newHashMap( attributes );
+
+			// Reuse the previous build's component, if its attributes have not changed
+
+			if ( mReusableComponents != null ) {
+				BuiltComponent reusableComponent = mReusableComponents.remove( name );
+
+				if ( reusableComponent != null && reusableComponent.getAttributes().equals( builtAttributes ) ) {
+					JComponent component = reusableComponent.getComponent();
+
+					// (set a nested Metawidget's path directly, as setPath would discard its
+					// components)
+
+					if ( component instanceof SwingMetawidget ) {
+						SwingMetawidget nestedMetawidget = (SwingMetawidget) component;
+
+						if ( nestedMetawidget.mBundle != mBundle ) {
+							nestedMetawidget.setBundle( mBundle );
+						}
+
+						nestedMetawidget.mPath = mPath + StringUtils.SEPARATOR_FORWARD_SLASH_CHAR + name;
+						nestedMetawidget.setToInspect( mToInspect );
+					}
+
+					mBuiltComponents.put( name, reusableComponent );
+					return component;
+				}
+			}
+
+			// Build, noting whether the component was built from the values of the Object being
+			// inspected (in which case it can never be reused)
+
+			Object notRebindable = getClientProperty( NOT_REBINDABLE );
+			putClientProperty( NOT_REBINDABLE, null );
+
+			JComponent component = super.buildWidget( elementName, attributes );
+
+			if ( getClientProperty( NOT_REBINDABLE ) == null ) {
+				putClientProperty( NOT_REBINDABLE, notRebindable );
+
+				// (manually added components are reused anyway, by OverriddenWidgetBuilder)
+
+				if ( component != null && !mExistingComponents.contains( component ) ) {
+					mBuiltComponents.put( name, new BuiltComponent( component, builtAttributes ) );
+				}
+			}
+
+			return component;
+		}
+
 		@Override
 		public SwingMetawidget buildNestedMetawidget( Map<String, String> attributes )
 			throws Exception {
@@ -1092,6 +1878,19 @@ public class SwingMetawidget
 			SwingMetawidget nestedMetawidget = SwingMetawidget.this.getClass().newInstance();
 			SwingMetawidget.this.initNestedMetawidget( nestedMetawidget, attributes );
 
+			// Track it with the attributes buildWidget was given (ie. before BasePipeline removed
+			// any forced READ_ONLY)
+
+			if ( mBuiltComponents != null ) {
+				Map<String, String> builtAttributes = CollectionUtils.newHashMap( attributes );
+
+				if ( isReadOnly() ) {
+					builtAttributes.put( READ_ONLY, TRUE );
+				}
+
+				mBuiltComponents.put( attributes.get( NAME ), new BuiltComponent( nestedMetawidget, builtAttributes ) );
+			}
+
 			return nestedMetawidget;
 		}
 
@@ -1109,6 +1908,46 @@ public class SwingMetawidget
 		}
 	}
 
+	/**
+	 * Simple immutable structure to store a component and the attributes it was built from.
+	 */
+
+	private static class BuiltComponent
+		implements Immutable {
+
+		//
+		// Private members
+		//
+
+		private JComponent			mComponent;
+
+		private Map<String, String>	mAttributes;
+
+		//
+		// Constructor
+		//
+
+		public BuiltComponent( JComponent component, Map<String, String> attributes ) {
+
+			mComponent = component;
+			mAttributes = attributes;
+		}
+
+		//
+		// Public methods
+		//
+
+		public JComponent getComponent() {
+
+			return mComponent;
+		}
+
+		public Map<String, String> getAttributes() {
+
+			return mAttributes;
+		}
+	}
+
 	/**
 	 * Simple immutable structure to store a component and its value property.
 	 *
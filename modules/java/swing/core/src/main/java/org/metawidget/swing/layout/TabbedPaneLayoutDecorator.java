@@ -20,6 +20,8 @@ import javax.swing.JComponent;
 import javax.swing.JPanel;
 import javax.swing.JTabbedPane;
 import javax.swing.border.Border;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import org.metawidget.swing.SwingMetawidget;
 import org.metawidget.util.CollectionUtils;
@@ -56,6 +58,8 @@ public class TabbedPaneLayoutDecorator
 
 	private final int			mTabPlacement;
 
+	private final boolean		mLazy;
+
 	//
 	// Constructor
 	//
@@ -65,6 +69,7 @@ public class TabbedPaneLayoutDecorator
 		super( config );
 
 		mTabPlacement = config.getTabPlacement();
+		mLazy = config.isLazy();
 	}
 
 	//
@@ -110,4 +115,121 @@ public class TabbedPaneLayoutDecorator
 
 		return tabPanel;
 	}
+
+	@Override
+	protected boolean isLazy( JComponent previousSectionWidget ) {
+
+		// The first tab is visible immediately, so is never lazy
+
+		return ( mLazy && previousSectionWidget != null );
+	}
+
+	/**
+	 * Overridden to never defer overridden widgets, as <code>OverriddenWidgetBuilder</code> can
+	 * only find them during the initial build.
+	 */
+
+	@Override
+	protected boolean isDeferrable( String elementName, Map<String, String> attributes, SwingMetawidget metawidget ) {
+
+		String name = attributes.get( NAME );
+
+		for ( JComponent existingUnusedComponent : metawidget.fetchExistingUnusedComponents() ) {
+			if ( name.equals( existingUnusedComponent.getName() ) ) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Overridden to lay out the tab when it is first selected, or when
+	 * <code>SwingMetawidget.getComponent</code> searches inside it.
+	 */
+
+	@Override
+	protected void deferSection( JComponent sectionWidget, LazySection lazySection, SwingMetawidget metawidget ) {
+
+		sectionWidget.putClientProperty( SwingMetawidget.DEFERRED_LAYOUT, new LazyTabLayout( sectionWidget, lazySection ) );
+
+		JTabbedPane tabbedPane = (JTabbedPane) sectionWidget.getParent();
+
+		if ( tabbedPane.getClientProperty( LazyTabListener.class ) == null ) {
+			LazyTabListener listener = new LazyTabListener();
+			tabbedPane.putClientProperty( LazyTabListener.class, listener );
+			tabbedPane.addChangeListener( listener );
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Lays out lazy tabs as they are selected.
+	 */
+
+	private static class LazyTabListener
+		implements ChangeListener {
+
+		//
+		// Public methods
+		//
+
+		public void stateChanged( ChangeEvent event ) {
+
+			JTabbedPane tabbedPane = (JTabbedPane) event.getSource();
+			Object selected = tabbedPane.getSelectedComponent();
+
+			if ( !( selected instanceof JComponent ) ) {
+				return;
+			}
+
+			JComponent tab = (JComponent) selected;
+			Runnable deferredLayout = (Runnable) tab.getClientProperty( SwingMetawidget.DEFERRED_LAYOUT );
+
+			if ( deferredLayout != null ) {
+				tab.putClientProperty( SwingMetawidget.DEFERRED_LAYOUT, null );
+				deferredLayout.run();
+			}
+		}
+	}
+
+	/**
+	 * Builds and lays out a lazy tab.
+	 */
+
+	private static class LazyTabLayout
+		implements Runnable {
+
+		//
+		// Private members
+		//
+
+		private final JComponent	mTab;
+
+		private final LazySection	mLazySection;
+
+		//
+		// Constructor
+		//
+
+		public LazyTabLayout( JComponent tab, LazySection lazySection ) {
+
+			mTab = tab;
+			mLazySection = lazySection;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void run() {
+
+			mLazySection.layout();
+			mTab.revalidate();
+			mTab.repaint();
+		}
+	}
 }
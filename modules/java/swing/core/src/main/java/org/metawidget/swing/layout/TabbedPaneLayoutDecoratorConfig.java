@@ -32,7 +32,9 @@ public class TabbedPaneLayoutDecoratorConfig
 	// Private members
 	//
 
-	private int	mTabPlacement	= SwingConstants.TOP;
+	private int		mTabPlacement	= SwingConstants.TOP;
+
+	private boolean	mLazy;
 
 	//
 	// Public methods
@@ -66,6 +68,31 @@ public class TabbedPaneLayoutDecoratorConfig
 		return this;
 	}
 
+	/**
+	 * Sets whether tabs other than the first should only be built when they are first selected (or
+	 * when <code>SwingMetawidget.getComponent</code> or <code>getValue</code> needs one of their
+	 * widgets). Until then, widgets in unselected tabs are not built, processed (eg. bound) or laid
+	 * out, and neither are any nested Metawidgets they contain. This can greatly speed up screens
+	 * with many tabs, of which users only look at a few. Bindings only save widgets that have been
+	 * built, so values in tabs that were never shown are left untouched.
+	 * <p>
+	 * Widgets are only deferred if this TabbedPaneLayoutDecorator is the SwingMetawidget's
+	 * (outermost) Layout. Otherwise they are still built and processed up front, and only their
+	 * layout is deferred.
+	 * <p>
+	 * Note the preferred size of the JTabbedPane will only take into account tabs that have been
+	 * laid out.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public TabbedPaneLayoutDecoratorConfig setLazy( boolean lazy ) {
+
+		mLazy = lazy;
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -81,6 +108,10 @@ public class TabbedPaneLayoutDecoratorConfig
 			return false;
 		}
 
+		if ( mLazy != ( (TabbedPaneLayoutDecoratorConfig) that ).mLazy ) {
+			return false;
+		}
+
 		return super.equals( that );
 	}
 
@@ -89,6 +120,7 @@ public class TabbedPaneLayoutDecoratorConfig
 
 		int hashCode = super.hashCode();
 		hashCode = 31 * hashCode + mTabPlacement;
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mLazy );
 
 		return hashCode;
 	}
@@ -101,4 +133,9 @@ public class TabbedPaneLayoutDecoratorConfig
 
 		return mTabPlacement;
 	}
+
+	protected boolean isLazy() {
+
+		return mLazy;
+	}
 }
@@ -11,9 +11,16 @@
 
 package org.metawidget.swing.widgetbuilder;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
 
 import org.metawidget.util.ClassUtils;
@@ -21,20 +28,69 @@ import org.metawidget.util.CollectionUtils;
 
 /**
  * Simple implementation of a <code>TableModel</tt> that supports <tt>Collections</tt>s.
+ * <p>
+ * Designed to cope with very large Collections:
+ * <ul>
+ * <li><tt>List</tt>s are used directly, so lazy or paged <tt>List</tt> implementations only ever
+ * fetch the rows that are displayed. Other <tt>Collection</tt>s are not copied up front, only as
+ * far as the furthest row requested</li>
+ * <li>the read method for each column is looked up once per class, rather than once per cell</li>
+ * <li>cell values for recently displayed rows are cached, so repainting does not re-read them</li>
+ * </ul>
+ * Cached cell values are keyed on the identity of the bean they were read from, so rows that are
+ * added, removed or replaced in a <tt>List</tt> without firing are still read afresh. However
+ * changes to the properties of a bean <em>already</em> displayed are not detected: as with any
+ * <tt>TableModel</tt>, clients that change the underlying beans or Collection must call
+ * <tt>fireTableDataChanged</tt> (which clears the caches). If they do not, and a non-List
+ * <tt>Collection</tt> changes part way through being copied, the model falls back to copying it
+ * whole rather than failing.
  */
 
 class CollectionTableModel<T>
 	extends AbstractTableModel {
 
+	//
+	// Private statics
+	//
+
+	/**
+	 * Number of rows whose cell values are cached. Should comfortably exceed the number of visible
+	 * rows.
+	 */
+
+	private static final int		CACHED_ROWS	= 256;
+
+	private static final Object		NOT_CACHED	= new Object();
+
 	//
 	// Private members
 	//
 
-	private List<T>			mList;
+	private List<T>					mList;
 
-	private List<String>	mColumns;
+	/**
+	 * Non-List Collection, if any, that mList is lazily copied from.
+	 */
+
+	private Collection<T>			mCollection;
+
+	private Iterator<T>				mIterator;
+
+	private int						mRowCount;
 
-	private List<String>	mColumnNames;
+	private List<String>			mColumns;
+
+	private List<String>			mColumnNames;
+
+	private Map<Class<?>, Method[]>	mReadMethods	= CollectionUtils.newHashMap();
+
+	private Object[][]				mCachedValues	= new Object[CACHED_ROWS][];
+
+	/**
+	 * Beans whose cell values are held in the corresponding <code>mCachedValues</code> slot.
+	 */
+
+	private Object[]				mCachedBeans	= new Object[CACHED_ROWS];
 
 	//
 	// Constructor
@@ -52,7 +108,8 @@ class CollectionTableModel<T>
 		if ( collection instanceof List<?> ) {
 			mList = (List<T>) collection;
 		} else if ( collection != null ) {
-			mList = CollectionUtils.newArrayList( collection );
+			mCollection = collection;
+			resetCollection();
 		}
 		mColumns = columns;
 		mColumnNames = columnNames;
@@ -83,6 +140,10 @@ class CollectionTableModel<T>
 			return 0;
 		}
 
+		if ( mCollection != null ) {
+			return mRowCount;
+		}
+
 		return mList.size();
 	}
 
@@ -92,6 +153,30 @@ class CollectionTableModel<T>
 			return null;
 		}
 
+		// Copy from a non-List Collection as far as needed
+
+		if ( mCollection != null && mList.size() <= rowIndex ) {
+			try {
+				if ( mIterator == null ) {
+					mIterator = mCollection.iterator();
+				}
+
+				while ( mList.size() <= rowIndex ) {
+					mList.add( mIterator.next() );
+				}
+			} catch ( ConcurrentModificationException e ) {
+				snapshotCollection();
+			} catch ( NoSuchElementException e ) {
+				snapshotCollection();
+			}
+
+			// (Collection may have shrunk)
+
+			if ( rowIndex >= mList.size() ) {
+				return null;
+			}
+		}
+
 		return mList.get( rowIndex );
 	}
 
@@ -107,14 +192,98 @@ class CollectionTableModel<T>
 			return null;
 		}
 
+		// Cached? (check the bean, not just the row, in case a List was changed without firing)
+
+		int slot = rowIndex % CACHED_ROWS;
+		Object[] cachedValues = mCachedValues[slot];
+
+		if ( cachedValues == null || mCachedBeans[slot] != t ) {
+			cachedValues = new Object[getColumnCount()];
+			Arrays.fill( cachedValues, NOT_CACHED );
+			mCachedValues[slot] = cachedValues;
+			mCachedBeans[slot] = t;
+		}
+
+		Object value = cachedValues[columnIndex];
+
+		if ( value == NOT_CACHED ) {
+			value = getColumnValue( t, columnIndex );
+			cachedValues[columnIndex] = value;
+		}
+
+		return value;
+	}
+
+	@Override
+	public void fireTableChanged( TableModelEvent event ) {
+
+		Arrays.fill( mCachedValues, null );
+		Arrays.fill( mCachedBeans, null );
+
+		if ( mCollection != null ) {
+			resetCollection();
+		}
+
+		super.fireTableChanged( event );
+	}
+
+	//
+	// Private methods
+	//
+
+	private Object getColumnValue( T t, int columnIndex ) {
+
 		String column = mColumns.get( columnIndex );
 
 		// Special support for toString
 
-		if ( "toString".equals( column )) {
+		if ( "toString".equals( column ) ) {
 			return t.toString();
 		}
 
-		return ClassUtils.getProperty( t, column );
+		// Lookup the read method (once per class)
+
+		Class<?> clazz = t.getClass();
+		Method[] readMethods = mReadMethods.get( clazz );
+
+		if ( readMethods == null ) {
+			readMethods = new Method[getColumnCount()];
+			mReadMethods.put( clazz, readMethods );
+		}
+
+		Method readMethod = readMethods[columnIndex];
+
+		if ( readMethod == null ) {
+			readMethod = ClassUtils.getReadMethod( clazz, column );
+			readMethods[columnIndex] = readMethod;
+		}
+
+		try {
+			return readMethod.invoke( t );
+		} catch ( Exception e ) {
+			throw new RuntimeException( "Unable to get '" + column + "' of '" + t + "' (" + clazz + ")", e );
+		}
+	}
+
+	private void resetCollection() {
+
+		mList = CollectionUtils.newArrayList();
+		mIterator = null;
+		mRowCount = mCollection.size();
+	}
+
+	/**
+	 * Copies the whole of the non-List Collection. Used if the Collection was changed without
+	 * <code>fireTableDataChanged</code> being called, which invalidates the (partially consumed)
+	 * Iterator and row count.
+	 */
+
+	private void snapshotCollection() {
+
+		mList = CollectionUtils.newArrayList( mCollection );
+		mIterator = null;
+		mRowCount = mList.size();
+		Arrays.fill( mCachedValues, null );
+		Arrays.fill( mCachedBeans, null );
 	}
 }
@@ -16,6 +16,7 @@ import static org.metawidget.inspector.InspectionResultConstants.*;
 import java.awt.Component;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 import javax.swing.JButton;
@@ -28,8 +29,8 @@ import javax.swing.JTextArea;
 import org.metawidget.swing.Stub;
 import org.metawidget.swing.SwingMetawidget;
 import org.metawidget.swing.SwingValuePropertyProvider;
-import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
+import org.metawidget.widgetbuilder.iface.LookupProvider;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 
 /**
@@ -44,6 +45,26 @@ import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 public class ReadOnlyWidgetBuilder
 	implements WidgetBuilder<JComponent, SwingMetawidget>, SwingValuePropertyProvider {
 
+	//
+	// Private members
+	//
+
+	private LookupProvider	mLookupProvider;
+
+	//
+	// Constructor
+	//
+
+	public ReadOnlyWidgetBuilder() {
+
+		this( new ReadOnlyWidgetBuilderConfig() );
+	}
+
+	public ReadOnlyWidgetBuilder( ReadOnlyWidgetBuilderConfig config ) {
+
+		mLookupProvider = config.getLookupProvider();
+	}
+
 	//
 	// Public methods
 	//
@@ -86,9 +107,26 @@ public class ReadOnlyWidgetBuilder
 			return new JPanel();
 		}
 
-		// Lookups
+		// Lookups (from our LookupProvider, if any, else from the attributes)
 
 		Class<?> clazz = WidgetBuilderUtils.getActualClassOrType( attributes, String.class );
+
+		if ( mLookupProvider != null ) {
+			List<String> values = mLookupProvider.getLookup( attributes );
+
+			if ( values != null ) {
+				List<String> labels = mLookupProvider.getLookupLabels( attributes );
+
+				// (as below, Enums rely on <code>BindingConverter.convertFromString</code>)
+
+				if ( labels != null && !labels.isEmpty() && ( clazz == null || !Enum.class.isAssignableFrom( clazz ) ) ) {
+					return new LookupLabel( values, labels );
+				}
+
+				return new JLabel();
+			}
+		}
+
 		String lookup = attributes.get( LOOKUP );
 
 		if ( lookup != null && !"".equals( lookup ) ) {
@@ -104,7 +142,7 @@ public class ReadOnlyWidgetBuilder
 
 				if ( clazz == null || !Enum.class.isAssignableFrom( clazz ) ) {
 
-					return new LookupLabel( CollectionUtils.newHashMap( CollectionUtils.fromString( lookup ), CollectionUtils.fromString( lookupLabels ) ) );
+					return new LookupLabel( WidgetBuilderUtils.getLookupLabelsMap( lookup, lookupLabels ) );
 				}
 			}
 
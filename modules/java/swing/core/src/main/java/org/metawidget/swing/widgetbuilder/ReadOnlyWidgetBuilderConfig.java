@@ -0,0 +1,88 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.swing.widgetbuilder;
+
+import org.metawidget.util.simple.ObjectUtils;
+import org.metawidget.widgetbuilder.iface.LookupProvider;
+
+/**
+ * Configures a ReadOnlyWidgetBuilder prior to use. Once instantiated, WidgetBuilders are
+ * immutable.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class ReadOnlyWidgetBuilderConfig {
+
+	//
+	// Protected members
+	//
+
+	protected LookupProvider	mLookupProvider;
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Sets the LookupProvider used to supply lookup labels for read-only <code>JLabel</code>s, as
+	 * an alternative to <code>lookup</code> attributes. Generally this should be the same
+	 * LookupProvider given to <code>SwingWidgetBuilderConfig</code>.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public ReadOnlyWidgetBuilderConfig setLookupProvider( LookupProvider lookupProvider ) {
+
+		mLookupProvider = lookupProvider;
+
+		// Fluent interface
+
+		return this;
+	}
+
+	@Override
+	public boolean equals( Object that ) {
+
+		if ( this == that ) {
+			return true;
+		}
+
+		if ( !ObjectUtils.nullSafeClassEquals( this, that ) ) {
+			return false;
+		}
+
+		if ( !ObjectUtils.nullSafeEquals( mLookupProvider, ( (ReadOnlyWidgetBuilderConfig) that ).mLookupProvider ) ) {
+			return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+
+		int hashCode = 1;
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mLookupProvider );
+
+		return hashCode;
+	}
+
+	//
+	// Protected methods
+	//
+
+	protected LookupProvider getLookupProvider() {
+
+		return mLookupProvider;
+	}
+}
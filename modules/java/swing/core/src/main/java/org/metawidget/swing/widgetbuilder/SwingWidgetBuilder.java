@@ -20,6 +20,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
@@ -50,6 +52,7 @@ import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.util.XmlUtils;
 import org.metawidget.util.simple.PathUtils;
 import org.metawidget.util.simple.PathUtils.TypeAndNames;
+import org.metawidget.widgetbuilder.iface.LookupProvider;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -72,6 +75,8 @@ public class SwingWidgetBuilder
 
 	private PropertyStyle	mPropertyStyle;
 
+	private LookupProvider	mLookupProvider;
+
 	//
 	// Constructor
 	//
@@ -84,6 +89,7 @@ public class SwingWidgetBuilder
 	public SwingWidgetBuilder( SwingWidgetBuilderConfig config ) {
 
 		mPropertyStyle = config.getPropertyStyle();
+		mLookupProvider = config.getLookupProvider();
 	}
 
 	//
@@ -138,46 +144,42 @@ public class SwingWidgetBuilder
 			return new JCheckBox();
 		}
 
-		// Lookups
-
-		String lookup = attributes.get( LOOKUP );
+		// Lookups (from our LookupProvider, if any, else from the attributes)
 
-		if ( lookup != null && !"".equals( lookup ) ) {
-			JComboBox comboBox = new JComboBox();
+		List<String> values = null;
+		List<String> labels = null;
 
-			// Add an empty choice (if nullable, and not required)
+		if ( mLookupProvider != null ) {
+			values = mLookupProvider.getLookup( attributes );
 
-			if ( WidgetBuilderUtils.needsEmptyLookupItem( attributes ) ) {
-				comboBox.addItem( null );
+			if ( values != null ) {
+				labels = mLookupProvider.getLookupLabels( attributes );
 			}
+		}
 
-			List<String> values = CollectionUtils.fromString( lookup );
-			List<Object> convertedValues = CollectionUtils.newArrayList();
-			BindingConverter converter = metawidget.getWidgetProcessor( BindingConverter.class );
+		if ( values == null ) {
+			String lookup = attributes.get( LOOKUP );
 
-			for ( String value : values ) {
-				// Convert (if supported)
+			if ( lookup != null && !"".equals( lookup ) ) {
+				values = WidgetBuilderUtils.parseLookup( lookup );
+				labels = WidgetBuilderUtils.parseLookup( attributes.get( LOOKUP_LABELS ) );
+			}
+		}
 
-				Object convertedValue;
+		if ( values != null ) {
 
-				if ( converter == null ) {
-					convertedValue = value;
-				} else {
-					convertedValue = converter.convertFromString( value, clazz );
-				}
+			// Convert and label values on demand, rather than copying them into the JComboBox up
+			// front, so that large (or lazily loaded) lookups stay cheap
 
-				comboBox.addItem( convertedValue );
-				convertedValues.add( convertedValue );
-			}
+			BindingConverter converter = metawidget.getWidgetProcessor( BindingConverter.class );
+			LookupComboBoxModel model = new LookupComboBoxModel( values, labels, WidgetBuilderUtils.needsEmptyLookupItem( attributes ), converter, clazz );
+			JComboBox comboBox = new JComboBox( model );
 
 			// May have alternate labels
 
-			String lookupLabels = attributes.get( LOOKUP_LABELS );
-
-			if ( lookupLabels != null && !"".equals( lookupLabels ) ) {
-				Map<Object, String> labelsMap = CollectionUtils.newHashMap( convertedValues, CollectionUtils.fromString( attributes.get( LOOKUP_LABELS ) ) );
-				comboBox.setEditor( new LookupComboBoxEditor( labelsMap ) );
-				comboBox.setRenderer( new LookupComboBoxRenderer( labelsMap ) );
+			if ( labels != null && !labels.isEmpty() ) {
+				comboBox.setEditor( new LookupComboBoxEditor( model ) );
+				comboBox.setRenderer( new LookupComboBoxRenderer( model ) );
 			}
 
 			return comboBox;
@@ -445,10 +447,11 @@ public class SwingWidgetBuilder
 			}
 		}
 
-		// Return the JTable
+		// Return the JTable (built from the Collection's values, so cannot simply be rebound)
 
 		@SuppressWarnings( { "unchecked", "rawtypes" } )
 		CollectionTableModel<?> tableModel = new CollectionTableModel( collection, columns, columnNames );
+		metawidget.putClientProperty( SwingMetawidget.NOT_REBINDABLE, Boolean.TRUE );
 
 		return new JScrollPane( new JTable( tableModel ) );
 	}
@@ -457,6 +460,137 @@ public class SwingWidgetBuilder
 	// Inner class
 	//
 
+	/**
+	 * Model for ComboBox whose values use a lookup.
+	 * <p>
+	 * Converts values (and finds their labels) only as the JComboBox asks for them, so the lookup
+	 * Lists are never copied.
+	 */
+
+	private static class LookupComboBoxModel
+		extends AbstractListModel
+		implements ComboBoxModel {
+
+		//
+		// Private members
+		//
+
+		private List<String>		mValues;
+
+		private List<String>		mLabels;
+
+		private int					mOffset;
+
+		private BindingConverter	mConverter;
+
+		private Class<?>			mClass;
+
+		private Object				mSelectedItem;
+
+		//
+		// Constructor
+		//
+
+		public LookupComboBoxModel( List<String> values, List<String> labels, boolean emptyItem, BindingConverter converter, Class<?> clazz ) {
+
+			if ( values == null ) {
+				throw new NullPointerException( "values" );
+			}
+
+			mValues = values;
+			mLabels = labels;
+			mConverter = converter;
+			mClass = clazz;
+
+			// Add an empty choice (if nullable, and not required). Otherwise, select the first
+			// choice (as DefaultComboBoxModel would)
+
+			if ( emptyItem ) {
+				mOffset = 1;
+			} else if ( !values.isEmpty() ) {
+				mSelectedItem = getElementAt( 0 );
+			}
+		}
+
+		//
+		// Public methods
+		//
+
+		public int getSize() {
+
+			return mValues.size() + mOffset;
+		}
+
+		public Object getElementAt( int index ) {
+
+			if ( index < mOffset || index >= getSize() ) {
+				return null;
+			}
+
+			String value = mValues.get( index - mOffset );
+
+			// Convert (if supported)
+
+			if ( mConverter == null ) {
+				return value;
+			}
+
+			return mConverter.convertFromString( value, mClass );
+		}
+
+		public Object getSelectedItem() {
+
+			return mSelectedItem;
+		}
+
+		public void setSelectedItem( Object selectedItem ) {
+
+			if ( mSelectedItem == null ? selectedItem == null : mSelectedItem.equals( selectedItem ) ) {
+				return;
+			}
+
+			mSelectedItem = selectedItem;
+			fireContentsChanged( this, -1, -1 );
+		}
+
+		/**
+		 * Gets the label for the given value.
+		 *
+		 * @param index
+		 *            the value's likely index (eg. its row in a popup list), or -1 if not known. Saves
+		 *            searching the whole lookup
+		 * @return the label, or null if the value has no label
+		 */
+
+		public String getLabel( Object value, int index ) {
+
+			if ( mLabels == null || value == null ) {
+				return null;
+			}
+
+			if ( index < mOffset || !value.equals( getElementAt( index ) ) ) {
+				index = -1;
+
+				for ( int loop = mOffset, length = getSize(); loop < length; loop++ ) {
+					if ( value.equals( getElementAt( loop ) ) ) {
+						index = loop;
+						break;
+					}
+				}
+
+				if ( index == -1 ) {
+					return null;
+				}
+			}
+
+			if ( index - mOffset >= mLabels.size() ) {
+				return null;
+			}
+
+			return mLabels.get( index - mOffset );
+		}
+	}
+
 	/**
 	 * Editor for ComboBox whose values use a lookup.
 	 */
@@ -468,19 +602,19 @@ public class SwingWidgetBuilder
 		// Private members
 		//
 
-		private Map<Object, String>	mLookups;
+		private LookupComboBoxModel	mModel;
 
 		//
 		// Constructor
 		//
 
-		public LookupComboBoxEditor( Map<Object, String> lookups ) {
+		public LookupComboBoxEditor( LookupComboBoxModel model ) {
 
-			if ( lookups == null ) {
-				throw new NullPointerException( "lookups" );
+			if ( model == null ) {
+				throw new NullPointerException( "model" );
 			}
 
-			mLookups = lookups;
+			mModel = model;
 		}
 
 		//
@@ -490,7 +624,7 @@ public class SwingWidgetBuilder
 		@Override
 		public void setItem( Object item ) {
 
-			super.setItem( mLookups.get( item ) );
+			super.setItem( mModel.getLabel( item, -1 ) );
 		}
 	}
 
@@ -505,19 +639,19 @@ public class SwingWidgetBuilder
 		// Private members
 		//
 
-		private Map<Object, String>	mLookups;
+		private LookupComboBoxModel	mModel;
 
 		//
 		// Constructor
 		//
 
-		public LookupComboBoxRenderer( Map<Object, String> lookups ) {
+		public LookupComboBoxRenderer( LookupComboBoxModel model ) {
 
-			if ( lookups == null ) {
-				throw new NullPointerException( "lookups" );
+			if ( model == null ) {
+				throw new NullPointerException( "model" );
 			}
 
-			mLookups = lookups;
+			mModel = model;
 		}
 
 		//
@@ -529,7 +663,7 @@ public class SwingWidgetBuilder
 
 			Component component = super.getListCellRendererComponent( list, value, index, selected, hasFocus );
 
-			String lookup = mLookups.get( value );
+			String lookup = mModel.getLabel( value, index );
 
 			if ( lookup != null ) {
 				( (JLabel) component ).setText( lookup );
@@ -14,6 +14,7 @@ package org.metawidget.swing.widgetbuilder;
 import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
 import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle;
 import org.metawidget.util.simple.ObjectUtils;
+import org.metawidget.widgetbuilder.iface.LookupProvider;
 
 /**
  * Configures a SwingWidgetBuilder prior to use. Once instantiated, WidgetBuilders are immutable.
@@ -37,6 +38,8 @@ public class SwingWidgetBuilderConfig {
 
 	protected boolean				mNullPropertyStyle;
 
+	protected LookupProvider		mLookupProvider;
+
 	//
 	// Public methods
 	//
@@ -57,6 +60,22 @@ public class SwingWidgetBuilderConfig {
 		return this;
 	}
 
+	/**
+	 * Sets the LookupProvider used to supply lookups for <code>JComboBox</code>es, as an
+	 * alternative to <code>lookup</code> attributes.
+	 * 
+	 * @return this, as part of a fluent interface
+	 */
+
+	public SwingWidgetBuilderConfig setLookupProvider( LookupProvider lookupProvider ) {
+
+		mLookupProvider = lookupProvider;
+
+		// Fluent interface
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -76,6 +95,10 @@ public class SwingWidgetBuilderConfig {
 			return false;
 		}
 
+		if ( !ObjectUtils.nullSafeEquals( mLookupProvider, ( (SwingWidgetBuilderConfig) that ).mLookupProvider ) ) {
+			return false;
+		}
+
 		return true;
 	}
 
@@ -85,6 +108,7 @@ public class SwingWidgetBuilderConfig {
 		int hashCode = 1;
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mPropertyStyle );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mNullPropertyStyle );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mLookupProvider );
 
 		return hashCode;
 	}
@@ -111,4 +135,9 @@ public class SwingWidgetBuilderConfig {
 
 		return mPropertyStyle;
 	}
+
+	protected LookupProvider getLookupProvider() {
+
+		return mLookupProvider;
+	}
 }
@@ -0,0 +1,39 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.swing.widgetprocessor.binding;
+
+import org.metawidget.swing.SwingMetawidget;
+
+/**
+ * Swing support: binding that can be rebound to a new Object without recreating its components.
+ * <p>
+ * Used by <code>SwingMetawidget.setIncrementalRebuild</code> to reuse existing components when
+ * switching between compatible Objects.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface BindingRebinder {
+
+	//
+	// Methods
+	//
+
+	/**
+	 * Rebinds the Metawidget to the given Object.
+	 * <p>
+	 * It is the caller's responsbility to ensure the rebound object is compatible with the
+	 * original setToInspect.
+	 */
+
+	void rebind( Object toRebind, SwingMetawidget metawidget );
+}
@@ -25,6 +25,7 @@ import javax.swing.JComponent;
 
 import org.metawidget.swing.Stub;
 import org.metawidget.swing.SwingMetawidget;
+import org.metawidget.swing.widgetprocessor.binding.BindingRebinder;
 import org.metawidget.util.ClassUtils;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
@@ -42,7 +43,7 @@ import org.metawidget.widgetprocessor.iface.WidgetProcessorException;
  */
 
 public class ReflectionBindingProcessor
-	implements AdvancedWidgetProcessor<JComponent, SwingMetawidget> {
+	implements AdvancedWidgetProcessor<JComponent, SwingMetawidget>, BindingRebinder {
 
 	//
 	// Public methods
@@ -19,19 +19,27 @@ import java.beans.BeanInfo;
 import java.beans.Introspector;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.ListResourceBundle;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import javax.swing.AbstractAction;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JComponent;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 
 import junit.framework.TestCase;
 
+import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.inspectionresultprocessor.sort.ComesAfterInspectionResultProcessor;
 import org.metawidget.inspector.annotation.MetawidgetAnnotationInspector;
@@ -39,12 +47,14 @@ import org.metawidget.inspector.annotation.UiAction;
 import org.metawidget.inspector.annotation.UiRequired;
 import org.metawidget.inspector.composite.CompositeInspector;
 import org.metawidget.inspector.composite.CompositeInspectorConfig;
+import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.inspector.propertytype.PropertyTypeInspector;
 import org.metawidget.inspector.propertytype.PropertyTypeInspectorTest.RecursiveFoo;
 import org.metawidget.swing.layout.BoxLayout;
 import org.metawidget.swing.layout.TabbedPaneLayoutDecorator;
 import org.metawidget.swing.widgetbuilder.SwingWidgetBuilder;
 import org.metawidget.swing.widgetprocessor.binding.reflection.ReflectionBindingProcessor;
+import org.metawidget.util.ArrayUtils;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 
@@ -431,6 +441,446 @@ public class SwingMetawidgetTest
 		assertEquals( 2, configured.size() );
 	}
 
+	public void testAsynchronousInspection()
+		throws Exception {
+
+		final List<Runnable> inspections = new ArrayList<Runnable>();
+		Runnable flushEventDispatchThread = new Runnable() {
+
+			public void run() {
+
+				// Do nothing
+			}
+		};
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setInspectionExecutor( new Executor() {
+
+			public void execute( Runnable runnable ) {
+
+				inspections.add( runnable );
+			}
+		} );
+		JLabel placeholder = new JLabel( "Loading..." );
+		metawidget.setInspectionPlaceholder( placeholder );
+
+		// Should show the placeholder while inspecting
+
+		metawidget.setToInspect( new Foo() );
+		metawidget.getPreferredSize();
+		assertEquals( 1, inspections.size() );
+		assertEquals( 1, metawidget.getComponentCount() );
+		assertTrue( placeholder == metawidget.getComponent( 0 ) );
+
+		// Should coalesce requests made while inspecting
+
+		metawidget.setToInspect( new FooRequiredBoolean() );
+		metawidget.getPreferredSize();
+		assertEquals( 1, inspections.size() );
+		assertTrue( placeholder == metawidget.getComponent( 0 ) );
+
+		// No components while inspecting
+
+		assertEquals( null, metawidget.getComponent( "booleanObject" ) );
+		assertEquals( null, metawidget.getValue( "booleanObject" ) );
+		assertTrue( metawidget.getValues( Arrays.asList( "booleanObject" ) ).containsKey( "booleanObject" ) );
+		assertEquals( null, metawidget.getValues( Arrays.asList( "booleanObject" ) ).get( "booleanObject" ) );
+
+		// Stale inspection should be discarded, and the latest request inspected instead
+
+		inspections.remove( 0 ).run();
+		SwingUtilities.invokeAndWait( flushEventDispatchThread );
+		metawidget.getPreferredSize();
+		assertEquals( 1, inspections.size() );
+		assertTrue( placeholder == metawidget.getComponent( 0 ) );
+
+		inspections.remove( 0 ).run();
+		SwingUtilities.invokeAndWait( flushEventDispatchThread );
+		assertTrue( inspections.isEmpty() );
+		assertTrue( placeholder.getParent() == null );
+		assertTrue( metawidget.getComponent( "booleanObject" ) instanceof JComboBox );
+		assertEquals( null, metawidget.getComponent( "name" ) );
+		assertTrue( metawidget.getLayout() instanceof java.awt.GridBagLayout );
+
+		// Should not reinspect just to rebuild widgets
+
+		metawidget.setReadOnly( true );
+		metawidget.getPreferredSize();
+		assertTrue( inspections.isEmpty() );
+		assertTrue( metawidget.getComponent( "booleanObject" ) instanceof JLabel );
+	}
+
+	public void testAsynchronousInspectionSnapshotsPipeline()
+		throws Exception {
+
+		final List<Runnable> inspections = new ArrayList<Runnable>();
+		final List<String> inspectedBy = new ArrayList<String>();
+		final Inspector propertyTypeInspector = new PropertyTypeInspector();
+		Runnable flushEventDispatchThread = new Runnable() {
+
+			public void run() {
+
+				// Do nothing
+			}
+		};
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setInspector( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				inspectedBy.add( "first" );
+				return propertyTypeInspector.inspect( toInspect, type, names );
+			}
+		} );
+		metawidget.setInspectionExecutor( new Executor() {
+
+			public void execute( Runnable runnable ) {
+
+				inspections.add( runnable );
+			}
+		} );
+
+		metawidget.setToInspect( new Foo() );
+		metawidget.getPreferredSize();
+		assertEquals( 1, inspections.size() );
+
+		// Reconfiguring while inspecting should not affect the inspection in flight...
+
+		metawidget.setInspector( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				inspectedBy.add( "second" );
+				return propertyTypeInspector.inspect( toInspect, type, names );
+			}
+		} );
+
+		inspections.remove( 0 ).run();
+		assertEquals( Arrays.asList( "first" ), inspectedBy );
+
+		// ...but should be used by the next one
+
+		SwingUtilities.invokeAndWait( flushEventDispatchThread );
+		metawidget.getPreferredSize();
+		assertEquals( 1, inspections.size() );
+		inspections.remove( 0 ).run();
+		assertEquals( Arrays.asList( "first", "second" ), inspectedBy );
+
+		SwingUtilities.invokeAndWait( flushEventDispatchThread );
+		assertTrue( metawidget.getComponent( "name" ) instanceof JTextField );
+	}
+
+	public void testAsynchronousInspectionFailure()
+		throws Exception {
+
+		final List<Runnable> inspections = new ArrayList<Runnable>();
+		Runnable flushEventDispatchThread = new Runnable() {
+
+			public void run() {
+
+				// Do nothing
+			}
+		};
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setInspector( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				throw new RuntimeException( "Inspection failed" );
+			}
+		} );
+		metawidget.setInspectionExecutor( new Executor() {
+
+			public void execute( Runnable runnable ) {
+
+				inspections.add( runnable );
+			}
+		} );
+		JLabel placeholder = new JLabel( "Loading..." );
+		metawidget.setInspectionPlaceholder( placeholder );
+
+		metawidget.setToInspect( new Foo() );
+		metawidget.getPreferredSize();
+		assertTrue( placeholder == metawidget.getComponent( 0 ) );
+
+		// Failure should hide the placeholder, and not reinspect on every paint
+
+		final List<Throwable> failures = new ArrayList<Throwable>();
+
+		SwingUtilities.invokeAndWait( new Runnable() {
+
+			public void run() {
+
+				Thread.currentThread().setUncaughtExceptionHandler( new Thread.UncaughtExceptionHandler() {
+
+					public void uncaughtException( Thread thread, Throwable throwable ) {
+
+						failures.add( throwable );
+					}
+				} );
+			}
+		} );
+
+		inspections.remove( 0 ).run();
+		SwingUtilities.invokeAndWait( flushEventDispatchThread );
+		assertEquals( 1, failures.size() );
+		assertTrue( placeholder.getParent() == null );
+		assertEquals( 0, metawidget.getComponentCount() );
+
+		metawidget.getPreferredSize();
+		assertTrue( inspections.isEmpty() );
+
+		// Should inspect again once invalidated
+
+		metawidget.setToInspect( new Foo() );
+		metawidget.getPreferredSize();
+		assertEquals( 1, inspections.size() );
+		assertTrue( placeholder == metawidget.getComponent( 0 ) );
+	}
+
+	public void testIncrementalRebuild() {
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setIncrementalRebuild( true );
+		Foo foo1 = new Foo();
+		metawidget.setToInspect( foo1 );
+		JComponent name = metawidget.getComponent( "name" );
+		assertTrue( name instanceof JTextField );
+		SwingMetawidget nestedMetawidget = metawidget.getComponent( "foo" );
+		assertTrue( foo1 == nestedMetawidget.getToInspect() );
+
+		// Identical inspection result should reuse (and rebind) the existing widgets
+
+		Foo foo2 = new Foo();
+		metawidget.setToInspect( foo2 );
+		assertTrue( name == metawidget.getComponent( "name" ) );
+		assertTrue( nestedMetawidget == metawidget.getComponent( "foo" ) );
+		assertTrue( foo2 == nestedMetawidget.getToInspect() );
+
+		// Different inspection result should rebuild
+
+		metawidget.setToInspect( new FooRequiredBoolean() );
+		assertEquals( null, metawidget.getComponent( "name" ) );
+		assertTrue( metawidget.getComponent( "booleanObject" ) instanceof JCheckBox );
+
+		// Successive updates before building should still reuse the existing widgets
+
+		metawidget.setToInspect( new Foo() );
+		name = metawidget.getComponent( "name" );
+		assertTrue( name instanceof JTextField );
+		metawidget.setToInspect( new Foo() );
+		Foo foo3 = new Foo();
+		metawidget.setToInspect( foo3 );
+		assertTrue( name == metawidget.getComponent( "name" ) );
+		assertTrue( foo3 == ( (SwingMetawidget) metawidget.getComponent( "foo" ) ).getToInspect() );
+
+		// Invalidating widgets while incremental rebuild is pending should rebuild
+
+		metawidget.setToInspect( new Foo() );
+		metawidget.getComponent( "name" );
+		metawidget.setToInspect( new Foo() );
+		metawidget.setReadOnly( true );
+		assertTrue( metawidget.getComponent( "name" ) instanceof JLabel );
+
+		// Disabled incremental rebuild should always rebuild
+
+		metawidget.setIncrementalRebuild( false );
+		name = metawidget.getComponent( "name" );
+		metawidget.setToInspect( new Foo() );
+		assertTrue( name != metawidget.getComponent( "name" ) );
+	}
+
+	public void testIncrementalRebuildReusesUnchangedComponents() {
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setIncrementalRebuild( true );
+		metawidget.setToInspect( new Foo() );
+		JComponent name = metawidget.getComponent( "name" );
+		JComponent action = metawidget.getComponent( "doAction" );
+		SwingMetawidget nestedMetawidget = metawidget.getComponent( "foo" );
+		JComponent nestedName = nestedMetawidget.getComponent( "name" );
+		assertEquals( null, metawidget.getComponent( "extra" ) );
+
+		// Changed inspection result should only recreate the changed components
+
+		FooSubclass fooSubclass = new FooSubclass();
+		metawidget.setToInspect( fooSubclass );
+		assertTrue( metawidget.getComponent( "extra" ) instanceof JTextField );
+		assertTrue( name == metawidget.getComponent( "name" ) );
+		assertTrue( action == metawidget.getComponent( "doAction" ) );
+		assertTrue( nestedMetawidget == metawidget.getComponent( "foo" ) );
+		assertTrue( fooSubclass == nestedMetawidget.getToInspect() );
+		assertEquals( FooSubclass.class.getName() + "/foo", nestedMetawidget.getPath() );
+		assertTrue( nestedName == nestedMetawidget.getComponent( "name" ) );
+
+		// ...including when changing back
+
+		metawidget.setToInspect( new Foo() );
+		assertEquals( null, metawidget.getComponent( "extra" ) );
+		assertTrue( name == metawidget.getComponent( "name" ) );
+		metawidget.setToInspect( fooSubclass );
+		assertTrue( name == metawidget.getComponent( "name" ) );
+
+		// setBundle should lay out again, but reuse every component
+
+		int componentCount = metawidget.getComponentCount();
+		metawidget.setBundle( new ListResourceBundle() {
+
+			@Override
+			protected Object[][] getContents() {
+
+				return new Object[][] { { "name", "Bundle Name" } };
+			}
+		} );
+		assertTrue( name == metawidget.getComponent( "name" ) );
+		assertTrue( nestedMetawidget == metawidget.getComponent( "foo" ) );
+		assertTrue( nestedName == nestedMetawidget.getComponent( "name" ) );
+		assertEquals( componentCount, metawidget.getComponentCount() );
+		assertEquals( "???extra???:", ( (JLabel) metawidget.getComponent( 0 ) ).getText() );
+		assertEquals( "Bundle Name:", ( (JLabel) metawidget.getComponent( 4 ) ).getText() );
+
+		// setReadOnly should recreate only the components whose attributes change
+
+		metawidget.setReadOnly( true );
+		assertTrue( metawidget.getComponent( "name" ) instanceof JLabel );
+		assertTrue( nestedMetawidget != metawidget.getComponent( "foo" ) );
+	}
+
+	public void testIncrementalRebuildWithChangedValues() {
+
+		// Components built from the Object's values should not be reused...
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setIncrementalRebuild( true );
+		FooWithItems foo1 = new FooWithItems();
+		foo1.getItems().add( "Item 1" );
+		metawidget.setToInspect( foo1 );
+		JScrollPane items = metawidget.getComponent( "items" );
+		assertEquals( 1, ( (JTable) items.getViewport().getView() ).getRowCount() );
+
+		FooWithItems foo2 = new FooWithItems();
+		foo2.getItems().add( "Item 2a" );
+		foo2.getItems().add( "Item 2b" );
+		metawidget.setToInspect( foo2 );
+		assertTrue( items != metawidget.getComponent( "items" ) );
+		items = metawidget.getComponent( "items" );
+		assertEquals( 2, ( (JTable) items.getViewport().getView() ).getRowCount() );
+
+		// ...nor should components processed by a WidgetProcessor that cannot rebind
+
+		metawidget = new SwingMetawidget();
+		metawidget.setIncrementalRebuild( true );
+		metawidget.setWidgetProcessors( new ReflectionBindingProcessor(), new WidgetProcessor<JComponent, SwingMetawidget>() {
+
+			public JComponent processWidget( JComponent component, String elementName, Map<String, String> attributes, SwingMetawidget processedMetawidget ) {
+
+				if ( component instanceof JTextField ) {
+					( (JTextField) component ).setText( ( (Foo) processedMetawidget.getToInspect() ).getName() );
+				}
+
+				return component;
+			}
+		} );
+
+		Foo foo3 = new Foo();
+		foo3.setName( "Foo 3" );
+		metawidget.setToInspect( foo3 );
+		JTextField name = metawidget.getComponent( "name" );
+		assertEquals( "Foo 3", name.getText() );
+
+		Foo foo4 = new Foo();
+		foo4.setName( "Foo 4" );
+		metawidget.setToInspect( foo4 );
+		assertTrue( name != metawidget.getComponent( "name" ) );
+		assertEquals( "Foo 4", ( (JTextField) metawidget.getComponent( "name" ) ).getText() );
+	}
+
+	public void testDeferNestedMetawidgets() {
+
+		final List<String> inspected = CollectionUtils.newArrayList();
+		final Inspector inspector = new PropertyTypeInspector();
+
+		Foo foo = new Foo();
+		foo.setFoo( new Foo() );
+		foo.getFoo().setFoo( new Foo() );
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setInspector( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				inspected.add( ArrayUtils.toString( names, "/" ) );
+				return inspector.inspect( toInspect, type, names );
+			}
+		} );
+		metawidget.setDeferNestedMetawidgets( true );
+		assertTrue( metawidget.isDeferNestedMetawidgets() );
+		metawidget.setToInspect( foo );
+
+		// Nested Metawidgets are placeholders until accessed
+
+		assertTrue( metawidget.getComponent( "name" ) instanceof JTextField );
+		SwingMetawidget nestedMetawidget = metawidget.getComponent( "foo" );
+		assertTrue( nestedMetawidget.isDeferNestedMetawidgets() );
+		assertEquals( 1, inspected.size() );
+
+		assertTrue( metawidget.getComponent( "foo", "name" ) instanceof JTextField );
+		assertEquals( 2, inspected.size() );
+		assertTrue( metawidget.getComponent( "foo", "foo" ) instanceof SwingMetawidget );
+		assertEquals( 2, inspected.size() );
+		assertTrue( nestedMetawidget == metawidget.getComponent( "foo" ) );
+
+		// Sizing builds just-in-time (including sizing its own nested Metawidget)
+
+		( (SwingMetawidget) metawidget.getComponent( "foo", "foo" ) ).getPreferredSize();
+		assertEquals( 4, inspected.size() );
+
+		// Not deferred (the default) builds every nested Metawidget immediately
+
+		inspected.clear();
+		metawidget.setDeferNestedMetawidgets( false );
+		metawidget.getComponent( "name" );
+		assertEquals( "[foo, foo/foo, foo/foo/foo]", inspected.toString() );
+	}
+
+	public void testGetValuesSetValues() {
+
+		Foo foo = new Foo();
+		foo.setFoo( new Foo() );
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setToInspect( foo );
+
+		Map<String, Object> values = CollectionUtils.newLinkedHashMap();
+		values.put( "name", "Foo" );
+		values.put( "foo/name", "Nested Foo" );
+		metawidget.setValues( values );
+
+		assertEquals( "Foo", ( (JTextField) metawidget.getComponent( "name" ) ).getText() );
+		assertEquals( "Nested Foo", ( (JTextField) metawidget.getComponent( "foo", "name" ) ).getText() );
+
+		values = metawidget.getValues( CollectionUtils.newArrayList( "foo/name", "name" ) );
+		assertEquals( "{foo/name=Nested Foo, name=Foo}", values.toString() );
+
+		try {
+			metawidget.getValues( CollectionUtils.newArrayList( "foo/bar" ) );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertEquals( "No component named 'foo', 'bar'", e.getMessage() );
+		}
+
+		// Index is rebuilt after widgets are invalidated
+
+		JTextField name = metawidget.getComponent( "name" );
+		metawidget.setToInspect( new Foo() );
+		assertEquals( "{name=}", metawidget.getValues( CollectionUtils.newArrayList( "name" ) ).toString() );
+		assertTrue( name != metawidget.getComponent( "name" ) );
+	}
+
 	//
 	// Inner class
 	//
@@ -512,6 +962,53 @@ public class SwingMetawidgetTest
 		}
 	}
 
+	public static class FooWithItems {
+
+		//
+		// Private members
+		//
+
+		private List<String>	mItems	= CollectionUtils.newArrayList();
+
+		//
+		// Public methods
+		//
+
+		public List<String> getItems() {
+
+			return mItems;
+		}
+
+		public void setItems( List<String> items ) {
+
+			mItems = items;
+		}
+	}
+
+	public static class FooSubclass
+		extends Foo {
+
+		//
+		// Private members
+		//
+
+		private String	mExtra;
+
+		//
+		// Public methods
+		//
+
+		public String getExtra() {
+
+			return mExtra;
+		}
+
+		public void setExtra( String extra ) {
+
+			mExtra = extra;
+		}
+	}
+
 	public static class FooRequiredBoolean {
 
 		//
@@ -11,9 +11,14 @@
 
 package org.metawidget.swing.layout;
 
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
 import java.awt.Component;
+import java.util.List;
+import java.util.Map;
 
 import javax.swing.JCheckBox;
+import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -27,7 +32,9 @@ import junit.framework.TestCase;
 import org.metawidget.inspector.annotation.UiLarge;
 import org.metawidget.inspector.annotation.UiSection;
 import org.metawidget.swing.SwingMetawidget;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.MetawidgetTestUtils;
+import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -130,6 +137,150 @@ public class TabbedPaneLayoutDecoratorTest
 		assertEquals( (Component) metawidget.getComponent( 4 ), (Component) metawidget.getComponent( "stu" ) );
 	}
 
+	@SuppressWarnings( "cast" )
+	public void testLazy() {
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setMetawidgetLayout( new TabbedPaneLayoutDecorator( new TabbedPaneLayoutDecoratorConfig().setLayout( new org.metawidget.swing.layout.GridBagLayout() ) ) );
+		metawidget.setToInspect( new Lazy() );
+		int eagerChangeListeners = ( (JTabbedPane) metawidget.getComponent( 0 ) ).getChangeListeners().length;
+
+		metawidget.setMetawidgetLayout( new TabbedPaneLayoutDecorator( new TabbedPaneLayoutDecoratorConfig().setLazy( true ).setLayout( new org.metawidget.swing.layout.GridBagLayout() ) ) );
+
+		JTabbedPane tabbedPane = (JTabbedPane) metawidget.getComponent( 0 );
+		assertEquals( "Foo", tabbedPane.getTitleAt( 0 ) );
+		assertEquals( "Bar", tabbedPane.getTitleAt( 1 ) );
+		assertEquals( "Baz", tabbedPane.getTitleAt( 2 ) );
+		assertEquals( 3, tabbedPane.getTabCount() );
+
+		// First tab laid out immediately. Others deferred as a client property, with a single
+		// ChangeListener for the whole JTabbedPane
+
+		JPanel fooPanel = (JPanel) tabbedPane.getComponent( 0 );
+		assertEquals( "Abc:", ( (JLabel) fooPanel.getComponent( 0 ) ).getText() );
+		assertTrue( fooPanel.getComponent( 1 ) instanceof JTextField );
+		assertEquals( null, fooPanel.getClientProperty( SwingMetawidget.DEFERRED_LAYOUT ) );
+		JPanel barPanel = (JPanel) tabbedPane.getComponent( 1 );
+		assertEquals( 0, barPanel.getComponentCount() );
+		assertTrue( barPanel.getClientProperty( SwingMetawidget.DEFERRED_LAYOUT ) instanceof Runnable );
+		JPanel bazPanel = (JPanel) tabbedPane.getComponent( 2 );
+		assertEquals( 0, bazPanel.getComponentCount() );
+		assertTrue( bazPanel.getClientProperty( SwingMetawidget.DEFERRED_LAYOUT ) instanceof Runnable );
+		assertEquals( eagerChangeListeners + 1, tabbedPane.getChangeListeners().length );
+
+		// Looking up a component by name lays out its tab
+
+		assertTrue( metawidget.getComponent( "def" ) instanceof JCheckBox );
+		assertEquals( "Def:", ( (JLabel) barPanel.getComponent( 0 ) ).getText() );
+		assertEquals( (Component) barPanel.getComponent( 1 ), (Component) metawidget.getComponent( "def" ) );
+		assertEquals( null, barPanel.getClientProperty( SwingMetawidget.DEFERRED_LAYOUT ) );
+		assertEquals( 0, bazPanel.getComponentCount() );
+
+		// A ChangeEvent for the already-selected tab lays out nothing
+
+		tabbedPane.getModel().setSelectedIndex( 0 );
+		assertEquals( 0, bazPanel.getComponentCount() );
+
+		// Swing fires a ChangeEvent from the SingleSelectionModel however the selection changes, so
+		// even programmatic selection lays the tab out
+
+		tabbedPane.getModel().setSelectedIndex( 2 );
+		assertEquals( "Ghi:", ( (JLabel) bazPanel.getComponent( 0 ) ).getText() );
+		assertTrue( bazPanel.getComponent( 1 ) instanceof JTextField );
+		assertEquals( (Component) bazPanel.getComponent( 1 ), (Component) metawidget.getComponent( "ghi" ) );
+		assertEquals( null, bazPanel.getClientProperty( SwingMetawidget.DEFERRED_LAYOUT ) );
+
+		// Laying out is idempotent
+
+		int componentCount = bazPanel.getComponentCount();
+		tabbedPane.setSelectedIndex( 0 );
+		tabbedPane.setSelectedIndex( 2 );
+		assertEquals( componentCount, bazPanel.getComponentCount() );
+
+		// Non-lazy (the default)
+
+		metawidget.setMetawidgetLayout( new TabbedPaneLayoutDecorator( new TabbedPaneLayoutDecoratorConfig().setLayout( new org.metawidget.swing.layout.GridBagLayout() ) ) );
+		tabbedPane = (JTabbedPane) metawidget.getComponent( 0 );
+		assertEquals( "Def:", ( (JLabel) ( (JPanel) tabbedPane.getComponent( 1 ) ).getComponent( 0 ) ).getText() );
+		assertEquals( "Ghi:", ( (JLabel) ( (JPanel) tabbedPane.getComponent( 2 ) ).getComponent( 0 ) ).getText() );
+		assertEquals( eagerChangeListeners, tabbedPane.getChangeListeners().length );
+	}
+
+	public void testLazyBuild() {
+
+		final List<String> processed = CollectionUtils.newArrayList();
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setMetawidgetLayout( new TabbedPaneLayoutDecorator( new TabbedPaneLayoutDecoratorConfig().setLazy( true ).setLayout( new org.metawidget.swing.layout.GridBagLayout() ) ) );
+		metawidget.addWidgetProcessor( new WidgetProcessor<JComponent, SwingMetawidget>() {
+
+			public JComponent processWidget( JComponent widget, String elementName, Map<String, String> attributes, SwingMetawidget widgetProcessorMetawidget ) {
+
+				processed.add( attributes.get( NAME ) );
+				return widget;
+			}
+		} );
+
+		JTextField stub = new JTextField();
+		stub.setName( "ghi" );
+		metawidget.add( stub );
+		metawidget.setToInspect( new Lazy() );
+
+		// Widgets in tabs that have never been shown are not even built or processed (except
+		// overridden widgets, which are never deferred)
+
+		JTabbedPane tabbedPane = (JTabbedPane) metawidget.getComponent( 0 );
+		assertEquals( CollectionUtils.newArrayList( "abc", "ghi" ), processed );
+
+		// getValue only builds the tab it needs
+
+		assertEquals( Boolean.FALSE, metawidget.getValue( "def" ) );
+		assertEquals( CollectionUtils.newArrayList( "abc", "ghi", "def" ), processed );
+		assertEquals( Boolean.FALSE, metawidget.getValue( "def" ) );
+		assertEquals( 3, processed.size() );
+
+		// Selecting a tab lays out its (already built) overridden widget
+
+		JPanel bazPanel = (JPanel) tabbedPane.getComponent( 2 );
+		assertEquals( 0, bazPanel.getComponentCount() );
+		tabbedPane.setSelectedIndex( 2 );
+		assertEquals( "Ghi:", ( (JLabel) bazPanel.getComponent( 0 ) ).getText() );
+		assertTrue( stub == bazPanel.getComponent( 1 ) );
+		assertEquals( 3, processed.size() );
+	}
+
+	public void testLazyValues() {
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setMetawidgetLayout( new TabbedPaneLayoutDecorator( new TabbedPaneLayoutDecoratorConfig().setLazy( true ).setLayout( new org.metawidget.swing.layout.GridBagLayout() ) ) );
+		metawidget.setToInspect( new Lazy() );
+
+		JTabbedPane tabbedPane = (JTabbedPane) metawidget.getComponent( 0 );
+		JPanel barPanel = (JPanel) tabbedPane.getComponent( 1 );
+		JPanel bazPanel = (JPanel) tabbedPane.getComponent( 2 );
+		assertEquals( 0, barPanel.getComponentCount() );
+		assertEquals( 0, bazPanel.getComponentCount() );
+
+		// getValues finds values in tabs that have not been laid out, laying out only the tabs
+		// it needs
+
+		Map<String, Object> values = metawidget.getValues( CollectionUtils.newArrayList( "abc", "def" ) );
+		assertEquals( CollectionUtils.newArrayList( "abc", "def" ), CollectionUtils.newArrayList( values.keySet() ) );
+		assertEquals( "", values.get( "abc" ) );
+		assertEquals( Boolean.FALSE, values.get( "def" ) );
+		assertEquals( "Def:", ( (JLabel) barPanel.getComponent( 0 ) ).getText() );
+		assertEquals( 0, bazPanel.getComponentCount() );
+
+		// setValues likewise
+
+		Map<String, Object> newValues = CollectionUtils.newHashMap();
+		newValues.put( "ghi", "Ghi value" );
+		metawidget.setValues( newValues );
+		assertEquals( "Ghi:", ( (JLabel) bazPanel.getComponent( 0 ) ).getText() );
+		assertEquals( "Ghi value", metawidget.getValues( CollectionUtils.newArrayList( "ghi" ) ).get( "ghi" ) );
+		assertEquals( Boolean.FALSE, metawidget.getValues( CollectionUtils.newArrayList( "def" ) ).get( "def" ) );
+	}
+
 	public static void main( String[] args ) {
 
 		SwingMetawidget metawidget = new SwingMetawidget();
@@ -264,4 +415,40 @@ public class TabbedPaneLayoutDecoratorTest
 			// Do nothing
 		}
 	}
+
+	static class Lazy {
+
+		@UiSection( "Foo" )
+		public String getAbc() {
+
+			return null;
+		}
+
+		public void setAbc( @SuppressWarnings( "unused" ) String abc ) {
+
+			// Do nothing
+		}
+
+		@UiSection( "Bar" )
+		public boolean isDef() {
+
+			return false;
+		}
+
+		public void setDef( @SuppressWarnings( "unused" ) boolean def ) {
+
+			// Do nothing
+		}
+
+		@UiSection( "Baz" )
+		public String getGhi() {
+
+			return null;
+		}
+
+		public void setGhi( @SuppressWarnings( "unused" ) String ghi ) {
+
+			// Do nothing
+		}
+	}
 }
@@ -11,7 +11,9 @@
 
 package org.metawidget.swing.widgetbuilder;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.swing.JCheckBox;
 import javax.swing.JLabel;
@@ -113,6 +115,98 @@ public class CollectionTableModelTest
 		assertEquals( 0, table.getRowCount() );
 	}
 
+	public void testNonListCollection() {
+
+		Set<Address> addresses = new LinkedHashSet<Address>();
+		addresses.add( new Address( "Street 1", "City 1", "State 1" ) );
+		addresses.add( new Address( "Street 2", "City 2", "State 2" ) );
+		Address address3 = new Address( "Street 3", "City 3", "State 3" );
+		addresses.add( address3 );
+
+		CollectionTableModel<Address> model = new CollectionTableModel<Address>( addresses, CollectionUtils.newArrayList( "street", "city", "toString" ), CollectionUtils.newArrayList( "Street", "City", "To String" ) );
+
+		assertEquals( 3, model.getRowCount() );
+		assertEquals( "City 2", model.getValueAt( 1, 1 ) );
+		assertEquals( "Street 3", model.getValueAt( 2, 0 ) );
+		assertEquals( "Street 1", model.getValueAt( 0, 0 ) );
+		assertTrue( address3 == model.getValueAt( 2 ) );
+		assertEquals( address3.toString(), model.getValueAt( 2, 2 ) );
+		assertEquals( null, model.getValueAt( 3, 0 ) );
+		assertEquals( null, model.getValueAt( 0, 3 ) );
+
+		// Cell values are cached...
+
+		address3.setStreet( "Street 3a" );
+		assertEquals( "Street 3", model.getValueAt( 2, 0 ) );
+
+		// ...until the model is told of a change
+
+		addresses.remove( address3 );
+		addresses.add( new Address( "Street 4", "City 4", "State 4" ) );
+		addresses.add( address3 );
+		model.fireTableDataChanged();
+
+		assertEquals( 4, model.getRowCount() );
+		assertEquals( "Street 4", model.getValueAt( 2, 0 ) );
+		assertEquals( "Street 3a", model.getValueAt( 3, 0 ) );
+	}
+
+	public void testListChangedWithoutFiring() {
+
+		List<Address> addresses = CollectionUtils.newArrayList();
+		addresses.add( new Address( "Street 1", "City 1", "State 1" ) );
+		addresses.add( new Address( "Street 2", "City 2", "State 2" ) );
+
+		CollectionTableModel<Address> model = new CollectionTableModel<Address>( addresses, CollectionUtils.newArrayList( "street", "city" ), CollectionUtils.newArrayList( "Street", "City" ) );
+		assertEquals( "Street 1", model.getValueAt( 0, 0 ) );
+		assertEquals( "Street 2", model.getValueAt( 1, 0 ) );
+
+		// Cached cell values are not served for a different bean at the same row...
+
+		addresses.set( 0, new Address( "Street 1a", "City 1a", "State 1a" ) );
+		assertEquals( "Street 1a", model.getValueAt( 0, 0 ) );
+		assertEquals( "City 1a", model.getValueAt( 0, 1 ) );
+
+		// ...including when rows shift
+
+		addresses.add( 0, new Address( "Street 0", "City 0", "State 0" ) );
+		assertEquals( 3, model.getRowCount() );
+		assertEquals( "Street 0", model.getValueAt( 0, 0 ) );
+		assertEquals( "Street 1a", model.getValueAt( 1, 0 ) );
+		assertEquals( "Street 2", model.getValueAt( 2, 0 ) );
+
+		addresses.remove( 0 );
+		assertEquals( "Street 1a", model.getValueAt( 0, 0 ) );
+		assertEquals( "Street 2", model.getValueAt( 1, 0 ) );
+		assertEquals( null, model.getValueAt( 2, 0 ) );
+	}
+
+	public void testNonListCollectionChangedWithoutFiring() {
+
+		Set<Address> addresses = new LinkedHashSet<Address>();
+		addresses.add( new Address( "Street 1", "City 1", "State 1" ) );
+		addresses.add( new Address( "Street 2", "City 2", "State 2" ) );
+		addresses.add( new Address( "Street 3", "City 3", "State 3" ) );
+
+		CollectionTableModel<Address> model = new CollectionTableModel<Address>( addresses, CollectionUtils.newArrayList( "street" ), CollectionUtils.newArrayList( "Street" ) );
+		assertEquals( "Street 1", model.getValueAt( 0, 0 ) );
+
+		// Changing the Collection invalidates the partially consumed Iterator...
+
+		addresses.add( new Address( "Street 4", "City 4", "State 4" ) );
+		assertEquals( "Street 3", model.getValueAt( 2, 0 ) );
+		assertEquals( 4, model.getRowCount() );
+		assertEquals( "Street 4", model.getValueAt( 3, 0 ) );
+
+		// ...as does shrinking it
+
+		model = new CollectionTableModel<Address>( addresses, CollectionUtils.newArrayList( "street" ), CollectionUtils.newArrayList( "Street" ) );
+		assertEquals( "Street 1", model.getValueAt( 0, 0 ) );
+		addresses.clear();
+		assertEquals( null, model.getValueAt( 3, 0 ) );
+		assertEquals( 0, model.getRowCount() );
+	}
+
 	//
 	// Inner class
 	//
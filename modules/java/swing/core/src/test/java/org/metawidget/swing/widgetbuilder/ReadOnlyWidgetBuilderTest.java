@@ -13,6 +13,7 @@ package org.metawidget.swing.widgetbuilder;
 
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
+import java.util.List;
 import java.util.Map;
 
 import javax.swing.JComponent;
@@ -23,6 +24,8 @@ import javax.swing.JTextArea;
 import junit.framework.TestCase;
 
 import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.MetawidgetTestUtils;
+import org.metawidget.widgetbuilder.iface.LookupProvider;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -72,6 +75,58 @@ public class ReadOnlyWidgetBuilderTest
 		assertEquals( null, widgetBuilder.buildWidget( PROPERTY, attributes, null ));
 	}
 
+	public void testLookupProvider() {
+
+		LookupProvider lookupProvider = new LookupProvider() {
+
+			public List<String> getLookup( Map<String, String> attributes ) {
+
+				if ( "code".equals( attributes.get( NAME ) ) ) {
+					return CollectionUtils.newArrayList( "FOO", "BAR" );
+				}
+
+				return null;
+			}
+
+			public List<String> getLookupLabels( Map<String, String> attributes ) {
+
+				return CollectionUtils.newArrayList( "Foo Label", "Bar Label" );
+			}
+		};
+
+		ReadOnlyWidgetBuilder widgetBuilder = new ReadOnlyWidgetBuilder( new ReadOnlyWidgetBuilderConfig().setLookupProvider( lookupProvider ) );
+		Map<String, String> attributes = CollectionUtils.newHashMap();
+		attributes.put( NAME, "code" );
+		attributes.put( TYPE, String.class.getName() );
+		attributes.put( READ_ONLY, TRUE );
+
+		// Should show labels, not codes
+
+		JLabel label = (JLabel) widgetBuilder.buildWidget( PROPERTY, attributes, null );
+		label.setText( "BAR" );
+		assertEquals( "Bar Label", label.getText() );
+		label.setText( "FOO" );
+		assertEquals( "Foo Label", label.getText() );
+		label.setText( null );
+		assertEquals( null, label.getText() );
+
+		// Should fall back to lookup attribute
+
+		attributes.put( NAME, "foo" );
+		attributes.put( LOOKUP, "Foo, Bar" );
+		attributes.put( LOOKUP_LABELS, "Foo Label, Bar Label" );
+		label = (JLabel) widgetBuilder.buildWidget( PROPERTY, attributes, null );
+		label.setText( "Bar" );
+		assertEquals( "Bar Label", label.getText() );
+	}
+
+	public void testConfig() {
+
+		MetawidgetTestUtils.testEqualsAndHashcode( ReadOnlyWidgetBuilderConfig.class, new ReadOnlyWidgetBuilderConfig() {
+			// Subclass
+		} );
+	}
+
 	//
 	// Inner class
 	//
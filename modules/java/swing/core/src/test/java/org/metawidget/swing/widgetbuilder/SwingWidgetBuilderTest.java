@@ -13,6 +13,7 @@ package org.metawidget.swing.widgetbuilder;
 
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -39,6 +40,7 @@ import org.metawidget.swing.SwingMetawidget;
 import org.metawidget.swing.widgetprocessor.binding.BindingConverter;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.MetawidgetTestUtils;
+import org.metawidget.widgetbuilder.iface.LookupProvider;
 import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 
 /**
@@ -350,6 +352,117 @@ public class SwingWidgetBuilderTest
 		assertEquals( 1, model.getRowCount() );
 	}
 
+	public void testLookupProvider() {
+
+		// Lazily loaded lookup
+
+		final int[] gets = new int[1];
+
+		final List<String> codes = new AbstractList<String>() {
+
+			@Override
+			public String get( int index ) {
+
+				gets[0]++;
+				return "CODE" + index;
+			}
+
+			@Override
+			public int size() {
+
+				return 1000;
+			}
+		};
+
+		LookupProvider lookupProvider = new LookupProvider() {
+
+			public List<String> getLookup( Map<String, String> attributes ) {
+
+				if ( "code".equals( attributes.get( NAME ) ) || "labelled".equals( attributes.get( NAME ) ) ) {
+					return codes;
+				}
+
+				return null;
+			}
+
+			public List<String> getLookupLabels( Map<String, String> attributes ) {
+
+				if ( "labelled".equals( attributes.get( NAME ) ) ) {
+					return new AbstractList<String>() {
+
+						@Override
+						public String get( int index ) {
+
+							return "Label " + index;
+						}
+
+						@Override
+						public int size() {
+
+							return 1000;
+						}
+					};
+				}
+
+				return null;
+			}
+		};
+
+		SwingWidgetBuilder widgetBuilder = new SwingWidgetBuilder( new SwingWidgetBuilderConfig().setLookupProvider( lookupProvider ) );
+		SwingMetawidget metawidget = new SwingMetawidget();
+		Map<String, String> attributes = CollectionUtils.newHashMap();
+		attributes.put( NAME, "code" );
+		attributes.put( TYPE, String.class.getName() );
+		attributes.put( REQUIRED, TRUE );
+
+		JComboBox comboBox = (JComboBox) widgetBuilder.buildWidget( PROPERTY, attributes, metawidget );
+
+		// Should not have copied the lookup up front
+
+		assertTrue( gets[0] < 1000 );
+		assertEquals( "CODE0", comboBox.getSelectedItem() );
+		assertEquals( "CODE0", comboBox.getItemAt( 0 ) );
+		assertEquals( "CODE999", comboBox.getItemAt( 999 ) );
+		assertEquals( 1000, comboBox.getItemCount() );
+		assertTrue( !comboBox.getRenderer().getClass().getName().contains( "LookupComboBoxRenderer" ) );
+
+		comboBox.setSelectedItem( "CODE500" );
+		assertEquals( "CODE500", comboBox.getSelectedItem() );
+
+		// Lazily loaded labels
+
+		attributes.put( NAME, "labelled" );
+		attributes.remove( REQUIRED );
+		comboBox = (JComboBox) widgetBuilder.buildWidget( PROPERTY, attributes, metawidget );
+		assertEquals( null, comboBox.getSelectedItem() );
+		assertEquals( null, comboBox.getItemAt( 0 ) );
+		assertEquals( "CODE0", comboBox.getItemAt( 1 ) );
+		assertEquals( 1001, comboBox.getItemCount() );
+
+		JList popupList = ( (BasicComboPopup) comboBox.getUI().getAccessibleChild( comboBox, 0 ) ).getList();
+		assertEquals( "", ( (JLabel) comboBox.getRenderer().getListCellRendererComponent( popupList, null, 0, false, false ) ).getText() );
+		assertEquals( "Label 42", ( (JLabel) comboBox.getRenderer().getListCellRendererComponent( popupList, "CODE42", 43, false, false ) ).getText() );
+		assertEquals( "Label 42", ( (JLabel) comboBox.getRenderer().getListCellRendererComponent( popupList, "CODE42", -1, false, false ) ).getText() );
+		assertEquals( "UNKNOWN", ( (JLabel) comboBox.getRenderer().getListCellRendererComponent( popupList, "UNKNOWN", -1, false, false ) ).getText() );
+		attributes.put( REQUIRED, TRUE );
+
+		// Should fall back to lookup attribute
+
+		attributes.put( NAME, "foo" );
+		attributes.put( LOOKUP, "Foo, Bar" );
+		attributes.put( LOOKUP_LABELS, "Foo Label, Bar Label" );
+		comboBox = (JComboBox) widgetBuilder.buildWidget( PROPERTY, attributes, metawidget );
+		assertEquals( "Foo", comboBox.getItemAt( 0 ) );
+		assertEquals( "Bar", comboBox.getItemAt( 1 ) );
+		assertEquals( 2, comboBox.getItemCount() );
+		assertTrue( comboBox.getRenderer().getClass().getName().contains( "LookupComboBoxRenderer" ) );
+
+		// Should not build a lookup
+
+		attributes.remove( LOOKUP );
+		assertTrue( !( widgetBuilder.buildWidget( PROPERTY, attributes, metawidget ) instanceof JComboBox ) );
+	}
+
 	public void testConfig() {
 
 		MetawidgetTestUtils.testEqualsAndHashcode( SwingWidgetBuilderConfig.class, new SwingWidgetBuilderConfig() {
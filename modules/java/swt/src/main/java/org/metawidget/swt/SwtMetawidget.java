@@ -12,6 +12,7 @@ package org.metawidget.swt;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.beans.Beans;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.MissingResourceException;
@@ -53,6 +54,19 @@ import org.w3c.dom.Element;
 public class SwtMetawidget
 	extends Composite {
 
+	//
+	// Public statics
+	//
+
+	/**
+	 * Data key a Layout can set on a Composite whose contents it has not finished laying out yet
+	 * (eg. a tab that has not been shown). The data's value must be a <code>Runnable</code> that
+	 * finishes the job. SwtMetawidget runs it (and clears the data) before searching that Composite
+	 * for named Controls.
+	 */
+
+	public static final String		DEFERRED_LAYOUT			= "metawidget-deferred-layout";
+
 	//
 	// Private members
 	//
@@ -79,6 +93,13 @@ public class SwtMetawidget
 
 	private Set<Control>			mControlsToDispose		= CollectionUtils.newHashSet();
 
+	/**
+	 * Index of named controls, for <code>getValues</code> and <code>setValues</code>. Built lazily
+	 * after each build.
+	 */
+
+	private Map<String, Control>	mControlIndex;
+
 	/* package private */Composite	mCurrentLayoutComposite;
 
 	private Pipeline				mPipeline;
@@ -438,6 +459,47 @@ public class SwtMetawidget
 		ClassUtils.setProperty( controlAndValueProperty.getControl(), controlAndValueProperty.getValueProperty(), value );
 	}
 
+	/**
+	 * Gets the values from the Controls with the given paths.
+	 * <p>
+	 * Each path is a list of names separated by forward slashes (eg. <code>address/street</code>).
+	 * This is equivalent to calling <code>getValue</code> for each path, but rather than searching
+	 * for each Control in turn, Controls are looked up in an index of names that is built once per
+	 * build.
+	 *
+	 * @return the values, keyed by path, in the same order as the given paths
+	 */
+
+	public Map<String, Object> getValues( Collection<String> paths ) {
+
+		Map<String, Object> values = CollectionUtils.newLinkedHashMap();
+
+		for ( String path : paths ) {
+			ControlAndValueProperty controlAndValueProperty = getIndexedControlAndValueProperty( path );
+			values.put( path, ClassUtils.getProperty( controlAndValueProperty.getControl(), controlAndValueProperty.getValueProperty() ) );
+		}
+
+		return values;
+	}
+
+	/**
+	 * Sets the Controls with the given paths to the specified values.
+	 * <p>
+	 * This is equivalent to calling <code>setValue</code> for each path. See
+	 * <code>getValues</code>.
+	 *
+	 * @param values
+	 *            the values, keyed by path (eg. <code>address/street</code>)
+	 */
+
+	public void setValues( Map<String, ?> values ) {
+
+		for ( Map.Entry<String, ?> entry : values.entrySet() ) {
+			ControlAndValueProperty controlAndValueProperty = getIndexedControlAndValueProperty( entry.getKey() );
+			ClassUtils.setProperty( controlAndValueProperty.getControl(), controlAndValueProperty.getValueProperty(), entry.getValue() );
+		}
+	}
+
 	/**
 	 * Returns the property used to get/set the value of the control.
 	 * <p>
@@ -572,6 +634,8 @@ public class SwtMetawidget
 
 	protected void invalidateWidgets() {
 
+		mControlIndex = null;
+
 		if ( mNeedToBuildWidgets ) {
 			return;
 		}
@@ -590,6 +654,7 @@ public class SwtMetawidget
 		mPipeline.configureOnce();
 
 		mNeedToBuildWidgets = false;
+		mControlIndex = null;
 
 		// Metawidget needs a way to distinguish between manually added controls and generated
 		// controls: the generated ones must be cleaned up on subsequent buildWidgets(), whereas
@@ -722,7 +787,97 @@ public class SwtMetawidget
 
 	private ControlAndValueProperty getControlAndValueProperty( String... names ) {
 
-		Control control = getControl( names );
+		return getControlAndValueProperty( getControl( names ), names );
+	}
+
+	private ControlAndValueProperty getIndexedControlAndValueProperty( String path ) {
+
+		String[] names = ArrayUtils.fromString( path, StringUtils.SEPARATOR_FORWARD_SLASH_CHAR );
+		Control control = this;
+
+		for ( String name : names ) {
+
+			if ( control instanceof SwtMetawidget ) {
+				control = ( (SwtMetawidget) control ).getIndexedControl( name );
+			} else if ( control instanceof Composite ) {
+				control = getControl( (Composite) control, name );
+			} else {
+				control = null;
+			}
+
+			if ( control == null ) {
+				break;
+			}
+		}
+
+		if ( control == this ) {
+			control = null;
+		}
+
+		return getControlAndValueProperty( control, names );
+	}
+
+	/**
+	 * Gets the Control with the given name from the index, building the index if necessary.
+	 */
+
+	private Control getIndexedControl( String name ) {
+
+		buildWidgets();
+
+		if ( mControlIndex == null ) {
+			mControlIndex = CollectionUtils.newHashMap();
+			indexControls( this, mControlIndex );
+		}
+
+		Control control = mControlIndex.get( name );
+
+		// Not indexed? May be inside a deferred layout (eg. a lazy tab), which indexControls
+		// leaves alone. Search for it, finishing deferred layouts along the way
+
+		if ( control == null ) {
+			control = getControl( this, name );
+
+			if ( control != null ) {
+				mControlIndex = null;
+			}
+		}
+
+		return control;
+	}
+
+	/**
+	 * Indexes Controls by name. Follows the same rules as <code>getControl( Composite, String )</code>,
+	 * except that it does not finish deferred layouts.
+	 */
+
+	private void indexControls( Composite container, Map<String, Control> index ) {
+
+		for ( Control childControl : container.getChildren() ) {
+
+			Object childName = childControl.getData( NAME );
+
+			// Drill into unnamed containers (ie. for TabFolders)
+
+			if ( childName == null ) {
+				if ( childControl instanceof Composite ) {
+					indexControls( (Composite) childControl, index );
+				}
+
+				continue;
+			}
+
+			// First match wins, as per getControl
+
+			if ( !index.containsKey( childName ) ) {
+				index.put( (String) childName, childControl );
+			}
+		}
+	}
+
+	private ControlAndValueProperty getControlAndValueProperty( Control foundControl, String... names ) {
+
+		Control control = foundControl;
 
 		if ( control == null ) {
 			throw MetawidgetException.newException( "No control named '" + ArrayUtils.toString( names, "', '" ) + "'" );
@@ -768,6 +923,15 @@ public class SwtMetawidget
 
 	private Control getControl( Composite container, String name ) {
 
+		// Finish deferred layouts (eg. lazy tabs), so that their Controls can be found
+
+		Runnable deferredLayout = (Runnable) container.getData( DEFERRED_LAYOUT );
+
+		if ( deferredLayout != null ) {
+			container.setData( DEFERRED_LAYOUT, null );
+			deferredLayout.run();
+		}
+
 		for ( Control childComponent : container.getChildren() ) {
 			// Drill into unnamed containers (ie. for TabFolders)
 
@@ -23,6 +23,12 @@ import org.metawidget.util.LayoutUtils;
 /**
  * Convenience base class for LayoutDecorators wishing to decorate widgets based on changing
  * sections within SWT Layouts.
+ * <p>
+ * Because SWT Controls must be created inside their parent, sections are started (and their
+ * Composites created) in <code>startBuildWidget</code>, before each widget is built. Lazy sections
+ * (see <code>isLazy</code>) are therefore only supported when this LayoutDecorator is the
+ * SwtMetawidget's (outermost) Layout, so that the widgets of lazy sections are deferred before
+ * they are built.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -53,9 +59,19 @@ public abstract class SwtNestedSectionLayoutDecorator
 
 	public Composite startBuildWidget( String elementName, Map<String, String> attributes, Composite container, SwtMetawidget metawidget ) {
 
-		String section = stripSection( attributes );
 		State<Composite> state = getState( container, metawidget );
 
+		// Building a deferred widget?
+
+		LazySection lazySectionBeingLaidOut = getLazySectionBeingLaidOut( state );
+
+		if ( lazySectionBeingLaidOut != null ) {
+			stripSection( attributes );
+			return delegateStartBuildWidget( elementName, attributes, lazySectionBeingLaidOut.getSectionWidget(), metawidget );
+		}
+
+		String section = stripSection( attributes );
+
 		// Stay where we are?
 
 		if ( section == null || section.equals( state.getCurrentSection() ) ) {
@@ -70,13 +86,14 @@ public abstract class SwtNestedSectionLayoutDecorator
 
 		Composite previousSectionWidget = state.getCurrentSectionWidget();
 
-		// End current section
+		// End current section (lazy sections start and end their own layout)
 
-		if ( state.getCurrentSectionWidget() != null ) {
+		if ( state.getCurrentSectionWidget() != null && state.getCurrentLazySection() == null ) {
 			super.endContainerLayout( state.getCurrentSectionWidget(), metawidget );
 		}
 
 		state.setCurrentSectionWidget( null );
+		state.setCurrentLazySection( null );
 
 		// No new section?
 
@@ -95,6 +112,25 @@ public abstract class SwtNestedSectionLayoutDecorator
 
 		State<Composite> state = getState( container, metawidget );
 
+		// Building a deferred widget?
+
+		LazySection lazySectionBeingLaidOut = getLazySectionBeingLaidOut( state );
+
+		if ( lazySectionBeingLaidOut != null ) {
+			getDelegate().layoutWidget( widget, elementName, attributes, lazySectionBeingLaidOut.getSectionWidget(), metawidget );
+			return;
+		}
+
+		// Widget in a lazy section that could not be deferred? Lay it out with the rest of the
+		// section
+
+		LazySection currentLazySection = getCurrentLazySection( state );
+
+		if ( currentLazySection != null ) {
+			currentLazySection.addWidget( widget, elementName, attributes );
+			return;
+		}
+
 		if ( state.getCurrentSectionWidget() == null ) {
 			getDelegate().layoutWidget( widget, elementName, attributes, container, metawidget );
 		} else {
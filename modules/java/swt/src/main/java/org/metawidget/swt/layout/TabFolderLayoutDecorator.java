@@ -17,6 +17,9 @@ import java.util.Map;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.TabFolder;
 import org.eclipse.swt.widgets.TabItem;
 import org.metawidget.swt.SwtMetawidget;
@@ -36,7 +39,9 @@ public class TabFolderLayoutDecorator
 	// Private members
 	//
 
-	private final int	mTabLocation;
+	private final int		mTabLocation;
+
+	private final boolean	mLazy;
 
 	//
 	// Constructor
@@ -47,6 +52,7 @@ public class TabFolderLayoutDecorator
 		super( config );
 
 		mTabLocation = config.getTabLocation();
+		mLazy = config.isLazy();
 	}
 
 	//
@@ -90,4 +96,122 @@ public class TabFolderLayoutDecorator
 
 		return (Composite) tabItem.getControl();
 	}
+
+	@Override
+	protected boolean isLazy( Composite previousSectionWidget ) {
+
+		// The first tab is visible immediately, so is never lazy
+
+		return ( mLazy && previousSectionWidget != null );
+	}
+
+	/**
+	 * Overridden to never defer overridden Controls, as <code>OverriddenWidgetBuilder</code> can
+	 * only find them during the initial build.
+	 */
+
+	@Override
+	protected boolean isDeferrable( String elementName, Map<String, String> attributes, SwtMetawidget metawidget ) {
+
+		String name = attributes.get( NAME );
+
+		for ( Control existingControl : metawidget.getChildren() ) {
+			if ( name.equals( existingControl.getData( NAME ) ) ) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Overridden to lay out the tab when it is first selected, or when
+	 * <code>SwtMetawidget.getControl</code> searches inside it.
+	 */
+
+	@Override
+	protected void deferSection( Composite sectionWidget, LazySection lazySection, SwtMetawidget metawidget ) {
+
+		sectionWidget.setData( SwtMetawidget.DEFERRED_LAYOUT, new LazyTabLayout( sectionWidget, lazySection ) );
+
+		TabFolder tabFolder = (TabFolder) sectionWidget.getParent();
+
+		if ( tabFolder.getData( LazyTabListener.class.getName() ) == null ) {
+			LazyTabListener listener = new LazyTabListener();
+			tabFolder.setData( LazyTabListener.class.getName(), listener );
+			tabFolder.addListener( SWT.Selection, listener );
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Lays out lazy tabs as they are selected.
+	 */
+
+	private static class LazyTabListener
+		implements Listener {
+
+		//
+		// Public methods
+		//
+
+		public void handleEvent( Event event ) {
+
+			if ( !( event.item instanceof TabItem ) ) {
+				return;
+			}
+
+			Control tab = ( (TabItem) event.item ).getControl();
+
+			if ( tab == null ) {
+				return;
+			}
+
+			Runnable deferredLayout = (Runnable) tab.getData( SwtMetawidget.DEFERRED_LAYOUT );
+
+			if ( deferredLayout != null ) {
+				tab.setData( SwtMetawidget.DEFERRED_LAYOUT, null );
+				deferredLayout.run();
+			}
+		}
+	}
+
+	/**
+	 * Builds and lays out a lazy tab.
+	 */
+
+	private static class LazyTabLayout
+		implements Runnable {
+
+		//
+		// Private members
+		//
+
+		private final Composite		mTab;
+
+		private final LazySection	mLazySection;
+
+		//
+		// Constructor
+		//
+
+		public LazyTabLayout( Composite tab, LazySection lazySection ) {
+
+			mTab = tab;
+			mLazySection = lazySection;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void run() {
+
+			mLazySection.layout();
+			mTab.layout( true, true );
+		}
+	}
 }
@@ -32,7 +32,9 @@ public class TabFolderLayoutDecoratorConfig
 	// Private members
 	//
 
-	private int	mTabLocation	= SWT.TOP;
+	private int		mTabLocation	= SWT.TOP;
+
+	private boolean	mLazy;
 
 	//
 	// Public methods
@@ -65,6 +67,25 @@ public class TabFolderLayoutDecoratorConfig
 		return this;
 	}
 
+	/**
+	 * Sets whether tabs other than the first should only be built when they are first selected (or
+	 * when <code>SwtMetawidget.getControl</code> or <code>getValue</code> needs one of their
+	 * Controls). Until then, widgets in unselected tabs are not built, processed (eg. bound) or laid
+	 * out, and neither are any nested Metawidgets they contain. Bindings only save Controls that
+	 * have been built, so values in tabs that were never shown are left untouched.
+	 * <p>
+	 * Only takes effect if this TabFolderLayoutDecorator is the SwtMetawidget's (outermost) Layout.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public TabFolderLayoutDecoratorConfig setLazy( boolean lazy ) {
+
+		mLazy = lazy;
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -80,6 +101,10 @@ public class TabFolderLayoutDecoratorConfig
 			return false;
 		}
 
+		if ( mLazy != ( (TabFolderLayoutDecoratorConfig) that ).mLazy ) {
+			return false;
+		}
+
 		return super.equals( that );
 	}
 
@@ -88,6 +113,7 @@ public class TabFolderLayoutDecoratorConfig
 
 		int hashCode = super.hashCode();
 		hashCode = 31 * hashCode + mTabLocation;
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mLazy );
 
 		return hashCode;
 	}
@@ -100,4 +126,9 @@ public class TabFolderLayoutDecoratorConfig
 
 		return mTabLocation;
 	}
+
+	protected boolean isLazy() {
+
+		return mLazy;
+	}
 }
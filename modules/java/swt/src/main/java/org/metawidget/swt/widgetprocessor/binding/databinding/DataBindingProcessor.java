@@ -30,11 +30,11 @@ import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
 import org.metawidget.swt.SwtMetawidget;
 import org.metawidget.util.CollectionUtils;
-import org.metawidget.util.simple.ObjectUtils;
 import org.metawidget.util.simple.PathUtils;
 import org.metawidget.util.simple.StringUtils;
 import org.metawidget.widgetprocessor.iface.AdvancedWidgetProcessor;
 import org.metawidget.widgetprocessor.iface.WidgetProcessorException;
+import org.metawidget.widgetprocessor.impl.ConverterRegistry;
 
 /**
  * Property binding implementation based on <code>eclipse.core.databinding</code>.
@@ -64,7 +64,7 @@ public class DataBindingProcessor
 
 	private List<DisplayRealm>						mRealms		= CollectionUtils.newArrayList();
 
-	private final Map<ConvertFromTo, IConverter>	mConverters	= CollectionUtils.newHashMap();
+	private final ConverterRegistry<IConverter>		mConverters	= new ConverterRegistry<IConverter>( false, false );
 
 	//
 	// Constructor
@@ -83,7 +83,7 @@ public class DataBindingProcessor
 
 		if ( converters != null ) {
 			for ( IConverter converter : converters ) {
-				mConverters.put( new ConvertFromTo( (Class<?>) converter.getFromType(), (Class<?>) converter.getToType() ), converter );
+				mConverters.register( (Class<?>) converter.getFromType(), (Class<?>) converter.getToType(), converter );
 			}
 		}
 	}
@@ -255,24 +255,12 @@ public class DataBindingProcessor
 	 * Includes traversing superclasses of the given <code>sourceClass</code> for a suitable
 	 * IConverter, so for example registering a IConverter for <code>Number.class</code> will match
 	 * <code>Integer.class</code>, <code>Double.class</code> etc., unless a more subclass-specific
-	 * IConverter is also registered.
+	 * IConverter is also registered. Lookups are cached per pair of classes.
 	 */
 
 	private IConverter getConverter( Class<?> sourceClass, Class<?> targetClass ) {
 
-		Class<?> sourceClassTraversal = sourceClass;
-
-		while ( sourceClassTraversal != null ) {
-			IConverter converter = mConverters.get( new ConvertFromTo( sourceClassTraversal, targetClass ) );
-
-			if ( converter != null ) {
-				return converter;
-			}
-
-			sourceClassTraversal = sourceClassTraversal.getSuperclass();
-		}
-
-		return null;
+		return mConverters.getConverter( sourceClass, targetClass );
 	}
 
 	//
@@ -324,61 +312,4 @@ public class DataBindingProcessor
 
 		// Do not override equals/hashCode, we are not going to be comparing this or hashing it
 	}
-
-	/* package private */static final class ConvertFromTo {
-
-		//
-		// Private members
-		//
-
-		private Class<?>	mSource;
-
-		private Class<?>	mTarget;
-
-		//
-		// Constructor
-		//
-
-		public ConvertFromTo( Class<?> source, Class<?> target ) {
-
-			mSource = source;
-			mTarget = target;
-		}
-
-		//
-		// Public methods
-		//
-
-		@Override
-		public boolean equals( Object that ) {
-
-			if ( this == that ) {
-				return true;
-			}
-
-			if ( !ObjectUtils.nullSafeClassEquals( this, that ) ) {
-				return false;
-			}
-
-			if ( !ObjectUtils.nullSafeEquals( mSource, ( (ConvertFromTo) that ).mSource ) ) {
-				return false;
-			}
-
-			if ( !ObjectUtils.nullSafeEquals( mTarget, ( (ConvertFromTo) that ).mTarget ) ) {
-				return false;
-			}
-
-			return true;
-		}
-
-		@Override
-		public int hashCode() {
-
-			int hashCode = 1;
-			hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mSource.hashCode() );
-			hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mTarget.hashCode() );
-
-			return hashCode;
-		}
-	}
 }
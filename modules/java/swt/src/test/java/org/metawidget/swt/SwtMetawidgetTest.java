@@ -13,12 +13,17 @@ package org.metawidget.swt;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import junit.framework.TestCase;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+import org.metawidget.iface.MetawidgetException;
+import org.metawidget.inspector.propertytype.PropertyTypeInspector;
+import org.metawidget.util.CollectionUtils;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -47,6 +52,72 @@ public class SwtMetawidgetTest
 		assertEquals( 2, configured.size() );
 	}
 
+	public void testGetValuesSetValues() {
+
+		Foo foo = new Foo();
+		foo.setFoo( new Foo() );
+
+		SwtMetawidget metawidget = new SwtMetawidget( new Shell( SwtMetawidgetTests.TEST_DISPLAY, SWT.NONE ), SWT.NONE );
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setToInspect( foo );
+
+		Map<String, Object> values = CollectionUtils.newLinkedHashMap();
+		values.put( "name", "Foo" );
+		values.put( "foo/name", "Nested Foo" );
+		metawidget.setValues( values );
+
+		assertEquals( "Foo", ( (Text) metawidget.getControl( "name" ) ).getText() );
+		assertEquals( "Nested Foo", ( (Text) metawidget.getControl( "foo", "name" ) ).getText() );
+		assertEquals( "{foo/name=Nested Foo, name=Foo}", metawidget.getValues( CollectionUtils.newArrayList( "foo/name", "name" ) ).toString() );
+
+		// Unknown names, both at the top level and nested
+
+		try {
+			metawidget.getValues( CollectionUtils.newArrayList( "bar" ) );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertEquals( "No control named 'bar'", e.getMessage() );
+		}
+
+		try {
+			metawidget.getValues( CollectionUtils.newArrayList( "foo/bar" ) );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertEquals( "No control named 'foo', 'bar'", e.getMessage() );
+		}
+
+		try {
+			metawidget.setValues( CollectionUtils.newHashMap( CollectionUtils.newArrayList( "name/bar" ), CollectionUtils.newArrayList( "Bar" ) ) );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertEquals( "No control named 'name', 'bar'", e.getMessage() );
+		}
+
+		// A failed lookup does not spoil the index
+
+		assertEquals( "{name=Foo}", metawidget.getValues( CollectionUtils.newArrayList( "name" ) ).toString() );
+
+		// The index does not outlive a rebuild: the Controls it held are disposed, and their
+		// replacements are found
+
+		Text staleName = metawidget.getControl( "name" );
+		metawidget.setToInspect( new Foo() );
+		assertEquals( "{name=, foo/name=}", metawidget.getValues( CollectionUtils.newArrayList( "name", "foo/name" ) ).toString() );
+		assertTrue( staleName.isDisposed() );
+		assertTrue( staleName != metawidget.getControl( "name" ) );
+
+		metawidget.setValues( CollectionUtils.newHashMap( CollectionUtils.newArrayList( "name" ), CollectionUtils.newArrayList( "Rebuilt" ) ) );
+		assertEquals( "Rebuilt", ( (Text) metawidget.getControl( "name" ) ).getText() );
+
+		// Nor a change of layout
+
+		staleName = metawidget.getControl( "name" );
+		metawidget.setMetawidgetLayout( new org.metawidget.swt.layout.GridLayout() );
+		metawidget.setValues( CollectionUtils.newHashMap( CollectionUtils.newArrayList( "name" ), CollectionUtils.newArrayList( "Relaid" ) ) );
+		assertTrue( staleName.isDisposed() );
+		assertEquals( "Relaid", ( (Text) metawidget.getControl( "name" ) ).getText() );
+	}
+
 	//
 	// Inner class
 	//
@@ -18,6 +18,7 @@ import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.TabFolder;
@@ -161,6 +162,65 @@ public class TabFolderLayoutDecoratorTest
 		assertEquals( 5, metawidget.getChildren().length );
 	}
 
+	public void testLazy() {
+
+		SwtMetawidget metawidget = new SwtMetawidget( new Shell( SwtMetawidgetTests.TEST_DISPLAY, SWT.NONE ), SWT.NONE );
+		metawidget.setMetawidgetLayout( new TabFolderLayoutDecorator( new TabFolderLayoutDecoratorConfig().setLazy( true ).setLayout( new GridLayout() ) ) );
+		metawidget.setToInspect( new Baz() );
+
+		TabFolder tabFolder = (TabFolder) metawidget.getChildren()[0];
+		assertEquals( "Foo", tabFolder.getItem( 0 ).getText() );
+		assertEquals( "Baz", tabFolder.getItem( 1 ).getText() );
+		assertEquals( 2, tabFolder.getItemCount() );
+
+		// First tab built immediately. Second tab deferred, with its layout stored as the tab's data
+
+		Composite fooComposite = (Composite) tabFolder.getItem( 0 ).getControl();
+		assertEquals( "Abc:", ( (Label) fooComposite.getChildren()[0] ).getText() );
+		assertEquals( null, fooComposite.getData( SwtMetawidget.DEFERRED_LAYOUT ) );
+		Composite bazComposite = (Composite) tabFolder.getItem( 1 ).getControl();
+		assertEquals( 0, bazComposite.getChildren().length );
+		assertTrue( bazComposite.getData( SwtMetawidget.DEFERRED_LAYOUT ) instanceof Runnable );
+
+		// Programmatic selection does not fire SWT.Selection, so does not build the tab
+
+		tabFolder.setSelection( 1 );
+		assertEquals( 0, bazComposite.getChildren().length );
+
+		// Nor does an SWT.Selection without a TabItem
+
+		tabFolder.notifyListeners( SWT.Selection, new Event() );
+		assertEquals( 0, bazComposite.getChildren().length );
+
+		// SWT.Selection for the TabItem (as when the user clicks it) builds it
+
+		Event event = new Event();
+		event.item = tabFolder.getItem( 1 );
+		tabFolder.notifyListeners( SWT.Selection, event );
+		assertEquals( "Def:", ( (Label) bazComposite.getChildren()[0] ).getText() );
+		assertEquals( ( bazComposite.getChildren()[1].getStyle() & SWT.CHECK ), SWT.CHECK );
+		assertEquals( null, bazComposite.getData( SwtMetawidget.DEFERRED_LAYOUT ) );
+
+		int controlCount = bazComposite.getChildren().length;
+		tabFolder.notifyListeners( SWT.Selection, event );
+		assertEquals( controlCount, bazComposite.getChildren().length );
+
+		// getControl builds a deferred tab without it being selected
+
+		metawidget.setToInspect( new Baz() );
+		tabFolder = (TabFolder) metawidget.getChildren()[0];
+		bazComposite = (Composite) tabFolder.getItem( 1 ).getControl();
+		assertEquals( 0, bazComposite.getChildren().length );
+		assertTrue( metawidget.getControl( "def" ) == bazComposite.getChildren()[1] );
+		assertEquals( null, bazComposite.getData( SwtMetawidget.DEFERRED_LAYOUT ) );
+
+		// Non-lazy (the default)
+
+		metawidget.setMetawidgetLayout( new TabFolderLayoutDecorator( new TabFolderLayoutDecoratorConfig().setLayout( new GridLayout() ) ) );
+		tabFolder = (TabFolder) metawidget.getChildren()[0];
+		assertEquals( "Def:", ( (Label) ( (Composite) tabFolder.getItem( 1 ).getControl() ).getChildren()[0] ).getText() );
+	}
+
 	//
 	// Inner class
 	//
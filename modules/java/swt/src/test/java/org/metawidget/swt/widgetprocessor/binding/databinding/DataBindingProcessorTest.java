@@ -29,7 +29,6 @@ import org.metawidget.swt.layout.GridLayout;
 import org.metawidget.swt.layout.TabFolderLayoutDecorator;
 import org.metawidget.swt.layout.TabFolderLayoutDecoratorConfig;
 import org.metawidget.swt.widgetbuilder.SwtWidgetBuilder;
-import org.metawidget.swt.widgetprocessor.binding.databinding.DataBindingProcessor.ConvertFromTo;
 import org.metawidget.util.MetawidgetTestUtils;
 
 /**
@@ -48,7 +47,6 @@ public class DataBindingProcessorTest
 		MetawidgetTestUtils.testEqualsAndHashcode( DataBindingProcessorConfig.class, new DataBindingProcessorConfig() {
 			// subclass
 		} );
-		MetawidgetTestUtils.testObjectEqualsAndHashcode( new ConvertFromTo( Integer.class, String.class ), new ConvertFromTo( Integer.class, String.class ), null );
 	}
 
 	public void testConvertFromString() {
@@ -12,6 +12,7 @@ package org.metawidget.vaadin.ui;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -34,6 +35,7 @@ import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 import org.w3c.dom.Element;
 
+import com.vaadin.data.Property;
 import com.vaadin.ui.AbstractComponent;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.ComponentContainer;
@@ -51,6 +53,19 @@ public class VaadinMetawidget
 	extends CustomComponent
 	implements ComponentContainer {
 
+	//
+	// Public statics
+	//
+
+	/**
+	 * Client property under which lazy LayoutDecorators store a
+	 * <code>Map&lt;Component, Runnable&gt;</code> of their deferred layouts, keyed by tab.
+	 * <code>getComponent</code> and <code>getValue</code> run them if they cannot otherwise find a
+	 * component.
+	 */
+
+	public static final String		DEFERRED_LAYOUTS	= "metawidget-deferred-layouts";
+
 	//
 	// Private members
 	//
@@ -90,6 +105,13 @@ public class VaadinMetawidget
 
 	private Map<Object, Object>		mClientProperties;
 
+	/**
+	 * Index of named components, for <code>getValues</code> and <code>setValues</code>. Built
+	 * lazily after each build.
+	 */
+
+	private Map<String, Component>	mComponentIndex;
+
 	/* package private */Pipeline	mPipeline;
 
 	//
@@ -414,7 +436,14 @@ public class VaadinMetawidget
 			// Try to find a component
 
 			if ( topComponent instanceof HasComponents ) {
-				topComponent = getComponent( (HasComponents) topComponent, name );
+				HasComponents container = (HasComponents) topComponent;
+				topComponent = getComponent( container, name );
+
+				// Not found? Maybe it is in a lazy section that has yet to be laid out
+
+				if ( topComponent == null && container instanceof VaadinMetawidget && ( (VaadinMetawidget) container ).runDeferredLayouts() ) {
+					topComponent = getComponent( container, name );
+				}
 			} else {
 				topComponent = null;
 			}
@@ -431,6 +460,42 @@ public class VaadinMetawidget
 		return (T) topComponent;
 	}
 
+	/**
+	 * Gets the values from the Property components (TextFields, Labels etc) with the given paths.
+	 * <p>
+	 * Each path is a list of names separated by forward slashes (eg. <code>address/street</code>).
+	 * Rather than searching for each component in turn, components are looked up in an index of
+	 * names that is built once per build.
+	 *
+	 * @return the values, keyed by path, in the same order as the given paths
+	 */
+
+	public Map<String, Object> getValues( Collection<String> paths ) {
+
+		Map<String, Object> values = CollectionUtils.newLinkedHashMap();
+
+		for ( String path : paths ) {
+			values.put( path, getIndexedProperty( path ).getValue() );
+		}
+
+		return values;
+	}
+
+	/**
+	 * Sets the Property components with the given paths to the specified values. See
+	 * <code>getValues</code>.
+	 *
+	 * @param values
+	 *            the values, keyed by path (eg. <code>address/street</code>)
+	 */
+
+	public void setValues( Map<String, ?> values ) {
+
+		for ( Map.Entry<String, ?> entry : values.entrySet() ) {
+			getIndexedProperty( entry.getKey() ).setValue( entry.getValue() );
+		}
+	}
+
 	public Facet getFacet( String name ) {
 
 		buildWidgets();
@@ -646,6 +711,8 @@ public class VaadinMetawidget
 
 	protected void invalidateWidgets() {
 
+		mComponentIndex = null;
+
 		if ( mNeedToBuildWidgets ) {
 			return;
 		}
@@ -675,6 +742,7 @@ public class VaadinMetawidget
 		mPipeline.configureOnce();
 
 		mNeedToBuildWidgets = false;
+		mComponentIndex = null;
 		mIgnoreAddRemove = true;
 
 		try {
@@ -793,6 +861,124 @@ public class VaadinMetawidget
 		return mPipeline.inspectAsDom( mToInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray() );
 	}
 
+
+	@SuppressWarnings( "unchecked" )
+	private Property<Object> getIndexedProperty( String path ) {
+
+		String[] names = ArrayUtils.fromString( path, StringUtils.SEPARATOR_FORWARD_SLASH_CHAR );
+		Component component = this;
+
+		for ( String name : names ) {
+
+			if ( component instanceof VaadinMetawidget ) {
+				component = ( (VaadinMetawidget) component ).getIndexedComponent( name );
+			} else if ( component instanceof HasComponents ) {
+				component = getComponent( (HasComponents) component, name );
+			} else {
+				component = null;
+			}
+
+			if ( component == null ) {
+				break;
+			}
+		}
+
+		if ( component == null || component == this ) {
+			throw MetawidgetException.newException( "No component named '" + ArrayUtils.toString( names, "', '" ) + "'" );
+		}
+
+		if ( !( component instanceof Property ) ) {
+			throw MetawidgetException.newException( "Don't know how to getValue from a " + component.getClass().getName() );
+		}
+
+		return (Property<Object>) component;
+	}
+
+	/**
+	 * Gets the Component with the given name from the index, building the index if necessary.
+	 */
+
+	private Component getIndexedComponent( String name ) {
+
+		buildWidgets();
+
+		if ( mComponentIndex == null ) {
+			mComponentIndex = CollectionUtils.newHashMap();
+			indexComponents( this, mComponentIndex );
+		}
+
+		Component component = mComponentIndex.get( name );
+
+		// Not found? Maybe it is in a lazy section that has yet to be laid out
+
+		if ( component == null && runDeferredLayouts() ) {
+			mComponentIndex = null;
+			return getIndexedComponent( name );
+		}
+
+		return component;
+	}
+
+	/**
+	 * Lays out any lazy sections that have yet to be laid out.
+	 *
+	 * @return true if any were laid out
+	 */
+
+	private boolean runDeferredLayouts() {
+
+		Map<Component, Runnable> deferredLayouts = getClientProperty( DEFERRED_LAYOUTS );
+
+		if ( deferredLayouts == null || deferredLayouts.isEmpty() ) {
+			return false;
+		}
+
+		// (copy, as running a deferred layout removes it)
+
+		for ( Runnable deferredLayout : CollectionUtils.newArrayList( deferredLayouts.values() ) ) {
+			deferredLayout.run();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Indexes Components by name. Follows the same rules as <code>getComponent( HasComponents, String )</code>.
+	 */
+
+	private void indexComponents( HasComponents container, Map<String, Component> index ) {
+
+		Iterator<Component> iterator = container.iterator();
+
+		while ( iterator.hasNext() ) {
+
+			AbstractComponent childComponent = (AbstractComponent) iterator.next();
+
+			// Drill into unnamed containers
+
+			if ( childComponent.getData() == null && childComponent instanceof Panel ) {
+				indexComponents( (HasComponents) ( (Panel) childComponent ).getContent(), index );
+				continue;
+			}
+
+			if ( childComponent.getData() == null ) {
+				if ( childComponent instanceof HasComponents ) {
+					indexComponents( (HasComponents) childComponent, index );
+				}
+
+				continue;
+			}
+
+			// First match wins, as per getComponent
+
+			String childName = (String) childComponent.getData();
+
+			if ( !index.containsKey( childName ) ) {
+				index.put( childName, childComponent );
+			}
+		}
+	}
+
 	private Component getComponent( HasComponents container, String name ) {
 
 		Iterator<Component> iterator = container.iterator();
@@ -11,6 +11,8 @@
 
 package org.metawidget.vaadin.ui.layout;
 
+import java.util.Map;
+
 import junit.framework.TestCase;
 
 import org.metawidget.inspector.annotation.UiLarge;
@@ -91,6 +93,74 @@ public class TabSheetLayoutDecoratorTest
 		assertEquals( (Component) layout.getComponent( 2 ), (Component) metawidget.getComponent( "stu" ) );
 	}
 
+	public void testLazy() {
+
+		VaadinMetawidget metawidget = new VaadinMetawidget();
+		metawidget.setLayout( new TabSheetLayoutDecorator( new TabSheetLayoutDecoratorConfig().setLazy( true ).setLayout( new FormLayout() ) ) );
+		metawidget.setToInspect( new Baz() );
+
+		com.vaadin.ui.FormLayout layout = (com.vaadin.ui.FormLayout) metawidget.getContent();
+		TabSheet tabSheet = (TabSheet) layout.getComponent( 0 );
+		assertEquals( "Foo", tabSheet.getTab( 0 ).getCaption() );
+		assertEquals( "Baz", tabSheet.getTab( 1 ).getCaption() );
+
+		// First tab built immediately. Second tab deferred, keyed in the metawidget's DEFERRED_LAYOUTS
+		// client property by its Panel (the Component the TabSheet selects), not by the
+		// VerticalLayout it is laid out into
+
+		Panel fooPanel = (Panel) tabSheet.getTab( 0 ).getComponent();
+		com.vaadin.ui.VerticalLayout fooContent = (com.vaadin.ui.VerticalLayout) fooPanel.getContent();
+		assertEquals( "Abc:", ( (TextField) ( (com.vaadin.ui.FormLayout) fooContent.getComponent( 0 ) ).getComponent( 0 ) ).getCaption() );
+		Panel bazPanel = (Panel) tabSheet.getTab( 1 ).getComponent();
+		com.vaadin.ui.VerticalLayout bazContent = (com.vaadin.ui.VerticalLayout) bazPanel.getContent();
+		assertEquals( 0, bazContent.getComponentCount() );
+
+		Map<Component, Runnable> deferredLayouts = metawidget.getClientProperty( VaadinMetawidget.DEFERRED_LAYOUTS );
+		assertEquals( 1, deferredLayouts.size() );
+		assertTrue( deferredLayouts.containsKey( bazPanel ) );
+		assertFalse( deferredLayouts.containsKey( bazContent ) );
+
+		// Re-selecting the first tab fires no SelectedTabChangeEvent for the deferred tab
+
+		tabSheet.setSelectedTab( fooPanel );
+		assertEquals( 0, bazContent.getComponentCount() );
+
+		// Selecting the tab fires SelectedTabChangeEvent to the SelectedTabChangeListener, which
+		// builds it and removes it from DEFERRED_LAYOUTS
+
+		tabSheet.setSelectedTab( bazPanel );
+		CheckBox def = (CheckBox) ( (com.vaadin.ui.FormLayout) bazContent.getComponent( 0 ) ).getComponent( 0 );
+		assertEquals( "Def:", def.getCaption() );
+		assertEquals( def, metawidget.getComponent( "def" ) );
+		assertTrue( deferredLayouts.isEmpty() );
+
+		// Building is idempotent
+
+		tabSheet.setSelectedTab( fooPanel );
+		tabSheet.setSelectedTab( bazPanel );
+		assertEquals( 1, bazContent.getComponentCount() );
+
+		// getComponent builds a deferred tab without selecting it
+
+		metawidget.setToInspect( new Baz() );
+		tabSheet = (TabSheet) ( (com.vaadin.ui.FormLayout) metawidget.getContent() ).getComponent( 0 );
+		bazContent = (com.vaadin.ui.VerticalLayout) ( (Panel) tabSheet.getTab( 1 ).getComponent() ).getContent();
+		assertEquals( 0, bazContent.getComponentCount() );
+		def = metawidget.getComponent( "def" );
+		assertEquals( def, ( (com.vaadin.ui.FormLayout) bazContent.getComponent( 0 ) ).getComponent( 0 ) );
+		assertEquals( tabSheet.getTab( 0 ).getComponent(), tabSheet.getSelectedTab() );
+
+		// Non-lazy (the default) defers nothing
+
+		metawidget = new VaadinMetawidget();
+		metawidget.setLayout( new TabSheetLayoutDecorator( new TabSheetLayoutDecoratorConfig().setLayout( new FormLayout() ) ) );
+		metawidget.setToInspect( new Baz() );
+		tabSheet = (TabSheet) ( (com.vaadin.ui.FormLayout) metawidget.getContent() ).getComponent( 0 );
+		bazContent = (com.vaadin.ui.VerticalLayout) ( (Panel) tabSheet.getTab( 1 ).getComponent() ).getContent();
+		assertEquals( "Def:", ( (CheckBox) ( (com.vaadin.ui.FormLayout) bazContent.getComponent( 0 ) ).getComponent( 0 ) ).getCaption() );
+		assertEquals( null, metawidget.getClientProperty( VaadinMetawidget.DEFERRED_LAYOUTS ) );
+	}
+
 	//
 	// Inner class
 	//
@@ -18,10 +18,13 @@ import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.simple.StringUtils;
 import org.metawidget.vaadin.ui.VaadinMetawidget;
 
+import com.vaadin.ui.AbstractComponent;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.ComponentContainer;
 import com.vaadin.ui.Panel;
 import com.vaadin.ui.TabSheet;
+import com.vaadin.ui.TabSheet.SelectedTabChangeEvent;
+import com.vaadin.ui.TabSheet.SelectedTabChangeListener;
 
 /**
  * Layout to decorate widgets from different sections using a TabSheet.
@@ -32,6 +35,12 @@ import com.vaadin.ui.TabSheet;
 public class TabSheetLayoutDecorator
 	extends VaadinNestedSectionLayoutDecorator {
 
+	//
+	// Private members
+	//
+
+	private final boolean	mLazy;
+
 	//
 	// Constructor
 	//
@@ -39,6 +48,15 @@ public class TabSheetLayoutDecorator
 	public TabSheetLayoutDecorator( LayoutDecoratorConfig<Component, ComponentContainer, VaadinMetawidget> config ) {
 
 		super( config );
+
+		mLazy = false;
+	}
+
+	public TabSheetLayoutDecorator( TabSheetLayoutDecoratorConfig config ) {
+
+		super( config );
+
+		mLazy = config.isLazy();
 	}
 
 	//
@@ -57,6 +75,10 @@ public class TabSheetLayoutDecorator
 			tabSheet = new TabSheet();
 			tabSheet.setWidth( "100%" );
 
+			if ( mLazy ) {
+				tabSheet.addListener( new LazyTabListener( metawidget ) );
+			}
+
 			// Add to parent container
 
 			Map<String, String> tabbedPaneAttributes = CollectionUtils.newHashMap();
@@ -83,4 +105,136 @@ public class TabSheetLayoutDecorator
 
 		return tabPanel;
 	}
+
+	@Override
+	protected boolean isLazy( ComponentContainer previousSectionWidget ) {
+
+		// The first tab is visible immediately, so is never lazy
+
+		return ( mLazy && previousSectionWidget != null );
+	}
+
+	/**
+	 * Overridden to never defer overridden components, as <code>OverriddenWidgetBuilder</code> can
+	 * only find them during the initial build.
+	 */
+
+	@Override
+	protected boolean isDeferrable( String elementName, Map<String, String> attributes, VaadinMetawidget metawidget ) {
+
+		String name = attributes.get( NAME );
+
+		for ( AbstractComponent existingUnusedComponent : metawidget.fetchExistingUnusedComponents() ) {
+			if ( name.equals( existingUnusedComponent.getData() ) ) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Overridden to lay out the tab when it is first selected, or when
+	 * <code>VaadinMetawidget.getComponent</code> or <code>getValue</code> cannot otherwise find a
+	 * component.
+	 */
+
+	@Override
+	protected void deferSection( ComponentContainer sectionWidget, LazySection lazySection, VaadinMetawidget metawidget ) {
+
+		Map<Component, Runnable> deferredLayouts = metawidget.getClientProperty( VaadinMetawidget.DEFERRED_LAYOUTS );
+
+		if ( deferredLayouts == null ) {
+			deferredLayouts = CollectionUtils.newHashMap();
+			metawidget.putClientProperty( VaadinMetawidget.DEFERRED_LAYOUTS, deferredLayouts );
+		}
+
+		Component tab = sectionWidget;
+		deferredLayouts.put( tab, new LazyTabLayout( tab, lazySection, deferredLayouts ) );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Lays out lazy tabs as they are selected.
+	 */
+
+	private static class LazyTabListener
+		implements SelectedTabChangeListener {
+
+		//
+		// Private members
+		//
+
+		private final VaadinMetawidget	mMetawidget;
+
+		//
+		// Constructor
+		//
+
+		public LazyTabListener( VaadinMetawidget metawidget ) {
+
+			mMetawidget = metawidget;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void selectedTabChange( SelectedTabChangeEvent event ) {
+
+			Map<Component, Runnable> deferredLayouts = mMetawidget.getClientProperty( VaadinMetawidget.DEFERRED_LAYOUTS );
+
+			if ( deferredLayouts == null ) {
+				return;
+			}
+
+			Runnable deferredLayout = deferredLayouts.get( event.getTabSheet().getSelectedTab() );
+
+			if ( deferredLayout != null ) {
+				deferredLayout.run();
+			}
+		}
+	}
+
+	/**
+	 * Builds and lays out a lazy tab.
+	 */
+
+	private static class LazyTabLayout
+		implements Runnable {
+
+		//
+		// Private members
+		//
+
+		private final Component					mTab;
+
+		private final LazySection				mLazySection;
+
+		private final Map<Component, Runnable>	mDeferredLayouts;
+
+		//
+		// Constructor
+		//
+
+		public LazyTabLayout( Component tab, LazySection lazySection, Map<Component, Runnable> deferredLayouts ) {
+
+			mTab = tab;
+			mLazySection = lazySection;
+			mDeferredLayouts = deferredLayouts;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void run() {
+
+			mDeferredLayouts.remove( mTab );
+			mLazySection.layout();
+		}
+	}
 }
@@ -0,0 +1,108 @@
+// Metawidget
+//
+// For historical reasons, this file is licensed under the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html).
+//
+// Most other files in Metawidget are licensed under both the
+// LGPL/EPL and a commercial license. See http://metawidget.org
+// for details.
+
+package org.metawidget.vaadin.ui.layout;
+
+import org.metawidget.layout.decorator.LayoutDecoratorConfig;
+import org.metawidget.layout.iface.Layout;
+import org.metawidget.util.simple.ObjectUtils;
+import org.metawidget.vaadin.ui.VaadinMetawidget;
+
+import com.vaadin.ui.Component;
+import com.vaadin.ui.ComponentContainer;
+
+/**
+ * Configures a TabSheetLayoutDecorator prior to use. Once instantiated, Layouts are immutable.
+ *
+ * @author Loghman Barari
+ */
+
+public class TabSheetLayoutDecoratorConfig
+	extends LayoutDecoratorConfig<Component, ComponentContainer, VaadinMetawidget> {
+
+	//
+	// Private members
+	//
+
+	private boolean	mLazy;
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Overridden to use covariant return type.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	@Override
+	public TabSheetLayoutDecoratorConfig setLayout( Layout<Component, ComponentContainer, VaadinMetawidget> layout ) {
+
+		super.setLayout( layout );
+
+		return this;
+	}
+
+	/**
+	 * Sets whether tabs other than the first should only be built when they are first selected (or
+	 * when <code>VaadinMetawidget.getComponent</code> or <code>getValue</code> needs one of their
+	 * components). Until then, components in unselected tabs are not built, processed (eg. bound)
+	 * or laid out.
+	 * <p>
+	 * Components are only deferred if this TabSheetLayoutDecorator is the VaadinMetawidget's
+	 * (outermost) Layout. Otherwise they are still built and processed up front, and only their
+	 * layout is deferred.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public TabSheetLayoutDecoratorConfig setLazy( boolean lazy ) {
+
+		mLazy = lazy;
+
+		return this;
+	}
+
+	@Override
+	public boolean equals( Object that ) {
+
+		if ( this == that ) {
+			return true;
+		}
+
+		if ( !ObjectUtils.nullSafeClassEquals( this, that )) {
+			return false;
+		}
+
+		if ( mLazy != ( (TabSheetLayoutDecoratorConfig) that ).mLazy ) {
+			return false;
+		}
+
+		return super.equals( that );
+	}
+
+	@Override
+	public int hashCode() {
+
+		int hashCode = super.hashCode();
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mLazy );
+
+		return hashCode;
+	}
+
+	//
+	// Protected methods
+	//
+
+	protected boolean isLazy() {
+
+		return mLazy;
+	}
+}
@@ -15,7 +15,6 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
 
-import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.vaadin.ui.VaadinMetawidget;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
@@ -79,7 +78,7 @@ public class ReadOnlyWidgetBuilder
 			String lookupLabels = attributes.get( LOOKUP_LABELS );
 
 			if ( lookupLabels != null && !"".equals( lookupLabels ) ) {
-				return new LookupLabel( CollectionUtils.newHashMap( CollectionUtils.fromString( lookup ), CollectionUtils.fromString( lookupLabels ) ) );
+				return new LookupLabel( WidgetBuilderUtils.getLookupLabelsMap( lookup, lookupLabels ) );
 			}
 
 			return new Label();
@@ -17,7 +17,6 @@ import java.util.List;
 import java.util.Map;
 
 import org.metawidget.util.ClassUtils;
-import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.vaadin.ui.Stub;
 import org.metawidget.vaadin.ui.VaadinMetawidget;
@@ -211,7 +210,7 @@ public class VaadinWidgetBuilder
 			select.setNullSelectionAllowed( false );
 		}
 
-		List<String> values = CollectionUtils.fromString( lookup );
+		List<String> values = WidgetBuilderUtils.parseLookup( lookup );
 
 		// May have alternate labels
 
@@ -219,7 +218,7 @@ public class VaadinWidgetBuilder
 		String lookupLabels = attributes.get( LOOKUP_LABELS );
 
 		if ( lookupLabels != null && !"".equals( lookupLabels ) ) {
-			labelsMap = CollectionUtils.newHashMap( values, CollectionUtils.fromString( attributes.get( LOOKUP_LABELS ) ) );
+			labelsMap = WidgetBuilderUtils.getLookupLabelsMap( lookup, lookupLabels );
 		}
 
 		// Lookup the Class
@@ -41,6 +41,16 @@ import org.metawidget.util.simple.ObjectUtils;
 	// Public methods
 	//
 
+	public Class<?> getSource() {
+
+		return mSource;
+	}
+
+	public Class<?> getTarget() {
+
+		return mTarget;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -19,7 +19,6 @@ import java.util.Map;
 import java.util.Set;
 
 import org.metawidget.util.ClassUtils;
-import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.WidgetBuilderUtils;
 import org.metawidget.util.simple.PathUtils;
 import org.metawidget.util.simple.StringUtils;
@@ -27,6 +26,7 @@ import org.metawidget.vaadin.ui.VaadinMetawidget;
 import org.metawidget.vaadin.ui.widgetprocessor.binding.BindingConverter;
 import org.metawidget.widgetprocessor.iface.AdvancedWidgetProcessor;
 import org.metawidget.widgetprocessor.iface.WidgetProcessorException;
+import org.metawidget.widgetprocessor.impl.ConverterRegistry;
 
 import com.vaadin.data.Property;
 import com.vaadin.ui.Component;
@@ -44,7 +44,7 @@ public class SimpleBindingProcessor
 	// Private members
 	//
 
-	private final Map<ConvertFromTo, Converter<?, ?>>	mConverters	= CollectionUtils.newHashMap();
+	private final ConverterRegistry<Converter<?, ?>>	mConverters	= new ConverterRegistry<Converter<?, ?>>( true );
 
 	//
 	// Constructor
@@ -59,14 +59,16 @@ public class SimpleBindingProcessor
 
 		// Default converters
 
-		mConverters.put( new ConvertFromTo( String.class, Object.class ), new FromStringConverter() );
-		mConverters.put( new ConvertFromTo( Object.class, String.class ), new ToStringConverter() );
-		mConverters.put( new ConvertFromTo( Number.class, Number.class ), new NumberConverter() );
+		mConverters.register( String.class, Object.class, new FromStringConverter() );
+		mConverters.register( Object.class, String.class, new ToStringConverter() );
+		mConverters.register( Number.class, Number.class, new NumberConverter() );
 
 		// Custom converters
 
 		if ( config.getConverters() != null ) {
-			mConverters.putAll( config.getConverters() );
+			for ( Map.Entry<ConvertFromTo, Converter<?, ?>> entry : config.getConverters().entrySet() ) {
+				mConverters.register( entry.getKey().getSource(), entry.getKey().getTarget(), entry.getValue() );
+			}
 		}
 	}
 
@@ -292,41 +294,12 @@ public class SimpleBindingProcessor
 	 * Converter is also registered.
 	 */
 
+	@SuppressWarnings( "unchecked" )
 	private <F, T> Converter<F, T> getConverter( Class<F> sourceClass, Class<T> targetClass ) {
 
-		// Try target...
-
-		Class<?> targetClassTraversal = targetClass;
-
-		if ( targetClassTraversal.isPrimitive() ) {
-			targetClassTraversal = ClassUtils.getWrapperClass( targetClassTraversal );
-		}
-
-		while ( targetClassTraversal != null ) {
-
-			// ...then, within that, source
-
-			Class<?> sourceClassTraversal = sourceClass;
-
-			if ( sourceClassTraversal.isPrimitive() ) {
-				sourceClassTraversal = ClassUtils.getWrapperClass( sourceClassTraversal );
-			}
-
-			while ( sourceClassTraversal != null ) {
-				@SuppressWarnings( "unchecked" )
-				Converter<F, T> converter = (Converter<F, T>) mConverters.get( new ConvertFromTo( sourceClassTraversal, targetClassTraversal ) );
-
-				if ( converter != null ) {
-					return converter;
-				}
-
-				sourceClassTraversal = sourceClassTraversal.getSuperclass();
-			}
-
-			targetClassTraversal = targetClassTraversal.getSuperclass();
-		}
+		// Try target, then within that, source (lookups are cached per pair of classes)
 
-		return null;
+		return (Converter<F, T>) mConverters.getConverter( sourceClass, targetClass );
 	}
 
 	//
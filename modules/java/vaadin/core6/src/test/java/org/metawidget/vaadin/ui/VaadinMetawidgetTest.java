@@ -18,6 +18,7 @@ import java.util.Map;
 
 import junit.framework.TestCase;
 
+import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.inspectionresultprocessor.sort.ComesAfterInspectionResultProcessor;
 import org.metawidget.inspector.annotation.MetawidgetAnnotationInspector;
@@ -305,6 +306,83 @@ public class VaadinMetawidgetTest
 		assertTrue( needToBuildWidgets.getBoolean( metawidget ) );
 	}
 
+	public void testGetValuesSetValues()
+		throws Exception {
+
+		Foo foo = new Foo();
+		foo.setFoo( new Foo() );
+
+		VaadinMetawidget metawidget = new VaadinMetawidget();
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setToInspect( foo );
+
+		Map<String, Object> values = CollectionUtils.newLinkedHashMap();
+		values.put( "name", "Foo" );
+		values.put( "foo/name", "Nested Foo" );
+		metawidget.setValues( values );
+
+		assertEquals( "Foo", ( (TextField) metawidget.getComponent( "name" ) ).getValue() );
+		assertEquals( "Nested Foo", ( (TextField) metawidget.getComponent( "foo", "name" ) ).getValue() );
+		assertEquals( "{foo/name=Nested Foo, name=Foo}", metawidget.getValues( CollectionUtils.newArrayList( "foo/name", "name" ) ).toString() );
+
+		// Unknown names, both at the top level and nested
+
+		try {
+			metawidget.getValues( CollectionUtils.newArrayList( "bar" ) );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertEquals( "No component named 'bar'", e.getMessage() );
+		}
+
+		try {
+			metawidget.getValues( CollectionUtils.newArrayList( "foo/bar" ) );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertEquals( "No component named 'foo', 'bar'", e.getMessage() );
+		}
+
+		try {
+			metawidget.setValues( CollectionUtils.newHashMap( CollectionUtils.newArrayList( "name/bar" ), CollectionUtils.newArrayList( "Bar" ) ) );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertEquals( "No component named 'name', 'bar'", e.getMessage() );
+		}
+
+		// Known names that are not Properties
+
+		try {
+			metawidget.getValues( CollectionUtils.newArrayList( "foo" ) );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertEquals( "Don't know how to getValue from a org.metawidget.vaadin.ui.VaadinMetawidget", e.getMessage() );
+		}
+
+		// The index does not outlive a rebuild
+
+		Field componentIndex = VaadinMetawidget.class.getDeclaredField( "mComponentIndex" );
+		componentIndex.setAccessible( true );
+		assertTrue( componentIndex.get( metawidget ) != null );
+
+		TextField staleName = metawidget.getComponent( "name" );
+		metawidget.setToInspect( new Foo() );
+		assertEquals( null, componentIndex.get( metawidget ) );
+
+		metawidget.setValues( CollectionUtils.newHashMap( CollectionUtils.newArrayList( "name" ), CollectionUtils.newArrayList( "Rebuilt" ) ) );
+		assertTrue( staleName != metawidget.getComponent( "name" ) );
+		assertEquals( "Foo", staleName.getValue() );
+		assertEquals( "Rebuilt", ( (TextField) metawidget.getComponent( "name" ) ).getValue() );
+
+		// Nor a rebuild that only invalidates the widgets
+
+		staleName = metawidget.getComponent( "name" );
+		metawidget.setLayout( new org.metawidget.vaadin.ui.layout.FormLayout() );
+		assertEquals( null, componentIndex.get( metawidget ) );
+		metawidget.setValues( CollectionUtils.newHashMap( CollectionUtils.newArrayList( "name" ), CollectionUtils.newArrayList( "Relaid" ) ) );
+		assertTrue( staleName != metawidget.getComponent( "name" ) );
+		assertEquals( "Rebuilt", staleName.getValue() );
+		assertEquals( "Relaid", ( (TextField) metawidget.getComponent( "name" ) ).getValue() );
+	}
+
 	//
 	// Inner class
 	//
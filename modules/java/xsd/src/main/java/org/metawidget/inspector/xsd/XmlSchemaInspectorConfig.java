@@ -37,4 +37,14 @@ public class XmlSchemaInspectorConfig
 
 		return (XmlSchemaInspectorConfig) super.setInputStream( stream );
 	}
+
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public XmlSchemaInspectorConfig setSharedModel( boolean sharedModel ) {
+
+		return (XmlSchemaInspectorConfig) super.setSharedModel( sharedModel );
+	}
 }
\ No newline at end of file